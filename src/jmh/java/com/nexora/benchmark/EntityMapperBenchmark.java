@@ -0,0 +1,57 @@
+package com.nexora.benchmark;
+
+import com.nexora.datagen.DataGenerationSettings;
+import com.nexora.datagen.SyntheticInventory;
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockDTO;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.util.EntityMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of entities to DTOs through {@link EntityMapper}, as done for every list endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMapperBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private EntityMapper entityMapper;
+    private List<Product> products;
+    private List<Stock> stocks;
+
+    @Setup
+    public void setUp() {
+        entityMapper = new EntityMapper(new ModelMapper());
+        SyntheticInventory inventory = new SyntheticInventory(
+                new DataGenerationSettings(size, 10, size, 1.0, 1.0, 42, 1000));
+        products = inventory.products();
+        stocks = inventory.stocks(products, inventory.warehouses());
+    }
+
+    @Benchmark
+    public void mapProducts(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(entityMapper.mapToDTO(product, ProductDTO.class));
+        }
+    }
+
+    @Benchmark
+    public void mapStocks(Blackhole blackhole) {
+        for (Stock stock : stocks) {
+            blackhole.consume(entityMapper.mapToDTO(stock, StockDTO.class));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.nexora.benchmark;
+
+import com.nexora.datagen.DataGenerationSettings;
+import com.nexora.datagen.SyntheticInventory;
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockDTO;
+import com.nexora.model.inventory.Product;
+import com.nexora.util.EntityMapper;
+import com.nexora.util.ExcelExportUtil;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workbook generation through {@link ExcelExportUtil}, as done by the export consumer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelExportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private List<ProductDTO> products;
+    private List<StockDTO> stocks;
+
+    @Setup
+    public void setUp() {
+        EntityMapper entityMapper = new EntityMapper(new ModelMapper());
+        SyntheticInventory inventory = new SyntheticInventory(
+                new DataGenerationSettings(size, 10, size, 1.0, 1.0, 42, 1000));
+        List<Product> productEntities = inventory.products();
+        products = productEntities.stream()
+                .map(product -> entityMapper.mapToDTO(product, ProductDTO.class))
+                .toList();
+        stocks = inventory.stocks(productEntities, inventory.warehouses()).stream()
+                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] exportProducts() throws Exception {
+        return ExcelExportUtil.exportToExcel(products, "data_product");
+    }
+
+    @Benchmark
+    public byte[] exportStocks() throws Exception {
+        return ExcelExportUtil.exportToExcel(stocks, "data_stock");
+    }
+}
@@ -0,0 +1,82 @@
+package com.nexora.benchmark;
+
+import com.nexora.datagen.DataGenerationSettings;
+import com.nexora.datagen.SyntheticInventory;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.InventorySnapshotStore;
+import com.nexora.service.inventory.impl.InventoryAggregateReportServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory aggregation of {@link InventoryAggregateReportServiceImpl} over stubbed repositories,
+ * so that only the grouping and summing is measured and not the database round trips.
+ * {@code getAggregateReport} runs over the cached snapshot; {@code loadAndGetAggregateReport} marks it
+ * stale first, so it also measures building the snapshot from the loaded entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryAggregateReportBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int stocks;
+
+    @Param({"20"})
+    private int warehouses;
+
+    @Param({"1.0"})
+    private double skew;
+
+    @Param({"50000"})
+    private int parallelThreshold;
+
+    private InventorySnapshotStore snapshotStore;
+    private InventoryAggregateReportServiceImpl reportService;
+
+    @Setup
+    public void setUp() {
+        SyntheticInventory inventory = new SyntheticInventory(
+                new DataGenerationSettings(stocks / 4, warehouses, stocks, skew, skew, 42, 1000));
+        List<Warehouse> warehouseList = inventory.warehouses();
+        List<Product> productList = inventory.products();
+        List<Stock> stockList = inventory.stocks(productList, warehouseList);
+
+        StockRepository stockRepository = mock(StockRepository.class);
+        WarehouseRepository warehouseRepository = mock(WarehouseRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(stockRepository.findAllWithProductAndWarehouse()).thenReturn(stockList);
+        when(warehouseRepository.findAll()).thenReturn(warehouseList);
+        when(productRepository.count()).thenReturn((long) productList.size());
+
+        snapshotStore = new InventorySnapshotStore(stockRepository, warehouseRepository, productRepository,
+                mock(PlatformTransactionManager.class));
+        reportService = new InventoryAggregateReportServiceImpl(snapshotStore, parallelThreshold);
+    }
+
+    @Benchmark
+    public Map<String, Object> getAggregateReport() {
+        return reportService.getAggregateReport();
+    }
+
+    @Benchmark
+    public Map<String, Object> loadAndGetAggregateReport() {
+        snapshotStore.invalidate();
+        return reportService.getAggregateReport();
+    }
+}
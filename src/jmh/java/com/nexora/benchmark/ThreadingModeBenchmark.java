@@ -0,0 +1,109 @@
+package com.nexora.benchmark;
+
+import com.nexora.config.BulkheadDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares platform and virtual threads for a burst of requests that each hold a pooled JDBC
+ * connection for a short query and then block on a slower upload, like the stock and export paths.
+ * <p>
+ * The platform mode uses a fixed pool the size of Tomcat's default 200 request threads. The virtual
+ * mode starts one virtual thread per request and relies on the {@link BulkheadDataSource} in front
+ * of the 20 connection Hikari pool, as configured by the virtual-threads profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadingModeBenchmark {
+
+    private static final int POOL_SIZE = 20;
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"2000"})
+    private int requests;
+
+    @Param({"2"})
+    private long queryMillis;
+
+    @Param({"20"})
+    private long uploadMillis;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:threading;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        pool = new HikariDataSource(config);
+        dataSource = mode.equals("virtual")
+                ? new BulkheadDataSource(pool, POOL_SIZE, Duration.ofSeconds(30))
+                : pool;
+    }
+
+    @Setup(Level.Iteration)
+    public void startExecutor() {
+        executor = mode.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public long burst() throws Exception {
+        List<Future<Integer>> results = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            results.add(executor.submit(this::handle));
+        }
+        long total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+
+    private int handle() throws Exception {
+        int value;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT 1")) {
+            rs.next();
+            value = rs.getInt(1);
+            Thread.sleep(queryMillis);
+        }
+        Thread.sleep(uploadMillis);
+        return value;
+    }
+}
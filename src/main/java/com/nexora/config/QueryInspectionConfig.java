@@ -0,0 +1,56 @@
+package com.nexora.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the data source in a JDBC proxy that counts statements and database time per request
+ * (see {@link com.nexora.util.QueryStatistics}) and logs statements slower than
+ * {@code nexora.query-inspection.slow-query-threshold} with their bind parameters.
+ * <p>
+ * With {@code nexora.query-inspection.response-headers} enabled, every HTTP and GraphQL response carries
+ * {@code X-Query-Count} and {@code X-Query-Time-Ms} headers. They are disabled in the prod profile.
+ */
+@Configuration
+public class QueryInspectionConfig {
+
+    @Bean
+    public static BeanPostProcessor queryInspectionDataSourcePostProcessor(Environment environment) {
+        Duration slowQueryThreshold = Binder.get(environment)
+                .bind("nexora.query-inspection.slow-query-threshold", Duration.class)
+                .orElse(Duration.ofMillis(500));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryInspectionListener(slowQueryThreshold))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatisticsFilter> queryStatisticsFilter(
+            @Value("${nexora.query-inspection.response-headers:false}") boolean responseHeaders) {
+        FilterRegistrationBean<QueryStatisticsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatisticsFilter(responseHeaders));
+        // Ahead of the security filters so that user lookups during authentication are counted
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,40 @@
+package com.nexora.config;
+
+import com.nexora.util.QueryStatistics;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Feeds executed statements into the current {@link QueryStatistics} scope and logs slow statements.
+ */
+class QueryInspectionListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryInspectionListener.class);
+
+    private final long slowQueryThresholdMillis;
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+
+    QueryInspectionListener(Duration slowQueryThreshold) {
+        this.slowQueryThresholdMillis = slowQueryThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStatistics.record(queryInfoList.size(), execInfo.getElapsedTime());
+
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMillis && log.isWarnEnabled()) {
+            log.warn("Slow query: {}", logEntryCreator.getLogEntry(execInfo, queryInfoList, true, true, false));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nexora.config;
+
+import com.nexora.util.QueryStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Collects {@link QueryStatistics} for each request and, when enabled, reports them in response headers
+ * just before the response is committed.
+ */
+class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    private final boolean responseHeaders;
+
+    QueryStatisticsFilter(boolean responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            if (!responseHeaders) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            StatisticsHeaderResponse wrapped = new StatisticsHeaderResponse(response, statistics);
+            filterChain.doFilter(request, wrapped);
+            if (!response.isCommitted()) {
+                wrapped.writeHeaders();
+            }
+        }
+    }
+
+    private static final class StatisticsHeaderResponse extends OnCommittedResponseWrapper {
+
+        private final QueryStatistics statistics;
+
+        private StatisticsHeaderResponse(HttpServletResponse response, QueryStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setHeader(QUERY_COUNT_HEADER, String.valueOf(statistics.getStatementCount()));
+            response.setHeader(QUERY_TIME_HEADER, String.valueOf(statistics.getElapsedMillis()));
+        }
+    }
+}
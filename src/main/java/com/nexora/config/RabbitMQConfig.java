@@ -15,17 +15,28 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queue.export.name}")
     private String exportQueueName;
 
+    @Value("${rabbitmq.queue.import.name:import.queue}")
+    private String importQueueName;
+
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
 
     @Value("${rabbitmq.routing.key.export}")
     private String exportRoutingKey;
 
+    @Value("${rabbitmq.routing.key.import:import.routing.key}")
+    private String importRoutingKey;
+
     @Bean
     public Queue exportQueue() {
         return new Queue(exportQueueName, true);
     }
 
+    @Bean
+    public Queue importQueue() {
+        return new Queue(importQueueName, true);
+    }
+
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(exchangeName);
@@ -36,6 +47,11 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(exportQueue).to(exchange).with(exportRoutingKey);
     }
 
+    @Bean
+    public Binding importBinding(Queue importQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(importQueue).to(exchange).with(importRoutingKey);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -0,0 +1,103 @@
+package com.nexora.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures the replication lag of each replica and takes replicas that fall more than
+ * {@code maxLag} behind, or cannot be reached, out of read-only routing until they catch up.
+ * <p>
+ * The lag query must return the lag in seconds. The default works on PostgreSQL streaming replicas
+ * and reports zero when the replica has replayed everything it received, so an idle primary does not
+ * make the replicas look stale.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final List<ReplicaRoutingDataSource.Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(List<ReplicaRoutingDataSource.Replica> replicas, String lagQuery,
+                             Duration maxLag, Duration checkInterval) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Runs a first check and schedules the following ones.
+     */
+    public void start() {
+        checkAll();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("replica-lag-monitor").factory());
+        scheduler.scheduleWithFixedDelay(this::checkAll, checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks every replica once.
+     */
+    public void checkAll() {
+        replicas.forEach(this::check);
+    }
+
+    void check(ReplicaRoutingDataSource.Replica replica) {
+        boolean wasAvailable = replica.isAvailable();
+        try {
+            Duration lag = measureLag(replica);
+            if (lag.compareTo(maxLag) <= 0) {
+                replica.markAvailable(lag);
+                if (!wasAvailable) {
+                    log.info("Replica {} is back in rotation, lag {} ms", replica.getName(), lag.toMillis());
+                }
+            } else {
+                replica.markUnavailable(lag);
+                if (wasAvailable) {
+                    log.warn("Replica {} is {} ms behind the primary, routing reads to other pools", replica.getName(), lag.toMillis());
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            replica.markUnavailable(null);
+            if (wasAvailable) {
+                log.warn("Replica {} is unreachable, routing reads to other pools: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private Duration measureLag(ReplicaRoutingDataSource.Replica replica) throws SQLException {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+            try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    throw new SQLException("Lag query returned no rows");
+                }
+                return Duration.ofMillis(Math.round(rs.getDouble(1) * 1000));
+            }
+        }
+    }
+}
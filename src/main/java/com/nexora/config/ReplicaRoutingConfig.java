@@ -0,0 +1,91 @@
+package com.nexora.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to PostgreSQL replicas and everything else to the primary
+ * (see {@link ReplicaRoutingDataSource}). Active when at least one replica is configured under
+ * {@code nexora.datasource.replicas}; otherwise Spring Boot's single pool is used as before.
+ * <p>
+ * The primary pool keeps the regular {@code spring.datasource.hikari} settings and each replica has its
+ * own {@code hikari} block, so reporting and export reads are limited by the replica pools instead of
+ * competing with stock adjustments for primary connections. The pools are not exposed as separate beans
+ * so that statement counting only wraps the routing data source. With virtual threads, each pool gets
+ * its own connection bulkhead sized to that pool (see {@link VirtualThreadConfig}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "nexora.datasource.replicas[0].url")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        boolean bulkheads = Threading.VIRTUAL.isActive(environment);
+
+        List<ReplicaSettings> settings = binder.bind("nexora.datasource.replicas", Bindable.listOf(ReplicaSettings.class))
+                .orElse(List.of());
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < settings.size(); i++) {
+            ReplicaSettings replica = settings.get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(replica.name() != null ? replica.name() : "replica-" + (i + 1));
+            pool.setJdbcUrl(replica.url());
+            pool.setUsername(replica.username() != null ? replica.username() : properties.determineUsername());
+            pool.setPassword(replica.password() != null ? replica.password() : properties.determinePassword());
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setReadOnly(true);
+            binder.bind("nexora.datasource.replicas[" + i + "].hikari", Bindable.ofInstance(pool));
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new ReplicaRoutingDataSource.Replica(pool.getPoolName(),
+                    bulkheads ? VirtualThreadConfig.bulkhead(pool) : pool));
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replicas,
+                binder.bind("nexora.datasource.replica-lag.query", String.class).orElse(ReplicaLagMonitor.POSTGRES_LAG_QUERY),
+                binder.bind("nexora.datasource.replica-lag.max-lag", Duration.class).orElse(Duration.ofSeconds(5)),
+                binder.bind("nexora.datasource.replica-lag.check-interval", Duration.class).orElse(Duration.ofSeconds(2)));
+
+        meterRegistry.ifAvailable(registry -> replicas.forEach(replica -> {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.getLag() != null ? r.getLag().toMillis() / 1000.0 : Double.NaN)
+                    .description("Replication lag measured by the last check")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.getName())
+                    .register(registry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether the replica receives read-only transactions")
+                    .tag("pool", replica.getName())
+                    .register(registry);
+        }));
+        return new ReplicaRoutingDataSource(bulkheads ? VirtualThreadConfig.bulkhead(primary) : primary, replicas, lagMonitor);
+    }
+
+    /**
+     * Connection settings of one replica; missing credentials fall back to the primary's.
+     */
+    public record ReplicaSettings(String name, String url, String username, String password) {
+    }
+}
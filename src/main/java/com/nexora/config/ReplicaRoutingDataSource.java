@@ -0,0 +1,147 @@
+package com.nexora.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application data source that sends read-only transactions to replica pools and everything else to
+ * the primary pool.
+ * <p>
+ * The physical connection is only fetched on the first statement, after the transaction manager has
+ * marked the connection read-only, so {@code @Transactional(readOnly = true)} is enough to route a
+ * transaction. Read-only connections are spread over the available replicas in round-robin order.
+ * A replica is taken out of rotation when {@link ReplicaLagMonitor} finds it lagging too far behind
+ * or when a connection attempt fails, and put back by the next successful lag check. When no replica
+ * is available the connection comes from the primary.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaLagMonitor lagMonitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagMonitor = lagMonitor;
+        setTargetDataSource(primary);
+        setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return getReadOnlyConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                throw new UnsupportedOperationException("Replica connections use the credentials of their pool");
+            }
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (lagMonitor != null) {
+            lagMonitor.start();
+        }
+    }
+
+    /**
+     * Stops the lag checks and closes the primary and replica pools.
+     */
+    @Override
+    public void close() throws IOException {
+        if (lagMonitor != null) {
+            lagMonitor.close();
+        }
+        for (Replica replica : replicas) {
+            closePool(replica.getDataSource());
+        }
+        closePool(primary);
+    }
+
+    /**
+     * @return the replica pools in configuration order
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    Connection getReadOnlyConnection() throws SQLException {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException e) {
+                replica.markUnavailable(null);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private static void closePool(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * A replica pool together with its last known replication lag.
+     */
+    public static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available = true;
+        private volatile Duration lag = Duration.ZERO;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * @return the last measured replication lag, or null if the last check failed
+         */
+        public Duration getLag() {
+            return lag;
+        }
+
+        void markAvailable(Duration lag) {
+            this.lag = lag;
+            this.available = true;
+        }
+
+        void markUnavailable(Duration lag) {
+            this.lag = lag;
+            this.available = false;
+        }
+    }
+}
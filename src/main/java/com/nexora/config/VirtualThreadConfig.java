@@ -0,0 +1,78 @@
+package com.nexora.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Safeguards for running with {@code spring.threads.virtual.enabled=true} (the virtual-threads profile),
+ * where Tomcat requests and RabbitMQ listeners run on virtual threads.
+ * <p>
+ * Database access is limited by a {@link BulkheadDataSource} per Hikari pool, sized to that pool, and Excel
+ * serialization, which synchronizes heavily inside POI and XmlBeans and would pin carrier threads,
+ * runs on a small platform thread pool instead.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionBulkheadPostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        int maximumPoolSize = binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class).orElse(10);
+        Duration timeout = binder.bind("spring.datasource.hikari.connection-timeout", Duration.class)
+                .orElse(Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                // The primary and replica pools behind the routing data source are guarded one by one
+                // in ReplicaRoutingConfig, so replica reads never take permits from the primary
+                if (unwrap(dataSource, ReplicaRoutingDataSource.class) != null) {
+                    return bean;
+                }
+                HikariDataSource pool = unwrap(dataSource, HikariDataSource.class);
+                return pool != null
+                        ? new BulkheadDataSource(dataSource, pool.getMaximumPoolSize(), Duration.ofMillis(pool.getConnectionTimeout()))
+                        : new BulkheadDataSource(dataSource, maximumPoolSize, timeout);
+            }
+        };
+    }
+
+    /**
+     * Limits the connections taken from a Hikari pool to its own maximum size and timeout.
+     *
+     * @param pool the pool
+     * @return the guarded pool
+     */
+    static BulkheadDataSource bulkhead(HikariDataSource pool) {
+        return new BulkheadDataSource(pool, pool.getMaximumPoolSize(), Duration.ofMillis(pool.getConnectionTimeout()));
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService exportSerializationExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("export-serializer-", 0).factory());
+    }
+}
@@ -0,0 +1,54 @@
+package com.nexora.controller.inventory;
+
+import com.nexora.exception.ApplicationException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETag and If-Match handling for the versioned inventory resources. The ETag of a product, warehouse
+ * or stock record is its version in quotes; an update with If-Match only succeeds while the version
+ * is still the same, and fails with 412 Precondition Failed otherwise.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * @param body    the resource
+     * @param version the version of the resource, or null if it has none yet
+     * @return a 200 response with the resource and its ETag
+     */
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag("\"" + version + "\"");
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * Gets the version required by an If-Match header.
+     *
+     * @param ifMatch the header value, may be null
+     * @return the expected version, or null if the update is unconditional (no header or {@code *})
+     * @throws ApplicationException if the header is not a single entity tag issued by this API
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses the strong comparison, which a weak tag never passes
+        if (tag.startsWith("W/")) {
+            throw new ApplicationException("Weak entity tags cannot be used in If-Match", "VERSION_MISMATCH");
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ApplicationException("Invalid If-Match header: " + ifMatch, "INVALID_IF_MATCH");
+        }
+    }
+}
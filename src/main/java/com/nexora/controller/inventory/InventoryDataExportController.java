@@ -1,5 +1,6 @@
 package com.nexora.controller.inventory;
 
+import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Category;
 import com.nexora.model.inventory.ExportJob;
 import com.nexora.model.inventory.Status;
@@ -41,10 +42,17 @@ public class InventoryDataExportController {
     @Operation(summary = "Request product export as XLSX",
             description = "Initiates an asynchronous export of all products as Excel")
     @ApiResponse(responseCode = "202", description = "Export job accepted")
+    @ApiResponse(responseCode = "400", description = "Category cannot be exported on request")
     @GetMapping("/{category}")
     public ResponseEntity<Map<String, Object>> requestProductExport(
             @RequestHeader("Authorization") String authHeader, @PathVariable Category category) {
 
+        // Variance reports are published when a stock count is imported
+        if (category == Category.RECONCILIATION) {
+            throw new ApplicationException("Reconciliation reports cannot be requested as an export",
+                    "EXPORT_UNSUPPORTED_CATEGORY");
+        }
+
         // Extract user ID from JWT token
         UUID userId = jwtService.extractUserUUIDFromAuthHeader(authHeader);
 
@@ -57,6 +65,7 @@ public class InventoryDataExportController {
         event.setUserId(userId);
         event.setCategory(category);
         event.setExportType("XLSX");
+        event.setRequestedAt(System.currentTimeMillis());
         exportMessageProducer.sendExportRequest(event);
 
         // Return job ID to client
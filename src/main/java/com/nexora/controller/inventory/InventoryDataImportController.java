@@ -0,0 +1,100 @@
+package com.nexora.controller.inventory;
+
+import com.nexora.model.inventory.Category;
+import com.nexora.model.inventory.ImportJob;
+import com.nexora.model.inventory.event.ImportRequestEvent;
+import com.nexora.repository.inventory.ImportJobRepository;
+import com.nexora.security.JwtService;
+import com.nexora.service.event.ImportMessageProducer;
+import com.nexora.service.inventory.ImportService;
+import com.nexora.service.inventory.StockLedger;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/inventory/import")
+@Tag(name = "Inventory Data Import", description = "APIs for bulk importing data into the inventory system")
+public class InventoryDataImportController {
+
+    private final JwtService jwtService;
+    private final ImportService importService;
+    private final ImportMessageProducer importMessageProducer;
+    private final ImportJobRepository importJobRepository;
+
+    public InventoryDataImportController(JwtService jwtService, ImportService importService, ImportMessageProducer importMessageProducer, ImportJobRepository importJobRepository) {
+        this.jwtService = jwtService;
+        this.importService = importService;
+        this.importMessageProducer = importMessageProducer;
+        this.importJobRepository = importJobRepository;
+    }
+
+    @Operation(summary = "Import a CSV or XLSX file",
+            description = "Uploads a file and initiates an asynchronous import. Rows are upserted by product or " +
+                    "warehouse code, or by product and warehouse code for stock; progress is published to " +
+                    "/topic/import-status/{jobId}. A RECONCILIATION file is a physical count (productCode, " +
+                    "warehouseCode, countedQuantity) that sets the counted stock records to the counted quantities " +
+                    "in one transaction and publishes a variance report as an export job")
+    @ApiResponse(responseCode = "202", description = "Import job accepted")
+    @ApiResponse(responseCode = "400", description = "Empty or unsupported file")
+    @PostMapping(value = "/{category}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> requestImport(
+            @RequestHeader("Authorization") String authHeader, @PathVariable Category category,
+            @RequestParam("file") MultipartFile file) {
+
+        // Extract user ID from JWT token
+        UUID userId = jwtService.extractUserUUIDFromAuthHeader(authHeader);
+
+        // Store the file and create the job
+        UUID jobId = importService.initiateImport(userId, category, file);
+        ImportJob job = importJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+
+        // Send message to queue
+        ImportRequestEvent event = new ImportRequestEvent(jobId, userId, category, job.getImportType(), job.getFileKey());
+        event.setRequestedAt(System.currentTimeMillis());
+        event.setRequestedBy(StockLedger.currentSource());
+        importMessageProducer.sendImportRequest(event);
+
+        // Return job ID to client
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", jobId);
+        response.put("message", "Import job initiated successfully");
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @Operation(summary = "Get import job status",
+            description = "Retrieves the current status and row counts of an import job")
+    @ApiResponse(responseCode = "200", description = "Job status retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Import job not found")
+    @GetMapping("/status/{jobId}")
+    public ResponseEntity<ImportJob> getImportStatus(@PathVariable UUID jobId) {
+        return importJobRepository.findById(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get all import jobs for authenticated user",
+            description = "Retrieves all import jobs for the authenticated user, ordered by creation date descending")
+    @ApiResponse(responseCode = "200", description = "Import jobs retrieved successfully")
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ImportJob>> getUserImportJobs(@RequestHeader("Authorization") String authHeader) {
+        // Extract user ID from JWT token
+        UUID userId = jwtService.extractUserUUIDFromAuthHeader(authHeader);
+
+        // Get all import jobs for the user
+        List<ImportJob> importJobs = importJobRepository.findByUserUuidOrderByCreatedAtDesc(userId);
+
+        return ResponseEntity.ok(importJobs);
+    }
+}
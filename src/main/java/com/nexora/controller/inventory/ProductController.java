@@ -1,6 +1,7 @@
 package com.nexora.controller.inventory;
 
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.ProductSuggestionDTO;
 import com.nexora.service.inventory.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -60,7 +62,8 @@ public class ProductController {
     public ResponseEntity<ProductDTO> getProductById(
             @Parameter(description = "UUID of the product to retrieve", required = true)
             @PathVariable UUID id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+        ProductDTO productDTO = productService.getProductById(id);
+        return EntityTags.ok(productDTO, productDTO.getVersion());
     }
 
     @Operation(summary = "Get product by code", description = "Retrieves a product by its code")
@@ -89,11 +92,26 @@ public class ProductController {
         return new ResponseEntity<>(productService.createProduct(productDTO), HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Update an existing product", description = "Updates an existing product with the provided information")
+    @Operation(summary = "Create products in bulk", description = "Creates all given products in one transaction using batched inserts. Fails without creating any product if a code is repeated or already exists.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Products successfully created"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or product code already exists"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<ProductDTO>> createProducts(
+            @Parameter(description = "Products to create", required = true)
+            @RequestBody List<@Valid ProductDTO> productDTOs) {
+        return new ResponseEntity<>(productService.createProducts(productDTOs), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Update an existing product", description = "Updates an existing product with the provided information. Send the ETag returned with the product in If-Match to only update it if nobody else has changed it since.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product successfully updated"),
             @ApiResponse(responseCode = "400", description = "Invalid input or product code already exists"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "The product kept being modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "The product has changed since the version in If-Match"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{id}")
@@ -101,8 +119,11 @@ public class ProductController {
             @Parameter(description = "UUID of the product to update", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Updated product information", required = true, schema = @Schema(implementation = ProductDTO.class))
-            @Valid @RequestBody ProductDTO productDTO) {
-        return ResponseEntity.ok(productService.updateProduct(id, productDTO));
+            @Valid @RequestBody ProductDTO productDTO,
+            @Parameter(description = "ETag of the product as last read; the update fails with 412 if it has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductDTO updated = productService.updateProduct(id, productDTO, EntityTags.expectedVersion(ifMatch));
+        return EntityTags.ok(updated, updated.getVersion());
     }
 
     @Operation(summary = "Delete a product", description = "Deletes a product by its ID")
@@ -180,4 +201,34 @@ public class ProductController {
             @RequestParam String name) {
         return ResponseEntity.ok(productService.searchProductsByName(name));
     }
+
+    @Operation(summary = "Ranked product search", description = "Searches products by code, name, SKU, brand and description and returns the best matches first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of products"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search/ranked")
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @Parameter(description = "Text to search for", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of results (default 20, max 100)")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    @Operation(summary = "Product typeahead", description = "Suggests products whose code, SKU or name words start with the typed text; answered from memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the suggestions"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @Parameter(description = "Text typed so far", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (default 10, max 50)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Whether inactive products are suggested")
+            @RequestParam(defaultValue = "false") boolean includeInactive) {
+        return ResponseEntity.ok(productService.suggestProducts(q, limit, includeInactive));
+    }
 }
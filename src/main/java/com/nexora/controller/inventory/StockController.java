@@ -1,7 +1,13 @@
 package com.nexora.controller.inventory;
 
+import com.nexora.dto.inventory.AvailabilityLineDTO;
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockAvailabilityDTO;
 import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockMovementDTO;
+import com.nexora.dto.inventory.StockReservationDTO;
+import com.nexora.dto.inventory.StockTransferDTO;
+import com.nexora.service.inventory.IdempotencyStore;
 import com.nexora.service.inventory.StockService;
 import com.nexora.util.ExcelExportUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,15 +18,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -30,11 +39,18 @@ import java.util.UUID;
 @RequestMapping("/api/v1/inventory/stocks")
 @Tag(name = "Stock Management", description = "APIs for managing stock levels in the inventory system")
 public class StockController {
+
+    private static final String IDEMPOTENCY_NOTE = "Requests repeated with the same Idempotency-Key return the "
+            + "first result, marked with Idempotent-Replayed: true, without applying the change again.";
+    private static final String IDEMPOTENCY_KEY_DESCRIPTION = "Unique key of this request, up to 255 characters; "
+            + "send the same key when retrying it";
     
     private final StockService stockService;
+    private final IdempotencyStore idempotencyStore;
     
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, IdempotencyStore idempotencyStore) {
         this.stockService = stockService;
+        this.idempotencyStore = idempotencyStore;
     }
     
     @Operation(summary = "Get all stock records", description = "Retrieves a list of all stock records")
@@ -57,7 +73,8 @@ public class StockController {
     public ResponseEntity<StockDTO> getStockById(
             @Parameter(description = "ID of the stock record to retrieve", required = true)
             @PathVariable UUID id) {
-        return ResponseEntity.ok(stockService.getStockById(id));
+        StockDTO stockDTO = stockService.getStockById(id);
+        return EntityTags.ok(stockDTO, stockDTO.getVersion());
     }
     
     @Operation(summary = "Get stock records for a product", description = "Retrieves all stock records for a specific product")
@@ -125,25 +142,49 @@ public class StockController {
         return ResponseEntity.ok(stockService.getStockByProductAndWarehouse(productId, warehouseId));
     }
     
-    @Operation(summary = "Create a new stock record", description = "Creates a new stock record with the provided information")
+    @Operation(summary = "Create a new stock record", description = "Creates a new stock record with the provided information. " + IDEMPOTENCY_NOTE)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Stock record successfully created"),
         @ApiResponse(responseCode = "400", description = "Invalid input or stock record already exists"),
         @ApiResponse(responseCode = "404", description = "Product or warehouse not found"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping
     public ResponseEntity<StockDTO> createStock(
             @Parameter(description = "Stock record information", required = true, schema = @Schema(implementation = StockDTO.class))
-            @Valid @RequestBody StockDTO stockDTO) {
-        return new ResponseEntity<>(stockService.createStock(stockDTO), HttpStatus.CREATED);
+            @Valid @RequestBody StockDTO stockDTO,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.CREATED, idempotencyStore.execute(idempotencyKey, "stock.create", stockDTO,
+                () -> stockService.createStock(stockDTO)));
+    }
+
+    @Operation(summary = "Create stock records in bulk", description = "Creates all given stock records in one transaction using batched inserts. Fails without creating any record if a product and warehouse pair is repeated or already has stock. " + IDEMPOTENCY_NOTE)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Stock records successfully created"),
+        @ApiResponse(responseCode = "400", description = "Invalid input or stock record already exists"),
+        @ApiResponse(responseCode = "404", description = "Product or warehouse not found"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<StockDTO>> createStocks(
+            @Parameter(description = "Stock records to create", required = true)
+            @RequestBody List<@Valid StockDTO> stockDTOs,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.CREATED, idempotencyStore.execute(idempotencyKey, "stock.create-bulk", stockDTOs,
+                () -> stockService.createStocks(stockDTOs)));
     }
     
-    @Operation(summary = "Update an existing stock record", description = "Updates an existing stock record with the provided information")
+    @Operation(summary = "Update an existing stock record", description = "Updates an existing stock record with the provided information. Send the ETag returned with the stock record in If-Match to only update it if nobody else has changed it since.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Stock record successfully updated"),
         @ApiResponse(responseCode = "400", description = "Invalid input or stock record already exists"),
         @ApiResponse(responseCode = "404", description = "Stock record, product, or warehouse not found"),
+        @ApiResponse(responseCode = "409", description = "The stock record kept being modified concurrently"),
+        @ApiResponse(responseCode = "412", description = "The stock record has changed since the version in If-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{id}")
@@ -151,8 +192,11 @@ public class StockController {
             @Parameter(description = "ID of the stock record to update", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Updated stock record information", required = true, schema = @Schema(implementation = StockDTO.class))
-            @Valid @RequestBody StockDTO stockDTO) {
-        return ResponseEntity.ok(stockService.updateStock(id, stockDTO));
+            @Valid @RequestBody StockDTO stockDTO,
+            @Parameter(description = "ETag of the stock record as last read; the update fails with 412 if it has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        StockDTO updated = stockService.updateStock(id, stockDTO, EntityTags.expectedVersion(ifMatch));
+        return EntityTags.ok(updated, updated.getVersion());
     }
     
     @Operation(summary = "Delete a stock record", description = "Deletes a stock record by its ID")
@@ -169,11 +213,12 @@ public class StockController {
         return ResponseEntity.noContent().build();
     }
     
-    @Operation(summary = "Add stock", description = "Adds a specified quantity to a stock record")
+    @Operation(summary = "Add stock", description = "Adds a specified quantity to a stock record. " + IDEMPOTENCY_NOTE)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Stock successfully added"),
         @ApiResponse(responseCode = "400", description = "Invalid quantity"),
         @ApiResponse(responseCode = "404", description = "Stock record not found"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{id}/add")
@@ -181,15 +226,19 @@ public class StockController {
             @Parameter(description = "ID of the stock record", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Quantity to add", required = true)
-            @RequestParam int quantity) {
-        return ResponseEntity.ok(stockService.addStock(id, quantity));
+            @RequestParam int quantity,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.OK, idempotencyStore.execute(idempotencyKey, "stock.add:" + id, quantity,
+                () -> stockService.addStock(id, quantity)));
     }
     
-    @Operation(summary = "Remove stock", description = "Removes a specified quantity from a stock record")
+    @Operation(summary = "Remove stock", description = "Removes a specified quantity from a stock record. " + IDEMPOTENCY_NOTE)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Stock successfully removed"),
         @ApiResponse(responseCode = "400", description = "Invalid quantity or insufficient stock"),
         @ApiResponse(responseCode = "404", description = "Stock record not found"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{id}/remove")
@@ -197,8 +246,94 @@ public class StockController {
             @Parameter(description = "ID of the stock record", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Quantity to remove", required = true)
-            @RequestParam int quantity) {
-        return ResponseEntity.ok(stockService.removeStock(id, quantity));
+            @RequestParam int quantity,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.OK, idempotencyStore.execute(idempotencyKey, "stock.remove:" + id, quantity,
+                () -> stockService.removeStock(id, quantity)));
+    }
+    
+    @Operation(summary = "Transfer stock between warehouses", description = "Moves quantities of products from their stock in one warehouse to their stock in another, all in one transaction. Lines apply in order; the target stock record is created if missing. Fails without transferring anything if any line has not enough stock. " + IDEMPOTENCY_NOTE)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock successfully transferred"),
+        @ApiResponse(responseCode = "400", description = "Invalid transfer, invalid quantity or insufficient stock"),
+        @ApiResponse(responseCode = "404", description = "Product, warehouse or source stock record not found"),
+        @ApiResponse(responseCode = "409", description = "The stock records kept being locked by other transactions"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/transfers")
+    public ResponseEntity<List<StockTransferDTO>> transferStock(
+            @Parameter(description = "Transfer lines, applied in order", required = true)
+            @RequestBody List<@Valid StockTransferDTO> transfers,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.OK, idempotencyStore.execute(idempotencyKey, "stock.transfer", transfers,
+                () -> stockService.transferStock(transfers)));
+    }
+    
+    @Operation(summary = "Reserve stock", description = "Holds a quantity of a stock record for a cart or order without removing it. The reservation counts against the available quantity until it is confirmed, released or expires. " + IDEMPOTENCY_NOTE)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Stock successfully reserved"),
+        @ApiResponse(responseCode = "400", description = "Invalid quantity or time to live, insufficient available stock, or stock record not found"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<StockReservationDTO> reserveStock(
+            @Parameter(description = "ID of the stock record", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Quantity to reserve", required = true)
+            @RequestParam int quantity,
+            @Parameter(description = "Cart, order or other reference of the caller")
+            @RequestParam(required = false) String reference,
+            @Parameter(description = "How long to hold the stock (ISO-8601, e.g. PT15M); defaults to the configured time to live")
+            @RequestParam(required = false) Duration ttl,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.CREATED, idempotencyStore.execute(idempotencyKey, "stock.reserve:" + id,
+                quantity + "/" + reference + "/" + ttl,
+                () -> stockService.reserveStock(id, quantity, reference, ttl)));
+    }
+
+    @Operation(summary = "Release a reservation", description = "Ends a reservation without removing stock, making its quantity available again")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Reservation successfully released"),
+        @ApiResponse(responseCode = "400", description = "Reservation not found, already ended or expired"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> releaseReservation(
+            @Parameter(description = "ID of the reservation", required = true)
+            @PathVariable UUID reservationId) {
+        stockService.releaseReservation(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Confirm a reservation", description = "Removes the reserved quantity from the stock record and ends the reservation")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Reservation successfully confirmed"),
+        @ApiResponse(responseCode = "400", description = "Reservation not found, already ended or expired, or insufficient stock"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<StockDTO> confirmReservation(
+            @Parameter(description = "ID of the reservation", required = true)
+            @PathVariable UUID reservationId) {
+        return ResponseEntity.ok(stockService.confirmReservation(reservationId));
+    }
+
+    @Operation(summary = "Check availability of an order", description = "Reports how much of each order line every active warehouse can supply, net of reservations, and which warehouses can fulfill the whole order on their own; answered from memory")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully checked the availability"),
+        @ApiResponse(responseCode = "400", description = "Invalid line or product not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/availability")
+    public ResponseEntity<StockAvailabilityDTO> checkAvailability(
+            @Parameter(description = "Order lines", required = true)
+            @RequestBody List<@Valid AvailabilityLineDTO> lines) {
+        return ResponseEntity.ok(stockService.checkAvailability(lines));
     }
     
     @Operation(summary = "Get low stock records", description = "Retrieves all stock records with low stock (quantity <= minStockLevel)")
@@ -230,4 +365,60 @@ public class StockController {
     public ResponseEntity<List<StockDTO>> getZeroStocks() {
         return ResponseEntity.ok(stockService.getZeroStocks());
     }
-}
\ No newline at end of file
+    
+    @Operation(summary = "Get stock movements",
+            description = "Retrieves the quantity changes of a stock record within a time range, oldest first. " +
+                    "Defaults to the last 30 days")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of movements"),
+        @ApiResponse(responseCode = "400", description = "Invalid time range or stock record not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<List<StockMovementDTO>> getStockMovements(
+            @Parameter(description = "ID of the stock record", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Earliest movement time (ISO date-time), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Latest movement time (ISO date-time), inclusive; defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(stockService.getStockMovements(id, start, end));
+    }
+    
+    @Operation(summary = "Get quantity at a point in time",
+            description = "Retrieves the quantity of a stock record as of the given time, from the latest snapshot " +
+                    "and the movements recorded after it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the quantity"),
+        @ApiResponse(responseCode = "400", description = "Stock record not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}/quantity-at")
+    public ResponseEntity<Map<String, Object>> getQuantityAsOf(
+            @Parameter(description = "ID of the stock record", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Point in time (ISO date-time)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(Map.of(
+                "stockId", id,
+                "asOf", asOf,
+                "quantity", stockService.getQuantityAsOf(id, asOf)));
+    }
+
+    /**
+     * Builds the response for a request run through the idempotency store.
+     *
+     * @param status  the status of the response
+     * @param outcome the result of the request
+     * @return the response, marked as replayed if the result came from the store
+     */
+    private static <T> ResponseEntity<T> respond(HttpStatus status, IdempotencyStore.Outcome<T> outcome) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (outcome.replayed()) {
+            builder.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return builder.body(outcome.body());
+    }
+}
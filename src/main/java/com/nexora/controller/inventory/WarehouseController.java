@@ -67,7 +67,8 @@ public class WarehouseController {
     public ResponseEntity<WarehouseDTO> getWarehouseById(
             @Parameter(description = "UUID of the warehouse to retrieve", required = true)
             @PathVariable UUID id) {
-        return ResponseEntity.ok(warehouseService.getWarehouseById(id));
+        WarehouseDTO warehouseDTO = warehouseService.getWarehouseById(id);
+        return EntityTags.ok(warehouseDTO, warehouseDTO.getVersion());
     }
     
     @Operation(summary = "Get warehouse by code", description = "Retrieves a warehouse by its code")
@@ -95,12 +96,27 @@ public class WarehouseController {
             @Valid @RequestBody WarehouseDTO warehouseDTO) {
         return new ResponseEntity<>(warehouseService.createWarehouse(warehouseDTO), HttpStatus.CREATED);
     }
+
+    @Operation(summary = "Create warehouses in bulk", description = "Creates all given warehouses in one transaction using batched inserts. Fails without creating any warehouse if a code is repeated or already exists.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Warehouses successfully created"),
+        @ApiResponse(responseCode = "400", description = "Invalid input or warehouse code already exists"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<WarehouseDTO>> createWarehouses(
+            @Parameter(description = "Warehouses to create", required = true)
+            @RequestBody List<@Valid WarehouseDTO> warehouseDTOs) {
+        return new ResponseEntity<>(warehouseService.createWarehouses(warehouseDTOs), HttpStatus.CREATED);
+    }
     
-    @Operation(summary = "Update an existing warehouse", description = "Updates an existing warehouse with the provided information")
+    @Operation(summary = "Update an existing warehouse", description = "Updates an existing warehouse with the provided information. Send the ETag returned with the warehouse in If-Match to only update it if nobody else has changed it since.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Warehouse successfully updated"),
         @ApiResponse(responseCode = "400", description = "Invalid input or warehouse code already exists"),
         @ApiResponse(responseCode = "404", description = "Warehouse not found"),
+        @ApiResponse(responseCode = "409", description = "The warehouse kept being modified concurrently"),
+        @ApiResponse(responseCode = "412", description = "The warehouse has changed since the version in If-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{id}")
@@ -108,8 +124,11 @@ public class WarehouseController {
             @Parameter(description = "UUID of the warehouse to update", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Updated warehouse information", required = true, schema = @Schema(implementation = WarehouseDTO.class))
-            @Valid @RequestBody WarehouseDTO warehouseDTO) {
-        return ResponseEntity.ok(warehouseService.updateWarehouse(id, warehouseDTO));
+            @Valid @RequestBody WarehouseDTO warehouseDTO,
+            @Parameter(description = "ETag of the warehouse as last read; the update fails with 412 if it has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        WarehouseDTO updated = warehouseService.updateWarehouse(id, warehouseDTO, EntityTags.expectedVersion(ifMatch));
+        return EntityTags.ok(updated, updated.getVersion());
     }
     
     @Operation(summary = "Delete a warehouse", description = "Deletes a warehouse by its ID")
@@ -199,4 +218,18 @@ public class WarehouseController {
             @RequestParam String name) {
         return ResponseEntity.ok(warehouseService.searchWarehousesByName(name));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Ranked warehouse search", description = "Searches warehouses by code, name, city and description and returns the best matches first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of warehouses"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search/ranked")
+    public ResponseEntity<List<WarehouseDTO>> searchWarehouses(
+            @Parameter(description = "Text to search for", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of results (default 20, max 100)")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(warehouseService.searchWarehouses(q, limit));
+    }
+}
@@ -0,0 +1,34 @@
+package com.nexora.datagen;
+
+/**
+ * Size and shape of a synthetic inventory dataset.
+ *
+ * @param products      number of products
+ * @param warehouses    number of warehouses
+ * @param stocks        target number of stock records; the generated count is close to but not exactly this
+ * @param productSkew   Zipf exponent of product popularity; 0 spreads stock evenly, higher values
+ *                      concentrate stock records on a few hot SKUs that are stocked almost everywhere
+ * @param warehouseSkew Zipf exponent of warehouse size; 0 gives equally sized warehouses, higher values
+ *                      produce a few very large warehouses and a long tail of small ones
+ * @param seed          random seed; the same settings always produce the same rows
+ * @param batchSize     number of rows written per JDBC batch
+ */
+public record DataGenerationSettings(int products, int warehouses, long stocks,
+                                     double productSkew, double warehouseSkew,
+                                     long seed, int batchSize) {
+
+    public DataGenerationSettings {
+        if (products < 1 || warehouses < 1) {
+            throw new IllegalArgumentException("At least one product and one warehouse are required");
+        }
+        if (stocks < 0 || stocks > (long) products * warehouses) {
+            throw new IllegalArgumentException("Stocks must be between 0 and products x warehouses");
+        }
+        if (productSkew < 0 || warehouseSkew < 0) {
+            throw new IllegalArgumentException("Skew must not be negative");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.nexora.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command line entry point of the data generator, active with the {@code datagen} profile.
+ * Fills the configured database and exits without serving requests.
+ */
+@Component
+@Profile("datagen")
+public class DataGeneratorRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGeneratorRunner.class);
+
+    private final InventoryDataLoader loader;
+    private final ConfigurableApplicationContext context;
+    private final DataGenerationSettings settings;
+
+    public DataGeneratorRunner(InventoryDataLoader loader,
+                               ConfigurableApplicationContext context,
+                               @Value("${nexora.datagen.products:100000}") int products,
+                               @Value("${nexora.datagen.warehouses:200}") int warehouses,
+                               @Value("${nexora.datagen.stocks:2000000}") long stocks,
+                               @Value("${nexora.datagen.product-skew:1.0}") double productSkew,
+                               @Value("${nexora.datagen.warehouse-skew:1.0}") double warehouseSkew,
+                               @Value("${nexora.datagen.seed:42}") long seed,
+                               @Value("${nexora.datagen.batch-size:5000}") int batchSize) {
+        this.loader = loader;
+        this.context = context;
+        this.settings = new DataGenerationSettings(products, warehouses, stocks, productSkew, warehouseSkew, seed, batchSize);
+    }
+
+    @Override
+    public void run(String... args) {
+        long start = System.nanoTime();
+        InventoryDataLoader.LoadResult result = loader.load(settings);
+        long seconds = Math.max(1, (System.nanoTime() - start) / 1_000_000_000L);
+        log.info("Generated {} warehouses, {} products and {} stocks in {} s ({} rows/s)",
+                result.warehouses(), result.products(), result.stocks(), seconds,
+                (result.warehouses() + result.products() + result.stocks()) / seconds);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,115 @@
+package com.nexora.datagen;
+
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.StockStatus;
+import com.nexora.model.inventory.Warehouse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes a {@link SyntheticInventory} dataset into the products, warehouses and stocks tables with
+ * batched JDBC inserts, committing once per batch so that millions of rows can be loaded without
+ * holding them in memory or in a single transaction.
+ * <p>
+ * Against PostgreSQL, add {@code reWriteBatchedInserts=true} to the JDBC URL so that the driver
+ * sends each batch as multi-row inserts.
+ */
+@Component
+public class InventoryDataLoader {
+
+    private static final String INSERT_WAREHOUSE = "INSERT INTO warehouses (uuid, code, name, description, address, city, " +
+            "state_province, postal_code, country, created_at, updated_at, is_active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT = "INSERT INTO products (uuid, code, name, description, price, created_at, " +
+            "updated_at, is_active, category, brand, sku) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_STOCK = "INSERT INTO stocks (uuid, product_uuid, warehouse_uuid, quantity, " +
+            "min_stock_level, max_stock_level, stock_status, last_restock_date, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public InventoryDataLoader(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Number of rows inserted per table.
+     */
+    public record LoadResult(long warehouses, long products, long stocks) {
+    }
+
+    /**
+     * Generate and insert the dataset described by the settings.
+     *
+     * @param settings the dataset size and shape
+     * @return the number of rows inserted per table
+     */
+    public LoadResult load(DataGenerationSettings settings) {
+        SyntheticInventory inventory = new SyntheticInventory(settings);
+
+        Batch warehouses = new Batch(INSERT_WAREHOUSE, settings.batchSize());
+        for (int i = 0; i < settings.warehouses(); i++) {
+            Warehouse w = inventory.warehouse(i);
+            warehouses.add(w.getUuid(), w.getCode(), w.getName(), w.getDescription(), w.getAddress(), w.getCity(),
+                    w.getStateProvince(), w.getPostalCode(), w.getCountry(), w.getCreatedAt(), w.getUpdatedAt(), w.isActive());
+        }
+        warehouses.flush();
+
+        Batch products = new Batch(INSERT_PRODUCT, settings.batchSize());
+        for (int i = 0; i < settings.products(); i++) {
+            Product p = inventory.product(i);
+            products.add(p.getUuid(), p.getCode(), p.getName(), p.getDescription(), p.getPrice(), p.getCreatedAt(),
+                    p.getUpdatedAt(), p.isActive(), p.getCategory(), p.getBrand(), p.getSku());
+        }
+        products.flush();
+
+        UUID[] warehouseUuids = new UUID[settings.warehouses()];
+        for (int i = 0; i < warehouseUuids.length; i++) {
+            warehouseUuids[i] = inventory.warehouseUuid(i);
+        }
+        Batch stocks = new Batch(INSERT_STOCK, settings.batchSize());
+        inventory.forEachStock((productIndex, warehouseIndex, uuid, quantity, min, max, lastRestock) ->
+                stocks.add(uuid, inventory.productUuid(productIndex), warehouseUuids[warehouseIndex], quantity, min, max,
+                        StockStatus.of(quantity, min, max).name(), lastRestock, lastRestock, lastRestock));
+        stocks.flush();
+
+        return new LoadResult(warehouses.total, products.total, stocks.total);
+    }
+
+    private final class Batch {
+
+        private final String sql;
+        private final int size;
+        private final List<Object[]> rows;
+        private long total;
+
+        private Batch(String sql, int size) {
+            this.sql = sql;
+            this.size = size;
+            this.rows = new ArrayList<>(size);
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+            total += rows.size();
+            rows.clear();
+        }
+    }
+}
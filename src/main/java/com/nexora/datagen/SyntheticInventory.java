@@ -0,0 +1,281 @@
+package com.nexora.datagen;
+
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.Warehouse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic generator of realistic-looking products, warehouses and stock records.
+ * <p>
+ * Products and warehouses are addressed by index, and every row is derived from the seed and its
+ * index alone, so rows can be generated in any order and regenerated without being kept in memory.
+ * Lower product indexes are the popular SKUs and lower warehouse indexes are the large warehouses:
+ * the number of warehouses stocking a product follows a Zipf distribution over products, and the
+ * warehouses are drawn from a Zipf distribution over warehouses.
+ */
+public class SyntheticInventory {
+
+    private static final String[] ADJECTIVES = {"Compact", "Heavy Duty", "Wireless", "Premium", "Eco", "Smart",
+            "Portable", "Industrial", "Classic", "Ultra", "Digital", "Ergonomic", "Rugged", "Mini", "Pro"};
+    private static final String[] NOUNS = {"Drill", "Headphones", "Monitor", "Chair", "Lamp", "Router", "Kettle",
+            "Backpack", "Keyboard", "Camera", "Speaker", "Printer", "Desk", "Blender", "Scanner", "Charger"};
+    private static final String[] CATEGORIES = {"Electronics", "Furniture", "Office Supplies", "Tools", "Kitchen",
+            "Outdoor", "Sports", "Lighting", "Networking", "Audio", "Storage", "Appliances"};
+    private static final String[] BRANDS = {"TechBrand", "AudioTech", "HomeLine", "ProTools", "OfficeMax",
+            "NorthPeak", "BrightCo", "Voltix", "Urbane", "Kitchenly", "Fortis", "Lumio"};
+    private static final String[][] LOCATIONS = {
+            {"New York", "NY", "United States"}, {"Los Angeles", "CA", "United States"},
+            {"Chicago", "IL", "United States"}, {"Houston", "TX", "United States"},
+            {"Toronto", "ON", "Canada"}, {"Berlin", "Berlin", "Germany"}, {"Hamburg", "Hamburg", "Germany"},
+            {"Paris", "Ile-de-France", "France"}, {"Madrid", "Madrid", "Spain"}, {"Milan", "Lombardy", "Italy"},
+            {"Warsaw", "Masovia", "Poland"}, {"Tokyo", "Tokyo", "Japan"}, {"Singapore", "Singapore", "Singapore"},
+            {"Sydney", "NSW", "Australia"}, {"Sao Paulo", "SP", "Brazil"}, {"Mumbai", "MH", "India"}};
+
+    private static final long PRODUCT_STREAM = 0x9E3779B97F4A7C15L;
+    private static final long WAREHOUSE_STREAM = 0xC2B2AE3D27D4EB4FL;
+    private static final long STOCK_STREAM = 0x165667B19E3779F9L;
+
+    /**
+     * Receives one generated stock record; primitive arguments avoid an allocation per row.
+     */
+    @FunctionalInterface
+    public interface StockHandler {
+        void accept(int productIndex, int warehouseIndex, UUID uuid, int quantity,
+                    int minStockLevel, int maxStockLevel, LocalDateTime lastRestockDate);
+    }
+
+    private final DataGenerationSettings settings;
+    private final LocalDateTime now;
+    private final double[] warehouseCumulative;
+    private final double stockScale;
+
+    public SyntheticInventory(DataGenerationSettings settings) {
+        this(settings, LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    public SyntheticInventory(DataGenerationSettings settings, LocalDateTime now) {
+        this.settings = settings;
+        this.now = now;
+        this.warehouseCumulative = cumulativeZipf(settings.warehouses(), settings.warehouseSkew());
+        this.stockScale = solveStockScale();
+    }
+
+    public DataGenerationSettings settings() {
+        return settings;
+    }
+
+    public UUID productUuid(int index) {
+        return uuid(PRODUCT_STREAM, index);
+    }
+
+    public UUID warehouseUuid(int index) {
+        return uuid(WAREHOUSE_STREAM, index);
+    }
+
+    public Product product(int index) {
+        SplittableRandom random = random(PRODUCT_STREAM, index);
+        String name = pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + " " + (index + 1);
+        BigDecimal price = BigDecimal.valueOf(99 + random.nextLong(99_900), 2);
+        LocalDateTime createdAt = now.minusDays(random.nextInt(730));
+        return new Product(productUuid(index), String.format("GEN-P%07d", index + 1), name,
+                "Generated product " + (index + 1), price, createdAt, createdAt,
+                random.nextInt(100) >= 3, pick(random, CATEGORIES), pick(random, BRANDS),
+                String.format("GEN-SKU-%07d", index + 1));
+    }
+
+    public Warehouse warehouse(int index) {
+        SplittableRandom random = random(WAREHOUSE_STREAM, index);
+        String[] location = LOCATIONS[index % LOCATIONS.length];
+        LocalDateTime createdAt = now.minusDays(random.nextInt(1825));
+        return new Warehouse(warehouseUuid(index), String.format("GEN-W%05d", index + 1),
+                location[0] + " Distribution Center " + (index + 1), "Generated warehouse " + (index + 1),
+                (100 + random.nextInt(9900)) + " Logistics Way", location[0], location[1],
+                String.valueOf(10000 + random.nextInt(89999)), location[2], createdAt, createdAt, true);
+    }
+
+    public List<Product> products() {
+        List<Product> products = new ArrayList<>(settings.products());
+        for (int i = 0; i < settings.products(); i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    public List<Warehouse> warehouses() {
+        List<Warehouse> warehouses = new ArrayList<>(settings.warehouses());
+        for (int i = 0; i < settings.warehouses(); i++) {
+            warehouses.add(warehouse(i));
+        }
+        return warehouses;
+    }
+
+    /**
+     * Builds stock entities for the given products and warehouses, which must be the lists returned by
+     * {@link #products()} and {@link #warehouses()}. Intended for in-memory datasets of moderate size.
+     */
+    public List<Stock> stocks(List<Product> products, List<Warehouse> warehouses) {
+        List<Stock> stocks = new ArrayList<>();
+        forEachStock((productIndex, warehouseIndex, uuid, quantity, min, max, lastRestock) ->
+                stocks.add(new Stock(uuid, products.get(productIndex), warehouses.get(warehouseIndex),
+                        quantity, min, max, lastRestock, lastRestock, lastRestock)));
+        return stocks;
+    }
+
+    /**
+     * Generates every stock record, product by product in popularity order.
+     */
+    public void forEachStock(StockHandler handler) {
+        int warehouseCount = settings.warehouses();
+        BitSet chosen = new BitSet(warehouseCount);
+        int[] warehouseIndexes = new int[warehouseCount];
+
+        for (int productIndex = 0; productIndex < settings.products(); productIndex++) {
+            int count = stockedWarehouses(productIndex);
+            if (count == 0) {
+                continue;
+            }
+            SplittableRandom random = random(STOCK_STREAM, productIndex);
+            int selected = selectWarehouses(random, count, chosen, warehouseIndexes);
+
+            // Popular products carry higher stock levels
+            double popularity = (double) count / warehouseCount;
+            for (int i = 0; i < selected; i++) {
+                int minStockLevel = (int) ((5 + random.nextInt(46)) * (1 + 9 * popularity));
+                int maxStockLevel = minStockLevel * (4 + random.nextInt(7));
+                int quantity = quantity(random, minStockLevel, maxStockLevel);
+                LocalDateTime lastRestockDate = now.minusHours(random.nextInt(24 * 90));
+                handler.accept(productIndex, warehouseIndexes[i], uuid(random), quantity,
+                        minStockLevel, maxStockLevel, lastRestockDate);
+            }
+        }
+    }
+
+    /**
+     * @return how many warehouses stock the product with the given popularity rank
+     */
+    int stockedWarehouses(int productIndex) {
+        double weight = Math.pow(productIndex + 1, -settings.productSkew());
+        return (int) Math.min(settings.warehouses(), Math.round(stockScale * weight));
+    }
+
+    /**
+     * Picks {@code count} distinct warehouses biased towards the large ones. Products stocked in at least
+     * half of the warehouses simply take the largest ones; rarer products are sampled, falling back to the
+     * largest free warehouses when the tail is too thin to sample from efficiently.
+     */
+    private int selectWarehouses(SplittableRandom random, int count, BitSet chosen, int[] warehouseIndexes) {
+        int warehouseCount = settings.warehouses();
+        if (count * 2 >= warehouseCount) {
+            for (int i = 0; i < count; i++) {
+                warehouseIndexes[i] = i;
+            }
+            return count;
+        }
+
+        chosen.clear();
+        int selected = 0;
+        for (int attempt = 0; selected < count && attempt < count * 8; attempt++) {
+            int index = sampleWarehouse(random);
+            if (!chosen.get(index)) {
+                chosen.set(index);
+                warehouseIndexes[selected++] = index;
+            }
+        }
+        for (int index = chosen.nextClearBit(0); selected < count; index = chosen.nextClearBit(index + 1)) {
+            chosen.set(index);
+            warehouseIndexes[selected++] = index;
+        }
+        return selected;
+    }
+
+    private int sampleWarehouse(SplittableRandom random) {
+        int index = Arrays.binarySearch(warehouseCumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, warehouseCumulative.length - 1);
+    }
+
+    /**
+     * Mix of zero, low, normal and over stock so that the alert queries return realistic volumes.
+     */
+    private static int quantity(SplittableRandom random, int minStockLevel, int maxStockLevel) {
+        int roll = random.nextInt(100);
+        if (roll < 5) {
+            return 0;
+        }
+        if (roll < 20) {
+            return 1 + random.nextInt(minStockLevel);
+        }
+        if (roll < 90) {
+            return minStockLevel + 1 + random.nextInt(maxStockLevel - minStockLevel - 1);
+        }
+        return maxStockLevel + random.nextInt(maxStockLevel);
+    }
+
+    /**
+     * Finds the factor that makes the per-product warehouse counts add up to the requested number of stocks.
+     */
+    private double solveStockScale() {
+        long target = settings.stocks();
+        if (target == 0) {
+            return 0;
+        }
+        double low = 0;
+        double high = settings.warehouses() * Math.pow(settings.products(), settings.productSkew()) + 1;
+        for (int i = 0; i < 64; i++) {
+            double mid = (low + high) / 2;
+            if (totalStocks(mid) < target) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    private long totalStocks(double scale) {
+        long total = 0;
+        for (int i = 0; i < settings.products(); i++) {
+            total += (long) Math.min(settings.warehouses(), Math.round(scale * Math.pow(i + 1, -settings.productSkew())));
+        }
+        return total;
+    }
+
+    private static double[] cumulativeZipf(int size, double skew) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Math.pow(i + 1, -skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private SplittableRandom random(long stream, int index) {
+        return new SplittableRandom(settings.seed() ^ stream * (index + 1L));
+    }
+
+    private UUID uuid(long stream, int index) {
+        return uuid(random(stream, index));
+    }
+
+    private static UUID uuid(SplittableRandom random) {
+        long most = (random.nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,55 @@
+package com.nexora.dto.inventory;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for one line of an availability query.
+ * Asks for a quantity of a product, as one line of an order would.
+ */
+@Schema(description = "Quantity of a product an order needs")
+public class AvailabilityLineDTO {
+
+    @Schema(description = "Product needed, by ID or code")
+    @NotNull(message = "Product is required")
+    private ProductDTO product;
+
+    @Schema(description = "Quantity needed", example = "3")
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity needed must be positive")
+    private Integer quantity;
+
+    // Default no-argument constructor
+    public AvailabilityLineDTO() {
+    }
+
+    public AvailabilityLineDTO(ProductDTO product, Integer quantity) {
+        this.product = product;
+        this.quantity = quantity;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductDTO product) {
+        this.product = product;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityLineDTO{" +
+                "product=" + product +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
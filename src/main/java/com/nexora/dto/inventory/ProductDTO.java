@@ -66,6 +66,14 @@ public class ProductDTO {
     )
     private LocalDateTime updatedAt;
 
+    @Schema(
+            description = "Version of the product, incremented on every change and returned as its ETag; "
+                    + "send it in If-Match to update only if it has not changed since",
+            example = "3",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Long version;
+
     @Schema(
             description = "Whether the product is active",
             example = "true",
@@ -204,6 +212,14 @@ public class ProductDTO {
         this.sku = sku;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "ProductDTO{" +
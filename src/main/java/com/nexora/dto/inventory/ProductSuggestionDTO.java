@@ -0,0 +1,28 @@
+package com.nexora.dto.inventory;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+/**
+ * Lightweight product entry returned by the typeahead endpoint.
+ * Immutable record holding only the fields the product picker displays.
+ */
+@Schema(description = "Product typeahead suggestion")
+public record ProductSuggestionDTO(
+        @Schema(description = "Product ID", example = "5ee0d5d6-5e72-4f73-adfd-691b8c9f136a")
+        UUID uuid,
+
+        @Schema(description = "Product code", example = "PROD-001")
+        String code,
+
+        @Schema(description = "Product name", example = "Office Chair")
+        String name,
+
+        @Schema(description = "Stock Keeping Unit", example = "SKU-12345")
+        String sku,
+
+        @Schema(description = "Whether the product is active", example = "true")
+        boolean active
+) {
+}
@@ -0,0 +1,65 @@
+package com.nexora.dto.inventory;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Available-to-promise answer for a multi-line order.
+ * Lists how much of each line every active warehouse can supply and which warehouses can supply the
+ * whole order on their own.
+ */
+@Schema(description = "Availability of the lines of an order across warehouses")
+public record StockAvailabilityDTO(
+        @Schema(description = "The requested lines, in request order, with their total availability")
+        List<Line> lines,
+
+        @Schema(description = "Warehouses holding any of the products; those that can fulfill the whole order first")
+        List<WarehouseAvailability> warehouses,
+
+        @Schema(description = "Warehouses that can fulfill every line on their own, ordered by warehouse code")
+        List<UUID> fulfillmentCandidates
+) {
+
+    /**
+     * One requested line.
+     */
+    @Schema(description = "Requested line with its availability across all warehouses")
+    public record Line(
+            @Schema(description = "Product ID", example = "5ee0d5d6-5e72-4f73-adfd-691b8c9f136a")
+            UUID productUuid,
+
+            @Schema(description = "Product code", example = "PROD-001")
+            String productCode,
+
+            @Schema(description = "Quantity needed", example = "3")
+            int quantity,
+
+            @Schema(description = "Quantity available across all active warehouses", example = "120")
+            int available
+    ) {
+    }
+
+    /**
+     * What one warehouse can supply.
+     */
+    @Schema(description = "Availability of the requested lines in one warehouse")
+    public record WarehouseAvailability(
+            @Schema(description = "Warehouse ID", example = "9b3f1c2e-8d47-4a51-b6e2-3f0c7a9d1e45")
+            UUID warehouseUuid,
+
+            @Schema(description = "Warehouse code", example = "WH-001")
+            String warehouseCode,
+
+            @Schema(description = "Quantity available for each line, in request order")
+            List<Integer> available,
+
+            @Schema(description = "Number of lines the warehouse can supply in full", example = "2")
+            int linesFulfilled,
+
+            @Schema(description = "Whether the warehouse can fulfill every line on its own", example = "false")
+            boolean fulfillsOrder
+    ) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.nexora.dto.inventory;
 
+import com.nexora.model.inventory.StockStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -44,6 +45,27 @@ public class StockDTO {
     @Schema(description = "Date and time of last restock", example = "2023-01-25T09:15:00")
     private LocalDateTime lastRestockDate;
 
+    @Schema(
+            description = "Stock alert status derived from quantity and stock levels",
+            example = "NORMAL",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private StockStatus stockStatus;
+
+    @Schema(
+            description = "Quantity held by active reservations",
+            example = "12",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Integer reservedQuantity;
+
+    @Schema(
+            description = "Quantity available to sell: the quantity in stock less the reserved quantity",
+            example = "88",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Integer availableQuantity;
+
     @Schema(
             description = "Date and time when the stock record was created",
             example = "2023-01-15T10:30:00",
@@ -58,6 +80,14 @@ public class StockDTO {
     )
     private LocalDateTime updatedAt;
 
+    @Schema(
+            description = "Version of the stock record, incremented on every change and returned as its ETag; "
+                    + "send it in If-Match to update only if it has not changed since",
+            example = "3",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Long version;
+
     // Default no-argument constructor
     public StockDTO() {
     }
@@ -136,6 +166,45 @@ public class StockDTO {
         this.lastRestockDate = lastRestockDate;
     }
 
+    public StockStatus getStockStatus() {
+        return stockStatus;
+    }
+
+    public void setStockStatus(StockStatus stockStatus) {
+        this.stockStatus = stockStatus;
+    }
+
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    public Integer getAvailableQuantity() {
+        return availableQuantity;
+    }
+
+    public void setAvailableQuantity(Integer availableQuantity) {
+        this.availableQuantity = availableQuantity;
+    }
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    public boolean isLowStock() {
+        return currentStockStatus().isLow();
+    }
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    public boolean isOverStock() {
+        return currentStockStatus().isOver();
+    }
+
+    // Falls back to the quantity and levels for DTOs that were not mapped from an entity
+    private StockStatus currentStockStatus() {
+        return stockStatus != null ? stockStatus : StockStatus.of(quantity, minStockLevel, maxStockLevel);
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -152,6 +221,14 @@ public class StockDTO {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "StockDTO{" +
@@ -162,6 +239,7 @@ public class StockDTO {
                 ", minStockLevel=" + minStockLevel +
                 ", maxStockLevel=" + maxStockLevel +
                 ", lastRestockDate=" + lastRestockDate +
+                ", stockStatus=" + stockStatus +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
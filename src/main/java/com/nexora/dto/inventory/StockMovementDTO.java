@@ -0,0 +1,38 @@
+package com.nexora.dto.inventory;
+
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of a stock record's movement history.
+ */
+@Schema(description = "Change to the quantity of a stock record")
+public record StockMovementDTO(
+        @Schema(description = "Movement ID, increasing in the order the movements were recorded", example = "1042")
+        long id,
+
+        @Schema(description = "Stock record ID", example = "5ee0d5d6-5e72-4f73-adfd-691b8c9f136a")
+        UUID stockUuid,
+
+        @Schema(description = "Change in quantity, negative for removals", example = "-5")
+        int delta,
+
+        @Schema(description = "Reason for the change", example = "REMOVAL")
+        StockMovementReason reason,
+
+        @Schema(description = "User who made the change, or system", example = "jane.doe@example.com")
+        String source,
+
+        @Schema(description = "When the change was made")
+        LocalDateTime occurredAt
+) {
+
+    public static StockMovementDTO of(StockMovement movement) {
+        return new StockMovementDTO(movement.getId(), movement.getStockUuid(), movement.getDelta(),
+                movement.getReason(), movement.getSource(), movement.getOccurredAt());
+    }
+}
@@ -0,0 +1,34 @@
+package com.nexora.dto.inventory;
+
+import com.nexora.service.inventory.StockReservationEngine.Reservation;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A hold on a quantity of a stock record.
+ */
+@Schema(description = "Quantity of a stock record held for a cart or order")
+public record StockReservationDTO(
+        @Schema(description = "Reservation ID", example = "0d6a8e36-7b4f-4f55-9d0e-6c1e5a3c2b10")
+        UUID uuid,
+
+        @Schema(description = "Stock record ID", example = "5ee0d5d6-5e72-4f73-adfd-691b8c9f136a")
+        UUID stockUuid,
+
+        @Schema(description = "Reserved quantity", example = "2")
+        int quantity,
+
+        @Schema(description = "Caller reference, e.g. a cart or order ID", example = "cart-8812")
+        String reference,
+
+        @Schema(description = "When the reservation is released unless confirmed or released before")
+        LocalDateTime expiresAt
+) {
+
+    public static StockReservationDTO of(Reservation reservation) {
+        return new StockReservationDTO(reservation.uuid(), reservation.stockUuid(), reservation.quantity(),
+                reservation.reference(), reservation.expiresAt());
+    }
+}
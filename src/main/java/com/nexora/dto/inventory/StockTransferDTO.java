@@ -0,0 +1,105 @@
+package com.nexora.dto.inventory;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for one line of a stock transfer.
+ * Moves a quantity of a product from its stock in one warehouse to its stock in another.
+ */
+@Schema(description = "Transfer of a quantity of a product between two warehouses")
+public class StockTransferDTO {
+
+    @Schema(description = "Product to transfer, by ID or code")
+    @NotNull(message = "Product is required")
+    private ProductDTO product;
+
+    @Schema(description = "Warehouse the stock is taken from, by ID or code")
+    @NotNull(message = "Source warehouse is required")
+    private WarehouseDTO sourceWarehouse;
+
+    @Schema(description = "Warehouse the stock is moved to, by ID or code; its stock record is created if missing")
+    @NotNull(message = "Target warehouse is required")
+    private WarehouseDTO targetWarehouse;
+
+    @Schema(description = "Quantity to transfer", example = "25")
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity to transfer must be positive")
+    private Integer quantity;
+
+    @Schema(description = "Stock record in the source warehouse after the transfer", accessMode = Schema.AccessMode.READ_ONLY)
+    private StockDTO source;
+
+    @Schema(description = "Stock record in the target warehouse after the transfer", accessMode = Schema.AccessMode.READ_ONLY)
+    private StockDTO target;
+
+    // Default no-argument constructor
+    public StockTransferDTO() {
+    }
+
+    public StockTransferDTO(ProductDTO product, WarehouseDTO sourceWarehouse, WarehouseDTO targetWarehouse, Integer quantity) {
+        this.product = product;
+        this.sourceWarehouse = sourceWarehouse;
+        this.targetWarehouse = targetWarehouse;
+        this.quantity = quantity;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductDTO product) {
+        this.product = product;
+    }
+
+    public WarehouseDTO getSourceWarehouse() {
+        return sourceWarehouse;
+    }
+
+    public void setSourceWarehouse(WarehouseDTO sourceWarehouse) {
+        this.sourceWarehouse = sourceWarehouse;
+    }
+
+    public WarehouseDTO getTargetWarehouse() {
+        return targetWarehouse;
+    }
+
+    public void setTargetWarehouse(WarehouseDTO targetWarehouse) {
+        this.targetWarehouse = targetWarehouse;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public StockDTO getSource() {
+        return source;
+    }
+
+    public void setSource(StockDTO source) {
+        this.source = source;
+    }
+
+    public StockDTO getTarget() {
+        return target;
+    }
+
+    public void setTarget(StockDTO target) {
+        this.target = target;
+    }
+
+    @Override
+    public String toString() {
+        return "StockTransferDTO{" +
+                "product=" + product +
+                ", sourceWarehouse=" + sourceWarehouse +
+                ", targetWarehouse=" + targetWarehouse +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
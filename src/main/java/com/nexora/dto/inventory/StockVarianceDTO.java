@@ -0,0 +1,36 @@
+package com.nexora.dto.inventory;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of the variance report of a physical stock count.
+ */
+@Schema(description = "Difference between the counted and the recorded quantity of a stock record")
+public record StockVarianceDTO(
+        @Schema(description = "Row of the count file", example = "2")
+        long lineNumber,
+
+        @Schema(description = "Product code", example = "PRD-001")
+        String productCode,
+
+        @Schema(description = "Product name", example = "Laptop")
+        String productName,
+
+        @Schema(description = "Warehouse code", example = "WH-001")
+        String warehouseCode,
+
+        @Schema(description = "Quantity recorded before the count was applied", example = "40")
+        int expectedQuantity,
+
+        @Schema(description = "Quantity counted", example = "37")
+        int countedQuantity,
+
+        @Schema(description = "Counted minus expected quantity", example = "-3")
+        int variance,
+
+        @Schema(description = "Variance times the product price", example = "-2999.97")
+        BigDecimal varianceValue
+) {
+}
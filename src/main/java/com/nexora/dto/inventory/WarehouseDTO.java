@@ -72,6 +72,14 @@ public class WarehouseDTO {
     )
     private LocalDateTime updatedAt;
 
+    @Schema(
+            description = "Version of the warehouse, incremented on every change and returned as its ETag; "
+                    + "send it in If-Match to update only if it has not changed since",
+            example = "3",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Long version;
+
     @Schema(description = "Whether the warehouse is active", example = "true", defaultValue = "true")
     private boolean active;
 
@@ -194,6 +202,14 @@ public class WarehouseDTO {
         this.active = active;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "WarehouseDTO{" +
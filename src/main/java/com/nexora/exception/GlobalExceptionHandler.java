@@ -2,6 +2,7 @@ package com.nexora.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,10 +12,18 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Application error codes that are not reported as 400 Bad Request
+    private static final Map<String, HttpStatus> STATUS_BY_CODE = Map.of(
+            "VERSION_MISMATCH", HttpStatus.PRECONDITION_FAILED,
+            "CONCURRENT_MODIFICATION", HttpStatus.CONFLICT,
+            "IDEMPOTENCY_KEY_REUSED", HttpStatus.UNPROCESSABLE_ENTITY
+    );
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -62,14 +71,32 @@ public class GlobalExceptionHandler {
         List<String> errors = new ArrayList<>();
         errors.add(ex.getMessage());
 
+        HttpStatus status = STATUS_BY_CODE.getOrDefault(ex.getCode(), HttpStatus.BAD_REQUEST);
         ValidationErrorResponse errorResponse = new ValidationErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
+                status.value(),
                 "Application Error: " + ex.getCode(),
                 errors,
                 request.getRequestURI()
         );
 
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ValidationErrorResponse> handleConcurrencyFailure(
+            ConcurrencyFailureException ex, HttpServletRequest request) {
+
+        List<String> errors = new ArrayList<>();
+        errors.add("The record was modified concurrently, please try again");
+
+        ValidationErrorResponse errorResponse = new ValidationErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Concurrent Modification",
+                errors,
+                request.getRequestURI()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(RuntimeException.class)
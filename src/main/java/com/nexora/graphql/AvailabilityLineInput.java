@@ -0,0 +1,12 @@
+package com.nexora.graphql;
+
+/**
+ * Input type for one line of an availability query in GraphQL.
+ * Immutable record naming the product by ID or by code.
+ */
+public record AvailabilityLineInput(
+        String productId,
+        String productCode,
+        int quantity
+) {
+}
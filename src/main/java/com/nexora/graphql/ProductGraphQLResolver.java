@@ -1,6 +1,7 @@
 package com.nexora.graphql;
 
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.ProductSuggestionDTO;
 import com.nexora.service.inventory.ProductService;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
@@ -57,6 +58,17 @@ public class ProductGraphQLResolver {
         return productService.searchProductsByName(name);
     }
 
+    @QueryMapping
+    public List<ProductDTO> searchProducts(@Argument String query, @Argument Integer limit) {
+        return productService.searchProducts(query, limit);
+    }
+
+    @QueryMapping
+    public List<ProductSuggestionDTO> productTypeahead(@Argument String query, @Argument Integer limit,
+                                                       @Argument Boolean includeInactive) {
+        return productService.suggestProducts(query, limit, Boolean.TRUE.equals(includeInactive));
+    }
+
     @MutationMapping
     public ProductDTO createProduct(@Argument("product") ProductInput input) {
         ProductDTO productDTO = new ProductDTO(
@@ -77,7 +89,8 @@ public class ProductGraphQLResolver {
     }
 
     @MutationMapping
-    public ProductDTO updateProduct(@Argument String id, @Argument("product") ProductInput input) {
+    public ProductDTO updateProduct(@Argument String id, @Argument("product") ProductInput input,
+                                    @Argument Long version) {
         ProductDTO productDTO = new ProductDTO(
                 null,                      // UUID (for create)
                 input.code(),              // code
@@ -91,7 +104,8 @@ public class ProductGraphQLResolver {
                 input.brand(),             // brand
                 input.sku()                // sku
         );
-        return productService.updateProduct(UUID.fromString(id), productDTO);
+        // Like If-Match over REST, a version makes the update fail if the product has changed since
+        return productService.updateProduct(UUID.fromString(id), productDTO, version);
     }
 
     @MutationMapping
@@ -1,16 +1,19 @@
 package com.nexora.graphql;
 
+import com.nexora.dto.inventory.AvailabilityLineDTO;
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockAvailabilityDTO;
 import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockReservationDTO;
+import com.nexora.dto.inventory.StockTransferDTO;
 import com.nexora.dto.inventory.WarehouseDTO;
-import com.nexora.service.inventory.ProductService;
 import com.nexora.service.inventory.StockService;
-import com.nexora.service.inventory.WarehouseService;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,13 +24,9 @@ import java.util.UUID;
 public class StockGraphQLResolver {
 
     private final StockService stockService;
-    private final ProductService productService;
-    private final WarehouseService warehouseService;
 
-    public StockGraphQLResolver(StockService stockService, ProductService productService, WarehouseService warehouseService) {
+    public StockGraphQLResolver(StockService stockService) {
         this.stockService = stockService;
-        this.productService = productService;
-        this.warehouseService = warehouseService;
     }
 
     @QueryMapping
@@ -80,10 +79,25 @@ public class StockGraphQLResolver {
         return stockService.getZeroStocks();
     }
 
+    @QueryMapping
+    public StockAvailabilityDTO stockAvailability(@Argument List<AvailabilityLineInput> lines) {
+        return stockService.checkAvailability(lines.stream()
+                .map(input -> {
+                    ProductDTO product = new ProductDTO();
+                    if (input.productId() != null) {
+                        product.setUuid(UUID.fromString(input.productId()));
+                    }
+                    product.setCode(input.productCode());
+                    return new AvailabilityLineDTO(product, input.quantity());
+                })
+                .toList());
+    }
+
     @MutationMapping
     public StockDTO createStock(@Argument("stock") StockInput input) {
-        ProductDTO productDTO = productService.getProductById(UUID.fromString(input.productId()));
-        WarehouseDTO warehouseDTO = warehouseService.getWarehouseById(UUID.fromString(input.warehouseId()));
+        // The service resolves and validates both references by id
+        ProductDTO productDTO = productReference(input.productId());
+        WarehouseDTO warehouseDTO = warehouseReference(input.warehouseId());
 
         StockDTO stockDTO = new StockDTO(
                 null, // UUID will be generated by the service
@@ -101,16 +115,16 @@ public class StockGraphQLResolver {
     }
 
     @MutationMapping
-    public StockDTO updateStock(@Argument String id, @Argument("stock") StockInput input) {
+    public StockDTO updateStock(@Argument String id, @Argument("stock") StockInput input, @Argument Long version) {
         StockDTO existingStock = stockService.getStockById(UUID.fromString(id));
 
         // Get updated product and warehouse if provided, otherwise use existing ones
-        ProductDTO productDTO = input.productId() != null 
-                ? productService.getProductById(UUID.fromString(input.productId()))
+        ProductDTO productDTO = input.productId() != null
+                ? productReference(input.productId())
                 : existingStock.getProduct();
 
         WarehouseDTO warehouseDTO = input.warehouseId() != null
-                ? warehouseService.getWarehouseById(UUID.fromString(input.warehouseId()))
+                ? warehouseReference(input.warehouseId())
                 : existingStock.getWarehouse();
 
         // Create new StockDTO with updated values
@@ -118,7 +132,7 @@ public class StockGraphQLResolver {
                 existingStock.getUuid(),
                 productDTO,
                 warehouseDTO,
-                input.quantity() != null ? input.quantity() : existingStock.getQuantity(),
+                input.quantity(), // an omitted quantity keeps the current level
                 input.minStockLevel() != null ? input.minStockLevel() : existingStock.getMinStockLevel(),
                 input.maxStockLevel() != null ? input.maxStockLevel() : existingStock.getMaxStockLevel(),
                 existingStock.getLastRestockDate(),
@@ -126,7 +140,9 @@ public class StockGraphQLResolver {
                 existingStock.getUpdatedAt()
         );
 
-        return stockService.updateStock(UUID.fromString(id), updatedStock);
+        // Without a version from the client, the update only applies to the stock as it was read here
+        return stockService.updateStock(UUID.fromString(id), updatedStock,
+                version != null ? version : existingStock.getVersion());
     }
 
     @MutationMapping
@@ -144,4 +160,44 @@ public class StockGraphQLResolver {
     public StockDTO removeStock(@Argument String id, @Argument int quantity) {
         return stockService.removeStock(UUID.fromString(id), quantity);
     }
+
+    @MutationMapping
+    public List<StockTransferDTO> transferStock(@Argument List<StockTransferInput> transfers) {
+        return stockService.transferStock(transfers.stream()
+                .map(input -> new StockTransferDTO(
+                        productReference(input.productId()),
+                        warehouseReference(input.sourceWarehouseId()),
+                        warehouseReference(input.targetWarehouseId()),
+                        input.quantity()))
+                .toList());
+    }
+
+    @MutationMapping
+    public StockReservationDTO reserveStock(@Argument String id, @Argument int quantity, @Argument String reference,
+                                            @Argument String ttl) {
+        return stockService.reserveStock(UUID.fromString(id), quantity, reference, ttl != null ? Duration.parse(ttl) : null);
+    }
+
+    @MutationMapping
+    public boolean releaseReservation(@Argument String id) {
+        stockService.releaseReservation(UUID.fromString(id));
+        return true;
+    }
+
+    @MutationMapping
+    public StockDTO confirmReservation(@Argument String id) {
+        return stockService.confirmReservation(UUID.fromString(id));
+    }
+
+    private static ProductDTO productReference(String productId) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setUuid(UUID.fromString(productId));
+        return productDTO;
+    }
+
+    private static WarehouseDTO warehouseReference(String warehouseId) {
+        WarehouseDTO warehouseDTO = new WarehouseDTO();
+        warehouseDTO.setUuid(UUID.fromString(warehouseId));
+        return warehouseDTO;
+    }
 }
@@ -2,7 +2,7 @@ package com.nexora.graphql;
 
 /**
  * Input type for creating and updating stocks in GraphQL.
- * Immutable record representing stock input data.
+ * Immutable record representing stock input data; on update, omitted fields keep their current value.
  */
 public record StockInput(
         String productId,
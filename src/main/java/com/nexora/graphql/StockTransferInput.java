@@ -0,0 +1,13 @@
+package com.nexora.graphql;
+
+/**
+ * Input type for one line of a stock transfer in GraphQL.
+ * Immutable record representing stock transfer input data.
+ */
+public record StockTransferInput(
+        String productId,
+        String sourceWarehouseId,
+        String targetWarehouseId,
+        int quantity
+) {
+}
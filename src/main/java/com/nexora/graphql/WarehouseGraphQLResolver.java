@@ -62,6 +62,11 @@ public class WarehouseGraphQLResolver {
         return warehouseService.searchWarehousesByName(name);
     }
 
+    @QueryMapping
+    public List<WarehouseDTO> searchWarehouses(@Argument String query, @Argument Integer limit) {
+        return warehouseService.searchWarehouses(query, limit);
+    }
+
     @MutationMapping
     public WarehouseDTO createWarehouse(@Argument("warehouse") WarehouseInput input) {
         WarehouseDTO warehouseDTO = new WarehouseDTO(
@@ -82,7 +87,8 @@ public class WarehouseGraphQLResolver {
     }
 
     @MutationMapping
-    public WarehouseDTO updateWarehouse(@Argument String id, @Argument("warehouse") WarehouseInput input) {
+    public WarehouseDTO updateWarehouse(@Argument String id, @Argument("warehouse") WarehouseInput input,
+                                        @Argument Long version) {
         WarehouseDTO existingWarehouse = warehouseService.getWarehouseById(UUID.fromString(id));
 
         WarehouseDTO warehouseDTO = new WarehouseDTO(
@@ -99,7 +105,9 @@ public class WarehouseGraphQLResolver {
                 existingWarehouse.getUpdatedAt(),
                 existingWarehouse.isActive()
         );
-        return warehouseService.updateWarehouse(UUID.fromString(id), warehouseDTO);
+        // Without a version from the client, the update only applies to the warehouse as it was read here
+        return warehouseService.updateWarehouse(UUID.fromString(id), warehouseDTO,
+                version != null ? version : existingWarehouse.getVersion());
     }
 
     @MutationMapping
@@ -4,4 +4,6 @@ public enum Category {
     PRODUCT,
     STOCK,
     WAREHOUSE,
+    // Physical stock counts, imported by com.nexora.service.inventory.InventoryImporter#reconcile
+    RECONCILIATION,
 }
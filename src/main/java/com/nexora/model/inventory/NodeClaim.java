@@ -0,0 +1,57 @@
+package com.nexora.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording which application node runs a feature that may only run on one node at a time
+ * (see com.nexora.service.inventory.NodeClaims). The node renews it while it runs; once it has not
+ * been renewed for the lease duration, another node may take the feature over.
+ */
+@Entity
+@Table(name = "node_claims")
+public class NodeClaim {
+
+    // Name of the claimed feature
+    @Id
+    @Column(length = 100)
+    private String feature;
+
+    // Name of the node running the feature
+    @Column(nullable = false, length = 255)
+    private String node;
+
+    @Column(name = "renewed_at", nullable = false)
+    private LocalDateTime renewedAt;
+
+    public NodeClaim() {
+    }
+
+    public NodeClaim(String feature, String node, LocalDateTime renewedAt) {
+        this.feature = feature;
+        this.node = node;
+        this.renewedAt = renewedAt;
+    }
+
+    public String getFeature() {
+        return feature;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public LocalDateTime getRenewedAt() {
+        return renewedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeClaim{" +
+                "feature='" + feature + '\'' +
+                ", node='" + node + '\'' +
+                ", renewedAt=" + renewedAt +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -58,6 +59,12 @@ public class Product {
     @Size(max = 50, message = "SKU cannot exceed 50 characters")
     private String sku;
 
+    // Optimistic lock; read-only so that mapping a DTO over the entity cannot change it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Default constructor
     public Product() {
     }
@@ -177,6 +184,10 @@ public class Product {
         this.sku = sku;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // JPA lifecycle methods
     @PrePersist
     protected void onCreate() {
@@ -3,6 +3,7 @@ package com.nexora.model.inventory;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -42,9 +43,24 @@ public class Stock {
     @Column(name = "max_stock_level")
     private Integer maxStockLevel;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stock_status", nullable = false, length = 10)
+    private StockStatus stockStatus = StockStatus.ZERO;
+
     @Column(name = "last_restock_date")
     private LocalDateTime lastRestockDate;
 
+    // Id of the last stock_movements row folded into quantity; later movements are still pending
+    @ColumnDefault("0")
+    @Column(name = "ledger_position", nullable = false)
+    private long ledgerPosition;
+
+    // Optimistic lock; read-only so that mapping a DTO over the entity cannot change it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -60,6 +76,7 @@ public class Stock {
         this.product = product;
         this.warehouse = warehouse;
         this.quantity = quantity;
+        refreshStockStatus();
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
@@ -74,6 +91,7 @@ public class Stock {
         this.quantity = quantity;
         this.minStockLevel = minStockLevel;
         this.maxStockLevel = maxStockLevel;
+        refreshStockStatus();
         this.lastRestockDate = lastRestockDate;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
@@ -110,6 +128,7 @@ public class Stock {
 
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
+        refreshStockStatus();
     }
 
     public Integer getMinStockLevel() {
@@ -118,6 +137,7 @@ public class Stock {
 
     public void setMinStockLevel(Integer minStockLevel) {
         this.minStockLevel = minStockLevel;
+        refreshStockStatus();
     }
 
     public Integer getMaxStockLevel() {
@@ -126,6 +146,11 @@ public class Stock {
 
     public void setMaxStockLevel(Integer maxStockLevel) {
         this.maxStockLevel = maxStockLevel;
+        refreshStockStatus();
+    }
+
+    public StockStatus getStockStatus() {
+        return stockStatus;
     }
 
     public LocalDateTime getLastRestockDate() {
@@ -136,6 +161,18 @@ public class Stock {
         this.lastRestockDate = lastRestockDate;
     }
 
+    public long getLedgerPosition() {
+        return ledgerPosition;
+    }
+
+    public void setLedgerPosition(long ledgerPosition) {
+        this.ledgerPosition = ledgerPosition;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -154,11 +191,11 @@ public class Stock {
 
     // Business methods
     public boolean isLowStock() {
-        return quantity <= minStockLevel;
+        return stockStatus.isLow();
     }
 
     public boolean isOverStock() {
-        return maxStockLevel != null && quantity >= maxStockLevel;
+        return stockStatus.isOver();
     }
 
     public void addStock(int amount) {
@@ -166,6 +203,7 @@ public class Stock {
             throw new IllegalArgumentException("Cannot add negative stock amount");
         }
         this.quantity += amount;
+        refreshStockStatus();
         this.lastRestockDate = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
@@ -178,21 +216,47 @@ public class Stock {
             throw new IllegalArgumentException("Cannot remove more stock than available");
         }
         this.quantity -= amount;
+        refreshStockStatus();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Folds pending ledger movements into the stored quantity.
+     *
+     * @param quantity        the quantity including the folded movements
+     * @param lastRestockDate the latest restock, including the folded movements
+     * @param ledgerPosition  the id of the last folded movement
+     */
+    public void applyLedger(int quantity, LocalDateTime lastRestockDate, long ledgerPosition) {
+        this.quantity = quantity;
+        this.lastRestockDate = lastRestockDate;
+        this.ledgerPosition = ledgerPosition;
+        refreshStockStatus();
         this.updatedAt = LocalDateTime.now();
     }
 
     // JPA lifecycle methods
     @PrePersist
     protected void onCreate() {
+        refreshStockStatus();
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
 
     @PreUpdate
     protected void onUpdate() {
+        refreshStockStatus();
         updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Keeps the stored status in line with the quantity and stock levels.
+     * The database applies the same rules in a trigger for writes that bypass the entity.
+     */
+    private void refreshStockStatus() {
+        this.stockStatus = StockStatus.of(quantity, minStockLevel, maxStockLevel);
+    }
+
     @Override
     public String toString() {
         return "Stock{" +
@@ -202,6 +266,7 @@ public class Stock {
                 ", quantity=" + quantity +
                 ", minStockLevel=" + minStockLevel +
                 ", maxStockLevel=" + maxStockLevel +
+                ", stockStatus=" + stockStatus +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.nexora.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity representing one counted line of a physical stock count, staged until the count is applied
+ * (see com.nexora.repository.inventory.StockReconciliationRepository, which reads and writes the
+ * table with set-based SQL). The stock record and its expected quantity are filled in when the count
+ * is joined against stocks.
+ */
+@Entity
+@Table(name = "stock_count_lines")
+@IdClass(StockCountLine.Key.class)
+public class StockCountLine {
+
+    @Id
+    @Column(name = "reconciliation_uuid")
+    private UUID reconciliationUuid;
+
+    @Id
+    @Column(name = "product_uuid")
+    private UUID productUuid;
+
+    @Id
+    @Column(name = "warehouse_uuid")
+    private UUID warehouseUuid;
+
+    // Row of the count file the line came from
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+
+    @Column(name = "counted_quantity", nullable = false)
+    private int countedQuantity;
+
+    @Column(name = "stock_uuid")
+    private UUID stockUuid;
+
+    // Current quantity of the stock record when the count was applied
+    @Column(name = "expected_quantity")
+    private Integer expectedQuantity;
+
+    public StockCountLine() {
+    }
+
+    public UUID getReconciliationUuid() {
+        return reconciliationUuid;
+    }
+
+    public UUID getProductUuid() {
+        return productUuid;
+    }
+
+    public UUID getWarehouseUuid() {
+        return warehouseUuid;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getCountedQuantity() {
+        return countedQuantity;
+    }
+
+    public UUID getStockUuid() {
+        return stockUuid;
+    }
+
+    public Integer getExpectedQuantity() {
+        return expectedQuantity;
+    }
+
+    /**
+     * Primary key of a counted line: the count and the counted product and warehouse.
+     */
+    public static class Key implements Serializable {
+
+        private UUID reconciliationUuid;
+        private UUID productUuid;
+        private UUID warehouseUuid;
+
+        public Key() {
+        }
+
+        public Key(UUID reconciliationUuid, UUID productUuid, UUID warehouseUuid) {
+            this.reconciliationUuid = reconciliationUuid;
+            this.productUuid = productUuid;
+            this.warehouseUuid = warehouseUuid;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(reconciliationUuid, key.reconciliationUuid)
+                    && Objects.equals(productUuid, key.productUuid)
+                    && Objects.equals(warehouseUuid, key.warehouseUuid);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(reconciliationUuid, productUuid, warehouseUuid);
+        }
+    }
+}
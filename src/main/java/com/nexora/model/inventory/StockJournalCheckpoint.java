@@ -0,0 +1,66 @@
+package com.nexora.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording how far the local stock journal of an application node has been written to the
+ * database (see com.nexora.service.inventory.StockWriteBehindEngine). It is updated in the same
+ * transaction as the movements it covers, so journal entries up to its position are never applied
+ * twice and the ones after it are replayed on startup.
+ */
+@Entity
+@Table(name = "stock_journal_checkpoints")
+public class StockJournalCheckpoint {
+
+    // Name of the node whose journal this is
+    @Id
+    @Column(length = 255)
+    private String node;
+
+    // Sequence number of the last journal entry written
+    @Column(nullable = false)
+    private long position;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public StockJournalCheckpoint() {
+    }
+
+    public StockJournalCheckpoint(String node, long position, LocalDateTime updatedAt) {
+        this.node = node;
+        this.position = position;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StockJournalCheckpoint{" +
+                "node='" + node + '\'' +
+                ", position=" + position +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.nexora.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing one change to the quantity of a stock record. Movements are only ever
+ * inserted; the current quantity is the stock's folded quantity plus the movements after its
+ * ledger position.
+ * <p>
+ * Ids come from a sequence without client-side pooling, so for any stock a movement inserted
+ * after another also has a higher id, which is what the ledger position relies on.
+ */
+@Entity
+@Table(name = "stock_movements")
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_id")
+    @SequenceGenerator(name = "stock_movements_id", sequenceName = "stock_movements_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "stock_uuid", nullable = false)
+    private UUID stockUuid;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockMovementReason reason;
+
+    @Column(length = 255)
+    private String source;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public StockMovement() {
+    }
+
+    public StockMovement(UUID stockUuid, int delta, StockMovementReason reason, String source, LocalDateTime occurredAt) {
+        this.stockUuid = stockUuid;
+        this.delta = delta;
+        this.reason = reason;
+        this.source = source;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getStockUuid() {
+        return stockUuid;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public StockMovementReason getReason() {
+        return reason;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StockMovement{" +
+                "id=" + id +
+                ", stockUuid=" + stockUuid +
+                ", delta=" + delta +
+                ", reason=" + reason +
+                ", source='" + source + '\'' +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.nexora.model.inventory;
+
+/**
+ * Why the quantity of a stock record changed, stored with each stock movement.
+ */
+public enum StockMovementReason {
+    // Quantity of a newly created stock record
+    INITIAL,
+    RESTOCK,
+    REMOVAL,
+    // Difference to a quantity set directly through an update
+    ADJUSTMENT,
+    // The two sides of a transfer between warehouses, recorded in the same transaction
+    TRANSFER_OUT,
+    TRANSFER_IN;
+}
@@ -0,0 +1,85 @@
+package com.nexora.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing a hold on a quantity of a stock record, for example for a cart or an order
+ * that has not been picked yet. Active reservations are kept in memory and written here behind
+ * the requests that make them (see com.nexora.service.inventory.StockReservationEngine); a
+ * reservation is deleted once it is released, confirmed or expired.
+ */
+@Entity
+@Table(name = "stock_reservations")
+public class StockReservation {
+
+    // Assigned when the reservation is made, before it is written
+    @Id
+    private UUID uuid;
+
+    @Column(name = "stock_uuid", nullable = false)
+    private UUID stockUuid;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    // Cart, order or other caller reference
+    @Column(length = 255)
+    private String reference;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public StockReservation() {
+    }
+
+    public StockReservation(UUID uuid, UUID stockUuid, int quantity, String reference, LocalDateTime expiresAt,
+                            LocalDateTime createdAt) {
+        this.uuid = uuid;
+        this.stockUuid = stockUuid;
+        this.quantity = quantity;
+        this.reference = reference;
+        this.expiresAt = expiresAt;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public UUID getStockUuid() {
+        return stockUuid;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StockReservation{" +
+                "uuid=" + uuid +
+                ", stockUuid=" + stockUuid +
+                ", quantity=" + quantity +
+                ", reference='" + reference + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+package com.nexora.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity representing the quantity of a stock record at a point in time, written whenever
+ * pending movements are folded. Together with the movements after its ledger position it
+ * answers "quantity as of" queries without summing the whole ledger.
+ */
+@Entity
+@Table(name = "stock_snapshots")
+@IdClass(StockSnapshot.Key.class)
+public class StockSnapshot {
+
+    @Id
+    @Column(name = "stock_uuid")
+    private UUID stockUuid;
+
+    @Id
+    @Column(name = "taken_at")
+    private LocalDateTime takenAt;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    // Id of the last movement included in quantity
+    @Column(name = "ledger_position", nullable = false)
+    private long ledgerPosition;
+
+    public StockSnapshot() {
+    }
+
+    public StockSnapshot(UUID stockUuid, LocalDateTime takenAt, int quantity, long ledgerPosition) {
+        this.stockUuid = stockUuid;
+        this.takenAt = takenAt;
+        this.quantity = quantity;
+        this.ledgerPosition = ledgerPosition;
+    }
+
+    public UUID getStockUuid() {
+        return stockUuid;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getLedgerPosition() {
+        return ledgerPosition;
+    }
+
+    /**
+     * Primary key of a snapshot: the stock and the time it was taken.
+     */
+    public static class Key implements Serializable {
+
+        private UUID stockUuid;
+        private LocalDateTime takenAt;
+
+        public Key() {
+        }
+
+        public Key(UUID stockUuid, LocalDateTime takenAt) {
+            this.stockUuid = stockUuid;
+            this.takenAt = takenAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(stockUuid, key.stockUuid) && Objects.equals(takenAt, key.takenAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stockUuid, takenAt);
+        }
+    }
+}
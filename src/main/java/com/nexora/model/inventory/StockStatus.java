@@ -0,0 +1,51 @@
+package com.nexora.model.inventory;
+
+/**
+ * Alert state of a stock record, stored in the stocks.stock_status column so that
+ * low, over and zero stock lookups can be served from partial indexes.
+ * <p>
+ * The rules are evaluated in declaration order of the checks below and must stay in sync
+ * with the stock_status_of() database function (see db/migration/V2__stock_status.sql).
+ */
+public enum StockStatus {
+    ZERO,
+    LOW,
+    NORMAL,
+    OVER;
+
+    /**
+     * Derives the status for the given quantity and stock levels.
+     *
+     * @param quantity      the current quantity
+     * @param minStockLevel the minimum stock level, may be null
+     * @param maxStockLevel the maximum stock level, may be null
+     * @return the matching status
+     */
+    public static StockStatus of(Integer quantity, Integer minStockLevel, Integer maxStockLevel) {
+        int current = quantity != null ? quantity : 0;
+        if (current == 0) {
+            return ZERO;
+        }
+        if (minStockLevel != null && current <= minStockLevel) {
+            return LOW;
+        }
+        if (maxStockLevel != null && current >= maxStockLevel) {
+            return OVER;
+        }
+        return NORMAL;
+    }
+
+    /**
+     * @return true if the quantity is at or below the minimum stock level (including zero stock)
+     */
+    public boolean isLow() {
+        return this == ZERO || this == LOW;
+    }
+
+    /**
+     * @return true if the quantity is at or above the maximum stock level
+     */
+    public boolean isOver() {
+        return this == OVER;
+    }
+}
@@ -3,6 +3,7 @@ package com.nexora.model.inventory;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -62,6 +63,12 @@ public class Warehouse {
     @Column(name = "is_active")
     private boolean active = true;
 
+    // Optimistic lock; read-only so that mapping a DTO over the entity cannot change it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Default constructor
     public Warehouse() {
     }
@@ -189,6 +196,10 @@ public class Warehouse {
         this.active = active;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // JPA lifecycle methods
     @PrePersist
     protected void onCreate() {
@@ -10,6 +10,8 @@ public class ExportRequestEvent {
     private UUID userId;
     private Category category;
     private String exportType;
+    // Epoch millis at which the request was queued, used to measure queue lag
+    private long requestedAt;
 
     public ExportRequestEvent() {
     }
@@ -53,6 +55,14 @@ public class ExportRequestEvent {
         this.exportType = exportType;
     }
 
+    public long getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(long requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
     @Override
     public String toString() {
         return "ExportRequestEvent{" +
@@ -60,6 +70,7 @@ public class ExportRequestEvent {
                 ", userId=" + userId +
                 ", category=" + category +
                 ", exportType='" + exportType + '\'' +
+                ", requestedAt=" + requestedAt +
                 '}';
     }
 }
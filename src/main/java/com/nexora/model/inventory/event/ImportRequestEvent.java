@@ -0,0 +1,99 @@
+package com.nexora.model.inventory.event;
+
+import com.nexora.model.inventory.Category;
+
+import java.util.UUID;
+
+// Event to request the import of an uploaded file
+public class ImportRequestEvent {
+    private UUID jobId;
+    private UUID userId;
+    private Category category;
+    private String importType;
+    // Object storage key of the uploaded file
+    private String fileKey;
+    // Epoch millis at which the request was queued, used to measure queue lag
+    private long requestedAt;
+    // Name of the requesting user, recorded as the source of the stock movements the import makes
+    private String requestedBy;
+
+    public ImportRequestEvent() {
+    }
+
+    public ImportRequestEvent(UUID jobId, UUID userId, Category category, String importType, String fileKey) {
+        this.jobId = jobId;
+        this.userId = userId;
+        this.category = category;
+        this.importType = importType;
+        this.fileKey = fileKey;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public String getImportType() {
+        return importType;
+    }
+
+    public void setImportType(String importType) {
+        this.importType = importType;
+    }
+
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public void setFileKey(String fileKey) {
+        this.fileKey = fileKey;
+    }
+
+    public long getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(long requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+
+    public void setRequestedBy(String requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportRequestEvent{" +
+                "jobId=" + jobId +
+                ", userId=" + userId +
+                ", category=" + category +
+                ", importType='" + importType + '\'' +
+                ", fileKey='" + fileKey + '\'' +
+                ", requestedAt=" + requestedAt +
+                ", requestedBy='" + requestedBy + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.nexora.model.inventory.event;
+
+import com.nexora.model.inventory.Status;
+
+import java.util.UUID;
+
+// Event for import status and progress updates
+public class ImportStatusUpdateEvent {
+    private UUID jobId;
+    private Status status;
+    private long processedRows;
+    private long importedRows;
+    private long rejectedRows;
+    private String errorMessage;
+
+    public ImportStatusUpdateEvent() {
+    }
+
+    public ImportStatusUpdateEvent(UUID jobId, Status status, long processedRows, long importedRows, long rejectedRows, String errorMessage) {
+        this.jobId = jobId;
+        this.status = status;
+        this.processedRows = processedRows;
+        this.importedRows = importedRows;
+        this.rejectedRows = rejectedRows;
+        this.errorMessage = errorMessage;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(long rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportStatusUpdateEvent{" +
+                "jobId=" + jobId +
+                ", status=" + status +
+                ", processedRows=" + processedRows +
+                ", importedRows=" + importedRows +
+                ", rejectedRows=" + rejectedRows +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for ImportJob entity.
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    /**
+     * Find all import jobs for a specific user, ordered by creation date descending
+     * @param userUuid the UUID of the user
+     * @return list of import jobs for the user
+     */
+    List<ImportJob> findByUserUuidOrderByCreatedAtDesc(UUID userUuid);
+}
@@ -0,0 +1,284 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.WarehouseDTO;
+import com.nexora.model.inventory.StockStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Insert-or-update of products, warehouses and stocks by their natural keys with batched JDBC
+ * statements, for bulk imports that must not load the existing rows into the persistence context.
+ * <p>
+ * Against PostgreSQL the statements are {@code INSERT ... ON CONFLICT (code)} and
+ * {@code ON CONFLICT (product_uuid, warehouse_uuid)}; other databases (H2 in tests) use the
+ * equivalent standard {@code MERGE}. Existing rows keep their uuid and created_at; their version is
+ * incremented, so concurrent conditional updates of the same rows fail.
+ */
+@Repository
+public class InventoryUpsertRepository {
+
+    private static final String POSTGRES_UPSERT_PRODUCT = """
+            INSERT INTO products (uuid, code, name, description, price, category, brand, sku, is_active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (code) DO UPDATE SET
+                name = EXCLUDED.name, description = EXCLUDED.description, price = EXCLUDED.price,
+                category = EXCLUDED.category, brand = EXCLUDED.brand, sku = EXCLUDED.sku,
+                is_active = EXCLUDED.is_active, updated_at = EXCLUDED.updated_at, version = products.version + 1
+            """;
+
+    private static final String PORTABLE_UPSERT_PRODUCT = """
+            MERGE INTO products t
+            USING (VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?))
+                AS s (uuid, code, name, description, price, category, brand, sku, is_active, created_at, updated_at)
+            ON t.code = s.code
+            WHEN MATCHED THEN UPDATE SET
+                name = s.name, description = s.description, price = s.price, category = s.category,
+                brand = s.brand, sku = s.sku, is_active = s.is_active, updated_at = s.updated_at, version = t.version + 1
+            WHEN NOT MATCHED THEN INSERT (uuid, code, name, description, price, category, brand, sku, is_active, created_at, updated_at)
+                VALUES (s.uuid, s.code, s.name, s.description, s.price, s.category, s.brand, s.sku, s.is_active, s.created_at, s.updated_at)
+            """;
+
+    private static final String POSTGRES_UPSERT_WAREHOUSE = """
+            INSERT INTO warehouses (uuid, code, name, description, address, city, state_province, postal_code, country,
+                                    is_active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (code) DO UPDATE SET
+                name = EXCLUDED.name, description = EXCLUDED.description, address = EXCLUDED.address,
+                city = EXCLUDED.city, state_province = EXCLUDED.state_province, postal_code = EXCLUDED.postal_code,
+                country = EXCLUDED.country, is_active = EXCLUDED.is_active, updated_at = EXCLUDED.updated_at,
+                version = warehouses.version + 1
+            """;
+
+    private static final String PORTABLE_UPSERT_WAREHOUSE = """
+            MERGE INTO warehouses t
+            USING (VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?))
+                AS s (uuid, code, name, description, address, city, state_province, postal_code, country,
+                      is_active, created_at, updated_at)
+            ON t.code = s.code
+            WHEN MATCHED THEN UPDATE SET
+                name = s.name, description = s.description, address = s.address, city = s.city,
+                state_province = s.state_province, postal_code = s.postal_code, country = s.country,
+                is_active = s.is_active, updated_at = s.updated_at, version = t.version + 1
+            WHEN NOT MATCHED THEN INSERT (uuid, code, name, description, address, city, state_province, postal_code,
+                                          country, is_active, created_at, updated_at)
+                VALUES (s.uuid, s.code, s.name, s.description, s.address, s.city, s.state_province, s.postal_code,
+                        s.country, s.is_active, s.created_at, s.updated_at)
+            """;
+
+    // Imported quantities replace the current ones, so the ledger position moves past all movements
+    private static final String POSTGRES_UPSERT_STOCK = """
+            INSERT INTO stocks (uuid, product_uuid, warehouse_uuid, quantity, min_stock_level, max_stock_level,
+                                stock_status, last_restock_date, ledger_position, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)
+            ON CONFLICT (product_uuid, warehouse_uuid) DO UPDATE SET
+                quantity = EXCLUDED.quantity, min_stock_level = EXCLUDED.min_stock_level,
+                max_stock_level = EXCLUDED.max_stock_level, stock_status = EXCLUDED.stock_status,
+                last_restock_date = COALESCE(EXCLUDED.last_restock_date, stocks.last_restock_date),
+                ledger_position = (SELECT COALESCE(MAX(m.id), 0) FROM stock_movements m WHERE m.stock_uuid = stocks.uuid),
+                updated_at = EXCLUDED.updated_at, version = stocks.version + 1
+            """;
+
+    private static final String PORTABLE_UPSERT_STOCK = """
+            MERGE INTO stocks t
+            USING (VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?))
+                AS s (uuid, product_uuid, warehouse_uuid, quantity, min_stock_level, max_stock_level,
+                      stock_status, last_restock_date, created_at, updated_at)
+            ON t.product_uuid = s.product_uuid AND t.warehouse_uuid = s.warehouse_uuid
+            WHEN MATCHED THEN UPDATE SET
+                quantity = s.quantity, min_stock_level = s.min_stock_level, max_stock_level = s.max_stock_level,
+                stock_status = s.stock_status, last_restock_date = COALESCE(s.last_restock_date, t.last_restock_date),
+                ledger_position = (SELECT COALESCE(MAX(m.id), 0) FROM stock_movements m WHERE m.stock_uuid = t.uuid),
+                updated_at = s.updated_at, version = t.version + 1
+            WHEN NOT MATCHED THEN INSERT (uuid, product_uuid, warehouse_uuid, quantity, min_stock_level, max_stock_level,
+                                          stock_status, last_restock_date, ledger_position, created_at, updated_at)
+                VALUES (s.uuid, s.product_uuid, s.warehouse_uuid, s.quantity, s.min_stock_level, s.max_stock_level,
+                        s.stock_status, s.last_restock_date, 0, s.created_at, s.updated_at)
+            """;
+
+    // Locks the existing rows first, so stock adjustments holding the row lock have committed their
+    // movements before the upsert reads the latest movement id
+    private static final String LOCK_STOCKS = """
+            SELECT uuid FROM stocks WHERE product_uuid IN (:productUuids) AND warehouse_uuid IN (:warehouseUuids)
+            ORDER BY uuid FOR UPDATE
+            """;
+
+    // Empty stock records for transfer targets; a record created concurrently is left alone
+    private static final String POSTGRES_INSERT_MISSING_STOCK = """
+            INSERT INTO stocks (uuid, product_uuid, warehouse_uuid, quantity, min_stock_level, stock_status,
+                                ledger_position, created_at, updated_at)
+            VALUES (?, ?, ?, 0, 0, 'ZERO', 0, ?, ?)
+            ON CONFLICT (product_uuid, warehouse_uuid) DO NOTHING
+            """;
+
+    private static final String PORTABLE_INSERT_MISSING_STOCK = """
+            MERGE INTO stocks t
+            USING (VALUES (?, ?, ?, ?, ?)) AS s (uuid, product_uuid, warehouse_uuid, created_at, updated_at)
+            ON t.product_uuid = s.product_uuid AND t.warehouse_uuid = s.warehouse_uuid
+            WHEN NOT MATCHED THEN INSERT (uuid, product_uuid, warehouse_uuid, quantity, min_stock_level, stock_status,
+                                          ledger_position, created_at, updated_at)
+                VALUES (s.uuid, s.product_uuid, s.warehouse_uuid, 0, 0, 'ZERO', 0, s.created_at, s.updated_at)
+            """;
+
+    private static final String INSERT_STOCK_SNAPSHOT = """
+            INSERT INTO stock_snapshots (stock_uuid, taken_at, quantity, ledger_position)
+            SELECT uuid, ?, quantity, ledger_position FROM stocks WHERE product_uuid = ? AND warehouse_uuid = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    public InventoryUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * A stock level to insert or update, with its product and warehouse already resolved.
+     */
+    public record StockUpsert(UUID productUuid, UUID warehouseUuid, int quantity, Integer minStockLevel,
+                              Integer maxStockLevel, LocalDateTime lastRestockDate) {
+    }
+
+    /**
+     * A product and warehouse pair, the natural key of a stock record.
+     */
+    public record StockKey(UUID productUuid, UUID warehouseUuid) {
+    }
+
+    /**
+     * Insert new products and update existing ones, matched by code, in one JDBC batch.
+     *
+     * @param products the products, with unique codes
+     */
+    public void upsertProducts(List<ProductDTO> products) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (ProductDTO p : products) {
+            rows.add(new Object[]{UUID.randomUUID(), p.getCode(), p.getName(), p.getDescription(), p.getPrice(),
+                    p.getCategory(), p.getBrand(), p.getSku(), p.isActive(), now, now});
+        }
+        jdbcTemplate.batchUpdate(isPostgreSQL() ? POSTGRES_UPSERT_PRODUCT : PORTABLE_UPSERT_PRODUCT, rows);
+    }
+
+    /**
+     * Insert new warehouses and update existing ones, matched by code, in one JDBC batch.
+     *
+     * @param warehouses the warehouses, with unique codes
+     */
+    public void upsertWarehouses(List<WarehouseDTO> warehouses) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(warehouses.size());
+        for (WarehouseDTO w : warehouses) {
+            rows.add(new Object[]{UUID.randomUUID(), w.getCode(), w.getName(), w.getDescription(), w.getAddress(),
+                    w.getCity(), w.getStateProvince(), w.getPostalCode(), w.getCountry(), w.isActive(), now, now});
+        }
+        jdbcTemplate.batchUpdate(isPostgreSQL() ? POSTGRES_UPSERT_WAREHOUSE : PORTABLE_UPSERT_WAREHOUSE, rows);
+    }
+
+    /**
+     * Insert new stock records and update existing ones, matched by product and warehouse, in one
+     * JDBC batch. The stored stock status is derived from the new levels. The imported quantities
+     * replace the current ones, pending ledger movements included, and each stock record gets a
+     * snapshot so that "quantity as of" queries see the import. Must be called inside a transaction.
+     *
+     * @param stocks the stock levels, with unique product and warehouse pairs
+     */
+    public void upsertStocks(List<StockUpsert> stocks) {
+        if (stocks.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(stocks.size());
+        List<Object[]> snapshots = new ArrayList<>(stocks.size());
+        Set<UUID> productUuids = new HashSet<>();
+        Set<UUID> warehouseUuids = new HashSet<>();
+        for (StockUpsert s : stocks) {
+            String status = StockStatus.of(s.quantity(), s.minStockLevel(), s.maxStockLevel()).name();
+            rows.add(new Object[]{UUID.randomUUID(), s.productUuid(), s.warehouseUuid(), s.quantity(), s.minStockLevel(),
+                    s.maxStockLevel(), status, s.lastRestockDate(), now, now});
+            snapshots.add(new Object[]{now, s.productUuid(), s.warehouseUuid()});
+            productUuids.add(s.productUuid());
+            warehouseUuids.add(s.warehouseUuid());
+        }
+        namedJdbcTemplate.queryForList(LOCK_STOCKS, Map.of("productUuids", productUuids, "warehouseUuids", warehouseUuids),
+                UUID.class);
+        jdbcTemplate.batchUpdate(isPostgreSQL() ? POSTGRES_UPSERT_STOCK : PORTABLE_UPSERT_STOCK, rows);
+        jdbcTemplate.batchUpdate(INSERT_STOCK_SNAPSHOT, snapshots);
+    }
+
+    /**
+     * Insert an empty stock record for every product and warehouse pair that has none, in one JDBC
+     * batch. Pairs that already have a stock record, including one inserted by a concurrent
+     * transaction, are skipped; the insert waits for that transaction to end. Concurrent callers must
+     * pass their keys in the same order so they cannot wait for each other's inserts in a cycle.
+     * Must be called inside a transaction.
+     *
+     * @param keys the product and warehouse pairs, without duplicates
+     */
+    public void insertMissingStocks(List<StockKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (StockKey key : keys) {
+            rows.add(new Object[]{UUID.randomUUID(), key.productUuid(), key.warehouseUuid(), now, now});
+        }
+        jdbcTemplate.batchUpdate(isPostgreSQL() ? POSTGRES_INSERT_MISSING_STOCK : PORTABLE_INSERT_MISSING_STOCK, rows);
+    }
+
+    /**
+     * Look up product uuids by code.
+     *
+     * @param codes the codes to resolve
+     * @return the uuid of every code that exists
+     */
+    public Map<String, UUID> findProductUuids(Collection<String> codes) {
+        return findUuidsByCode("products", codes);
+    }
+
+    /**
+     * Look up warehouse uuids by code.
+     *
+     * @param codes the codes to resolve
+     * @return the uuid of every code that exists
+     */
+    public Map<String, UUID> findWarehouseUuids(Collection<String> codes) {
+        return findUuidsByCode("warehouses", codes);
+    }
+
+    private Map<String, UUID> findUuidsByCode(String table, Collection<String> codes) {
+        Map<String, UUID> uuids = new HashMap<>();
+        if (codes.isEmpty()) {
+            return uuids;
+        }
+        namedJdbcTemplate.query("SELECT code, uuid FROM " + table + " WHERE code IN (:codes)", Map.of("codes", codes),
+                rs -> {
+                    uuids.put(rs.getString("code"), rs.getObject("uuid", UUID.class));
+                });
+        return uuids;
+    }
+
+    private boolean isPostgreSQL() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,43 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.NodeClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for NodeClaim entity.
+ */
+@Repository
+public interface NodeClaimRepository extends JpaRepository<NodeClaim, String> {
+
+    /**
+     * Renew the claim of a feature for a node, taking it over if the claim of another node has expired.
+     *
+     * @param feature       the feature
+     * @param node          the claiming node
+     * @param now           the new renewal time
+     * @param expiredBefore claims of other nodes last renewed before this time have expired
+     * @return 1 if the node holds the claim now, 0 if the feature has no claim or another node holds it
+     */
+    @Modifying
+    @Query("UPDATE NodeClaim c SET c.node = :node, c.renewedAt = :now " +
+            "WHERE c.feature = :feature AND (c.node = :node OR c.renewedAt < :expiredBefore)")
+    int renew(@Param("feature") String feature, @Param("node") String node, @Param("now") LocalDateTime now,
+              @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    /**
+     * Delete the claim of a feature if the node still holds it.
+     *
+     * @param feature the feature
+     * @param node    the node
+     * @return the number of deleted claims
+     */
+    @Modifying
+    @Query("DELETE FROM NodeClaim c WHERE c.feature = :feature AND c.node = :node")
+    int release(@Param("feature") String feature, @Param("node") String node);
+}
@@ -2,8 +2,11 @@ package com.nexora.repository.inventory;
 
 import com.nexora.model.inventory.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,7 +15,7 @@ import java.util.UUID;
  * Repository interface for Product entity.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductSearchRepository {
     
     /**
      * Find a product by its unique code.
@@ -29,6 +32,15 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
      * @return true if a product with the code exists, false otherwise
      */
     boolean existsByCode(String code);
+
+    /**
+     * Find which of the given codes are already taken, in one statement.
+     *
+     * @param codes the product codes to check
+     * @return the codes that exist
+     */
+    @Query("SELECT p.code FROM Product p WHERE p.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
     
     /**
      * Find all active products.
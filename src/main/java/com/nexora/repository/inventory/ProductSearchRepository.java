@@ -0,0 +1,24 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.Product;
+
+import java.util.List;
+
+/**
+ * Ranked free-text search over products, mixed into {@link ProductRepository}.
+ */
+public interface ProductSearchRepository {
+
+    /**
+     * Search products whose code, name, SKU, brand or description contain the given text
+     * (case-insensitive).
+     * <p>
+     * Results are ranked: exact code matches first, then exact SKU matches, then products whose
+     * name starts with the text, then all other matches; ties are ordered by name.
+     *
+     * @param query the text to search for, must not be blank
+     * @param limit the maximum number of results
+     * @return the matching products in rank order
+     */
+    List<Product> searchRanked(String query, int limit);
+}
@@ -0,0 +1,76 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link ProductSearchRepository}.
+ */
+class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    // product_search_text() is the expression indexed by idx_products_search_trgm
+    private static final String POSTGRES_SEARCH = """
+            SELECT p.* FROM products p
+            WHERE public.product_search_text(p.code, p.name, p.sku, p.brand, p.description) LIKE :pattern ESCAPE '!'
+            ORDER BY CASE
+                         WHEN upper(p.code) = :text THEN 0
+                         WHEN upper(p.sku) = :text THEN 1
+                         WHEN upper(p.name) LIKE :prefix ESCAPE '!' THEN 2
+                         ELSE 3
+                     END,
+                     word_similarity(:text, public.product_search_text(p.code, p.name, p.sku, p.brand, p.description)) DESC,
+                     p.name
+            LIMIT :limit
+            """;
+
+    private static final String PORTABLE_SEARCH = """
+            SELECT p FROM Product p
+            WHERE upper(p.code) LIKE :pattern ESCAPE '!'
+               OR upper(p.name) LIKE :pattern ESCAPE '!'
+               OR upper(p.sku) LIKE :pattern ESCAPE '!'
+               OR upper(p.brand) LIKE :pattern ESCAPE '!'
+               OR upper(p.description) LIKE :pattern ESCAPE '!'
+            ORDER BY CASE
+                         WHEN upper(p.code) = :text THEN 0
+                         WHEN upper(p.sku) = :text THEN 1
+                         WHEN upper(p.name) LIKE :prefix ESCAPE '!' THEN 2
+                         ELSE 3
+                     END,
+                     p.name
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Product> searchRanked(String query, int limit) {
+        String text = SearchQuerySupport.normalize(query);
+        if (isPostgreSQL()) {
+            return entityManager.createNativeQuery(POSTGRES_SEARCH, Product.class)
+                    .setParameter("pattern", SearchQuerySupport.containsPattern(text))
+                    .setParameter("prefix", SearchQuerySupport.prefixPattern(text))
+                    .setParameter("text", text)
+                    .setParameter("limit", limit)
+                    .getResultList();
+        }
+        return entityManager.createQuery(PORTABLE_SEARCH, Product.class)
+                .setParameter("pattern", SearchQuerySupport.containsPattern(text))
+                .setParameter("prefix", SearchQuerySupport.prefixPattern(text))
+                .setParameter("text", text)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private boolean isPostgreSQL() {
+        if (postgres == null) {
+            postgres = SearchQuerySupport.isPostgreSQL(entityManager);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nexora.repository.inventory;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Locale;
+
+/**
+ * Shared helpers for the ranked product and warehouse search fragments.
+ * <p>
+ * On PostgreSQL the searches run as native queries that match the pg_trgm GIN indexes
+ * created by db/migration/V3__trigram_search.sql; on any other database (H2 in tests)
+ * they fall back to a portable JPQL query with the same match and ranking rules.
+ */
+final class SearchQuerySupport {
+
+    /**
+     * Escape character used in every LIKE pattern built by the search fragments.
+     */
+    static final char LIKE_ESCAPE = '!';
+
+    private SearchQuerySupport() {
+    }
+
+    /**
+     * Normalizes the search text the same way the database expressions do (upper case, trimmed).
+     *
+     * @param query the raw search text
+     * @return the normalized search text
+     */
+    static String normalize(String query) {
+        return query.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds a LIKE pattern matching the normalized text anywhere in the value.
+     *
+     * @param normalized the normalized search text
+     * @return the escaped pattern
+     */
+    static String containsPattern(String normalized) {
+        return "%" + escapeLike(normalized) + "%";
+    }
+
+    /**
+     * Builds a LIKE pattern matching values starting with the normalized text.
+     *
+     * @param normalized the normalized search text
+     * @return the escaped pattern
+     */
+    static String prefixPattern(String normalized) {
+        return escapeLike(normalized) + "%";
+    }
+
+    /**
+     * Checks whether the persistence unit runs on PostgreSQL.
+     *
+     * @param entityManager the entity manager
+     * @return true if the configured Hibernate dialect is a PostgreSQL dialect
+     */
+    static boolean isPostgreSQL(EntityManager entityManager) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        return sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
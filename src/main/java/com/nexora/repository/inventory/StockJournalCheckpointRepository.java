@@ -0,0 +1,12 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.StockJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for StockJournalCheckpoint entity.
+ */
+@Repository
+public interface StockJournalCheckpointRepository extends JpaRepository<StockJournalCheckpoint, String> {
+}
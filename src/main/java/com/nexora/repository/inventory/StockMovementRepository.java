@@ -0,0 +1,81 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for StockMovement entity.
+ */
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Totals of the movements of a stock record that have not been folded into its quantity yet.
+     */
+    interface PendingTotals {
+
+        UUID getStockUuid();
+
+        long getDelta();
+
+        long getLastId();
+
+        LocalDateTime getLastRestock();
+    }
+
+    /**
+     * Sum up the movements after the ledger position of each of the given stock records.
+     * Stock records without pending movements are not returned. Served by the (stock_uuid, id) index.
+     *
+     * @param stockUuids the stock UUIDs
+     * @return the pending totals per stock record
+     */
+    @Query("SELECT s.uuid AS stockUuid, SUM(m.delta) AS delta, MAX(m.id) AS lastId, " +
+            "MAX(CASE WHEN m.reason = com.nexora.model.inventory.StockMovementReason.RESTOCK THEN m.occurredAt END) AS lastRestock " +
+            "FROM Stock s JOIN StockMovement m ON m.stockUuid = s.uuid AND m.id > s.ledgerPosition " +
+            "WHERE s.uuid IN :stockUuids GROUP BY s.uuid")
+    List<PendingTotals> findPendingTotals(@Param("stockUuids") Collection<UUID> stockUuids);
+
+    /**
+     * Sum up the movements of a stock record after the given ledger position that occurred at or before the given time.
+     *
+     * @param stockUuid the stock UUID
+     * @param position  the ledger position already accounted for
+     * @param asOf      the latest movement time to include
+     * @return the sum of the deltas, 0 if there are none
+     */
+    @Query("SELECT COALESCE(SUM(m.delta), 0) FROM StockMovement m " +
+            "WHERE m.stockUuid = :stockUuid AND m.id > :position AND m.occurredAt <= :asOf")
+    long sumDeltasAfter(@Param("stockUuid") UUID stockUuid, @Param("position") long position,
+                        @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Find the stock records with movements since the given time that have not been folded yet.
+     * The time bound lets PostgreSQL skip all but the most recent partitions.
+     *
+     * @param since the earliest movement time to consider
+     * @return the stock UUIDs, in ascending order
+     */
+    @Query("SELECT DISTINCT s.uuid FROM Stock s JOIN StockMovement m ON m.stockUuid = s.uuid AND m.id > s.ledgerPosition " +
+            "WHERE m.occurredAt >= :since ORDER BY s.uuid")
+    List<UUID> findStocksWithPendingMovements(@Param("since") LocalDateTime since);
+
+    /**
+     * Find the movements of a stock record within a time range, oldest first.
+     * Served by the (stock_uuid, occurred_at) index.
+     *
+     * @param stockUuid the stock UUID
+     * @param from      the earliest movement time, inclusive
+     * @param to        the latest movement time, inclusive
+     * @return the movements in the order they were recorded
+     */
+    List<StockMovement> findByStockUuidAndOccurredAtBetweenOrderByIdAsc(UUID stockUuid, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,223 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.dto.inventory.StockVarianceDTO;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based reconciliation of physical stock counts. The counted lines are staged in
+ * stock_count_lines with batched JDBC statements and then applied with a fixed number of
+ * statements, however many lines the count has: the lines are joined against stocks to capture
+ * the current quantities, each difference is recorded as an ADJUSTMENT movement, and the counted
+ * quantities are folded into the stock records in one statement. The staged lines, with their
+ * expected quantities, are the variance report.
+ * <p>
+ * Against PostgreSQL the statements are {@code INSERT ... ON CONFLICT} and {@code UPDATE ... FROM};
+ * other databases (H2 in tests) use the equivalent standard {@code MERGE}.
+ */
+@Repository
+public class StockReconciliationRepository {
+
+    // A line counted twice keeps its last count
+    private static final String POSTGRES_STAGE_COUNT = """
+            INSERT INTO stock_count_lines (reconciliation_uuid, product_uuid, warehouse_uuid, line_number, counted_quantity)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (reconciliation_uuid, product_uuid, warehouse_uuid) DO UPDATE SET
+                line_number = EXCLUDED.line_number, counted_quantity = EXCLUDED.counted_quantity
+            """;
+
+    private static final String PORTABLE_STAGE_COUNT = """
+            MERGE INTO stock_count_lines t
+            USING (VALUES (?, ?, ?, ?, ?)) AS s (reconciliation_uuid, product_uuid, warehouse_uuid, line_number, counted_quantity)
+            ON t.reconciliation_uuid = s.reconciliation_uuid AND t.product_uuid = s.product_uuid
+                AND t.warehouse_uuid = s.warehouse_uuid
+            WHEN MATCHED THEN UPDATE SET line_number = s.line_number, counted_quantity = s.counted_quantity
+            WHEN NOT MATCHED THEN INSERT (reconciliation_uuid, product_uuid, warehouse_uuid, line_number, counted_quantity)
+                VALUES (s.reconciliation_uuid, s.product_uuid, s.warehouse_uuid, s.line_number, s.counted_quantity)
+            """;
+
+    private static final String FIND_COUNTS_WITHOUT_STOCK = """
+            SELECT l.product_uuid, l.warehouse_uuid FROM stock_count_lines l
+            WHERE l.reconciliation_uuid = ? AND l.counted_quantity > 0
+              AND NOT EXISTS (SELECT 1 FROM stocks s WHERE s.product_uuid = l.product_uuid AND s.warehouse_uuid = l.warehouse_uuid)
+            """;
+
+    private static final String RESOLVE_STOCKS = """
+            UPDATE stock_count_lines l SET stock_uuid = (
+                SELECT s.uuid FROM stocks s WHERE s.product_uuid = l.product_uuid AND s.warehouse_uuid = l.warehouse_uuid)
+            WHERE l.reconciliation_uuid = ?
+            """;
+
+    // Adjustment batches, transfers and write-behind flushes hold the row lock while they record their
+    // movements, so they wait for the count. A stock update records its ADJUSTMENT without the lock
+    // and then saves the row conditionally on the version it read; the version bump in the fold makes
+    // that save fail, so its movement rolls back and the update is retried against the counted quantity
+    private static final String LOCK_STOCKS = """
+            SELECT uuid FROM stocks WHERE uuid IN (SELECT stock_uuid FROM stock_count_lines WHERE reconciliation_uuid = ?)
+            ORDER BY uuid FOR UPDATE
+            """;
+
+    // The folded quantity plus the movements after the ledger position, as in StockLedger.current
+    private static final String CAPTURE_EXPECTED = """
+            UPDATE stock_count_lines l SET expected_quantity = (
+                SELECT s.quantity + COALESCE((SELECT SUM(m.delta) FROM stock_movements m
+                                              WHERE m.stock_uuid = s.uuid AND m.id > s.ledger_position), 0)
+                FROM stocks s WHERE s.uuid = l.stock_uuid)
+            WHERE l.reconciliation_uuid = ? AND l.stock_uuid IS NOT NULL
+            """;
+
+    private static final String POSTGRES_RECORD_VARIANCES = """
+            INSERT INTO stock_movements (stock_uuid, delta, reason, source, occurred_at)
+            SELECT stock_uuid, counted_quantity - expected_quantity, 'ADJUSTMENT', ?, ?
+            FROM stock_count_lines
+            WHERE reconciliation_uuid = ? AND counted_quantity <> expected_quantity
+            """;
+
+    private static final String PORTABLE_RECORD_VARIANCES = """
+            INSERT INTO stock_movements (id, stock_uuid, delta, reason, source, occurred_at)
+            SELECT NEXT VALUE FOR stock_movements_id_seq, stock_uuid, counted_quantity - expected_quantity, 'ADJUSTMENT', ?, ?
+            FROM stock_count_lines
+            WHERE reconciliation_uuid = ? AND counted_quantity <> expected_quantity
+            """;
+
+    // Everything up to the variance movement is folded; the trigger from V2 derives the stock status
+    private static final String POSTGRES_FOLD_COUNTS = """
+            UPDATE stocks s SET quantity = l.counted_quantity,
+                ledger_position = (SELECT MAX(m.id) FROM stock_movements m WHERE m.stock_uuid = s.uuid),
+                updated_at = ?, version = s.version + 1
+            FROM stock_count_lines l
+            WHERE l.reconciliation_uuid = ? AND l.stock_uuid = s.uuid AND l.counted_quantity <> l.expected_quantity
+            """;
+
+    private static final String PORTABLE_FOLD_COUNTS = """
+            MERGE INTO stocks t
+            USING (SELECT stock_uuid, counted_quantity FROM stock_count_lines
+                   WHERE reconciliation_uuid = ? AND counted_quantity <> expected_quantity) AS s
+            ON t.uuid = s.stock_uuid
+            WHEN MATCHED THEN UPDATE SET quantity = s.counted_quantity,
+                stock_status = CASE
+                    WHEN s.counted_quantity = 0 THEN 'ZERO'
+                    WHEN t.min_stock_level IS NOT NULL AND s.counted_quantity <= t.min_stock_level THEN 'LOW'
+                    WHEN t.max_stock_level IS NOT NULL AND s.counted_quantity >= t.max_stock_level THEN 'OVER'
+                    ELSE 'NORMAL' END,
+                ledger_position = (SELECT MAX(m.id) FROM stock_movements m WHERE m.stock_uuid = t.uuid),
+                updated_at = ?, version = t.version + 1
+            """;
+
+    private static final String FIND_VARIANCES = """
+            SELECT l.line_number, p.code AS product_code, p.name AS product_name, p.price, w.code AS warehouse_code,
+                   l.expected_quantity, l.counted_quantity
+            FROM stock_count_lines l
+                JOIN products p ON p.uuid = l.product_uuid
+                JOIN warehouses w ON w.uuid = l.warehouse_uuid
+            WHERE l.reconciliation_uuid = ?
+            ORDER BY l.line_number
+            """;
+
+    private static final String DELETE_COUNTS = "DELETE FROM stock_count_lines WHERE reconciliation_uuid = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    public StockReconciliationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A counted line, with its product and warehouse already resolved.
+     */
+    public record StockCount(UUID productUuid, UUID warehouseUuid, long lineNumber, int countedQuantity) {
+    }
+
+    /**
+     * Stage counted lines in one JDBC batch. A product and warehouse pair staged again replaces its
+     * earlier count.
+     *
+     * @param reconciliationUuid the count the lines belong to
+     * @param counts             the counted lines
+     */
+    public void stageCounts(UUID reconciliationUuid, List<StockCount> counts) {
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        for (StockCount c : counts) {
+            rows.add(new Object[]{reconciliationUuid, c.productUuid(), c.warehouseUuid(), c.lineNumber(), c.countedQuantity()});
+        }
+        jdbcTemplate.batchUpdate(isPostgreSQL() ? POSTGRES_STAGE_COUNT : PORTABLE_STAGE_COUNT, rows);
+    }
+
+    /**
+     * Find the staged lines that counted stock where there is no stock record yet.
+     *
+     * @param reconciliationUuid the count
+     * @return the product and warehouse pairs, in no particular order
+     */
+    public List<StockKey> findCountsWithoutStock(UUID reconciliationUuid) {
+        return jdbcTemplate.query(FIND_COUNTS_WITHOUT_STOCK,
+                (rs, rowNum) -> new StockKey(rs.getObject("product_uuid", UUID.class), rs.getObject("warehouse_uuid", UUID.class)),
+                reconciliationUuid);
+    }
+
+    /**
+     * Apply the staged lines of a count: lock the counted stock records, record the expected
+     * quantity of every line, and record and fold the difference of the lines that differ. Lines
+     * without a stock record are left with no expected quantity. Must be called inside a transaction.
+     *
+     * @param reconciliationUuid the count
+     * @param source             the user applying the count
+     * @return the number of stock records corrected
+     */
+    public int applyCounts(UUID reconciliationUuid, String source) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(RESOLVE_STOCKS, reconciliationUuid);
+        jdbcTemplate.queryForList(LOCK_STOCKS, UUID.class, reconciliationUuid);
+        jdbcTemplate.update(CAPTURE_EXPECTED, reconciliationUuid);
+        jdbcTemplate.update(isPostgreSQL() ? POSTGRES_RECORD_VARIANCES : PORTABLE_RECORD_VARIANCES, source, now,
+                reconciliationUuid);
+        return isPostgreSQL()
+                ? jdbcTemplate.update(POSTGRES_FOLD_COUNTS, now, reconciliationUuid)
+                : jdbcTemplate.update(PORTABLE_FOLD_COUNTS, reconciliationUuid, now);
+    }
+
+    /**
+     * Read the variance report of an applied count, in the order of the count file. A line without a
+     * stock record expected nothing.
+     *
+     * @param reconciliationUuid the count
+     * @return one variance per staged line
+     */
+    public List<StockVarianceDTO> findVariances(UUID reconciliationUuid) {
+        return jdbcTemplate.query(FIND_VARIANCES, (rs, rowNum) -> {
+            int expected = rs.getInt("expected_quantity");
+            int counted = rs.getInt("counted_quantity");
+            BigDecimal price = rs.getBigDecimal("price");
+            return new StockVarianceDTO(rs.getLong("line_number"), rs.getString("product_code"),
+                    rs.getString("product_name"), rs.getString("warehouse_code"), expected, counted, counted - expected,
+                    price.multiply(BigDecimal.valueOf(counted - expected)));
+        }, reconciliationUuid);
+    }
+
+    /**
+     * Delete the staged lines of a count.
+     *
+     * @param reconciliationUuid the count
+     */
+    public void deleteCounts(UUID reconciliationUuid) {
+        jdbcTemplate.update(DELETE_COUNTS, reconciliationUuid);
+    }
+
+    private boolean isPostgreSQL() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -3,11 +3,16 @@ package com.nexora.repository.inventory;
 import com.nexora.model.inventory.Product;
 import com.nexora.model.inventory.Stock;
 import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +23,84 @@ import java.util.UUID;
 @Repository
 public interface StockRepository extends JpaRepository<Stock, UUID> {
 
+    /**
+     * Find a stock record and lock its row exclusively until the transaction ends.
+     *
+     * @param id the stock UUID
+     * @return an Optional containing the stock if found, or empty if not found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Stock s WHERE s.uuid = :id")
+    Optional<Stock> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Find stock records and lock their rows exclusively until the transaction ends. The rows are
+     * locked in uuid order, so transactions locking overlapping sets of rows cannot deadlock.
+     *
+     * @param ids the stock UUIDs
+     * @return the stock records found, ordered by uuid
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Stock s WHERE s.uuid IN :ids ORDER BY s.uuid")
+    List<Stock> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * The uuid of a stock record with its product and warehouse UUIDs, read without loading the entity.
+     */
+    interface StockLocation {
+        UUID getUuid();
+
+        UUID getProductUuid();
+
+        UUID getWarehouseUuid();
+    }
+
+    /**
+     * Find the stock records of the given products in the given warehouses, without loading or
+     * locking them.
+     *
+     * @param productUuids   the product UUIDs
+     * @param warehouseUuids the warehouse UUIDs
+     * @return the stock records of every product in every warehouse that has one
+     */
+    @Query("SELECT s.uuid AS uuid, s.product.uuid AS productUuid, s.warehouse.uuid AS warehouseUuid FROM Stock s " +
+            "WHERE s.product.uuid IN :productUuids AND s.warehouse.uuid IN :warehouseUuids")
+    List<StockLocation> findLocations(@Param("productUuids") Collection<UUID> productUuids,
+                                      @Param("warehouseUuids") Collection<UUID> warehouseUuids);
+
+    /**
+     * The current quantity of a stock record, pending ledger movements included, with its location.
+     */
+    interface StockQuantity extends StockLocation {
+        long getQuantity();
+
+        long getPosition();
+    }
+
+    /**
+     * Read the current quantity of every stock record in one statement, so stored quantities and
+     * pending movements come from the same snapshot.
+     *
+     * @return the current quantity and ledger position of every stock record
+     */
+    @Query("SELECT s.uuid AS uuid, s.product.uuid AS productUuid, s.warehouse.uuid AS warehouseUuid, " +
+            "s.quantity + COALESCE(SUM(m.delta), 0) AS quantity, COALESCE(MAX(m.id), s.ledgerPosition) AS position " +
+            "FROM Stock s LEFT JOIN StockMovement m ON m.stockUuid = s.uuid AND m.id > s.ledgerPosition " +
+            "GROUP BY s.uuid, s.product.uuid, s.warehouse.uuid, s.quantity, s.ledgerPosition")
+    List<StockQuantity> findAllQuantities();
+
+    /**
+     * Move the ledger position of each given stock record to its latest movement, for stock records
+     * created in the current transaction whose only movement is the initial quantity.
+     *
+     * @param uuids the stock UUIDs
+     * @return the number of updated stock records
+     */
+    @Modifying
+    @Query("UPDATE Stock s SET s.ledgerPosition = " +
+            "(SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m WHERE m.stockUuid = s.uuid) WHERE s.uuid IN :uuids")
+    int moveLedgerPositionsToLatest(@Param("uuids") Collection<UUID> uuids);
+
     /**
      * Find stock by product and warehouse.
      *
@@ -35,6 +118,17 @@ public interface StockRepository extends JpaRepository<Stock, UUID> {
      */
     List<Stock> findByProduct(Product product);
 
+    /**
+     * Find the product and warehouse pairs that already have a stock record, for the given products.
+     * Only the two UUID columns are read; no stock entities are loaded.
+     *
+     * @param productUuids the product UUIDs, at most 1000
+     * @return the product and warehouse pair of each stock record of those products
+     */
+    @Query("SELECT new com.nexora.repository.inventory.InventoryUpsertRepository$StockKey(s.product.uuid, s.warehouse.uuid) " +
+            "FROM Stock s WHERE s.product.uuid IN :productUuids")
+    List<StockKey> findProductWarehouseKeys(@Param("productUuids") Collection<UUID> productUuids);
+
     /**
      * Find all stock records for a specific warehouse.
      *
@@ -44,28 +138,76 @@ public interface StockRepository extends JpaRepository<Stock, UUID> {
     List<Stock> findByWarehouse(Warehouse warehouse);
 
     /**
-     * Find all stock records where quantity is less than or equal to minimum stock level.
+     * Find all stock records for a product by its UUID, with product and warehouse fetched.
+     * Filters on the product_uuid foreign key, so the product does not have to be loaded first.
+     *
+     * @param productUuid the product UUID
+     * @return a list of stock records for the product
+     */
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product p JOIN FETCH s.warehouse " +
+            "WHERE p.uuid = :productUuid")
+    List<Stock> findByProductUuid(@Param("productUuid") UUID productUuid);
+
+    /**
+     * Find all stock records for a warehouse by its UUID, with product and warehouse fetched.
+     * Filters on the warehouse_uuid foreign key, so the warehouse does not have to be loaded first.
+     *
+     * @param warehouseUuid the warehouse UUID
+     * @return a list of stock records for the warehouse
+     */
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product JOIN FETCH s.warehouse w " +
+            "WHERE w.uuid = :warehouseUuid")
+    List<Stock> findByWarehouseUuid(@Param("warehouseUuid") UUID warehouseUuid);
+
+    /**
+     * Find stock by product and warehouse UUIDs, with product and warehouse fetched.
+     *
+     * @param productUuid   the product UUID
+     * @param warehouseUuid the warehouse UUID
+     * @return an Optional containing the stock if found, or empty if not found
+     */
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product p JOIN FETCH s.warehouse w " +
+            "WHERE p.uuid = :productUuid AND w.uuid = :warehouseUuid")
+    Optional<Stock> findByProductUuidAndWarehouseUuid(@Param("productUuid") UUID productUuid,
+                                                      @Param("warehouseUuid") UUID warehouseUuid);
+
+    /**
+     * Find all stock records where quantity is less than or equal to minimum stock level,
+     * including zero stock. Served by the partial index on the stored stock status.
      *
      * @return a list of stock records with low stock
      */
-    @Query("SELECT s FROM Stock s WHERE s.quantity <= s.minStockLevel")
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product JOIN FETCH s.warehouse " +
+            "WHERE s.stockStatus IN (com.nexora.model.inventory.StockStatus.ZERO, com.nexora.model.inventory.StockStatus.LOW)")
     List<Stock> findLowStock();
 
     /**
      * Find all stock records where quantity is greater than or equal to maximum stock level.
+     * Served by the partial index on the stored stock status.
      *
      * @return a list of stock records with over stock
      */
-    @Query("SELECT s FROM Stock s WHERE s.maxStockLevel IS NOT NULL AND s.quantity >= s.maxStockLevel")
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product JOIN FETCH s.warehouse " +
+            "WHERE s.stockStatus = com.nexora.model.inventory.StockStatus.OVER")
     List<Stock> findOverStock();
 
+    /**
+     * Find all stock records with zero quantity.
+     * Served by the partial index on the stored stock status.
+     *
+     * @return a list of stock records with zero quantity
+     */
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product JOIN FETCH s.warehouse " +
+            "WHERE s.stockStatus = com.nexora.model.inventory.StockStatus.ZERO")
+    List<Stock> findZeroStock();
+
     /**
      * Find all stock records for a product by product code.
      *
      * @param productCode the product code
      * @return a list of stock records for the product
      */
-    @Query("SELECT s FROM Stock s JOIN s.product p WHERE p.code = :productCode")
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product p JOIN FETCH s.warehouse WHERE p.code = :productCode")
     List<Stock> findByProductCode(@Param("productCode") String productCode);
 
     /**
@@ -74,7 +216,7 @@ public interface StockRepository extends JpaRepository<Stock, UUID> {
      * @param warehouseCode the warehouse code
      * @return a list of stock records for the warehouse
      */
-    @Query("SELECT s FROM Stock s JOIN s.warehouse w WHERE w.code = :warehouseCode")
+    @Query("SELECT s FROM Stock s JOIN FETCH s.product JOIN FETCH s.warehouse w WHERE w.code = :warehouseCode")
     List<Stock> findByWarehouseCode(@Param("warehouseCode") String warehouseCode);
 
     /**
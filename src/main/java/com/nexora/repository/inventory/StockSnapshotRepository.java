@@ -0,0 +1,44 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for StockSnapshot entity.
+ */
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, StockSnapshot.Key> {
+
+    /**
+     * Find the latest snapshot of a stock record taken at or before the given time.
+     * Served by the primary key (stock_uuid, taken_at).
+     *
+     * @param stockUuid the stock UUID
+     * @param takenAt   the latest snapshot time to consider
+     * @return an Optional containing the snapshot if found, or empty if not found
+     */
+    Optional<StockSnapshot> findFirstByStockUuidAndTakenAtLessThanEqualOrderByTakenAtDesc(UUID stockUuid, LocalDateTime takenAt);
+
+    /**
+     * Snapshot the stored level of every stock record whose ledger position has moved past its
+     * latest snapshot, such as records folded by the adjustment sequencer, which writes none. The
+     * stored quantity and ledger position are committed together, so no row lock is needed.
+     *
+     * @param takenAt the snapshot time
+     * @return the number of snapshots written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshots (stock_uuid, taken_at, quantity, ledger_position) " +
+            "SELECT s.uuid, :takenAt, s.quantity, s.ledger_position FROM stocks s " +
+            "WHERE s.ledger_position > COALESCE((SELECT MAX(n.ledger_position) FROM stock_snapshots n " +
+            "WHERE n.stock_uuid = s.uuid), 0)", nativeQuery = true)
+    int snapshotFoldedStocks(@Param("takenAt") LocalDateTime takenAt);
+}
@@ -3,8 +3,10 @@ package com.nexora.repository.inventory;
 import com.nexora.model.inventory.Warehouse;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,7 +15,7 @@ import java.util.UUID;
  * Repository interface for Warehouse entity.
  */
 @Repository
-public interface WarehouseRepository extends JpaRepository<Warehouse, UUID> {
+public interface WarehouseRepository extends JpaRepository<Warehouse, UUID>, WarehouseSearchRepository {
 
     /**
      * Find a warehouse by its unique code.
@@ -31,6 +33,15 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, UUID> {
      */
     boolean existsByCode(String code);
 
+    /**
+     * Find which of the given codes are already taken, in one statement.
+     *
+     * @param codes the warehouse codes to check
+     * @return the codes that exist
+     */
+    @Query("SELECT w.code FROM Warehouse w WHERE w.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
     /**
      * Find all active warehouses.
      *
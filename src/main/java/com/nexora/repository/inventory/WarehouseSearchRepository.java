@@ -0,0 +1,24 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.Warehouse;
+
+import java.util.List;
+
+/**
+ * Ranked free-text search over warehouses, mixed into {@link WarehouseRepository}.
+ */
+public interface WarehouseSearchRepository {
+
+    /**
+     * Search warehouses whose code, name, city or description contain the given text
+     * (case-insensitive).
+     * <p>
+     * Results are ranked: exact code matches first, then warehouses whose name starts with
+     * the text, then all other matches; ties are ordered by name.
+     *
+     * @param query the text to search for, must not be blank
+     * @param limit the maximum number of results
+     * @return the matching warehouses in rank order
+     */
+    List<Warehouse> searchRanked(String query, int limit);
+}
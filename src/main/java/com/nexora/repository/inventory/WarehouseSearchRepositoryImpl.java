@@ -0,0 +1,73 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.model.inventory.Warehouse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link WarehouseSearchRepository}.
+ */
+class WarehouseSearchRepositoryImpl implements WarehouseSearchRepository {
+
+    // warehouse_search_text() is the expression indexed by idx_warehouses_search_trgm
+    private static final String POSTGRES_SEARCH = """
+            SELECT w.* FROM warehouses w
+            WHERE public.warehouse_search_text(w.code, w.name, w.city, w.description) LIKE :pattern ESCAPE '!'
+            ORDER BY CASE
+                         WHEN upper(w.code) = :text THEN 0
+                         WHEN upper(w.name) LIKE :prefix ESCAPE '!' THEN 1
+                         ELSE 2
+                     END,
+                     word_similarity(:text, public.warehouse_search_text(w.code, w.name, w.city, w.description)) DESC,
+                     w.name
+            LIMIT :limit
+            """;
+
+    private static final String PORTABLE_SEARCH = """
+            SELECT w FROM Warehouse w
+            WHERE upper(w.code) LIKE :pattern ESCAPE '!'
+               OR upper(w.name) LIKE :pattern ESCAPE '!'
+               OR upper(w.city) LIKE :pattern ESCAPE '!'
+               OR upper(w.description) LIKE :pattern ESCAPE '!'
+            ORDER BY CASE
+                         WHEN upper(w.code) = :text THEN 0
+                         WHEN upper(w.name) LIKE :prefix ESCAPE '!' THEN 1
+                         ELSE 2
+                     END,
+                     w.name
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Warehouse> searchRanked(String query, int limit) {
+        String text = SearchQuerySupport.normalize(query);
+        if (isPostgreSQL()) {
+            return entityManager.createNativeQuery(POSTGRES_SEARCH, Warehouse.class)
+                    .setParameter("pattern", SearchQuerySupport.containsPattern(text))
+                    .setParameter("prefix", SearchQuerySupport.prefixPattern(text))
+                    .setParameter("text", text)
+                    .setParameter("limit", limit)
+                    .getResultList();
+        }
+        return entityManager.createQuery(PORTABLE_SEARCH, Warehouse.class)
+                .setParameter("pattern", SearchQuerySupport.containsPattern(text))
+                .setParameter("prefix", SearchQuerySupport.prefixPattern(text))
+                .setParameter("text", text)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private boolean isPostgreSQL() {
+        if (postgres == null) {
+            postgres = SearchQuerySupport.isPostgreSQL(entityManager);
+        }
+        return postgres;
+    }
+}
@@ -1,5 +1,7 @@
 package com.nexora.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +18,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -23,10 +26,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.validTokenTimer = verificationTimer(meterRegistry, "valid");
+        this.invalidTokenTimer = verificationTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.jwt.verification")
+                .description("Time spent parsing and verifying JWT tokens, excluding the user lookup")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     @Override
@@ -54,14 +68,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        long verificationStart = System.nanoTime();
         userEmail = jwtService.extractUsername(jwt);
+        long verificationNanos = System.nanoTime() - verificationStart;
 
         // Check if user is not already authenticated and email is present in token
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (userEmail == null) {
+            invalidTokenTimer.record(verificationNanos, TimeUnit.NANOSECONDS);
+        } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
             // Validate token
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            verificationStart = System.nanoTime();
+            boolean valid = jwtService.isTokenValid(jwt, userDetails);
+            verificationNanos += System.nanoTime() - verificationStart;
+            (valid ? validTokenTimer : invalidTokenTimer).record(verificationNanos, TimeUnit.NANOSECONDS);
+
+            if (valid) {
                 // Extract authorities from token
                 List<String> authorities = jwtService.extractAuthorities(jwt);
 
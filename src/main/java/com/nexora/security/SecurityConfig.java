@@ -1,6 +1,7 @@
 package com.nexora.security;
 
 import com.nexora.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -25,15 +26,17 @@ public class SecurityConfig {
 
     private final UserRepository userRepository;
     private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfig(UserRepository userRepository, JwtService jwtService) {
+    public SecurityConfig(UserRepository userRepository, JwtService jwtService, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtService, userDetailsService());
+        return new JwtAuthenticationFilter(jwtService, userDetailsService(), meterRegistry);
     }
 
     @Bean
@@ -51,6 +54,8 @@ public class SecurityConfig {
                                 "/v3/api-docs/**",
                                 "/swagger-resources/**",
                                 "/webjars/**").permitAll()
+                        // Health checks and the Prometheus scrape endpoint
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
 
                         // READ operations - accessible to all authenticated users
                         .requestMatchers(HttpMethod.GET, "/api/v1/inventory/**").hasAnyAuthority("USER", "MANAGER", "ADMIN")
@@ -11,6 +11,11 @@ import com.nexora.service.inventory.ProductService;
 import com.nexora.service.inventory.StockService;
 import com.nexora.service.inventory.WarehouseService;
 import com.nexora.util.ExcelExportUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -19,6 +24,10 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
 @Service
@@ -30,20 +39,37 @@ public class ExportMessageConsumer {
     private final ExportService exportService;
     private final SimpMessagingTemplate messagingTemplate;
     private final ExportJobRepository exportJobRepository;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService serializationExecutor;
 
     public ExportMessageConsumer(ExportJobRepository exportJobRepository, SimpMessagingTemplate messagingTemplate,
                                  ExportService exportService, ProductService productService,
-                                 StockService stockService, WarehouseService warehouseService) {
+                                 StockService stockService, WarehouseService warehouseService,
+                                 MeterRegistry meterRegistry,
+                                 @Qualifier("exportSerializationExecutor") ObjectProvider<ExecutorService> serializationExecutor) {
         this.exportJobRepository = exportJobRepository;
         this.messagingTemplate = messagingTemplate;
         this.exportService = exportService;
         this.productService = productService;
         this.stockService = stockService;
         this.warehouseService = warehouseService;
+        this.meterRegistry = meterRegistry;
+        this.serializationExecutor = serializationExecutor.getIfAvailable();
     }
 
     @RabbitListener(queues = "${rabbitmq.queue.export.name}")
     public void consumeExportRequest(ExportRequestEvent event) {
+        String category = String.valueOf(event.getCategory());
+        if (event.getRequestedAt() > 0) {
+            Timer.builder("export.queue.lag")
+                    .description("Time between an export request and the start of its processing")
+                    .tag("category", category)
+                    .register(meterRegistry)
+                    .record(Math.max(0, System.currentTimeMillis() - event.getRequestedAt()), TimeUnit.MILLISECONDS);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
         try {
             // Update status to PROCESSING
             updateJobStatus(event.getJobId(), Status.PROCESSING, null);
@@ -52,10 +78,20 @@ public class ExportMessageConsumer {
             ExportData exportData = generateExportData(event.getCategory());
 
             // Upload to Digital Ocean Spaces
-            exportService.uploadToSpaces(event.getJobId(), event.getUserId(), exportData.data(), exportData.filename());
+            timeStage("upload", category, () -> {
+                exportService.uploadToSpaces(event.getJobId(), event.getUserId(), exportData.data(), exportData.filename());
+                return null;
+            });
 
         } catch (Exception e) {
+            outcome = "failure";
             handleExportError(event.getJobId(), e);
+        } finally {
+            sample.stop(Timer.builder("export.duration")
+                    .description("Total processing time of an export request")
+                    .tag("category", category)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 
@@ -71,13 +107,47 @@ public class ExportMessageConsumer {
         String categoryName = category.name().toLowerCase();
         String sheetName = "data_" + categoryName;
 
-        List<?> data = getDataForCategory(category);
-        byte[] excelData = ExcelExportUtil.exportToExcel(data, sheetName);
+        String tag = category.name();
+        List<?> data = timeStage("query", tag, () -> getDataForCategory(category));
+        DistributionSummary.builder("export.rows")
+                .description("Number of rows per export")
+                .tag("category", tag)
+                .register(meterRegistry)
+                .record(data.size());
+
+        byte[] excelData = timeStage("serialize", tag, () -> serialize(data, sheetName));
+        DistributionSummary.builder("export.size")
+                .description("Size of the generated export file")
+                .baseUnit("bytes")
+                .tag("category", tag)
+                .register(meterRegistry)
+                .record(excelData.length);
         String filename = categoryName + "_" + timestamp + ".xlsx";
 
         return new ExportData(excelData, filename);
     }
 
+    /**
+     * Serializes the data to Excel. When running on virtual threads the work is handed to the
+     * platform thread pool from {@link com.nexora.config.VirtualThreadConfig}, because POI and
+     * XmlBeans synchronize internally and would otherwise pin the carrier thread.
+     *
+     * @param data      the rows to serialize
+     * @param sheetName the sheet name
+     * @return the workbook bytes
+     * @throws Exception if serialization fails
+     */
+    private byte[] serialize(List<?> data, String sheetName) throws Exception {
+        if (serializationExecutor == null) {
+            return ExcelExportUtil.exportToExcel(data, sheetName);
+        }
+        try {
+            return serializationExecutor.submit(() -> ExcelExportUtil.exportToExcel(data, sheetName)).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
     /**
      * Gets the appropriate data for the specified category.
      *
@@ -93,6 +163,24 @@ public class ExportMessageConsumer {
         };
     }
 
+    /**
+     * Runs one stage of the export pipeline and records its duration.
+     *
+     * @param stage    the stage name (query, serialize or upload)
+     * @param category the exported category
+     * @param action   the stage to run
+     * @return the result of the stage
+     * @throws Exception if the stage fails
+     */
+    private <T> T timeStage(String stage, String category, Callable<T> action) throws Exception {
+        return Timer.builder("export.stage")
+                .description("Time spent in each stage of the export pipeline")
+                .tag("stage", stage)
+                .tag("category", category)
+                .register(meterRegistry)
+                .recordCallable(action);
+    }
+
     /**
      * Updates the status of an export job.
      *
@@ -0,0 +1,277 @@
+package com.nexora.service.event;
+
+import com.nexora.dto.inventory.StockVarianceDTO;
+import com.nexora.model.inventory.Category;
+import com.nexora.model.inventory.ImportJob;
+import com.nexora.model.inventory.Status;
+import com.nexora.model.inventory.event.ExportStatusUpdateEvent;
+import com.nexora.model.inventory.event.ImportRequestEvent;
+import com.nexora.model.inventory.event.ImportStatusUpdateEvent;
+import com.nexora.model.inventory.ExportJob;
+import com.nexora.repository.inventory.ExportJobRepository;
+import com.nexora.repository.inventory.ImportJobRepository;
+import com.nexora.service.inventory.ExportService;
+import com.nexora.service.inventory.ImportService;
+import com.nexora.service.inventory.InventoryImporter;
+import com.nexora.service.inventory.InventoryImporter.ImportResult;
+import com.nexora.service.inventory.InventoryImporter.Reconciliation;
+import com.nexora.service.inventory.InventoryImporter.RowSource;
+import com.nexora.util.ExcelExportUtil;
+import com.nexora.util.TabularFileReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+@Service
+public class ImportMessageConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportMessageConsumer.class);
+
+    private final ImportJobRepository importJobRepository;
+    private final ExportJobRepository exportJobRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ImportService importService;
+    private final InventoryImporter inventoryImporter;
+    private final ExportService exportService;
+    private final MeterRegistry meterRegistry;
+
+    public ImportMessageConsumer(ImportJobRepository importJobRepository, ExportJobRepository exportJobRepository,
+                                 SimpMessagingTemplate messagingTemplate, ImportService importService,
+                                 InventoryImporter inventoryImporter, ExportService exportService,
+                                 MeterRegistry meterRegistry) {
+        this.importJobRepository = importJobRepository;
+        this.exportJobRepository = exportJobRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.importService = importService;
+        this.inventoryImporter = inventoryImporter;
+        this.exportService = exportService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @RabbitListener(queues = "${rabbitmq.queue.import.name:import.queue}")
+    public void consumeImportRequest(ImportRequestEvent event) {
+        String category = String.valueOf(event.getCategory());
+        if (event.getRequestedAt() > 0) {
+            Timer.builder("import.queue.lag")
+                    .description("Time between an import request and the start of its processing")
+                    .tag("category", category)
+                    .register(meterRegistry)
+                    .record(Math.max(0, System.currentTimeMillis() - event.getRequestedAt()), TimeUnit.MILLISECONDS);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            // Update status to PROCESSING
+            updateJob(event.getJobId(), Status.PROCESSING, new ImportResult(0, 0, 0, List.of()), null);
+
+            ImportResult result = importFile(event);
+
+            String errors = result.errors().isEmpty() ? null : String.join("; ", result.errors());
+            updateJob(event.getJobId(), Status.COMPLETED, result, errors);
+            countRows(category, "imported", result.importedRows());
+            countRows(category, "rejected", result.rejectedRows());
+        } catch (Exception e) {
+            outcome = "failure";
+            handleImportError(event.getJobId(), e);
+        } finally {
+            sample.stop(Timer.builder("import.duration")
+                    .description("Total processing time of an import request")
+                    .tag("category", category)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            deleteUpload(event.getFileKey());
+        }
+    }
+
+    /**
+     * Streams the uploaded file through the importer. CSV is parsed straight from object storage;
+     * XLSX is a zip archive that POI needs random access to, so it is copied to a temporary file
+     * first and read with the event API.
+     *
+     * @param event the import request
+     * @return the final row counts
+     * @throws Exception if the file cannot be read or a batch fails
+     */
+    private ImportResult importFile(ImportRequestEvent event) throws Exception {
+        UUID jobId = event.getJobId();
+        InventoryImporter.ProgressListener progress = result -> updateJob(jobId, Status.PROCESSING, result, null);
+
+        if ("CSV".equals(event.getImportType())) {
+            try (InputStream in = importService.openUpload(event.getFileKey())) {
+                return importRows(event, handler -> TabularFileReader.readCsv(in, handler), progress);
+            }
+        }
+        Path file = Files.createTempFile("import-" + jobId, ".xlsx");
+        try {
+            try (InputStream in = importService.openUpload(event.getFileKey())) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return importRows(event, handler -> TabularFileReader.readXlsx(file.toFile(), handler), progress);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Imports the rows, or applies them as a physical stock count and publishes its variance report.
+     *
+     * @param event    the import request
+     * @param rows     the rows of the file
+     * @param progress receives progress after every batch
+     * @return the final row counts
+     * @throws Exception if a batch fails
+     */
+    private ImportResult importRows(ImportRequestEvent event, RowSource rows, InventoryImporter.ProgressListener progress)
+            throws Exception {
+        if (event.getCategory() != Category.RECONCILIATION) {
+            return inventoryImporter.importRows(event.getCategory(), rows, progress);
+        }
+        // Requests queued before requestedBy was sent only carry the user ID
+        String countedBy = event.getRequestedBy() != null ? event.getRequestedBy() : String.valueOf(event.getUserId());
+        Reconciliation reconciliation = inventoryImporter.reconcile(rows, countedBy, progress);
+        publishVariances(event.getUserId(), reconciliation.variances());
+        return reconciliation.result();
+    }
+
+    /**
+     * Publishes the variance report of an applied stock count as a completed export job, so it is
+     * listed and downloaded like any export. If publishing fails the export job is marked FAILED;
+     * the count stays applied.
+     *
+     * @param userId    the user who uploaded the count
+     * @param variances the variance of every counted line
+     */
+    private void publishVariances(UUID userId, List<StockVarianceDTO> variances) {
+        if (variances.isEmpty()) {
+            return;
+        }
+        UUID exportJobId = exportService.initiateExport(userId, Category.RECONCILIATION, "XLSX");
+        try {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy_MM_dd_HH_mm_ss"));
+            byte[] data = ExcelExportUtil.exportToExcel(variances, "data_reconciliation");
+            exportService.uploadToSpaces(exportJobId, userId, data, "reconciliation_" + timestamp + ".xlsx");
+        } catch (Exception e) {
+            log.warn("Could not publish the variance report of export job {}", exportJobId, e);
+            handleVarianceExportError(exportJobId, e);
+        }
+    }
+
+    /**
+     * Marks the export job of a variance report FAILED and sends a WebSocket notification, like a
+     * failed export.
+     *
+     * @param exportJobId the ID of the export job
+     * @param exception   the exception that occurred
+     */
+    private void handleVarianceExportError(UUID exportJobId, Exception exception) {
+        String errorMessage = exception.getMessage();
+
+        ExportJob job = exportJobRepository.findById(exportJobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+        job.setStatus(Status.FAILED);
+        if (errorMessage != null) {
+            job.setErrorMessage(errorMessage);
+        }
+        exportJobRepository.save(job);
+
+        ExportStatusUpdateEvent updateEvent = new ExportStatusUpdateEvent();
+        updateEvent.setJobId(exportJobId);
+        updateEvent.setStatus(Status.FAILED);
+        updateEvent.setErrorMessage(errorMessage);
+        messagingTemplate.convertAndSend("/topic/export-status/" + exportJobId, updateEvent);
+    }
+
+    /**
+     * Stores the progress of an import job and pushes it to WebSocket subscribers.
+     *
+     * @param jobId        the ID of the job to update
+     * @param status       the new status
+     * @param result       the row counts so far
+     * @param errorMessage the error message (if any)
+     */
+    private void updateJob(UUID jobId, Status status, ImportResult result, String errorMessage) {
+        ImportJob job = importJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+        job.setStatus(status);
+        job.setProcessedRows(result.processedRows());
+        job.setImportedRows(result.importedRows());
+        job.setRejectedRows(result.rejectedRows());
+        if (errorMessage != null) {
+            job.setErrorMessage(truncate(errorMessage));
+        }
+        importJobRepository.save(job);
+
+        messagingTemplate.convertAndSend("/topic/import-status/" + jobId, new ImportStatusUpdateEvent(jobId, status,
+                result.processedRows(), result.importedRows(), result.rejectedRows(), job.getErrorMessage()));
+    }
+
+    /**
+     * Handles import errors by updating the job status and sending a WebSocket notification.
+     * Batches committed before the failure are kept.
+     *
+     * @param jobId     the ID of the job that failed
+     * @param exception the exception that occurred
+     */
+    private void handleImportError(UUID jobId, Exception exception) {
+        String errorMessage = truncate(exception.getMessage());
+
+        ImportJob job = importJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+        job.setStatus(Status.FAILED);
+        job.setErrorMessage(errorMessage);
+        importJobRepository.save(job);
+
+        ImportStatusUpdateEvent updateEvent = new ImportStatusUpdateEvent();
+        updateEvent.setJobId(jobId);
+        updateEvent.setStatus(Status.FAILED);
+        updateEvent.setProcessedRows(job.getProcessedRows());
+        updateEvent.setImportedRows(job.getImportedRows());
+        updateEvent.setRejectedRows(job.getRejectedRows());
+        updateEvent.setErrorMessage(errorMessage);
+        messagingTemplate.convertAndSend("/topic/import-status/" + jobId, updateEvent);
+    }
+
+    private void countRows(String category, String result, long rows) {
+        Counter.builder("import.rows")
+                .description("Number of rows imported or rejected by imports")
+                .tag("category", category)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    private void deleteUpload(String fileKey) {
+        if (fileKey == null) {
+            return;
+        }
+        try {
+            importService.deleteUpload(fileKey);
+        } catch (Exception e) {
+            log.warn("Could not delete uploaded import file {}", fileKey, e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= 500) {
+            return message;
+        }
+        return message.substring(0, 497) + "...";
+    }
+}
@@ -0,0 +1,26 @@
+package com.nexora.service.event;
+
+import com.nexora.model.inventory.event.ImportRequestEvent;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ImportMessageProducer {
+
+    private final AmqpTemplate amqpTemplate;
+
+    @Value("${rabbitmq.exchange.name}")
+    private String exchangeName;
+
+    @Value("${rabbitmq.routing.key.import:import.routing.key}")
+    private String importRoutingKey;
+
+    public ImportMessageProducer(AmqpTemplate amqpTemplate) {
+        this.amqpTemplate = amqpTemplate;
+    }
+
+    public void sendImportRequest(ImportRequestEvent event) {
+        amqpTemplate.convertAndSend(exchangeName, importRoutingKey, event);
+    }
+}
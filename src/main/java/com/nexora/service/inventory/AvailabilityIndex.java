@@ -0,0 +1,159 @@
+package com.nexora.service.inventory;
+
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockRepository.StockQuantity;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory product × warehouse quantity index used for available-to-promise queries.
+ * <p>
+ * Each product maps to a small array with one cell per warehouse it is stocked in, holding the stock
+ * UUID and its current quantity, pending ledger movements included. Lookups are a single map read and
+ * never touch the database; the arrays are replaced, never changed, so readers need no lock. Writes
+ * are serialized and applied by {@link com.nexora.service.inventory.impl.StockServiceImpl} after the
+ * owning transaction commits. Each cell keeps the ledger position of its quantity, and a write with an
+ * older position than the cell's is ignored, so adjustments committed concurrently cannot overwrite a
+ * newer quantity with an older one whatever order their callbacks run in.
+ * <p>
+ * Since only the changes committed on this node reach the index, it is kept on one application node
+ * only: it claims {@value #FEATURE} through {@link NodeClaims} on startup, and a second node refuses to
+ * start while the first one holds the claim.
+ */
+@Component
+public class AvailabilityIndex {
+
+    /**
+     * The quantity of a product in one warehouse.
+     *
+     * @param stockUuid     the stock UUID
+     * @param warehouseUuid the warehouse UUID
+     * @param quantity      the current quantity
+     * @param position      the ledger position the quantity includes
+     */
+    public record Cell(UUID stockUuid, UUID warehouseUuid, int quantity, long position) {
+    }
+
+    static final String FEATURE = "availability-index";
+
+    private static final Cell[] NONE = new Cell[0];
+
+    private final StockRepository stockRepository;
+    private final NodeClaims nodeClaims;
+    private final Map<UUID, Cell[]> cellsByProduct = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> productsByStock = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(StockRepository stockRepository, NodeClaims nodeClaims) {
+        this.stockRepository = stockRepository;
+        this.nodeClaims = nodeClaims;
+    }
+
+    /**
+     * Claims the index for this node and loads it once the application has started.
+     *
+     * @throws IllegalStateException if another node holds the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        nodeClaims.claim(FEATURE);
+        rebuild();
+    }
+
+    /**
+     * Loads the current quantity of every stock record.
+     */
+    public synchronized void rebuild() {
+        Map<UUID, Cell[]> loaded = new HashMap<>();
+        Map<UUID, UUID> products = new HashMap<>();
+        for (StockQuantity row : stockRepository.findAllQuantities()) {
+            Cell cell = new Cell(row.getUuid(), row.getWarehouseUuid(), (int) row.getQuantity(), row.getPosition());
+            loaded.merge(row.getProductUuid(), new Cell[]{cell}, AvailabilityIndex::concat);
+            products.put(row.getUuid(), row.getProductUuid());
+        }
+        cellsByProduct.keySet().retainAll(loaded.keySet());
+        cellsByProduct.putAll(loaded);
+        productsByStock.keySet().retainAll(products.keySet());
+        productsByStock.putAll(products);
+    }
+
+    /**
+     * Sets the quantity of a stock record, unless the index already holds a newer one.
+     *
+     * @param stockUuid     the stock UUID
+     * @param productUuid   the product UUID
+     * @param warehouseUuid the warehouse UUID
+     * @param quantity      the current quantity
+     * @param position      the ledger position the quantity includes
+     */
+    public synchronized void put(UUID stockUuid, UUID productUuid, UUID warehouseUuid, int quantity, long position) {
+        UUID previousProduct = productsByStock.get(stockUuid);
+        if (previousProduct != null) {
+            Cell previous = find(cellsByProduct.getOrDefault(previousProduct, NONE), stockUuid);
+            if (previous != null && previous.position() > position) {
+                return;
+            }
+            unlink(previousProduct, stockUuid);
+        }
+        Cell cell = new Cell(stockUuid, warehouseUuid, quantity, position);
+        cellsByProduct.merge(productUuid, new Cell[]{cell}, AvailabilityIndex::concat);
+        productsByStock.put(stockUuid, productUuid);
+    }
+
+    /**
+     * Removes a deleted stock record.
+     *
+     * @param stockUuid the stock UUID
+     */
+    public synchronized void remove(UUID stockUuid) {
+        UUID productUuid = productsByStock.remove(stockUuid);
+        if (productUuid != null) {
+            unlink(productUuid, stockUuid);
+        }
+    }
+
+    /**
+     * @param productUuid the product UUID
+     * @return the quantity of the product in each warehouse it is stocked in; must not be modified
+     */
+    public Cell[] cells(UUID productUuid) {
+        return cellsByProduct.getOrDefault(productUuid, NONE);
+    }
+
+    /**
+     * @return the number of indexed stock records
+     */
+    public int size() {
+        return productsByStock.size();
+    }
+
+    private void unlink(UUID productUuid, UUID stockUuid) {
+        cellsByProduct.computeIfPresent(productUuid, (uuid, cells) -> {
+            Cell[] remaining = Arrays.stream(cells)
+                    .filter(cell -> !cell.stockUuid().equals(stockUuid))
+                    .toArray(Cell[]::new);
+            return remaining.length == 0 ? null : remaining;
+        });
+    }
+
+    private static Cell find(Cell[] cells, UUID stockUuid) {
+        for (Cell cell : cells) {
+            if (cell.stockUuid().equals(stockUuid)) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    private static Cell[] concat(Cell[] cells, Cell[] added) {
+        Cell[] merged = Arrays.copyOf(cells, cells.length + added.length);
+        System.arraycopy(added, 0, merged, cells.length, added.length);
+        return merged;
+    }
+}
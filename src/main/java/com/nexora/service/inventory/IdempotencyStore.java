@@ -0,0 +1,144 @@
+package com.nexora.service.inventory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexora.exception.ApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring store of the results of requests sent with an Idempotency-Key header, so that
+ * clients can safely retry stock adjustments and creates after a timeout.
+ * <p>
+ * Keys are scoped to the authenticated user. The first request with a key runs and its result is
+ * kept for {@code expire-after-write}; repeats of the same request get that result without running
+ * again, and a repeat that arrives while the first one is still running waits for it. A failed
+ * request is not kept, so it can be retried with the same key. A key sent again with a different
+ * request (another operation, path or body, compared by SHA-256 fingerprint) is rejected.
+ * <p>
+ * The store lives in memory: it protects against retries of the same client to the same instance
+ * within the expiry time, not across restarts. Stored results are shared and must be treated as
+ * read-only.
+ */
+@Component
+public class IdempotencyStore {
+
+    /** The request header that carries the key. */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** The response header set on results that were replayed from the store. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * The result of a request.
+     *
+     * @param body     the result of the first run
+     * @param replayed true if the result was taken from the store
+     */
+    public record Outcome<T>(T body, boolean replayed) {
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Object> result) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries;
+    private final Counter replays;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${nexora.inventory.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${nexora.inventory.idempotency.expire-after-write:24h}") Duration expireAfterWrite) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.replays = Counter.builder("inventory.idempotency.replays")
+                .description("Requests answered from the idempotency store")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "inventory.idempotency");
+    }
+
+    /**
+     * Runs a request once per idempotency key.
+     *
+     * @param key       the Idempotency-Key header, or null to run the request without a key
+     * @param operation the operation and its path parameters, e.g. "stock.add:{id}"
+     * @param request   the request parameters or body, part of the fingerprint
+     * @param action    runs the request
+     * @return the result of the action, or the stored result of the first request with the key
+     * @throws ApplicationException if the key is invalid or was used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String key, String operation, Object request, Supplier<T> action) {
+        if (key == null) {
+            return new Outcome<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ApplicationException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters",
+                    "INVALID_IDEMPOTENCY_KEY");
+        }
+
+        String scopedKey = StockLedger.currentSource() + ":" + key;
+        Entry entry = new Entry(fingerprint(operation, request), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(scopedKey, entry);
+        if (existing == null) {
+            try {
+                T body = action.get();
+                entry.result().complete(body);
+                return new Outcome<>(body, false);
+            } catch (RuntimeException e) {
+                // Not kept: a retry with the same key runs again
+                entries.asMap().remove(scopedKey, entry);
+                entry.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if (!existing.fingerprint().equals(entry.fingerprint())) {
+            throw new ApplicationException("Idempotency-Key " + key + " has already been used for a different request",
+                    "IDEMPOTENCY_KEY_REUSED");
+        }
+        try {
+            T body = (T) existing.result().join();
+            replays.increment();
+            return new Outcome<>(body, true);
+        } catch (CompletionException e) {
+            // The first request failed while this one waited for it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint " + operation + " request", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Category;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface ImportService {
+
+    UUID initiateImport(UUID userId, Category category, MultipartFile file);
+    InputStream openUpload(String fileKey);
+    void deleteUpload(String fileKey);
+}
@@ -0,0 +1,540 @@
+package com.nexora.service.inventory;
+
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockVarianceDTO;
+import com.nexora.dto.inventory.WarehouseDTO;
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Category;
+import com.nexora.repository.inventory.InventoryUpsertRepository;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockUpsert;
+import com.nexora.repository.inventory.StockReconciliationRepository;
+import com.nexora.repository.inventory.StockReconciliationRepository.StockCount;
+import com.nexora.util.TabularFileReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products, warehouses or stock levels from the rows of a CSV or XLSX file.
+ * <p>
+ * The first row names the columns, matched case-insensitively and ignoring spaces and underscores,
+ * so both the field names of an export ({@code stateProvince}) and column names
+ * ({@code state_province}) work. Stock rows reference their product and warehouse by
+ * {@code productCode} and {@code warehouseCode}. Each row is validated like the REST API
+ * validates a DTO; invalid rows are counted and reported but do not stop the import.
+ * <p>
+ * Valid rows are upserted by their natural key through {@link InventoryUpsertRepository} in
+ * batches of {@code nexora.import.batch-size}, each committed in its own transaction. A failed
+ * import therefore keeps the batches written before the failure and can simply be run again.
+ * The in-memory indexes over the imported category are rebuilt once the import ends, and the
+ * inventory snapshot is marked stale. Every stock batch, and the rebuild of the availability index
+ * after a stock import, runs exclusively of the {@link StockWriteBehindEngine}: its journaled
+ * adjustments are written first, and it reloads the imported stock records afterwards.
+ * <p>
+ * Physical stock counts ({@code productCode}, {@code warehouseCode}, {@code countedQuantity}) are
+ * staged in the same batches through {@link StockReconciliationRepository} and then applied in one
+ * transaction with set-based statements, returning the variance of every counted line.
+ */
+@Component
+public class InventoryImporter {
+
+    // Row errors kept for the job's error message; the rest are only counted
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final Map<Category, Set<String>> REQUIRED_COLUMNS = Map.of(
+            Category.PRODUCT, Set.of("code", "name", "price"),
+            Category.WAREHOUSE, Set.of("code", "name", "address", "city", "country"),
+            Category.RECONCILIATION, Set.of("productcode", "warehousecode", "countedquantity"),
+            Category.STOCK, Set.of("productcode", "warehousecode", "quantity"));
+
+    private final InventoryUpsertRepository upsertRepository;
+    private final StockReconciliationRepository reconciliationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final InventoryReferenceCache referenceCache;
+    private final ProductTypeaheadIndex typeaheadIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final InventorySnapshotStore snapshotStore;
+    private final StockWriteBehindEngine writeBehind;
+    private final int batchSize;
+
+    public InventoryImporter(InventoryUpsertRepository upsertRepository,
+                             StockReconciliationRepository reconciliationRepository,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator, InventoryReferenceCache referenceCache,
+                             ProductTypeaheadIndex typeaheadIndex, AvailabilityIndex availabilityIndex,
+                             InventorySnapshotStore snapshotStore, StockWriteBehindEngine writeBehind,
+                             @Value("${nexora.import.batch-size:1000}") int batchSize) {
+        this.upsertRepository = upsertRepository;
+        this.reconciliationRepository = reconciliationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.referenceCache = referenceCache;
+        this.typeaheadIndex = typeaheadIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.snapshotStore = snapshotStore;
+        this.writeBehind = writeBehind;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Supplies the rows of a file, for example {@code handler -> TabularFileReader.readCsv(in, handler)}.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void read(TabularFileReader.RowHandler handler) throws Exception;
+    }
+
+    /**
+     * Receives the running totals after every committed batch.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progress(ImportResult progress);
+    }
+
+    /**
+     * Row counts of an import and the first row errors.
+     *
+     * @param processedRows data rows read, the header excluded
+     * @param importedRows  rows written
+     * @param rejectedRows  rows skipped because they were invalid
+     * @param errors        messages for the first rejected rows
+     */
+    public record ImportResult(long processedRows, long importedRows, long rejectedRows, List<String> errors) {
+    }
+
+    /**
+     * Outcome of a physical stock count.
+     *
+     * @param result          row counts of the count file
+     * @param correctedStocks stock records whose quantity was corrected
+     * @param variances       the variance of every counted line, in file order
+     */
+    public record Reconciliation(ImportResult result, int correctedStocks, List<StockVarianceDTO> variances) {
+    }
+
+    /**
+     * Import every row of a file.
+     *
+     * @param category what the rows describe
+     * @param source   the rows, the header first
+     * @param listener receives progress after every batch
+     * @return the final counts
+     * @throws ApplicationException if the header lacks a required column
+     * @throws Exception            if reading the file or writing a batch fails
+     */
+    public ImportResult importRows(Category category, RowSource source, ProgressListener listener) throws Exception {
+        Set<String> required = REQUIRED_COLUMNS.get(category);
+        Run<?> run = switch (category) {
+            case PRODUCT -> new Run<>(required, this::toProduct, ProductDTO::getCode, this::writeProducts, false, listener);
+            case WAREHOUSE -> new Run<>(required, this::toWarehouse, WarehouseDTO::getCode, this::writeWarehouses, false,
+                    listener);
+            case STOCK -> new Run<>(required, this::toStock,
+                    stock -> stock.getProduct().getCode() + "/" + stock.getWarehouse().getCode(), this::writeStocks, true,
+                    listener);
+            case RECONCILIATION -> throw new IllegalArgumentException("Stock counts are imported with reconcile");
+        };
+        try {
+            source.read(run::row);
+            run.flush();
+            if (run.columns == null) {
+                throw new ApplicationException("The file has no header row", "IMPORT_EMPTY_FILE");
+            }
+        } finally {
+            if (category == Category.PRODUCT) {
+                typeaheadIndex.rebuild();
+            }
+            if (category == Category.STOCK) {
+                rebuildAvailability();
+            }
+            if (category != Category.STOCK) {
+                referenceCache.evictAll();
+            }
+            snapshotStore.invalidate();
+        }
+        return run.result();
+    }
+
+    /**
+     * Reconcile stock against a physical count. The counted lines are staged in batches like an
+     * import; once the whole file is staged, every counted stock record is set to its counted
+     * quantity in one transaction, the differences being recorded as ADJUSTMENT movements. Stock
+     * counted where there is no stock record gets a new one. Nothing is applied if any batch fails.
+     *
+     * @param source    the rows, the header first
+     * @param countedBy recorded as the source of the adjustments
+     * @param listener  receives progress after every staged batch
+     * @return the final counts and the variance report
+     * @throws ApplicationException if the header lacks a required column
+     * @throws Exception            if reading the file or writing a batch fails
+     */
+    public Reconciliation reconcile(RowSource source, String countedBy, ProgressListener listener) throws Exception {
+        UUID reconciliationUuid = UUID.randomUUID();
+        Run<Count> run = new Run<>(REQUIRED_COLUMNS.get(Category.RECONCILIATION), this::toCount,
+                count -> count.productCode() + "/" + count.warehouseCode(),
+                batch -> stageCounts(reconciliationUuid, batch), false, listener);
+        try {
+            source.read(run::row);
+            run.flush();
+            if (run.columns == null) {
+                throw new ApplicationException("The file has no header row", "IMPORT_EMPTY_FILE");
+            }
+            return writeBehind.exclusiveAll(() -> transactionTemplate.execute(status -> {
+                // Inserted before any row is locked and in the order transfers use, see StockServiceImpl
+                upsertRepository.insertMissingStocks(reconciliationRepository.findCountsWithoutStock(reconciliationUuid)
+                        .stream()
+                        .sorted(Comparator.comparing((StockKey key) -> key.productUuid().toString())
+                                .thenComparing(key -> key.warehouseUuid().toString()))
+                        .toList());
+                int corrected = reconciliationRepository.applyCounts(reconciliationUuid, countedBy);
+                List<StockVarianceDTO> variances = reconciliationRepository.findVariances(reconciliationUuid);
+                reconciliationRepository.deleteCounts(reconciliationUuid);
+                return new Reconciliation(run.result(), corrected, variances);
+            }));
+        } finally {
+            // Left behind by a failed count
+            transactionTemplate.executeWithoutResult(status -> reconciliationRepository.deleteCounts(reconciliationUuid));
+            rebuildAvailability();
+            snapshotStore.invalidate();
+        }
+    }
+
+    /**
+     * Rebuilds the availability index once the adjustments held by the write-behind engine are
+     * written, so the rebuilt quantities include them.
+     */
+    private void rebuildAvailability() {
+        writeBehind.exclusiveAll(() -> {
+            availabilityIndex.rebuild();
+            return null;
+        });
+    }
+
+    private ProductDTO toProduct(Map<String, String> row) {
+        ProductDTO product = new ProductDTO();
+        product.setCode(row.get("code"));
+        product.setName(row.get("name"));
+        product.setDescription(row.get("description"));
+        product.setPrice(decimal(row, "price"));
+        product.setCategory(row.get("category"));
+        product.setBrand(row.get("brand"));
+        product.setSku(row.get("sku"));
+        product.setActive(bool(row, "active"));
+        return product;
+    }
+
+    private WarehouseDTO toWarehouse(Map<String, String> row) {
+        WarehouseDTO warehouse = new WarehouseDTO();
+        warehouse.setCode(row.get("code"));
+        warehouse.setName(row.get("name"));
+        warehouse.setDescription(row.get("description"));
+        warehouse.setAddress(row.get("address"));
+        warehouse.setCity(row.get("city"));
+        warehouse.setStateProvince(row.get("stateprovince"));
+        warehouse.setPostalCode(row.get("postalcode"));
+        warehouse.setCountry(row.get("country"));
+        warehouse.setActive(bool(row, "active"));
+        return warehouse;
+    }
+
+    private StockDTO toStock(Map<String, String> row) {
+        if (row.get("productcode") == null || row.get("warehousecode") == null) {
+            throw new IllegalArgumentException("Product code and warehouse code are required");
+        }
+        if (row.get("quantity") == null) {
+            throw new IllegalArgumentException("Quantity is required");
+        }
+        ProductDTO product = new ProductDTO();
+        product.setCode(row.get("productcode"));
+        WarehouseDTO warehouse = new WarehouseDTO();
+        warehouse.setCode(row.get("warehousecode"));
+        StockDTO stock = new StockDTO();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setQuantity(integer(row, "quantity"));
+        stock.setMinStockLevel(integer(row, "minstocklevel"));
+        stock.setMaxStockLevel(integer(row, "maxstocklevel"));
+        stock.setLastRestockDate(dateTime(row, "lastrestockdate"));
+        return stock;
+    }
+
+    private Count toCount(Map<String, String> row) {
+        if (row.get("productcode") == null || row.get("warehousecode") == null) {
+            throw new IllegalArgumentException("Product code and warehouse code are required");
+        }
+        Integer counted = integer(row, "countedquantity");
+        if (counted == null) {
+            throw new IllegalArgumentException("Counted quantity is required");
+        }
+        if (counted < 0) {
+            throw new IllegalArgumentException("Counted quantity cannot be negative");
+        }
+        return new Count(row.get("productcode"), row.get("warehousecode"), counted);
+    }
+
+    private Map<Long, String> writeProducts(List<Pending<ProductDTO>> batch) {
+        upsertRepository.upsertProducts(batch.stream().map(Pending::value).toList());
+        return Collections.emptyMap();
+    }
+
+    private Map<Long, String> writeWarehouses(List<Pending<WarehouseDTO>> batch) {
+        upsertRepository.upsertWarehouses(batch.stream().map(Pending::value).toList());
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Resolves the product and warehouse codes of the batch with one query each and writes the
+     * rows whose codes exist.
+     */
+    private Map<Long, String> writeStocks(List<Pending<StockDTO>> batch) {
+        Map<String, UUID> products = upsertRepository.findProductUuids(batch.stream()
+                .map(p -> p.value().getProduct().getCode()).collect(Collectors.toSet()));
+        Map<String, UUID> warehouses = upsertRepository.findWarehouseUuids(batch.stream()
+                .map(p -> p.value().getWarehouse().getCode()).collect(Collectors.toSet()));
+
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        List<StockUpsert> stocks = new ArrayList<>(batch.size());
+        for (Pending<StockDTO> pending : batch) {
+            StockDTO stock = pending.value();
+            UUID productUuid = products.get(stock.getProduct().getCode());
+            UUID warehouseUuid = warehouses.get(stock.getWarehouse().getCode());
+            if (productUuid == null) {
+                rejected.put(pending.rowNumber(), "Product not found with code: " + stock.getProduct().getCode());
+            } else if (warehouseUuid == null) {
+                rejected.put(pending.rowNumber(), "Warehouse not found with code: " + stock.getWarehouse().getCode());
+            } else {
+                stocks.add(new StockUpsert(productUuid, warehouseUuid, stock.getQuantity(), stock.getMinStockLevel(),
+                        stock.getMaxStockLevel(), stock.getLastRestockDate()));
+            }
+        }
+        if (!stocks.isEmpty()) {
+            upsertRepository.upsertStocks(stocks);
+        }
+        return rejected;
+    }
+
+    /**
+     * Resolves the product and warehouse codes of the batch like {@link #writeStocks} and stages the
+     * counted lines whose codes exist.
+     */
+    private Map<Long, String> stageCounts(UUID reconciliationUuid, List<Pending<Count>> batch) {
+        Map<String, UUID> products = upsertRepository.findProductUuids(batch.stream()
+                .map(p -> p.value().productCode()).collect(Collectors.toSet()));
+        Map<String, UUID> warehouses = upsertRepository.findWarehouseUuids(batch.stream()
+                .map(p -> p.value().warehouseCode()).collect(Collectors.toSet()));
+
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        List<StockCount> counts = new ArrayList<>(batch.size());
+        for (Pending<Count> pending : batch) {
+            Count count = pending.value();
+            UUID productUuid = products.get(count.productCode());
+            UUID warehouseUuid = warehouses.get(count.warehouseCode());
+            if (productUuid == null) {
+                rejected.put(pending.rowNumber(), "Product not found with code: " + count.productCode());
+            } else if (warehouseUuid == null) {
+                rejected.put(pending.rowNumber(), "Warehouse not found with code: " + count.warehouseCode());
+            } else {
+                counts.add(new StockCount(productUuid, warehouseUuid, pending.rowNumber(), count.countedQuantity()));
+            }
+        }
+        if (!counts.isEmpty()) {
+            reconciliationRepository.stageCounts(reconciliationUuid, counts);
+        }
+        return rejected;
+    }
+
+    private static String normalize(String column) {
+        return column.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static BigDecimal decimal(Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    private static Integer integer(Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : new BigDecimal(value).intValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid whole number in " + column + ": " + value);
+        }
+    }
+
+    // Missing means active, like a product or warehouse created through the API
+    private static boolean bool(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> true;
+            case "false", "no", "n", "0" -> false;
+            default -> throw new IllegalArgumentException("Invalid boolean in " + column + ": " + value);
+        };
+    }
+
+    private static LocalDateTime dateTime(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid ISO date in " + column + ": " + value);
+        }
+    }
+
+    /**
+     * A counted line of a physical stock count.
+     */
+    private record Count(String productCode, String warehouseCode, int countedQuantity) {
+    }
+
+    /**
+     * A valid row waiting for its batch to be written.
+     */
+    private record Pending<T>(long rowNumber, T value) {
+    }
+
+    /**
+     * Writes a batch and returns the rows it rejected, by row number.
+     */
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        Map<Long, String> write(List<Pending<T>> batch);
+    }
+
+    private final class Run<T> {
+
+        private final Set<String> requiredColumns;
+        private final Function<Map<String, String>, T> mapper;
+        private final Function<T, String> key;
+        private final BatchWriter<T> writer;
+        // Whether batches change stock records and must run exclusively of the write-behind engine
+        private final boolean exclusive;
+        private final ProgressListener listener;
+        // Keyed by natural key so that a repeated key in one batch keeps its last row
+        private final Map<String, Pending<T>> batch = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private List<String> columns;
+        private long processed;
+        private long imported;
+        private long rejected;
+
+        private Run(Set<String> requiredColumns, Function<Map<String, String>, T> mapper, Function<T, String> key,
+                    BatchWriter<T> writer, boolean exclusive, ProgressListener listener) {
+            this.requiredColumns = requiredColumns;
+            this.mapper = mapper;
+            this.key = key;
+            this.writer = writer;
+            this.exclusive = exclusive;
+            this.listener = listener;
+        }
+
+        void row(long rowNumber, List<String> cells) {
+            if (columns == null) {
+                header(cells);
+                return;
+            }
+            processed++;
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < cells.size(); i++) {
+                String value = cells.get(i).trim();
+                if (!value.isEmpty()) {
+                    values.put(columns.get(i), value);
+                }
+            }
+            T value;
+            try {
+                value = mapper.apply(values);
+            } catch (IllegalArgumentException e) {
+                reject(rowNumber, e.getMessage());
+                return;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(value);
+            if (!violations.isEmpty()) {
+                reject(rowNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            batch.put(key.apply(value), new Pending<>(rowNumber, value));
+            imported++;
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Pending<T>> rows = new ArrayList<>(batch.values());
+            batch.clear();
+            Supplier<Map<Long, String>> write = () -> transactionTemplate.execute(status -> writer.write(rows));
+            // Committed before the engine's locks are released, and in a transaction of its own
+            Map<Long, String> failed = exclusive ? writeBehind.exclusiveAll(write) : write.get();
+            if (failed != null) {
+                failed.forEach((rowNumber, message) -> {
+                    imported--;
+                    reject(rowNumber, message);
+                });
+            }
+            listener.progress(result());
+        }
+
+        ImportResult result() {
+            return new ImportResult(processed, imported, rejected, List.copyOf(errors));
+        }
+
+        private void header(List<String> cells) {
+            columns = cells.stream().map(InventoryImporter::normalize).toList();
+            List<String> missing = requiredColumns.stream()
+                    .filter(column -> !columns.contains(column))
+                    .sorted()
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new ApplicationException("Missing required columns: " + String.join(", ", missing),
+                        "IMPORT_MISSING_COLUMNS");
+            }
+        }
+
+        private void reject(long rowNumber, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Row " + rowNumber + ": " + message);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.nexora.service.inventory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.WarehouseDTO;
+import com.nexora.exception.ApplicationException;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.util.EntityMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded near cache of product and warehouse reference data, keyed by UUID and by code.
+ * <p>
+ * Stock operations resolve their parent product and warehouse through this cache instead of
+ * querying the products and warehouses tables on every call. Entries expire after a fixed time
+ * and are evicted by {@link com.nexora.service.inventory.impl.ProductServiceImpl} and
+ * {@link com.nexora.service.inventory.impl.WarehouseServiceImpl} after their writes commit.
+ * Cached DTOs are shared and must be treated as read-only.
+ */
+@Component
+public class InventoryReferenceCache {
+
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final EntityMapper entityMapper;
+
+    private final Cache<UUID, ProductDTO> productsById;
+    private final Cache<String, UUID> productIdsByCode;
+    private final Cache<UUID, WarehouseDTO> warehousesById;
+    private final Cache<String, UUID> warehouseIdsByCode;
+
+    public InventoryReferenceCache(ProductRepository productRepository,
+                                   WarehouseRepository warehouseRepository,
+                                   EntityMapper entityMapper,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${nexora.inventory.reference-cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${nexora.inventory.reference-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.entityMapper = entityMapper;
+
+        this.productsById = newCache(maximumSize, expireAfterWrite);
+        this.productIdsByCode = newCache(maximumSize, expireAfterWrite);
+        this.warehousesById = newCache(maximumSize, expireAfterWrite);
+        this.warehouseIdsByCode = newCache(maximumSize, expireAfterWrite);
+
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, productsById, "inventory.products.by-id");
+            CaffeineCacheMetrics.monitor(registry, productIdsByCode, "inventory.products.by-code");
+            CaffeineCacheMetrics.monitor(registry, warehousesById, "inventory.warehouses.by-id");
+            CaffeineCacheMetrics.monitor(registry, warehouseIdsByCode, "inventory.warehouses.by-code");
+        });
+    }
+
+    /**
+     * Get a product by its UUID, loading it on a cache miss.
+     *
+     * @param uuid the product UUID
+     * @return the product
+     * @throws ApplicationException if the product is not found
+     */
+    public ProductDTO getProduct(UUID uuid) {
+        ProductDTO product = productsById.get(uuid, this::loadProduct);
+        if (product == null) {
+            throw new ApplicationException("Product not found with id: " + uuid, "PRODUCT_NOT_FOUND");
+        }
+        return product;
+    }
+
+    /**
+     * Get a product by its code, loading it on a cache miss.
+     *
+     * @param code the product code
+     * @return the product
+     * @throws ApplicationException if the product is not found
+     */
+    public ProductDTO getProductByCode(String code) {
+        UUID uuid = productIdsByCode.getIfPresent(code);
+        if (uuid != null) {
+            ProductDTO product = productsById.get(uuid, this::loadProduct);
+            // The code may have moved to another product since it was cached
+            if (product != null && code.equals(product.getCode())) {
+                return product;
+            }
+            productIdsByCode.invalidate(code);
+        }
+        ProductDTO product = productRepository.findByCode(code)
+                .map(entity -> entityMapper.mapToDTO(entity, ProductDTO.class))
+                .orElseThrow(() -> new ApplicationException("Product not found with code: " + code, "PRODUCT_NOT_FOUND"));
+        productsById.put(product.getUuid(), product);
+        productIdsByCode.put(code, product.getUuid());
+        return product;
+    }
+
+    /**
+     * Get a warehouse by its UUID, loading it on a cache miss.
+     *
+     * @param uuid the warehouse UUID
+     * @return the warehouse
+     * @throws ApplicationException if the warehouse is not found
+     */
+    public WarehouseDTO getWarehouse(UUID uuid) {
+        WarehouseDTO warehouse = warehousesById.get(uuid, this::loadWarehouse);
+        if (warehouse == null) {
+            throw new ApplicationException("Warehouse not found with id: " + uuid, "WAREHOUSE_NOT_FOUND");
+        }
+        return warehouse;
+    }
+
+    /**
+     * Get a warehouse by its code, loading it on a cache miss.
+     *
+     * @param code the warehouse code
+     * @return the warehouse
+     * @throws ApplicationException if the warehouse is not found
+     */
+    public WarehouseDTO getWarehouseByCode(String code) {
+        UUID uuid = warehouseIdsByCode.getIfPresent(code);
+        if (uuid != null) {
+            WarehouseDTO warehouse = warehousesById.get(uuid, this::loadWarehouse);
+            // The code may have moved to another warehouse since it was cached
+            if (warehouse != null && code.equals(warehouse.getCode())) {
+                return warehouse;
+            }
+            warehouseIdsByCode.invalidate(code);
+        }
+        WarehouseDTO warehouse = warehouseRepository.findByCode(code)
+                .map(entity -> entityMapper.mapToDTO(entity, WarehouseDTO.class))
+                .orElseThrow(() -> new ApplicationException("Warehouse not found with code: " + code, "WAREHOUSE_NOT_FOUND"));
+        warehousesById.put(warehouse.getUuid(), warehouse);
+        warehouseIdsByCode.put(code, warehouse.getUuid());
+        return warehouse;
+    }
+
+    /**
+     * Evict a product and its code mapping.
+     *
+     * @param uuid the product UUID
+     */
+    public void evictProduct(UUID uuid) {
+        ProductDTO previous = productsById.getIfPresent(uuid);
+        productsById.invalidate(uuid);
+        if (previous != null && previous.getCode() != null) {
+            productIdsByCode.invalidate(previous.getCode());
+        }
+    }
+
+    /**
+     * Evict a warehouse and its code mapping.
+     *
+     * @param uuid the warehouse UUID
+     */
+    public void evictWarehouse(UUID uuid) {
+        WarehouseDTO previous = warehousesById.getIfPresent(uuid);
+        warehousesById.invalidate(uuid);
+        if (previous != null && previous.getCode() != null) {
+            warehouseIdsByCode.invalidate(previous.getCode());
+        }
+    }
+
+    /**
+     * Evict all cached entries.
+     */
+    public void evictAll() {
+        productsById.invalidateAll();
+        productIdsByCode.invalidateAll();
+        warehousesById.invalidateAll();
+        warehouseIdsByCode.invalidateAll();
+    }
+
+    /**
+     * @return hit and miss statistics of the product by UUID cache
+     */
+    public CacheStats productStats() {
+        return productsById.stats();
+    }
+
+    /**
+     * @return hit and miss statistics of the warehouse by UUID cache
+     */
+    public CacheStats warehouseStats() {
+        return warehousesById.stats();
+    }
+
+    private ProductDTO loadProduct(UUID uuid) {
+        return productRepository.findById(uuid)
+                .map(entity -> entityMapper.mapToDTO(entity, ProductDTO.class))
+                .orElse(null);
+    }
+
+    private WarehouseDTO loadWarehouse(UUID uuid) {
+        return warehouseRepository.findById(uuid)
+                .map(entity -> entityMapper.mapToDTO(entity, WarehouseDTO.class))
+                .orElse(null);
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,341 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockStatus;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.StockRepository.StockQuantity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Columnar copy of the inventory for analytics.
+ * <p>
+ * Products and warehouses are interned to dense int ids; stock records are rows whose product,
+ * warehouse, quantity, stock levels and status are held in primitive arrays, and prices are held as
+ * cents in a long array, so scans and rollups are loops over arrays without boxing or BigDecimal
+ * arithmetic. The rows of each warehouse and of each product are listed in load order, so reports can
+ * walk them without grouping. Product, warehouse and row structure never change; quantities and stock
+ * levels are patched in place by {@link InventorySnapshotStore}, which hands out detached copies.
+ */
+public final class InventorySnapshot {
+
+    /**
+     * Stock level value standing for "not set".
+     */
+    public static final int NO_LEVEL = Integer.MIN_VALUE;
+
+    private static final StockStatus[] STATUSES = StockStatus.values();
+
+    private final long productCount;
+
+    // Products, by interned id in order of first appearance
+    private final UUID[] productUuids;
+    private final String[] productCodes;
+    private final String[] productNames;
+    private final long[] priceCents;
+
+    // Warehouses, by interned id in load order
+    private final UUID[] warehouseUuids;
+    private final String[] warehouseNames;
+
+    // Stock records, by row
+    private final UUID[] stockUuids;
+    private final Map<UUID, Integer> rowsByStock;
+    private final int[] productIds;
+    private final int[] warehouseIds;
+    private final int[] quantities;
+    private final int[] minLevels;
+    private final int[] maxLevels;
+    private final byte[] statuses;
+    private final long[] positions;
+
+    // Rows of each warehouse and product: rows[start[id]] up to rows[start[id + 1]]
+    private final int[] warehouseStart;
+    private final int[] warehouseRows;
+    private final int[] productStart;
+    private final int[] productRows;
+
+    private InventorySnapshot(InventorySnapshot structure, int[] quantities, int[] minLevels, int[] maxLevels,
+                              byte[] statuses, long[] positions) {
+        this.productCount = structure.productCount;
+        this.productUuids = structure.productUuids;
+        this.productCodes = structure.productCodes;
+        this.productNames = structure.productNames;
+        this.priceCents = structure.priceCents;
+        this.warehouseUuids = structure.warehouseUuids;
+        this.warehouseNames = structure.warehouseNames;
+        this.stockUuids = structure.stockUuids;
+        this.rowsByStock = structure.rowsByStock;
+        this.productIds = structure.productIds;
+        this.warehouseIds = structure.warehouseIds;
+        this.warehouseStart = structure.warehouseStart;
+        this.warehouseRows = structure.warehouseRows;
+        this.productStart = structure.productStart;
+        this.productRows = structure.productRows;
+        this.quantities = quantities;
+        this.minLevels = minLevels;
+        this.maxLevels = maxLevels;
+        this.statuses = statuses;
+        this.positions = positions;
+    }
+
+    private InventorySnapshot(List<Stock> stocks, List<StockQuantity> currentQuantities, List<Warehouse> warehouses,
+                              long productCount) {
+        this.productCount = productCount;
+
+        int warehouseCount = warehouses.size();
+        this.warehouseUuids = new UUID[warehouseCount];
+        this.warehouseNames = new String[warehouseCount];
+        Map<UUID, Integer> warehouseIdsByUuid = new HashMap<>(warehouseCount * 2);
+        for (int id = 0; id < warehouseCount; id++) {
+            Warehouse warehouse = warehouses.get(id);
+            warehouseUuids[id] = warehouse.getUuid();
+            warehouseNames[id] = warehouse.getName();
+            warehouseIdsByUuid.put(warehouse.getUuid(), id);
+        }
+
+        int rows = stocks.size();
+        this.stockUuids = new UUID[rows];
+        this.rowsByStock = new HashMap<>(rows * 2);
+        this.productIds = new int[rows];
+        this.warehouseIds = new int[rows];
+        this.quantities = new int[rows];
+        this.minLevels = new int[rows];
+        this.maxLevels = new int[rows];
+        this.statuses = new byte[rows];
+        this.positions = new long[rows];
+        Map<UUID, Integer> productIdsByUuid = new HashMap<>();
+        List<Product> products = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            Stock stock = stocks.get(row);
+            Product product = stock.getProduct();
+            Integer productId = productIdsByUuid.get(product.getUuid());
+            if (productId == null) {
+                productId = products.size();
+                productIdsByUuid.put(product.getUuid(), productId);
+                products.add(product);
+            }
+            stockUuids[row] = stock.getUuid();
+            rowsByStock.put(stock.getUuid(), row);
+            productIds[row] = productId;
+            warehouseIds[row] = warehouseIdsByUuid.get(stock.getWarehouse().getUuid());
+            quantities[row] = stock.getQuantity();
+            minLevels[row] = level(stock.getMinStockLevel());
+            maxLevels[row] = level(stock.getMaxStockLevel());
+            statuses[row] = (byte) stock.getStockStatus().ordinal();
+            positions[row] = stock.getLedgerPosition();
+        }
+        // Movements not yet folded into the stock records, so patched and loaded rows agree
+        for (StockQuantity current : currentQuantities) {
+            Integer row = rowsByStock.get(current.getUuid());
+            if (row != null && current.getPosition() > positions[row]) {
+                Stock stock = stocks.get(row);
+                quantities[row] = (int) current.getQuantity();
+                statuses[row] = (byte) StockStatus.of(quantities[row], stock.getMinStockLevel(),
+                        stock.getMaxStockLevel()).ordinal();
+                positions[row] = current.getPosition();
+            }
+        }
+
+        int distinctProducts = products.size();
+        this.productUuids = new UUID[distinctProducts];
+        this.productCodes = new String[distinctProducts];
+        this.productNames = new String[distinctProducts];
+        this.priceCents = new long[distinctProducts];
+        for (int id = 0; id < distinctProducts; id++) {
+            Product product = products.get(id);
+            productUuids[id] = product.getUuid();
+            productCodes[id] = product.getCode();
+            productNames[id] = product.getName();
+            // Prices are stored with two decimals
+            priceCents[id] = product.getPrice().movePointRight(2).longValueExact();
+        }
+
+        this.warehouseStart = new int[warehouseCount + 1];
+        this.warehouseRows = groupRows(warehouseIds, warehouseStart);
+        this.productStart = new int[distinctProducts + 1];
+        this.productRows = groupRows(productIds, productStart);
+    }
+
+    /**
+     * Builds a snapshot from loaded entities.
+     *
+     * @param stocks            every stock record, with product and warehouse fetched
+     * @param currentQuantities the current quantity of every stock record, pending ledger movements included
+     * @param warehouses        every warehouse
+     * @param productCount      the number of products, including those without stock
+     * @return the snapshot
+     */
+    public static InventorySnapshot of(List<Stock> stocks, List<StockQuantity> currentQuantities,
+                                       List<Warehouse> warehouses, long productCount) {
+        return new InventorySnapshot(stocks, currentQuantities, warehouses, productCount);
+    }
+
+    /**
+     * Sets the quantity and stock levels of a row, unless the row already holds a newer ledger position.
+     *
+     * @param stockUuid     the stock UUID
+     * @param productUuid   the product UUID
+     * @param warehouseUuid the warehouse UUID
+     * @param quantity      the new quantity
+     * @param minLevel      the minimum stock level, may be null
+     * @param maxLevel      the maximum stock level, may be null
+     * @param position      the ledger position the quantity includes
+     * @return false if the stock record is not in the snapshot or has moved to another product or
+     * warehouse, so the snapshot has to be rebuilt
+     */
+    boolean patch(UUID stockUuid, UUID productUuid, UUID warehouseUuid, int quantity, Integer minLevel,
+                  Integer maxLevel, long position) {
+        Integer row = rowsByStock.get(stockUuid);
+        if (row == null || !productUuids[productIds[row]].equals(productUuid)
+                || !warehouseUuids[warehouseIds[row]].equals(warehouseUuid)) {
+            return false;
+        }
+        if (positions[row] <= position) {
+            quantities[row] = quantity;
+            minLevels[row] = level(minLevel);
+            maxLevels[row] = level(maxLevel);
+            statuses[row] = (byte) StockStatus.of(quantity, minLevel, maxLevel).ordinal();
+            positions[row] = position;
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy sharing the structure of this snapshot, whose quantities and levels no longer change
+     */
+    InventorySnapshot detach() {
+        return new InventorySnapshot(this, quantities.clone(), minLevels.clone(), maxLevels.clone(),
+                statuses.clone(), positions.clone());
+    }
+
+    public long productCount() {
+        return productCount;
+    }
+
+    public int products() {
+        return productUuids.length;
+    }
+
+    public int warehouses() {
+        return warehouseUuids.length;
+    }
+
+    public int rows() {
+        return stockUuids.length;
+    }
+
+    public UUID productUuid(int product) {
+        return productUuids[product];
+    }
+
+    public String productCode(int product) {
+        return productCodes[product];
+    }
+
+    public String productName(int product) {
+        return productNames[product];
+    }
+
+    public long priceCents(int product) {
+        return priceCents[product];
+    }
+
+    public UUID warehouseUuid(int warehouse) {
+        return warehouseUuids[warehouse];
+    }
+
+    public String warehouseName(int warehouse) {
+        return warehouseNames[warehouse];
+    }
+
+    public int product(int row) {
+        return productIds[row];
+    }
+
+    public int warehouse(int row) {
+        return warehouseIds[row];
+    }
+
+    public int quantity(int row) {
+        return quantities[row];
+    }
+
+    /**
+     * @return the minimum stock level of the row, or {@link #NO_LEVEL}
+     */
+    public int minLevel(int row) {
+        return minLevels[row];
+    }
+
+    /**
+     * @return the maximum stock level of the row, or {@link #NO_LEVEL}
+     */
+    public int maxLevel(int row) {
+        return maxLevels[row];
+    }
+
+    public StockStatus status(int row) {
+        return STATUSES[statuses[row]];
+    }
+
+    /**
+     * @return the rows of the warehouse, in load order
+     */
+    public int[] warehouseRows(int warehouse) {
+        return Arrays.copyOfRange(warehouseRows, warehouseStart[warehouse], warehouseStart[warehouse + 1]);
+    }
+
+    /**
+     * @return the number of rows of the warehouse
+     */
+    public int warehouseRowCount(int warehouse) {
+        return warehouseStart[warehouse + 1] - warehouseStart[warehouse];
+    }
+
+    /**
+     * @return the rows of the product, in load order
+     */
+    public int[] productRows(int product) {
+        return Arrays.copyOfRange(productRows, productStart[product], productStart[product + 1]);
+    }
+
+    /**
+     * Converts cents back to an amount with two decimals.
+     *
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static int level(Integer level) {
+        return level != null ? level : NO_LEVEL;
+    }
+
+    /**
+     * Lists the rows grouped by id, keeping load order within each group (a counting sort).
+     */
+    private static int[] groupRows(int[] ids, int[] start) {
+        for (int id : ids) {
+            start[id + 1]++;
+        }
+        for (int i = 1; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        int[] next = Arrays.copyOf(start, start.length - 1);
+        int[] rows = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            rows[next[ids[row]]++] = row;
+        }
+        return rows;
+    }
+}
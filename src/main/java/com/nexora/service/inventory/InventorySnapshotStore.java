@@ -0,0 +1,137 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Stock;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the {@link InventorySnapshot} used by the aggregate report up to date.
+ * <p>
+ * The snapshot is loaded on first use. Quantity changes are patched into it by
+ * {@link com.nexora.service.inventory.impl.StockServiceImpl} after they commit; anything that changes
+ * its structure (stock records created or deleted, products or warehouses written, imports) marks it
+ * stale instead, and the next report loads it again. Patches that arrive while it is being loaded
+ * are replayed on the new snapshot, since the load may have read the rows before they committed.
+ * The load reads from the primary: a patch committed before it starts is only in the load, and a
+ * lagging replica could miss it for good.
+ * Every caller gets a detached copy, so a report never sees a patch half applied.
+ */
+@Component
+public class InventorySnapshotStore {
+
+    private record Patch(UUID stockUuid, UUID productUuid, UUID warehouseUuid, int quantity, Integer minLevel,
+                         Integer maxLevel, long position) {
+    }
+
+    private final StockRepository stockRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate loadTransaction;
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Guarded by this
+    private InventorySnapshot snapshot;
+    private boolean stale = true;
+    private List<Patch> patchesWhileLoading;
+
+    public InventorySnapshotStore(StockRepository stockRepository,
+                                  WarehouseRepository warehouseRepository,
+                                  ProductRepository productRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.stockRepository = stockRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.productRepository = productRepository;
+        // Not read-only, which would route the load to a replica
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Gets the current snapshot, loading it first if it is stale.
+     *
+     * @return a detached copy of the snapshot
+     */
+    public InventorySnapshot current() {
+        synchronized (this) {
+            if (!stale) {
+                return snapshot.detach();
+            }
+        }
+        // One load at a time; the others wait for it and use its result
+        loadLock.lock();
+        try {
+            synchronized (this) {
+                if (!stale) {
+                    return snapshot.detach();
+                }
+                stale = false;
+                patchesWhileLoading = new ArrayList<>();
+            }
+            InventorySnapshot loaded;
+            try {
+                loaded = loadTransaction.execute(status -> InventorySnapshot.of(
+                        stockRepository.findAllWithProductAndWarehouse(),
+                        stockRepository.findAllQuantities(),
+                        warehouseRepository.findAll(),
+                        productRepository.count()));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    stale = true;
+                    patchesWhileLoading = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                for (Patch patch : patchesWhileLoading) {
+                    apply(loaded, patch);
+                }
+                patchesWhileLoading = null;
+                snapshot = loaded;
+                return loaded.detach();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Patches the quantity and stock levels of a stock record, or marks the snapshot stale if the stock
+     * record is new or has moved.
+     *
+     * @param stock    the stock record
+     * @param quantity the current quantity
+     * @param position the ledger position the quantity includes
+     */
+    public synchronized void patch(Stock stock, int quantity, long position) {
+        Patch patch = new Patch(stock.getUuid(), stock.getProduct().getUuid(), stock.getWarehouse().getUuid(),
+                quantity, stock.getMinStockLevel(), stock.getMaxStockLevel(), position);
+        if (patchesWhileLoading != null) {
+            patchesWhileLoading.add(patch);
+        }
+        if (snapshot != null && !stale) {
+            apply(snapshot, patch);
+        }
+    }
+
+    /**
+     * Marks the snapshot stale, so the next caller loads it again.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    private void apply(InventorySnapshot target, Patch patch) {
+        if (!target.patch(patch.stockUuid(), patch.productUuid(), patch.warehouseUuid(), patch.quantity(),
+                patch.minLevel(), patch.maxLevel(), patch.position())) {
+            stale = true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.NodeClaim;
+import com.nexora.repository.inventory.NodeClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure a feature that keeps its state in the memory of one node runs on one application node only.
+ * <p>
+ * A node claims the feature in node_claims before it starts it and renews the claim every third of
+ * the {@code lease} while it runs. A node that finds the feature claimed by another node refuses to
+ * start it; it may take the feature over once the other node's claim has not been renewed for the
+ * lease, e.g. after a crash. A node that shuts down releases its claims, so a replacement can start
+ * right away. Deploy such nodes one at a time, stopping the old node before starting the new one.
+ */
+@Component
+public class NodeClaims implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeClaims.class);
+
+    private final NodeClaimRepository claimRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String node;
+    private final Duration lease;
+    private final Set<String> claimed = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    public NodeClaims(NodeClaimRepository claimRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${nexora.node-claims.node:${HOSTNAME:local}}") String node,
+                      @Value("${nexora.node-claims.lease:30s}") Duration lease) {
+        this.claimRepository = claimRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.node = node;
+        this.lease = lease;
+    }
+
+    /**
+     * Claims a feature for this node and keeps renewing the claim until the application stops.
+     *
+     * @param feature the feature
+     * @throws IllegalStateException if another node holds an unexpired claim on the feature
+     */
+    public synchronized void claim(String feature) {
+        if (!tryClaim(feature)) {
+            NodeClaim other = claimRepository.findById(feature).orElse(null);
+            throw new IllegalStateException(feature + " keeps its state in memory and runs on one node only, but node "
+                    + (other != null ? other.getNode() : "unknown") + " holds it; stop that node first, or wait "
+                    + lease + " after it has stopped");
+        }
+        claimed.add(feature);
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("node-claims").factory());
+            long period = Math.max(1, lease.toMillis() / 3);
+            scheduler.scheduleWithFixedDelay(this::renewSafely, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the name of this node
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Stops renewing and releases this node's claims.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (String feature : claimed) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> claimRepository.release(feature, node));
+            } catch (RuntimeException e) {
+                log.warn("Releasing the claim on {} failed, it expires after {}: {}", feature, lease, e.getMessage());
+            }
+        }
+        claimed.clear();
+    }
+
+    private boolean tryClaim(String feature) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (claimRepository.renew(feature, node, now, now.minus(lease)) > 0) {
+                    return true;
+                }
+                if (claimRepository.existsById(feature)) {
+                    return false;
+                }
+                claimRepository.saveAndFlush(new NodeClaim(feature, node, now));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the claim first
+            return false;
+        }
+    }
+
+    private void renewSafely() {
+        for (String feature : claimed) {
+            try {
+                if (!tryClaim(feature)) {
+                    log.error("Node {} lost its claim on {} to another node", node, feature);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Renewing the claim on {} failed, retrying: {}", feature, e.getMessage());
+            }
+        }
+    }
+}
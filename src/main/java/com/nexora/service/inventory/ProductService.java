@@ -1,6 +1,7 @@
 package com.nexora.service.inventory;
 
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.ProductSuggestionDTO;
 
 import java.util.List;
 import java.util.UUID;
@@ -50,16 +51,28 @@ public interface ProductService {
      * @throws com.nexora.exception.ApplicationException if a product with the same code already exists
      */
     ProductDTO createProduct(ProductDTO productDTO);
+
+    /**
+     * Create many products in one transaction. The rows are written as JDBC batches and the
+     * persistence context is flushed and cleared in chunks, so large catalogs load in bounded memory.
+     *
+     * @param productDTOs the product data
+     * @return the created products, in input order
+     * @throws com.nexora.exception.ApplicationException if a code is repeated in the input or already exists
+     */
+    List<ProductDTO> createProducts(List<ProductDTO> productDTOs);
     
     /**
      * Update an existing product.
      *
      * @param uuid the UUID of the product to update
      * @param productDTO the updated product data
+     * @param expectedVersion the version the caller last saw, or null to update whatever the current version is
      * @return the updated product
-     * @throws com.nexora.exception.ApplicationException if the product is not found
+     * @throws com.nexora.exception.ApplicationException if the product is not found, its version is not the
+     *                                                   expected one, or it kept being modified concurrently
      */
-    ProductDTO updateProduct(UUID uuid, ProductDTO productDTO);
+    ProductDTO updateProduct(UUID uuid, ProductDTO productDTO, Long expectedVersion);
     
     /**
      * Delete a product by its UUID.
@@ -110,4 +123,24 @@ public interface ProductService {
      * @return a list of products whose names contain the specified text
      */
     List<ProductDTO> searchProductsByName(String name);
+    
+    /**
+     * Search products by code, name, SKU, brand and description, best matches first.
+     *
+     * @param query the text to search for
+     * @param limit the maximum number of results, or null for the default; capped at the maximum
+     * @return the matching products in rank order, or an empty list if the query is blank
+     */
+    List<ProductDTO> searchProducts(String query, Integer limit);
+    
+    /**
+     * Suggest products whose code, SKU or name words start with the typed text.
+     * Answered from the in-memory {@link ProductTypeaheadIndex} without querying the database.
+     *
+     * @param query           the text typed so far
+     * @param limit           the maximum number of suggestions, or null for the default; capped at the maximum
+     * @param includeInactive whether inactive products are suggested
+     * @return the suggestions in rank order, or an empty list if the query is blank
+     */
+    List<ProductSuggestionDTO> suggestProducts(String query, Integer limit, boolean includeInactive);
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.nexora.service.inventory;
+
+import com.nexora.dto.inventory.ProductSuggestionDTO;
+import com.nexora.model.inventory.Product;
+import com.nexora.repository.inventory.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over product codes, SKUs and names used by the product picker typeahead.
+ * <p>
+ * Every product is indexed under its full code, SKU and name and under each word of them, so
+ * "chair" finds "Office Chair" and "001" finds "PROD-001". Lookups are lock-free prefix scans
+ * over a sorted map and never touch the database; writes are serialized and applied by
+ * {@link com.nexora.service.inventory.impl.ProductServiceImpl} after the owning transaction commits.
+ */
+@Component
+public class ProductTypeaheadIndex {
+
+    /**
+     * Upper bound on index keys visited per lookup, so very short prefixes stay cheap.
+     */
+    static final int MAX_SCANNED_KEYS = 2_000;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ProductRepository productRepository;
+    private final ConcurrentSkipListMap<String, Set<UUID>> keys = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public ProductTypeaheadIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Loads every product into the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        keys.clear();
+        entries.clear();
+        productRepository.findAll().forEach(this::put);
+    }
+
+    /**
+     * Adds the product or replaces its previous entry.
+     *
+     * @param product the product to index
+     */
+    public synchronized void put(Product product) {
+        Entry entry = Entry.of(product);
+        Entry previous = entries.put(product.getUuid(), entry);
+        if (previous != null) {
+            unlink(product.getUuid(), previous.tokens());
+        }
+        for (String token : entry.tokens()) {
+            keys.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(product.getUuid());
+        }
+    }
+
+    /**
+     * Removes the product from the index.
+     *
+     * @param uuid the product UUID
+     */
+    public synchronized void remove(UUID uuid) {
+        Entry previous = entries.remove(uuid);
+        if (previous != null) {
+            unlink(uuid, previous.tokens());
+        }
+    }
+
+    /**
+     * Finds products whose code, SKU or name words start with the words of the query.
+     * <p>
+     * Results are ranked: exact code or SKU matches first, then code or SKU prefix matches,
+     * then names starting with the query, then all other matches; ties are ordered by name.
+     *
+     * @param query           the text typed so far
+     * @param limit           the maximum number of suggestions
+     * @param includeInactive whether inactive products are suggested
+     * @return the suggestions in rank order
+     */
+    public List<ProductSuggestionDTO> suggest(String query, int limit, boolean includeInactive) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] terms = WHITESPACE.split(normalized);
+        String scanTerm = terms[0];
+        for (String term : terms) {
+            if (term.length() > scanTerm.length()) {
+                scanTerm = term;
+            }
+        }
+
+        Set<UUID> candidates = new LinkedHashSet<>();
+        int scanned = 0;
+        for (Set<UUID> uuids : keys.subMap(scanTerm, true, scanTerm + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(uuids);
+            if (++scanned >= MAX_SCANNED_KEYS) {
+                break;
+            }
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        for (UUID uuid : candidates) {
+            Entry entry = entries.get(uuid);
+            if (entry != null && (includeInactive || entry.suggestion().active()) && entry.matchesAll(terms)) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(Comparator.<Entry>comparingInt(entry -> entry.rank(normalized))
+                .thenComparing(Entry::name)
+                .thenComparing(Entry::code));
+
+        return matches.stream()
+                .limit(limit)
+                .map(Entry::suggestion)
+                .toList();
+    }
+
+    /**
+     * @return the number of indexed products
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void unlink(UUID uuid, Set<String> tokens) {
+        for (String token : tokens) {
+            keys.computeIfPresent(token, (key, uuids) -> {
+                uuids.remove(uuid);
+                return uuids.isEmpty() ? null : uuids;
+            });
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(value.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexed view of a single product.
+     */
+    private record Entry(ProductSuggestionDTO suggestion, String code, String sku, String name, Set<String> tokens) {
+
+        static Entry of(Product product) {
+            String code = normalize(product.getCode());
+            String sku = normalize(product.getSku());
+            String name = normalize(product.getName());
+
+            Set<String> tokens = new HashSet<>();
+            for (String value : new String[]{code, sku, name}) {
+                if (!value.isEmpty()) {
+                    tokens.add(value);
+                    for (String word : WORD_SEPARATOR.split(value)) {
+                        if (!word.isEmpty()) {
+                            tokens.add(word);
+                        }
+                    }
+                }
+            }
+
+            ProductSuggestionDTO suggestion = new ProductSuggestionDTO(
+                    product.getUuid(), product.getCode(), product.getName(), product.getSku(), product.isActive());
+            return new Entry(suggestion, code, sku, name, Set.copyOf(tokens));
+        }
+
+        boolean matchesAll(String[] terms) {
+            for (String term : terms) {
+                boolean matched = false;
+                for (String token : tokens) {
+                    if (token.startsWith(term)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int rank(String query) {
+            if (code.equals(query) || sku.equals(query)) {
+                return 0;
+            }
+            if (code.startsWith(query) || (!sku.isEmpty() && sku.startsWith(query))) {
+                return 1;
+            }
+            if (name.startsWith(query)) {
+                return 2;
+            }
+            return 3;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.nexora.service.inventory;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.service.inventory.StockLedger.StockLevel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.nexora.util.TransactionRetry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group-commits concurrent quantity adjustments of the same stock record.
+ * <p>
+ * Adjustments are queued per stock UUID and applied by a single writer per queue, so callers of a hot
+ * stock record no longer hand its row lock to each other one transaction at a time. The writer waits
+ * {@code linger} for more adjustments to arrive, then takes up to {@code max-batch-size} of them and
+ * applies them in one transaction: it locks the row once, checks each adjustment against the running
+ * quantity in arrival order, records the accepted ones as ledger movements and folds them into the
+ * stock record with a single UPDATE. Each caller gets the level after its own adjustment, or its own
+ * INSUFFICIENT_STOCK error; rejected removals do not affect the rest of the batch.
+ * <p>
+ * Writers run on virtual threads and queues are dropped once drained. A queue dropped while a caller
+ * was adding to it is still drained, so two writers may briefly work on the same stock record; they
+ * then serialize on the row lock like independent transactions.
+ */
+@Component
+public class StockAdjustmentSequencer implements AutoCloseable {
+
+    /**
+     * The stock record after an adjustment.
+     *
+     * @param stock the stock record, detached
+     * @param level the level right after the adjustment
+     */
+    public record Result(Stock stock, StockLevel level) {
+    }
+
+    private record Adjustment(int delta, String source, LocalDateTime requestedAt, CompletableFuture<Result> result) {
+    }
+
+    private final StockRepository stockRepository;
+    private final StockLedger stockLedger;
+    private final TransactionRetry transactionRetry;
+    private final Duration linger;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final ConcurrentHashMap<UUID, Lane> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stock-sequencer-", 0).factory());
+
+    public StockAdjustmentSequencer(StockRepository stockRepository,
+                                    StockLedger stockLedger,
+                                    TransactionRetry transactionRetry,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${nexora.stock-sequencer.linger:2ms}") Duration linger,
+                                    @Value("${nexora.stock-sequencer.max-batch-size:200}") int maxBatchSize) {
+        this.stockRepository = stockRepository;
+        this.stockLedger = stockLedger;
+        this.transactionRetry = transactionRetry;
+        this.linger = linger;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("inventory.stock.sequencer.batch.size")
+                .description("Adjustments applied per stock row transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adjusts the quantity of a stock record and waits until the adjustment has been committed.
+     * Must not be called inside a transaction that holds the stock row lock.
+     *
+     * @param stockUuid the stock UUID
+     * @param delta     the change in quantity, positive for restocks and negative for removals
+     * @return the stock record and its level after the adjustment
+     * @throws ApplicationException if the stock record is not found or there is not enough stock
+     */
+    public Result adjust(UUID stockUuid, int delta) {
+        try {
+            return submit(stockUuid, delta).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues an adjustment without waiting for it.
+     *
+     * @param stockUuid the stock UUID
+     * @param delta     the change in quantity
+     * @return completes once the adjustment has been committed or rejected
+     */
+    CompletableFuture<Result> submit(UUID stockUuid, int delta) {
+        Adjustment adjustment = new Adjustment(delta, StockLedger.currentSource(), LocalDateTime.now(), new CompletableFuture<>());
+        lanes.computeIfAbsent(stockUuid, Lane::new).offer(adjustment);
+        return adjustment.result();
+    }
+
+    @Override
+    public void close() {
+        writers.shutdownNow();
+    }
+
+    private final class Lane implements Runnable {
+
+        private final UUID stockUuid;
+        private final ConcurrentLinkedQueue<Adjustment> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Lane(UUID stockUuid) {
+            this.stockUuid = stockUuid;
+        }
+
+        private void offer(Adjustment adjustment) {
+            queue.add(adjustment);
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                lingerBriefly();
+                List<Adjustment> batch = pollBatch();
+                while (!batch.isEmpty()) {
+                    applyBatch(stockUuid, batch);
+                    batch = pollBatch();
+                }
+                lanes.remove(stockUuid, this);
+                draining.set(false);
+                // An adjustment offered after the last poll found the lane still draining
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private List<Adjustment> pollBatch() {
+            List<Adjustment> batch = new ArrayList<>();
+            Adjustment next;
+            while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            return batch;
+        }
+
+        private void lingerBriefly() {
+            if (linger.isZero()) {
+                return;
+            }
+            try {
+                Thread.sleep(linger);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void applyBatch(UUID stockUuid, List<Adjustment> batch) {
+        batchSizes.record(batch.size());
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        try {
+            // Retried as a whole after a deadlock or lock timeout; the row is read again
+            transactionRetry.execute(() -> {
+                completions.clear();
+                Stock stock = stockRepository.findByIdForUpdate(stockUuid).orElse(null);
+                if (stock == null) {
+                    ApplicationException notFound = new ApplicationException("Stock not found with id: " + stockUuid, "STOCK_NOT_FOUND");
+                    batch.forEach(adjustment -> completions.add(() -> adjustment.result().completeExceptionally(notFound)));
+                    return null;
+                }
+
+                StockLevel level = stockLedger.current(stock);
+                int quantity = level.quantity();
+                LocalDateTime lastRestock = level.lastRestockDate();
+                List<StockMovement> movements = new ArrayList<>(batch.size());
+                List<Adjustment> accepted = new ArrayList<>(batch.size());
+                List<StockLevel> levels = new ArrayList<>(batch.size());
+                for (Adjustment adjustment : batch) {
+                    if (quantity + adjustment.delta() < 0) {
+                        completions.add(() -> adjustment.result().completeExceptionally(
+                                new ApplicationException("Not enough stock available", "INSUFFICIENT_STOCK")));
+                        continue;
+                    }
+                    quantity += adjustment.delta();
+                    StockMovementReason reason = adjustment.delta() >= 0 ? StockMovementReason.RESTOCK : StockMovementReason.REMOVAL;
+                    if (reason == StockMovementReason.RESTOCK) {
+                        lastRestock = adjustment.requestedAt();
+                    }
+                    movements.add(new StockMovement(stockUuid, adjustment.delta(), reason, adjustment.source(), adjustment.requestedAt()));
+                    accepted.add(adjustment);
+                    levels.add(new StockLevel(quantity, lastRestock, 0));
+                }
+                if (movements.isEmpty()) {
+                    return null;
+                }
+
+                // Everything up to the last movement is folded: one UPDATE of the stock row per batch
+                long lastId = stockLedger.recordAll(movements);
+                stock.applyLedger(quantity, lastRestock, lastId);
+                for (int i = 0; i < accepted.size(); i++) {
+                    Adjustment adjustment = accepted.get(i);
+                    StockLevel after = levels.get(i);
+                    long position = movements.get(i).getId();
+                    completions.add(() -> adjustment.result().complete(
+                            new Result(stock, new StockLevel(after.quantity(), after.lastRestockDate(), position))));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(adjustment -> adjustment.result().completeExceptionally(e));
+            return;
+        }
+        // Callers only see their results once the batch has been committed
+        completions.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,272 @@
+package com.nexora.service.inventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only file of stock adjustments, written by {@link StockWriteBehindEngine} before an
+ * adjustment is acknowledged.
+ * <p>
+ * Each entry is one length-prefixed record followed by a CRC32 of its bytes. {@link #append} only
+ * writes the record; {@link #sync} forces it to disk, and one force covers every record appended
+ * before it started, so concurrent writers waiting for their records share a force (group commit)
+ * instead of each paying for one. Entries carry a sequence number that keeps increasing across
+ * rewrites, so the database can record how far the journal has been written through. A record cut
+ * short by a crash fails its length or checksum; reading stops there and the rest of the file is
+ * dropped, since it was never acknowledged.
+ */
+final class StockJournal implements AutoCloseable {
+
+    /**
+     * One journaled adjustment.
+     *
+     * @param sequence    the position in the journal
+     * @param stockUuid   the stock UUID
+     * @param delta       the change in quantity
+     * @param source      the user who made the change
+     * @param requestedAt when the change was made, epoch milliseconds
+     */
+    record Entry(long sequence, UUID stockUuid, int delta, String source, long requestedAt) {
+    }
+
+    // sequence, stock UUID, delta, requestedAt and the source length
+    private static final int FIXED_SIZE = Long.BYTES + 2 * Long.BYTES + Integer.BYTES + Long.BYTES + Short.BYTES;
+    private static final int MAX_SOURCE_BYTES = Short.MAX_VALUE;
+
+    private final Path path;
+    // Held while forcing; taken after the journal's own lock where both are needed
+    private final Object syncLock = new Object();
+    // Replaced only under both locks, and the last sequence only once its record is written, so a
+    // force holding the sync lock reads them without the journal's lock
+    private volatile FileChannel channel;
+    private volatile long lastSequence;
+    private List<Entry> recovered;
+    // Last sequence number known to be on disk
+    private volatile long syncedSequence;
+
+    private StockJournal(Path path, FileChannel channel, List<Entry> recovered, long lastSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.recovered = recovered;
+        this.lastSequence = lastSequence;
+        this.syncedSequence = lastSequence;
+    }
+
+    /**
+     * Opens the journal, creating it if needed, and reads the entries it holds.
+     *
+     * @param path          the journal file
+     * @param firstSequence the lowest sequence number to hand out, for a journal emptied by a rewrite
+     * @return the open journal
+     */
+    static StockJournal open(Path path, long firstSequence) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            List<Entry> entries = new ArrayList<>();
+            long validSize = read(channel, entries);
+            if (validSize < channel.size()) {
+                // Torn tail of an append that was never acknowledged
+                channel.truncate(validSize);
+                channel.force(true);
+            }
+            channel.position(validSize);
+            long lastSequence = entries.isEmpty() ? firstSequence - 1
+                    : Math.max(firstSequence - 1, entries.get(entries.size() - 1).sequence());
+            return new StockJournal(path, channel, entries, lastSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open stock journal " + path, e);
+        }
+    }
+
+    /**
+     * Hands over the entries found when the journal was opened; later calls get none.
+     *
+     * @return the entries, oldest first
+     */
+    synchronized List<Entry> takeRecovered() {
+        List<Entry> entries = recovered;
+        recovered = List.of();
+        return entries;
+    }
+
+    /**
+     * Appends an adjustment. It is not durable until {@link #sync} has been called for it.
+     *
+     * @param stockUuid   the stock UUID
+     * @param delta       the change in quantity
+     * @param source      the user who made the change
+     * @param requestedAt when the change was made, epoch milliseconds
+     * @return the written entry
+     */
+    synchronized Entry append(UUID stockUuid, int delta, String source, long requestedAt) {
+        Entry entry = new Entry(lastSequence + 1, stockUuid, delta, source, requestedAt);
+        ByteBuffer buffer = encode(entry);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to stock journal " + path, e);
+        }
+        lastSequence = entry.sequence();
+        return entry;
+    }
+
+    /**
+     * Forces the journal to disk up to the given entry. Returns at once if a force that started after
+     * the entry was appended has already completed; otherwise forces everything appended so far.
+     *
+     * @param sequence the sequence number of the entry
+     */
+    void sync(long sequence) {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            long target = lastSequence;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot force stock journal " + path, e);
+            }
+            syncedSequence = target;
+        }
+    }
+
+    /**
+     * Replaces the journal with the given entries, dropping the ones written to the database. The new
+     * file is written and forced next to the journal and then moved over it, so a crash leaves either
+     * the old or the new journal in place.
+     *
+     * @param unwritten the entries not written to the database yet, oldest first
+     */
+    synchronized void rewrite(List<Entry> unwritten) {
+        synchronized (syncLock) {
+            replace(unwritten);
+        }
+    }
+
+    private void replace(List<Entry> unwritten) {
+        Path next = path.resolveSibling(path.getFileName() + ".next");
+        try {
+            try (FileChannel out = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Entry entry : unwritten) {
+                    ByteBuffer buffer = encode(entry);
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            // Everything appended is in the forced new file, or was written to the database
+            syncedSequence = lastSequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rewrite stock journal " + path, e);
+        }
+    }
+
+    /**
+     * @return the size of the journal file in bytes
+     */
+    synchronized long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer encode(Entry entry) {
+        byte[] source = entry.source().getBytes(StandardCharsets.UTF_8);
+        if (source.length > MAX_SOURCE_BYTES) {
+            throw new IllegalArgumentException("Source too long for the stock journal");
+        }
+        int length = FIXED_SIZE + source.length;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length + Integer.BYTES);
+        buffer.putInt(length)
+                .putLong(entry.sequence())
+                .putLong(entry.stockUuid().getMostSignificantBits())
+                .putLong(entry.stockUuid().getLeastSignificantBits())
+                .putInt(entry.delta())
+                .putLong(entry.requestedAt())
+                .putShort((short) source.length)
+                .put(source);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, length);
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Reads the complete, intact records from the start of the file.
+     *
+     * @return the size of the intact part of the file
+     */
+    private static long read(FileChannel channel, List<Entry> entries) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        long position = 0;
+        while (position + Integer.BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.flip().getInt();
+            if (length < FIXED_SIZE || length > FIXED_SIZE + MAX_SOURCE_BYTES
+                    || position + Integer.BYTES + length + Integer.BYTES > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length + Integer.BYTES);
+            while (record.hasRemaining()) {
+                if (channel.read(record, position + Integer.BYTES + record.position()) < 0) {
+                    break;
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 0, length);
+            record.flip();
+            if (record.getInt(length) != (int) crc.getValue()) {
+                break;
+            }
+            long sequence = record.getLong();
+            UUID stockUuid = new UUID(record.getLong(), record.getLong());
+            int delta = record.getInt();
+            long requestedAt = record.getLong();
+            byte[] source = new byte[record.getShort()];
+            record.get(source);
+            entries.add(new Entry(sequence, stockUuid, delta, new String(source, StandardCharsets.UTF_8), requestedAt));
+            position += Integer.BYTES + length + Integer.BYTES;
+        }
+        return position;
+    }
+}
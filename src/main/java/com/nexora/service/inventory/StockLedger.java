@@ -0,0 +1,209 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.StockSnapshot;
+import com.nexora.repository.inventory.StockMovementRepository;
+import com.nexora.repository.inventory.StockMovementRepository.PendingTotals;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockSnapshotRepository;
+import com.nexora.util.JpaBatchWriter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only ledger of stock movements.
+ * <p>
+ * Every change to a stock quantity is recorded as a row in stock_movements. The quantity stored on the
+ * stock record includes the movements up to its ledger position; the movements after it are pending
+ * and are added on read, until they are folded into the stock record ({@link StockAdjustmentSequencer}
+ * does so with every batch, {@link StockLedgerCompactor} for everything else). The compactor also
+ * writes the snapshots, including for stock records folded by other means, and "quantity as of"
+ * queries start from the latest snapshot instead of summing the whole history.
+ * <p>
+ * Folding relies on movement ids being assigned in insert order and on the stock row: everything
+ * that reads pending movements to fold or check them holds the exclusive row lock and increments the
+ * stock record's version, and movements are recorded either under that lock or by a transaction that
+ * then updates the row conditionally on the version it read. A movement that is still uncommitted
+ * when a later one is folded therefore never commits, so none below the folded position can be missed.
+ */
+@Component
+public class StockLedger {
+
+    static final String SYSTEM_SOURCE = "system";
+
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final StockRepository stockRepository;
+    private final JpaBatchWriter batchWriter;
+
+    public StockLedger(StockMovementRepository movementRepository,
+                       StockSnapshotRepository snapshotRepository,
+                       StockRepository stockRepository,
+                       JpaBatchWriter batchWriter) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.stockRepository = stockRepository;
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * Current level of a stock record: its stored values plus its pending movements.
+     *
+     * @param quantity        the current quantity
+     * @param lastRestockDate the latest restock
+     * @param position        the id of the latest movement included
+     */
+    public record StockLevel(int quantity, LocalDateTime lastRestockDate, long position) {
+    }
+
+    /**
+     * Records a movement. The caller must hold the exclusive lock on the stock row, or update the row
+     * with its version check in the same transaction.
+     *
+     * @param stock  the stock record
+     * @param delta  the change in quantity
+     * @param reason why the quantity changed
+     * @return the recorded movement
+     */
+    public StockMovement record(Stock stock, int delta, StockMovementReason reason) {
+        return movementRepository.save(new StockMovement(stock.getUuid(), delta, reason, currentSource(), LocalDateTime.now()));
+    }
+
+    /**
+     * Records movements built by the caller, for example with the source captured on another thread.
+     * The caller must hold the exclusive lock on the stock row.
+     *
+     * @param movements the movements, in the order they apply
+     * @return the id of the last movement
+     */
+    public long recordAll(List<StockMovement> movements) {
+        List<StockMovement> saved = movementRepository.saveAll(movements);
+        return saved.get(saved.size() - 1).getId();
+    }
+
+    /**
+     * Records the initial quantity of stock records created in the current transaction and marks it
+     * as folded, since the quantity is already stored on the records. The ledger positions are only
+     * written to the rows, so the entities passed in keep their old position; use the ones returned.
+     *
+     * @param stocks the new stock records, already persisted
+     * @return the ledger position of each stock record, in the order given
+     */
+    public List<Long> recordInitial(List<Stock> stocks) {
+        String source = currentSource();
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>(stocks.size());
+        List<UUID> uuids = new ArrayList<>(stocks.size());
+        for (Stock stock : stocks) {
+            movements.add(new StockMovement(stock.getUuid(), stock.getQuantity(), StockMovementReason.INITIAL, source, now));
+            uuids.add(stock.getUuid());
+        }
+        batchWriter.persistAll(movements);
+        batchWriter.forEachChunk(uuids, stockRepository::moveLedgerPositionsToLatest);
+        // A new stock record's only movement is its INITIAL one
+        return movements.stream().map(StockMovement::getId).toList();
+    }
+
+    /**
+     * Gets the current level of a stock record.
+     *
+     * @param stock the stock record
+     * @return the stored level with the pending movements applied
+     */
+    public StockLevel current(Stock stock) {
+        List<PendingTotals> pending = movementRepository.findPendingTotals(List.of(stock.getUuid()));
+        return apply(stock, pending.isEmpty() ? null : pending.get(0));
+    }
+
+    /**
+     * Gets the current levels of many stock records, with one query per 1000 records.
+     *
+     * @param stocks the stock records
+     * @return the current level of each stock record, by UUID
+     */
+    public Map<UUID, StockLevel> current(List<Stock> stocks) {
+        Map<UUID, PendingTotals> pending = new HashMap<>();
+        batchWriter.forEachChunk(stocks.stream().map(Stock::getUuid).toList(), chunk ->
+                movementRepository.findPendingTotals(chunk).forEach(totals -> pending.put(totals.getStockUuid(), totals)));
+        Map<UUID, StockLevel> levels = new HashMap<>(stocks.size() * 2);
+        for (Stock stock : stocks) {
+            levels.put(stock.getUuid(), apply(stock, pending.get(stock.getUuid())));
+        }
+        return levels;
+    }
+
+    /**
+     * Folds the pending movements of a stock record into it and writes a snapshot. The caller must
+     * hold the exclusive lock on the stock row.
+     *
+     * @param stock   the stock record
+     * @param takenAt the snapshot time
+     * @return true if there were pending movements to fold
+     */
+    public boolean fold(Stock stock, LocalDateTime takenAt) {
+        StockLevel level = current(stock);
+        if (level.position() == stock.getLedgerPosition()) {
+            return false;
+        }
+        stock.applyLedger(level.quantity(), level.lastRestockDate(), level.position());
+        snapshotRepository.save(new StockSnapshot(stock.getUuid(), takenAt, level.quantity(), level.position()));
+        return true;
+    }
+
+    /**
+     * Gets the quantity of a stock record at a point in time, from the latest snapshot taken at or
+     * before that time plus the movements recorded after the snapshot that occurred by then.
+     *
+     * @param stockUuid the stock UUID
+     * @param asOf      the point in time
+     * @return the quantity at that time, 0 before the stock record existed
+     */
+    public int quantityAsOf(UUID stockUuid, LocalDateTime asOf) {
+        return snapshotRepository.findFirstByStockUuidAndTakenAtLessThanEqualOrderByTakenAtDesc(stockUuid, asOf)
+                .map(snapshot -> snapshot.getQuantity()
+                        + (int) movementRepository.sumDeltasAfter(stockUuid, snapshot.getLedgerPosition(), asOf))
+                .orElseGet(() -> (int) movementRepository.sumDeltasAfter(stockUuid, 0, asOf));
+    }
+
+    /**
+     * Gets the movements of a stock record within a time range.
+     *
+     * @param stockUuid the stock UUID
+     * @param from      the earliest movement time, inclusive
+     * @param to        the latest movement time, inclusive
+     * @return the movements, oldest first
+     */
+    public List<StockMovement> movements(UUID stockUuid, LocalDateTime from, LocalDateTime to) {
+        return movementRepository.findByStockUuidAndOccurredAtBetweenOrderByIdAsc(stockUuid, from, to);
+    }
+
+    private static StockLevel apply(Stock stock, PendingTotals pending) {
+        if (pending == null) {
+            return new StockLevel(stock.getQuantity(), stock.getLastRestockDate(), stock.getLedgerPosition());
+        }
+        LocalDateTime lastRestock = pending.getLastRestock() != null ? pending.getLastRestock() : stock.getLastRestockDate();
+        return new StockLevel(stock.getQuantity() + (int) pending.getDelta(), lastRestock, pending.getLastId());
+    }
+
+    /**
+     * @return the name of the authenticated user of the current thread, or "system"
+     */
+    public static String currentSource() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || authentication.getName() == null) {
+            return SYSTEM_SOURCE;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,178 @@
+package com.nexora.service.inventory;
+
+import com.nexora.repository.inventory.StockMovementRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically folds pending stock movements into their stock records and writes snapshots (see
+ * {@link StockLedger}), so reads only have to add up the movements of the last interval.
+ * <p>
+ * Each run looks at movements recorded since the previous run started, less a grace period for
+ * transactions that were still open, or within the startup lookback on the first run. Stock records
+ * are locked and folded in chunks of {@code chunk-size}, each in its own transaction, so restocks are
+ * only held up for the duration of one chunk. Movements missed by every window stay pending; reads
+ * remain correct, only slower, until the stock record is changed or folded again.
+ * <p>
+ * Stock records are also folded without a snapshot, by the {@link StockAdjustmentSequencer}, stock
+ * updates and transfers, so those folds leave no pending movements for the compactor to find. Every
+ * {@code snapshot-interval} a run therefore also snapshots every stock record whose ledger position
+ * has moved past its latest snapshot, keeping "quantity as of" queries from summing the movements of
+ * every fold since.
+ * <p>
+ * On PostgreSQL the run also makes sure the monthly stock_movements partitions for the coming
+ * months exist, at most once a day.
+ */
+@Component
+@ConditionalOnProperty(name = "nexora.stock-ledger.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class StockLedgerCompactor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerCompactor.class);
+
+    // Monthly partitions created ahead of time, so movements never land in the default partition
+    private static final int PARTITION_MONTHS_AHEAD = 2;
+
+    private final StockLedger stockLedger;
+    private final StockRepository stockRepository;
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration interval;
+    private final Duration grace;
+    private final Duration startupLookback;
+    private final int chunkSize;
+    private final Duration snapshotInterval;
+
+    private ScheduledExecutorService scheduler;
+    private LocalDateTime lastRunStart;
+    private LocalDateTime lastSnapshotAt;
+    private LocalDate partitionsCheckedOn;
+    private volatile Boolean postgres;
+
+    public StockLedgerCompactor(StockLedger stockLedger,
+                                StockRepository stockRepository,
+                                StockMovementRepository movementRepository,
+                                StockSnapshotRepository snapshotRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${nexora.stock-ledger.compaction.interval:30s}") Duration interval,
+                                @Value("${nexora.stock-ledger.compaction.grace:5m}") Duration grace,
+                                @Value("${nexora.stock-ledger.compaction.startup-lookback:7d}") Duration startupLookback,
+                                @Value("${nexora.stock-ledger.compaction.chunk-size:500}") int chunkSize,
+                                @Value("${nexora.stock-ledger.compaction.snapshot-interval:1h}") Duration snapshotInterval) {
+        this.stockLedger = stockLedger;
+        this.stockRepository = stockRepository;
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.interval = interval;
+        this.grace = grace;
+        this.startupLookback = startupLookback;
+        this.chunkSize = chunkSize;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Schedules the runs once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("stock-ledger-compactor").factory());
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Folds the pending movements recorded since the previous run, and snapshots the stock records
+     * folded without one once {@code snapshot-interval} has passed since the last time it did.
+     *
+     * @return the number of stock records folded
+     */
+    public synchronized int compact() {
+        LocalDateTime runStart = LocalDateTime.now();
+        LocalDateTime since = lastRunStart != null ? lastRunStart.minus(grace) : runStart.minus(startupLookback);
+        ensurePartitions(runStart.toLocalDate());
+
+        List<UUID> candidates = transactionTemplate.execute(status -> movementRepository.findStocksWithPendingMovements(since));
+        int folded = 0;
+        for (int from = 0; from < candidates.size(); from += chunkSize) {
+            List<UUID> chunk = candidates.subList(from, Math.min(from + chunkSize, candidates.size()));
+            // Locks are taken in UUID order, the order of the candidates, so concurrent runs cannot deadlock
+            folded += transactionTemplate.execute(status -> {
+                LocalDateTime takenAt = LocalDateTime.now();
+                int count = 0;
+                for (UUID uuid : chunk) {
+                    count += stockRepository.findByIdForUpdate(uuid)
+                            .filter(stock -> stockLedger.fold(stock, takenAt))
+                            .isPresent() ? 1 : 0;
+                }
+                return count;
+            });
+        }
+        lastRunStart = runStart;
+        if (folded > 0) {
+            log.debug("Folded pending movements of {} stock records", folded);
+        }
+        if (lastSnapshotAt == null || !runStart.isBefore(lastSnapshotAt.plus(snapshotInterval))) {
+            LocalDateTime takenAt = LocalDateTime.now();
+            int snapshots = transactionTemplate.execute(status -> snapshotRepository.snapshotFoldedStocks(takenAt));
+            lastSnapshotAt = runStart;
+            if (snapshots > 0) {
+                log.debug("Snapshotted {} stock records folded without a snapshot", snapshots);
+            }
+        }
+        return folded;
+    }
+
+    private void runSafely() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.warn("Stock ledger compaction failed, retrying in {}: {}", interval, e.getMessage());
+        }
+    }
+
+    private void ensurePartitions(LocalDate today) {
+        if (today.equals(partitionsCheckedOn) || !isPostgreSQL()) {
+            return;
+        }
+        jdbcTemplate.execute("SELECT public.stock_movements_ensure_partitions(" + PARTITION_MONTHS_AHEAD + ")");
+        partitionsCheckedOn = today;
+    }
+
+    private boolean isPostgreSQL() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,325 @@
+package com.nexora.service.inventory;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.StockReservation;
+import com.nexora.repository.inventory.StockReservationRepository;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds stock for carts and orders without changing the stock quantity.
+ * <p>
+ * Active reservations and the reserved total of every stock record are kept in memory, so reserving,
+ * releasing and reading the quantity available to sell (quantity minus reserved) never scan the
+ * reservations. A reservation is checked against the quantity on hand less what is already reserved,
+ * atomically per stock record. It is written to stock_reservations behind the request: changes are
+ * collected and written in one transaction every {@code flush-interval}, where a reservation that is
+ * released before its turn is never written at all. On startup the written reservations are loaded
+ * again, so a restart loses at most the changes of the last interval.
+ * <p>
+ * Each reservation expires after its time to live. Deadlines are kept on a {@link TimerWheel} that
+ * advances every {@code tick}, so expired holds are found without looking at the active ones and
+ * released in bulk. Confirming a reservation removes its quantity from the stock record.
+ * <p>
+ * Reservations do not lock the stock record: stock removed outside of reservations can leave a
+ * stock record with more reserved than on hand, which then shows a negative availability.
+ * <p>
+ * Since reservations are only checked against the ones in memory, the engine runs on one application
+ * node only: it claims {@value #FEATURE} through {@link NodeClaims} on startup, and a second node
+ * refuses to start while the first one holds the claim.
+ */
+@Component
+public class StockReservationEngine implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationEngine.class);
+
+    static final String FEATURE = "stock-reservations";
+
+    /**
+     * An active reservation.
+     *
+     * @param uuid      the reservation UUID
+     * @param stockUuid the reserved stock record
+     * @param quantity  the reserved quantity
+     * @param reference the caller's reference, e.g. a cart or order id
+     * @param expiresAt when the reservation is released unless confirmed or released before
+     */
+    public record Reservation(UUID uuid, UUID stockUuid, int quantity, String reference, LocalDateTime expiresAt) {
+    }
+
+    private final StockReservationRepository reservationRepository;
+    private final NodeClaims nodeClaims;
+    private final JpaBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final Duration tick;
+    private final Duration flushInterval;
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> reservedByStock = new ConcurrentHashMap<>();
+    private final TimerWheel<UUID> expiries;
+    // Changes not written to stock_reservations yet
+    private final Map<UUID, Reservation> unwrittenReservations = new ConcurrentHashMap<>();
+    private final Set<UUID> unwrittenReleases = ConcurrentHashMap.newKeySet();
+    private final Counter expired;
+
+    private ScheduledExecutorService scheduler;
+
+    public StockReservationEngine(StockReservationRepository reservationRepository,
+                                  NodeClaims nodeClaims,
+                                  JpaBatchWriter batchWriter,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${nexora.stock-reservations.default-ttl:15m}") Duration defaultTtl,
+                                  @Value("${nexora.stock-reservations.max-ttl:24h}") Duration maxTtl,
+                                  @Value("${nexora.stock-reservations.tick:1s}") Duration tick,
+                                  @Value("${nexora.stock-reservations.wheel-size:3600}") int wheelSize,
+                                  @Value("${nexora.stock-reservations.flush-interval:1s}") Duration flushInterval) {
+        this.reservationRepository = reservationRepository;
+        this.nodeClaims = nodeClaims;
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.tick = tick;
+        this.flushInterval = flushInterval;
+        this.expiries = new TimerWheel<>(tick, wheelSize, Instant.now());
+        this.expired = Counter.builder("inventory.stock.reservations.expired")
+                .description("Stock reservations released because their time to live ran out")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.reservations.active", reservations, Map::size)
+                .description("Active stock reservations")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.reservations.unwritten", this, engine ->
+                        engine.unwrittenReservations.size() + engine.unwrittenReleases.size())
+                .description("Stock reservation changes waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims the reservations for this node, then loads the written reservations and starts expiring and
+     * writing them once the application has started.
+     *
+     * @throws IllegalStateException if another node holds the reservations
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        nodeClaims.claim(FEATURE);
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("stock-reservations").factory());
+        scheduler.scheduleWithFixedDelay(this::expireSafely, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the timers and writes the changes made since the last flush.
+     */
+    @Override
+    public void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        flushSafely();
+    }
+
+    /**
+     * Reserves a quantity of a stock record.
+     *
+     * @param stockUuid the stock UUID
+     * @param onHand    the current quantity of the stock record
+     * @param quantity  the quantity to reserve
+     * @param reference the caller's reference, may be null
+     * @param ttl       how long to hold the stock, or null for the default
+     * @return the reservation
+     * @throws ApplicationException if the time to live is invalid or not enough stock is available
+     */
+    public Reservation reserve(UUID stockUuid, int onHand, int quantity, String reference, Duration ttl) {
+        Duration timeToLive = ttl != null ? ttl : defaultTtl;
+        if (timeToLive.isNegative() || timeToLive.isZero() || timeToLive.compareTo(maxTtl) > 0) {
+            throw new ApplicationException("Reservation time to live must be positive and at most " + maxTtl,
+                    "INVALID_RESERVATION_TTL");
+        }
+
+        // Checked and counted in one step per stock record, so concurrent reservations cannot both pass
+        reservedByStock.compute(stockUuid, (uuid, reserved) -> {
+            int current = reserved != null ? reserved : 0;
+            if (onHand - current < quantity) {
+                throw new ApplicationException("Not enough stock available to reserve", "INSUFFICIENT_STOCK");
+            }
+            return current + quantity;
+        });
+        Reservation reservation = new Reservation(UUID.randomUUID(), stockUuid, quantity, reference,
+                LocalDateTime.now().plus(timeToLive));
+        track(reservation);
+        unwrittenReservations.put(reservation.uuid(), reservation);
+        return reservation;
+    }
+
+    /**
+     * Releases a reservation, making its quantity available again.
+     *
+     * @param reservationUuid the reservation UUID
+     * @return the released reservation
+     * @throws ApplicationException if the reservation is not active
+     */
+    public Reservation release(UUID reservationUuid) {
+        Reservation reservation = reservations.remove(reservationUuid);
+        if (reservation == null) {
+            throw new ApplicationException("Reservation not found with id: " + reservationUuid, "RESERVATION_NOT_FOUND");
+        }
+        expiries.cancel(reservationUuid);
+        free(reservation);
+        return reservation;
+    }
+
+    /**
+     * Reinstates a reservation released by {@link #release(UUID)}, for a confirmation that failed.
+     *
+     * @param reservation the released reservation
+     */
+    public void restore(Reservation reservation) {
+        reservedByStock.merge(reservation.stockUuid(), reservation.quantity(), Integer::sum);
+        track(reservation);
+        // The row is only written again if its delete has already been taken for writing
+        if (!unwrittenReleases.remove(reservation.uuid())) {
+            unwrittenReservations.put(reservation.uuid(), reservation);
+        }
+    }
+
+    /**
+     * @param stockUuid the stock UUID
+     * @return the quantity of the stock record held by active reservations
+     */
+    public int reserved(UUID stockUuid) {
+        return reservedByStock.getOrDefault(stockUuid, 0);
+    }
+
+    /**
+     * Releases the reservations whose time to live has run out.
+     *
+     * @return the number of reservations released
+     */
+    public int expire() {
+        int count = 0;
+        for (UUID uuid : expiries.advance(Instant.now())) {
+            Reservation reservation = reservations.remove(uuid);
+            if (reservation != null) {
+                free(reservation);
+                count++;
+            }
+        }
+        expired.increment(count);
+        return count;
+    }
+
+    /**
+     * Writes the reservations made and released since the last flush in one transaction.
+     *
+     * @return the number of rows inserted and deleted
+     */
+    public synchronized int flush() {
+        List<Reservation> created = new ArrayList<>();
+        for (UUID uuid : unwrittenReservations.keySet()) {
+            Reservation reservation = unwrittenReservations.remove(uuid);
+            if (reservation != null) {
+                created.add(reservation);
+            }
+        }
+        List<UUID> released = new ArrayList<>();
+        for (UUID uuid : unwrittenReleases) {
+            if (unwrittenReleases.remove(uuid)) {
+                released.add(uuid);
+            }
+        }
+        if (created.isEmpty() && released.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            // Inserted before the deletes, which may include reservations created in this batch
+            transactionTemplate.executeWithoutResult(status -> {
+                batchWriter.persistAll(created.stream()
+                        .map(r -> new StockReservation(r.uuid(), r.stockUuid(), r.quantity(), r.reference(),
+                                r.expiresAt(), LocalDateTime.now()))
+                        .toList());
+                batchWriter.forEachChunk(released, reservationRepository::deleteAllByIdInBatch);
+            });
+        } catch (RuntimeException e) {
+            // Taken up again by the next flush
+            created.stream()
+                    .filter(reservation -> reservations.containsKey(reservation.uuid()))
+                    .forEach(reservation -> unwrittenReservations.putIfAbsent(reservation.uuid(), reservation));
+            unwrittenReleases.addAll(released);
+            throw e;
+        }
+        return created.size() + released.size();
+    }
+
+    private void load() {
+        List<StockReservation> written = transactionTemplate.execute(status -> reservationRepository.findAll());
+        for (StockReservation row : written) {
+            Reservation reservation = new Reservation(row.getUuid(), row.getStockUuid(), row.getQuantity(),
+                    row.getReference(), row.getExpiresAt());
+            reservedByStock.merge(reservation.stockUuid(), reservation.quantity(), Integer::sum);
+            // Reservations that expired while the application was down go with the first tick
+            track(reservation);
+        }
+        log.info("Loaded {} stock reservations", written.size());
+    }
+
+    private void track(Reservation reservation) {
+        reservations.put(reservation.uuid(), reservation);
+        expiries.schedule(reservation.uuid(), reservation.expiresAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void free(Reservation reservation) {
+        reservedByStock.computeIfPresent(reservation.stockUuid(), (uuid, reserved) ->
+                reserved > reservation.quantity() ? reserved - reservation.quantity() : null);
+        // A reservation that was never written needs no delete either
+        if (unwrittenReservations.remove(reservation.uuid()) == null) {
+            unwrittenReleases.add(reservation.uuid());
+        }
+    }
+
+    private void expireSafely() {
+        try {
+            expire();
+        } catch (RuntimeException e) {
+            log.warn("Expiring stock reservations failed, retrying in {}: {}", tick, e.getMessage());
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Writing stock reservations failed, retrying in {}: {}", flushInterval, e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package com.nexora.service.inventory;
 
+import com.nexora.dto.inventory.AvailabilityLineDTO;
+import com.nexora.dto.inventory.StockAvailabilityDTO;
 import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockMovementDTO;
+import com.nexora.dto.inventory.StockReservationDTO;
+import com.nexora.dto.inventory.StockTransferDTO;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Service interface for managing stock.
+ * <p>
+ * Quantity changes are recorded in the stock movement ledger (see {@link StockLedger}). Stock records
+ * are always returned with their current quantity, but the low, over and zero stock queries select
+ * them by their status as of the last ledger compaction. Their reserved and available quantities
+ * include the active reservations (see {@link StockReservationEngine}).
  */
 public interface StockService {
     
@@ -76,16 +88,29 @@ public interface StockService {
      * @throws com.nexora.exception.ApplicationException if a stock record for the same product and warehouse already exists
      */
     StockDTO createStock(StockDTO stockDTO);
+
+    /**
+     * Create many stock records in one transaction. Products and warehouses are resolved through the
+     * reference cache and the rows are written as JDBC batches, flushing and clearing in chunks.
+     *
+     * @param stockDTOs the stock data
+     * @return the created stock records, in input order
+     * @throws com.nexora.exception.ApplicationException if a product and warehouse pair is repeated in the input
+     *                                                   or already has a stock record, or a product or warehouse is not found
+     */
+    List<StockDTO> createStocks(List<StockDTO> stockDTOs);
     
     /**
      * Update an existing stock record.
      *
      * @param id the ID of the stock record to update
      * @param stockDTO the updated stock data
+     * @param expectedVersion the version the caller last saw, or null to update whatever the current version is
      * @return the updated stock record
-     * @throws com.nexora.exception.ApplicationException if the stock record is not found
+     * @throws com.nexora.exception.ApplicationException if the stock record is not found, its version is not the
+     *                                                   expected one, or it kept being modified concurrently
      */
-    StockDTO updateStock(UUID id, StockDTO stockDTO);
+    StockDTO updateStock(UUID id, StockDTO stockDTO, Long expectedVersion);
     
     /**
      * Delete a stock record by its ID.
@@ -114,6 +139,61 @@ public interface StockService {
      * @throws com.nexora.exception.ApplicationException if the stock record is not found, if the quantity is negative, or if there is not enough stock
      */
     StockDTO removeStock(UUID id, int quantity);
+
+    /**
+     * Transfer stock between warehouses in one transaction. Each line moves a quantity of a product
+     * from its stock record in the source warehouse to its stock record in the target warehouse, which
+     * is created empty if missing. Lines apply in order, so a later line can move stock an earlier one
+     * brought in; if any line fails, nothing is transferred.
+     *
+     * @param transfers the transfer lines
+     * @return the transfer lines with the source and target stock records after the whole transfer
+     * @throws com.nexora.exception.ApplicationException if a product, warehouse or source stock record is not
+     *                                                   found, a line is invalid, or there is not enough stock
+     */
+    List<StockTransferDTO> transferStock(List<StockTransferDTO> transfers);
+
+    /**
+     * Reserve a quantity of a stock record for a cart or order. The quantity stays in stock but is no
+     * longer available to other reservations until the reservation is confirmed, released or expires.
+     *
+     * @param id the ID of the stock record
+     * @param quantity the quantity to reserve
+     * @param reference the caller's reference, e.g. a cart or order ID, may be null
+     * @param ttl how long to hold the stock, or null for the configured default
+     * @return the reservation
+     * @throws com.nexora.exception.ApplicationException if the stock record is not found, the quantity or time to
+     *                                                   live is invalid, or not enough stock is available
+     */
+    StockReservationDTO reserveStock(UUID id, int quantity, String reference, Duration ttl);
+
+    /**
+     * Release a reservation, making its quantity available again.
+     *
+     * @param reservationId the reservation ID
+     * @throws com.nexora.exception.ApplicationException if the reservation is not active
+     */
+    void releaseReservation(UUID reservationId);
+
+    /**
+     * Confirm a reservation: remove its quantity from the stock record and end the reservation.
+     *
+     * @param reservationId the reservation ID
+     * @return the updated stock record
+     * @throws com.nexora.exception.ApplicationException if the reservation is not active or there is not enough stock
+     */
+    StockDTO confirmReservation(UUID reservationId);
+
+    /**
+     * Check where the lines of an order can be fulfilled. Answered from the in-memory
+     * {@link AvailabilityIndex} without querying the database: the available quantity of each product
+     * in each active warehouse is its current quantity less its active reservations.
+     *
+     * @param lines the order lines
+     * @return the availability of each line per warehouse and the warehouses that can fulfill the whole order
+     * @throws com.nexora.exception.ApplicationException if a product is not found or a line is invalid
+     */
+    StockAvailabilityDTO checkAvailability(List<AvailabilityLineDTO> lines);
     
     /**
      * Get all stock records with low stock (quantity <= minStockLevel).
@@ -135,4 +215,25 @@ public interface StockService {
      * @return a list of stock records with zero quantity
      */
     List<StockDTO> getZeroStocks();
-}
\ No newline at end of file
+
+    /**
+     * Get the movements of a stock record within a time range.
+     *
+     * @param id the ID of the stock record
+     * @param from the earliest movement time, inclusive
+     * @param to the latest movement time, inclusive
+     * @return the movements, oldest first
+     * @throws com.nexora.exception.ApplicationException if the stock record is not found or the range is invalid
+     */
+    List<StockMovementDTO> getStockMovements(UUID id, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Get the quantity of a stock record at a point in time.
+     *
+     * @param id the ID of the stock record
+     * @param asOf the point in time
+     * @return the quantity at that time
+     * @throws com.nexora.exception.ApplicationException if the stock record is not found
+     */
+    int getQuantityAsOf(UUID id, LocalDateTime asOf);
+}
@@ -0,0 +1,625 @@
+package com.nexora.service.inventory;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockJournalCheckpoint;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
+import com.nexora.repository.inventory.StockJournalCheckpointRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.service.inventory.StockJournal.Entry;
+import com.nexora.service.inventory.StockLedger.StockLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind path for stock adjustments, for sites whose adjustment rate the database
+ * cannot keep up with. Enabled with {@code nexora.stock-write-behind.enabled}; otherwise adjustments
+ * go through the {@link StockAdjustmentSequencer}.
+ * <p>
+ * The engine holds the current level of each stock record it has adjusted, loaded from the database
+ * on first use and indexed by stock UUID and by product and warehouse. An adjustment takes the lock
+ * of its stock record's stripe, is checked against the level held, appended to the local
+ * {@link StockJournal} and applied in memory, and returns once the journal has been forced to disk;
+ * adjustments waiting for the disk at the same time share one force. It never waits for the
+ * database. Every {@code flush-interval} the journaled adjustments are written in batches of
+ * {@code max-batch-size}: the stock rows are locked, the adjustments recorded as ledger movements
+ * and folded into the stock records, and this node's row in stock_journal_checkpoints is moved to
+ * the last entry written, all in one transaction. The database stays the system of record. On
+ * startup the journal entries after the checkpoint are written before any adjustment is taken.
+ * <p>
+ * Each entry is checked again against the locked stock row when it is written. A removal that would
+ * take the row below zero is not recorded (it is logged and counted in
+ * {@code inventory.stock.write-behind.rejected}) and the held level of its stock record is loaded
+ * again, so one such entry can neither fail its batch nor hold up the entries behind it.
+ * <p>
+ * Writes that change held stock records in the database by other means run through
+ * {@link #exclusive}, or {@link #exclusiveAll} when they may change any stock record: it locks the
+ * stripes, writes everything journaled and drops the held levels, which are loaded again after the
+ * write. The availability index and the inventory snapshot are updated as adjustments are applied,
+ * not when they are written.
+ * <p>
+ * The held levels are only right if no other engine adjusts the same stock records, so the engine
+ * must be enabled on one application instance only. {@code node} names that instance's checkpoint;
+ * the engine refuses to start while a checkpoint of another node exists.
+ */
+@Component
+public class StockWriteBehindEngine implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBehindEngine.class);
+
+    /**
+     * The level of a held stock record; guarded by the lock of its stripe.
+     */
+    private static final class Cell {
+
+        private final Stock stock;
+        private final StockKey location;
+        private int quantity;
+        private LocalDateTime lastRestockDate;
+        private long position;
+
+        private Cell(Stock stock, StockLevel level) {
+            this.stock = stock;
+            this.location = new StockKey(stock.getProduct().getUuid(), stock.getWarehouse().getUuid());
+            this.quantity = level.quantity();
+            this.lastRestockDate = level.lastRestockDate();
+            this.position = level.position();
+        }
+
+        private StockLevel level() {
+            return new StockLevel(quantity, lastRestockDate, position);
+        }
+    }
+
+    private final StockRepository stockRepository;
+    private final StockLedger stockLedger;
+    private final StockJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AvailabilityIndex availabilityIndex;
+    private final InventorySnapshotStore snapshotStore;
+    private final boolean enabled;
+    private final Path journalPath;
+    private final String node;
+    private final Duration flushInterval;
+    private final int maxBatchSize;
+    private final long journalRewriteSize;
+    private final ReentrantLock[] stripes;
+    private final DistributionSummary batchSizes;
+    private final Counter rejectedEntries;
+    private final Map<UUID, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<StockKey, UUID> stocksByLocation = new ConcurrentHashMap<>();
+    // Journaled and not written yet, in sequence order
+    private final ConcurrentLinkedQueue<Entry> unwritten = new ConcurrentLinkedQueue<>();
+    // Ledger positions written by flushes, taken up by the next adjustment of the stock record
+    private final Map<UUID, Long> writtenPositions = new ConcurrentHashMap<>();
+    // Guarded by this: the batch being written, kept after a failed write and written again first
+    private final List<Entry> batch = new ArrayList<>();
+    // Held stock records with an entry rejected when written, loaded again on their next use
+    private final Set<UUID> stale = ConcurrentHashMap.newKeySet();
+
+    private volatile StockJournal journal;
+    private volatile boolean recovered;
+    private ScheduledExecutorService scheduler;
+
+    public StockWriteBehindEngine(StockRepository stockRepository,
+                                  StockLedger stockLedger,
+                                  StockJournalCheckpointRepository checkpointRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  AvailabilityIndex availabilityIndex,
+                                  InventorySnapshotStore snapshotStore,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${nexora.stock-write-behind.enabled:false}") boolean enabled,
+                                  @Value("${nexora.stock-write-behind.journal-path:data/stock.journal}") Path journalPath,
+                                  @Value("${nexora.stock-write-behind.node:local}") String node,
+                                  @Value("${nexora.stock-write-behind.stripes:64}") int stripes,
+                                  @Value("${nexora.stock-write-behind.flush-interval:50ms}") Duration flushInterval,
+                                  @Value("${nexora.stock-write-behind.max-batch-size:1000}") int maxBatchSize,
+                                  @Value("${nexora.stock-write-behind.journal-rewrite-size:64MB}") DataSize journalRewriteSize) {
+        this.stockRepository = stockRepository;
+        this.stockLedger = stockLedger;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.availabilityIndex = availabilityIndex;
+        this.snapshotStore = snapshotStore;
+        this.enabled = enabled;
+        this.journalPath = journalPath;
+        this.node = node;
+        this.flushInterval = flushInterval;
+        this.maxBatchSize = maxBatchSize;
+        this.journalRewriteSize = journalRewriteSize.toBytes();
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.batchSizes = DistributionSummary.builder("inventory.stock.write-behind.batch.size")
+                .description("Journaled stock adjustments written per transaction")
+                .register(meterRegistry);
+        this.rejectedEntries = Counter.builder("inventory.stock.write-behind.rejected")
+                .description("Journaled stock removals not written because the stock record had too little stock")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.write-behind.unwritten", unwritten, ConcurrentLinkedQueue::size)
+                .description("Journaled stock adjustments waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.write-behind.held", cells, Map::size)
+                .description("Stock records whose level is held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if stock adjustments go through this engine
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the journal, writes the entries left after the last checkpoint and starts writing new ones
+     * once the application has started.
+     *
+     * @throws IllegalStateException if another node has a checkpoint
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        List<String> otherNodes = checkpointRepository.findAll().stream()
+                .map(StockJournalCheckpoint::getNode)
+                .filter(other -> !other.equals(node))
+                .toList();
+        if (!otherNodes.isEmpty()) {
+            throw new IllegalStateException("Stock write-behind is enabled on node " + node + " but nodes " + otherNodes
+                    + " have journal checkpoints; only one node may enable it. Delete the checkpoint of a node once"
+                    + " its journal has been written and it no longer runs the engine");
+        }
+        // Saved before any entry is written, so a second node started later refuses to start
+        long checkpoint = checkpointRepository.findById(node)
+                .orElseGet(() -> checkpointRepository.save(new StockJournalCheckpoint(node, 0, LocalDateTime.now())))
+                .getPosition();
+        StockJournal opened = StockJournal.open(journalPath, checkpoint + 1);
+        List<Entry> replayed = opened.takeRecovered().stream()
+                .filter(entry -> entry.sequence() > checkpoint)
+                .toList();
+        unwritten.addAll(replayed);
+        journal = opened;
+        // Written before the first adjustment, which would otherwise load a level without them
+        flush();
+        recovered = true;
+        log.info("Stock write-behind journal {} opened, {} entries after checkpoint {} written",
+                journalPath, replayed.size(), checkpoint);
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("stock-write-behind").factory());
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the timer, writes everything journaled and closes the journal.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (journal != null) {
+            flushSafely();
+            journal.close();
+        }
+    }
+
+    /**
+     * Adjusts the quantity of a stock record in memory once the adjustment is in the journal.
+     *
+     * @param stockUuid the stock UUID
+     * @param delta     the change in quantity, positive for restocks and negative for removals
+     * @return the stock record and its level after the adjustment, with the position last written
+     * @throws ApplicationException if the stock record is not found or there is not enough stock
+     */
+    public StockAdjustmentSequencer.Result adjust(UUID stockUuid, int delta) {
+        if (!recovered) {
+            throw new ApplicationException("Stock adjustments are not available until the journal is recovered",
+                    "STOCK_JOURNAL_UNAVAILABLE");
+        }
+        StockJournal current = journal;
+        Entry entry;
+        StockAdjustmentSequencer.Result result;
+        ReentrantLock stripe = stripe(stockUuid);
+        stripe.lock();
+        try {
+            Cell cell = held(stockUuid);
+            if (cell == null) {
+                cell = load(stockUuid);
+            }
+            Long written = writtenPositions.remove(stockUuid);
+            if (written != null && written > cell.position) {
+                cell.position = written;
+            }
+            if (cell.quantity + delta < 0) {
+                throw new ApplicationException("Not enough stock available", "INSUFFICIENT_STOCK");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            long requestedAt = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // Queued under the journal's lock, so the queue stays in sequence order
+            synchronized (current) {
+                entry = current.append(stockUuid, delta, StockLedger.currentSource(), requestedAt);
+                unwritten.add(entry);
+            }
+            cell.quantity += delta;
+            if (delta >= 0) {
+                cell.lastRestockDate = now;
+            }
+            publish(cell);
+            result = new StockAdjustmentSequencer.Result(cell.stock, cell.level());
+        } finally {
+            stripe.unlock();
+        }
+        // Outside the stripe, so adjustments of other stock records can join the same force
+        current.sync(entry.sequence());
+        return result;
+    }
+
+    /**
+     * Gets the level of a stock record held in memory.
+     *
+     * @param stockUuid the stock UUID
+     * @return the current level, or null if the stock record is not held
+     */
+    public StockLevel level(UUID stockUuid) {
+        if (cells.isEmpty()) {
+            return null;
+        }
+        ReentrantLock stripe = stripe(stockUuid);
+        stripe.lock();
+        try {
+            Cell cell = held(stockUuid);
+            return cell != null ? cell.level() : null;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Finds the held stock records at the given product and warehouse pairs.
+     *
+     * @param locations the product and warehouse pairs
+     * @return the UUID of each held stock record, by location
+     */
+    public Map<StockKey, UUID> stocksAt(Collection<StockKey> locations) {
+        Map<StockKey, UUID> held = new HashMap<>();
+        for (StockKey location : locations) {
+            UUID stockUuid = stocksByLocation.get(location);
+            if (stockUuid != null) {
+                held.put(location, stockUuid);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Runs a write that changes stock records by other means than this engine. Adjustments of those
+     * stock records wait for it; their journaled adjustments are written before it and their levels
+     * are loaded again after it.
+     *
+     * @param stockUuids the stock records the write changes
+     * @param work       the write, committed before it returns
+     * @return the result of the write
+     */
+    public <T> T exclusive(Collection<UUID> stockUuids, Supplier<T> work) {
+        List<ReentrantLock> locked = lockStripes(stockUuids);
+        try {
+            flush();
+            stockUuids.forEach(this::drop);
+            return work.get();
+        } finally {
+            locked.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Drops the level of a stock record, for example once it has been deleted.
+     *
+     * @param stockUuid the stock UUID
+     */
+    public void evict(UUID stockUuid) {
+        ReentrantLock stripe = stripe(stockUuid);
+        stripe.lock();
+        try {
+            drop(stockUuid);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Runs a write that may change any stock record by other means than this engine, such as a stock
+     * import. Every adjustment waits for it; everything journaled is written before it and every
+     * level is loaded again after it. Runs the write directly if the engine is disabled.
+     *
+     * @param work the write, committed before it returns
+     * @return the result of the write
+     */
+    public <T> T exclusiveAll(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            flush();
+            cells.clear();
+            stocksByLocation.clear();
+            writtenPositions.clear();
+            stale.clear();
+            return work.get();
+        } finally {
+            for (ReentrantLock stripe : stripes) {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the journaled adjustments to the database, one transaction per batch, until the entries
+     * queued when it started are written.
+     *
+     * @return the number of entries written
+     */
+    public synchronized int flush() {
+        StockJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        int written = 0;
+        boolean more = true;
+        while (more) {
+            if (batch.isEmpty()) {
+                Entry next;
+                while (batch.size() < maxBatchSize && (next = unwritten.poll()) != null) {
+                    batch.add(next);
+                }
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            more = batch.size() == maxBatchSize;
+            Map<UUID, Long> positions = write(batch);
+            written += batch.size();
+            batchSizes.record(batch.size());
+            batch.clear();
+            positions.forEach((stockUuid, position) -> {
+                writtenPositions.merge(stockUuid, position, Math::max);
+                republish(stockUuid);
+            });
+        }
+        if (current.size() >= journalRewriteSize) {
+            synchronized (current) {
+                current.rewrite(List.copyOf(unwritten));
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes one batch: locks the stock rows, records the movements, folds them into the stock records
+     * and moves the checkpoint, in one transaction. Entries of deleted stock records are dropped, and
+     * so are removals that would take their locked row below zero; the held level of a stock record
+     * with a dropped removal is marked stale.
+     *
+     * @return the ledger position written for each stock record
+     */
+    private Map<UUID, Long> write(List<Entry> batch) {
+        Map<UUID, List<Entry>> entriesByStock = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            entriesByStock.computeIfAbsent(entry.stockUuid(), uuid -> new ArrayList<>()).add(entry);
+        }
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        Set<UUID> rejected = new HashSet<>();
+        Map<UUID, Long> written = transactionTemplate.execute(status -> {
+            rejected.clear();
+            List<Stock> stocks = stockRepository.findAllByIdForUpdate(entriesByStock.keySet());
+            Map<UUID, StockLevel> levels = stockLedger.current(stocks);
+            List<StockMovement> movements = new ArrayList<>(batch.size());
+            Map<UUID, StockLevel> after = new HashMap<>();
+            for (Stock stock : stocks) {
+                StockLevel level = levels.get(stock.getUuid());
+                int quantity = level.quantity();
+                LocalDateTime lastRestock = level.lastRestockDate();
+                for (Entry entry : entriesByStock.get(stock.getUuid())) {
+                    if (quantity + entry.delta() < 0) {
+                        log.warn("Dropped journaled removal {} of {} from stock {}: only {} in stock",
+                                entry.sequence(), -entry.delta(), stock.getUuid(), quantity);
+                        rejected.add(stock.getUuid());
+                        continue;
+                    }
+                    LocalDateTime requestedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.requestedAt()),
+                            ZoneId.systemDefault());
+                    StockMovementReason reason = entry.delta() >= 0 ? StockMovementReason.RESTOCK : StockMovementReason.REMOVAL;
+                    if (reason == StockMovementReason.RESTOCK) {
+                        lastRestock = requestedAt;
+                    }
+                    quantity += entry.delta();
+                    movements.add(new StockMovement(stock.getUuid(), entry.delta(), reason, entry.source(), requestedAt));
+                }
+                after.put(stock.getUuid(), new StockLevel(quantity, lastRestock, 0));
+            }
+            if (stocks.size() < entriesByStock.size()) {
+                log.warn("Dropped journaled adjustments of {} deleted stock records", entriesByStock.size() - stocks.size());
+            }
+
+            Map<UUID, Long> positions = new HashMap<>();
+            if (!movements.isEmpty()) {
+                stockLedger.recordAll(movements);
+                movements.forEach(movement -> positions.put(movement.getStockUuid(), movement.getId()));
+                // Everything up to each stock record's last movement is folded: one UPDATE per stock row
+                for (Stock stock : stocks) {
+                    Long position = positions.get(stock.getUuid());
+                    if (position != null) {
+                        StockLevel level = after.get(stock.getUuid());
+                        stock.applyLedger(level.quantity(), level.lastRestockDate(), position);
+                    }
+                }
+            }
+
+            StockJournalCheckpoint checkpoint = checkpointRepository.findById(node)
+                    .orElseGet(() -> new StockJournalCheckpoint(node, 0, LocalDateTime.now()));
+            checkpoint.setPosition(lastSequence);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            return positions;
+        });
+        // Marked once committed, so a reload sees the rows without the dropped removals
+        rejectedEntries.increment(rejected.size());
+        stale.addAll(rejected);
+        return written;
+    }
+
+    /**
+     * Gets a held level, loading it again if an entry of its stock record was rejected when written.
+     * The caller holds the lock of its stripe.
+     */
+    private Cell held(UUID stockUuid) {
+        Cell cell = cells.get(stockUuid);
+        if (cell != null && stale.remove(stockUuid)) {
+            cell = load(stockUuid);
+        }
+        return cell;
+    }
+
+    /**
+     * Loads the level of a stock record from the database, plus its journaled entries not written
+     * yet. Holds the flush lock, so no entry is written while the level is read; the caller holds the
+     * lock of its stripe, so no entry is added.
+     */
+    private Cell load(UUID stockUuid) {
+        Cell cell;
+        synchronized (this) {
+            cell = transactionTemplate.execute(status -> stockRepository.findById(stockUuid)
+                    .map(stock -> new Cell(stock, stockLedger.current(stock)))
+                    .orElse(null));
+            if (cell == null) {
+                throw new ApplicationException("Stock not found with id: " + stockUuid, "STOCK_NOT_FOUND");
+            }
+            for (Entry entry : batch) {
+                if (entry.stockUuid().equals(stockUuid)) {
+                    cell.quantity += entry.delta();
+                }
+            }
+            for (Entry entry : unwritten) {
+                if (entry.stockUuid().equals(stockUuid)) {
+                    cell.quantity += entry.delta();
+                }
+            }
+        }
+        writtenPositions.remove(stockUuid);
+        cells.put(stockUuid, cell);
+        stocksByLocation.put(cell.location, stockUuid);
+        return cell;
+    }
+
+    /**
+     * Drops a held level. The caller holds the lock of its stripe.
+     */
+    private void drop(UUID stockUuid) {
+        Cell cell = cells.remove(stockUuid);
+        if (cell != null) {
+            stocksByLocation.remove(cell.location, stockUuid);
+        }
+        writtenPositions.remove(stockUuid);
+        stale.remove(stockUuid);
+    }
+
+    /**
+     * Passes the level of a held stock record on to the availability index and the inventory snapshot.
+     * The caller holds the lock of its stripe, so the updates of a stock record are passed on in order.
+     */
+    private void publish(Cell cell) {
+        Stock stock = cell.stock;
+        availabilityIndex.put(stock.getUuid(), cell.location.productUuid(), cell.location.warehouseUuid(),
+                cell.quantity, cell.position);
+        snapshotStore.patch(stock, cell.quantity, cell.position);
+    }
+
+    /**
+     * Passes on a held level with the position just written, unless an adjustment of the stock record
+     * is in progress; that adjustment takes the position up instead. Never waits for the stripe, since
+     * {@link #exclusive} holds stripes while it waits for a flush.
+     */
+    private void republish(UUID stockUuid) {
+        ReentrantLock stripe = stripe(stockUuid);
+        if (!stripe.tryLock()) {
+            return;
+        }
+        try {
+            Cell cell = cells.get(stockUuid);
+            Long written = writtenPositions.remove(stockUuid);
+            if (cell != null && written != null && written > cell.position && !stale.contains(stockUuid)) {
+                cell.position = written;
+                publish(cell);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private ReentrantLock stripe(UUID stockUuid) {
+        return stripes[Math.floorMod(stockUuid.hashCode(), stripes.length)];
+    }
+
+    /**
+     * Locks the stripes of the given stock records in index order, so concurrent callers cannot deadlock.
+     */
+    private List<ReentrantLock> lockStripes(Collection<UUID> stockUuids) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        stockUuids.forEach(uuid -> indexes.add(Math.floorMod(uuid.hashCode(), stripes.length)));
+        List<ReentrantLock> locked = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock();
+            locked.add(stripes[index]);
+        }
+        return locked;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Writing journaled stock adjustments failed, retrying in {}: {}", flushInterval, e.getMessage());
+        }
+    }
+}
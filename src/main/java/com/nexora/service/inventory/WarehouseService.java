@@ -50,16 +50,27 @@ public interface WarehouseService {
      * @throws com.nexora.exception.ApplicationException if a warehouse with the same code already exists
      */
     WarehouseDTO createWarehouse(WarehouseDTO warehouseDTO);
+
+    /**
+     * Create many warehouses in one transaction, written as JDBC batches.
+     *
+     * @param warehouseDTOs the warehouse data
+     * @return the created warehouses, in input order
+     * @throws com.nexora.exception.ApplicationException if a code is repeated in the input or already exists
+     */
+    List<WarehouseDTO> createWarehouses(List<WarehouseDTO> warehouseDTOs);
     
     /**
      * Update an existing warehouse.
      *
      * @param uuid the UUID of the warehouse to update
      * @param warehouseDTO the updated warehouse data
+     * @param expectedVersion the version the caller last saw, or null to update whatever the current version is
      * @return the updated warehouse
-     * @throws com.nexora.exception.ApplicationException if the warehouse is not found
+     * @throws com.nexora.exception.ApplicationException if the warehouse is not found, its version is not the
+     *                                                   expected one, or it kept being modified concurrently
      */
-    WarehouseDTO updateWarehouse(UUID uuid, WarehouseDTO warehouseDTO);
+    WarehouseDTO updateWarehouse(UUID uuid, WarehouseDTO warehouseDTO, Long expectedVersion);
     
     /**
      * Delete a warehouse by its UUID.
@@ -118,4 +129,13 @@ public interface WarehouseService {
      * @return a list of warehouses whose names contain the specified text
      */
     List<WarehouseDTO> searchWarehousesByName(String name);
+    
+    /**
+     * Search warehouses by code, name, city and description, best matches first.
+     *
+     * @param query the text to search for
+     * @param limit the maximum number of results, or null for the default; capped at the maximum
+     * @return the matching warehouses in rank order, or an empty list if the query is blank
+     */
+    List<WarehouseDTO> searchWarehouses(String query, Integer limit);
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.nexora.service.inventory.impl;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Category;
+import com.nexora.model.inventory.ImportJob;
+import com.nexora.model.inventory.Status;
+import com.nexora.repository.inventory.ImportJobRepository;
+import com.nexora.service.inventory.ImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.UUID;
+
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private final ImportJobRepository importJobRepository;
+    private final S3Client s3Client;
+
+    @Value("${cos.bucket}")
+    private String bucketName;
+
+    public ImportServiceImpl(ImportJobRepository importJobRepository, S3Client s3Client) {
+        this.importJobRepository = importJobRepository;
+        this.s3Client = s3Client;
+    }
+
+    /**
+     * Creates a PENDING import job and stores the uploaded file in object storage, where the
+     * consumer picks it up. The file is streamed from the multipart upload, not buffered.
+     */
+    public UUID initiateImport(UUID userId, Category category, MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new ApplicationException("The uploaded file is empty", "IMPORT_EMPTY_FILE");
+        }
+        String importType = importTypeOf(file.getOriginalFilename());
+
+        ImportJob job = new ImportJob();
+        job.setUserUuid(userId);
+        job.setCategory(category);
+        job.setImportType(importType);
+        job.setStatus(Status.PENDING);
+        job.setFileName(file.getOriginalFilename());
+        job = importJobRepository.save(job);
+
+        String key = "imports/" + userId + "/" + job.getUuid() + "." + importType.toLowerCase(Locale.ROOT);
+        try (InputStream content = file.getInputStream()) {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(file.getContentType())
+                    .build();
+            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(content, file.getSize()));
+        } catch (IOException | RuntimeException e) {
+            job.setStatus(Status.FAILED);
+            job.setErrorMessage(e.getMessage());
+            importJobRepository.save(job);
+            throw new ApplicationException("Failed to store the uploaded file", "IMPORT_UPLOAD_FAILED", e);
+        }
+
+        job.setFileKey(key);
+        importJobRepository.save(job);
+        return job.getUuid();
+    }
+
+    public InputStream openUpload(String fileKey) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileKey)
+                .build());
+    }
+
+    public void deleteUpload(String fileKey) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileKey)
+                .build());
+    }
+
+    private static String importTypeOf(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return "CSV";
+        }
+        if (name.endsWith(".xlsx")) {
+            return "XLSX";
+        }
+        throw new ApplicationException("Only .csv and .xlsx files can be imported", "IMPORT_UNSUPPORTED_FILE");
+    }
+}
@@ -1,194 +1,199 @@
 package com.nexora.service.inventory.impl;
 
-import com.nexora.model.inventory.Product;
-import com.nexora.model.inventory.Stock;
-import com.nexora.model.inventory.Warehouse;
-import com.nexora.repository.inventory.ProductRepository;
-import com.nexora.repository.inventory.StockRepository;
-import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.InventorySnapshot;
+import com.nexora.service.inventory.InventorySnapshotStore;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Builds the aggregate report from the columnar {@link InventorySnapshot} instead of loading and
+ * grouping stock entities. Values are summed as cents in long arrays and only converted to BigDecimal
+ * per warehouse and product. With at least {@code nexora.inventory.snapshot.parallel-threshold} stock
+ * records, the rollups are split into one range of rows per core and merged.
+ */
 @Service
 public class InventoryAggregateReportServiceImpl implements InventoryAggregateReportService {
 
-    private final StockRepository stockRepository;
-    private final WarehouseRepository warehouseRepository;
-    private final ProductRepository productRepository;
+    private final InventorySnapshotStore snapshotStore;
+    private final int parallelThreshold;
 
-    public InventoryAggregateReportServiceImpl(StockRepository stockRepository, WarehouseRepository warehouseRepository, ProductRepository productRepository) {
-        this.stockRepository = stockRepository;
-        this.warehouseRepository = warehouseRepository;
-        this.productRepository = productRepository;
+    public InventoryAggregateReportServiceImpl(InventorySnapshotStore snapshotStore,
+                                               @Value("${nexora.inventory.snapshot.parallel-threshold:50000}") int parallelThreshold) {
+        this.snapshotStore = snapshotStore;
+        this.parallelThreshold = parallelThreshold;
     }
 
+    @Timed(value = "inventory.report.aggregate", description = "Time spent building the aggregate inventory report")
     public Map<String, Object> getAggregateReport() {
-        List<Stock> stocks = stockRepository.findAllWithProductAndWarehouse();
-        List<Warehouse> warehouses = warehouseRepository.findAll();
-
-        Map<UUID, Product> productMap = buildProductMap(stocks);
-        Map<UUID, List<Stock>> stocksByWarehouse = groupStocksByWarehouse(stocks);
-        Map<UUID, List<Stock>> stocksByProduct = groupStocksByProduct(stocks);
+        InventorySnapshot snapshot = snapshotStore.current();
+        Rollup rollup = rollup(snapshot);
 
         Map<String, Object> report = new HashMap<>();
-        report.put("warehouseOverview", buildWarehouseOverview(warehouses, stocksByWarehouse));
-        report.put("stockLevels", buildStockLevels(warehouses, stocks, stocksByWarehouse, productMap));
-        report.put("inventoryValue", buildInventoryValue(warehouses, stocksByWarehouse));
-        report.put("productSummary", buildProductSummary(stocksByProduct, productMap));
+        report.put("warehouseOverview", buildWarehouseOverview(snapshot, rollup));
+        report.put("stockLevels", buildStockLevels(snapshot));
+        report.put("inventoryValue", buildInventoryValue(snapshot, rollup));
+        report.put("productSummary", buildProductSummary(snapshot, rollup));
         return report;
     }
 
-    private Map<UUID, Product> buildProductMap(List<Stock> stocks) {
-        return stocks.stream()
-                .map(Stock::getProduct)
-                .collect(Collectors.toMap(Product::getUuid, p -> p, (a, b) -> a));
+    /**
+     * Quantity and value in cents per warehouse and per product.
+     */
+    private record Rollup(int[] warehouseQuantity, long[] warehouseValue, int[] productQuantity, long[] productValue) {
+
+        Rollup(InventorySnapshot snapshot) {
+            this(new int[snapshot.warehouses()], new long[snapshot.warehouses()],
+                    new int[snapshot.products()], new long[snapshot.products()]);
+        }
+
+        Rollup add(InventorySnapshot snapshot, int from, int to) {
+            for (int row = from; row < to; row++) {
+                int product = snapshot.product(row);
+                int warehouse = snapshot.warehouse(row);
+                int quantity = snapshot.quantity(row);
+                long value = snapshot.priceCents(product) * quantity;
+                warehouseQuantity[warehouse] += quantity;
+                warehouseValue[warehouse] += value;
+                productQuantity[product] += quantity;
+                productValue[product] += value;
+            }
+            return this;
+        }
+
+        Rollup merge(Rollup other) {
+            for (int i = 0; i < warehouseQuantity.length; i++) {
+                warehouseQuantity[i] += other.warehouseQuantity[i];
+                warehouseValue[i] += other.warehouseValue[i];
+            }
+            for (int i = 0; i < productQuantity.length; i++) {
+                productQuantity[i] += other.productQuantity[i];
+                productValue[i] += other.productValue[i];
+            }
+            return this;
+        }
     }
 
-    private Map<UUID, List<Stock>> groupStocksByWarehouse(List<Stock> stocks) {
-        return stocks.stream()
-                .collect(Collectors.groupingBy(s -> s.getWarehouse().getUuid()));
+    private Rollup rollup(InventorySnapshot snapshot) {
+        int rows = snapshot.rows();
+        if (rows < parallelThreshold) {
+            return new Rollup(snapshot).add(snapshot, 0, rows);
+        }
+        int parts = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int partSize = (rows + parts - 1) / parts;
+        return IntStream.range(0, parts)
+                .parallel()
+                .mapToObj(part -> new Rollup(snapshot).add(snapshot, part * partSize, Math.min(rows, (part + 1) * partSize)))
+                .reduce(Rollup::merge)
+                .orElseGet(() -> new Rollup(snapshot));
     }
 
-    private Map<UUID, List<Stock>> groupStocksByProduct(List<Stock> stocks) {
-        return stocks.stream()
-                .collect(Collectors.groupingBy(s -> s.getProduct().getUuid()));
+    /**
+     * Value of a warehouse's stock; zero without a scale for a warehouse without stock records.
+     */
+    private static BigDecimal warehouseValue(InventorySnapshot snapshot, Rollup rollup, int warehouse) {
+        return snapshot.warehouseRowCount(warehouse) == 0
+                ? BigDecimal.ZERO
+                : InventorySnapshot.amount(rollup.warehouseValue()[warehouse]);
     }
 
-    private List<Map<String, Object>> buildWarehouseOverview(List<Warehouse> warehouses, Map<UUID, List<Stock>> stocksByWarehouse) {
-        return warehouses.stream()
-                .map(w -> {
-                    List<Stock> warehouseStocks = stocksByWarehouse.getOrDefault(w.getUuid(), Collections.emptyList());
-                    BigDecimal totalStockValue = warehouseStocks.stream()
-                            .map(s -> s.getProduct().getPrice().multiply(BigDecimal.valueOf(s.getQuantity())))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    int totalProductQuantity = warehouseStocks.stream()
-                            .mapToInt(Stock::getQuantity)
-                            .sum();
-                    Map<String, Object> wh = new HashMap<>();
-                    wh.put("uuid", w.getUuid());
-                    wh.put("name", w.getName());
-                    wh.put("totalStockValue", totalStockValue);
-                    wh.put("totalProductQuantity", totalProductQuantity);
-                    return wh;
-                })
-                .sorted((a, b) -> ((BigDecimal) b.get("totalStockValue")).compareTo((BigDecimal) a.get("totalStockValue")))
-                .collect(Collectors.toList());
+    private List<Map<String, Object>> buildWarehouseOverview(InventorySnapshot snapshot, Rollup rollup) {
+        Integer[] order = warehousesByValue(snapshot, rollup);
+        List<Map<String, Object>> overview = new ArrayList<>(order.length);
+        for (int w : order) {
+            Map<String, Object> wh = new HashMap<>();
+            wh.put("uuid", snapshot.warehouseUuid(w));
+            wh.put("name", snapshot.warehouseName(w));
+            wh.put("totalStockValue", warehouseValue(snapshot, rollup, w));
+            wh.put("totalProductQuantity", rollup.warehouseQuantity()[w]);
+            overview.add(wh);
+        }
+        return overview;
     }
 
-    private Map<String, Object> buildStockLevels(
-            List<Warehouse> warehouses,
-            List<Stock> stocks,
-            Map<UUID, List<Stock>> stocksByWarehouse,
-            Map<UUID, Product> productMap
-    ) {
+    private Map<String, Object> buildStockLevels(InventorySnapshot snapshot) {
         Map<String, List<Map<String, Object>>> lowStockByWarehouse = new TreeMap<>();
         Map<String, List<Map<String, Object>>> highStockByWarehouse = new TreeMap<>();
-        Set<UUID> lowStockProductUuids = new HashSet<>();
-        Set<UUID> highStockProductUuids = new HashSet<>();
+        BitSet lowStockProducts = new BitSet(snapshot.products());
+        BitSet highStockProducts = new BitSet(snapshot.products());
         int lowStockEntries = 0;
         int highStockEntries = 0;
 
-        for (Warehouse w : warehouses) {
-            List<Stock> warehouseStocks = stocksByWarehouse.getOrDefault(w.getUuid(), Collections.emptyList());
+        for (int w = 0; w < snapshot.warehouses(); w++) {
+            int[] rows = snapshot.warehouseRows(w);
 
-            List<Map<String, Object>> lowStocks = mapStockEntries(
-                    warehouseStocks, Stock::isLowStock, lowStockProductUuids, w, true
-            );
-            lowStockByWarehouse.put(w.getName(), lowStocks);
+            List<Map<String, Object>> lowStocks = mapStockEntries(snapshot, rows, lowStockProducts, w, true);
+            lowStockByWarehouse.put(snapshot.warehouseName(w), lowStocks);
             lowStockEntries += lowStocks.size();
 
-            List<Map<String, Object>> highStocks = mapStockEntries(
-                    warehouseStocks, Stock::isOverStock, highStockProductUuids, w, false
-            );
-            highStockByWarehouse.put(w.getName(), highStocks);
+            List<Map<String, Object>> highStocks = mapStockEntries(snapshot, rows, highStockProducts, w, false);
+            highStockByWarehouse.put(snapshot.warehouseName(w), highStocks);
             highStockEntries += highStocks.size();
         }
 
         // Sort by number of products descending
-        lowStockByWarehouse = lowStockByWarehouse.entrySet().stream()
-                .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (a, b) -> a,
-                        LinkedHashMap::new
-                ));
-
-        highStockByWarehouse = highStockByWarehouse.entrySet().stream()
-                .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (a, b) -> a,
-                        LinkedHashMap::new
-                ));
-
-        Set<String> lowStockProductCodes = lowStockProductUuids.stream()
-                .map(uuid -> productMap.get(uuid).getCode())
-                .collect(Collectors.toSet());
-        Set<String> highStockProductCodes = highStockProductUuids.stream()
-                .map(uuid -> productMap.get(uuid).getCode())
-                .collect(Collectors.toSet());
+        lowStockByWarehouse = sortBySize(lowStockByWarehouse);
+        highStockByWarehouse = sortBySize(highStockByWarehouse);
 
         Map<String, Object> stockLevels = new HashMap<>();
-        stockLevels.put("totalProducts", (int) productRepository.count());
-        stockLevels.put("totalStockEntries", stocks.size());
-        stockLevels.put("totalLowStockProducts", lowStockProductUuids.size());
-        stockLevels.put("totalHighStockProducts", highStockProductUuids.size());
+        stockLevels.put("totalProducts", (int) snapshot.productCount());
+        stockLevels.put("totalStockEntries", snapshot.rows());
+        stockLevels.put("totalLowStockProducts", lowStockProducts.cardinality());
+        stockLevels.put("totalHighStockProducts", highStockProducts.cardinality());
         stockLevels.put("lowStockEntries", lowStockEntries);
         stockLevels.put("highStockEntries", highStockEntries);
-        stockLevels.put("lowStockProductCodes", lowStockProductCodes);
-        stockLevels.put("highStockProductCodes", highStockProductCodes);
+        stockLevels.put("lowStockProductCodes", productCodes(snapshot, lowStockProducts));
+        stockLevels.put("highStockProductCodes", productCodes(snapshot, highStockProducts));
         stockLevels.put("lowStockByWarehouse", lowStockByWarehouse);
         stockLevels.put("highStockByWarehouse", highStockByWarehouse);
         return stockLevels;
     }
 
     private List<Map<String, Object>> mapStockEntries(
-            List<Stock> stocks,
-            java.util.function.Predicate<Stock> filter,
-            Set<UUID> productUuids,
-            Warehouse warehouse,
+            InventorySnapshot snapshot,
+            int[] rows,
+            BitSet products,
+            int warehouse,
             boolean isLowStock
     ) {
-        return stocks.stream()
-                .filter(filter)
-                .sorted((a, b) -> b.getProduct().getPrice().compareTo(a.getProduct().getPrice()))
-                .map(s -> {
-                    productUuids.add(s.getProduct().getUuid());
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("productUuid", s.getProduct().getUuid());
-                    map.put("productCode", s.getProduct().getCode());
-                    map.put("productName", s.getProduct().getName());
-                    map.put("quantity", s.getQuantity());
-                    map.put(isLowStock ? "minStockLevel" : "maxStockLevel",
-                            isLowStock ? s.getMinStockLevel() : s.getMaxStockLevel());
-                    map.put("warehouseUuid", warehouse.getUuid());
-                    return map;
-                })
-                .collect(Collectors.toList());
+        List<Integer> matches = new ArrayList<>();
+        for (int row : rows) {
+            if (isLowStock ? snapshot.status(row).isLow() : snapshot.status(row).isOver()) {
+                matches.add(row);
+            }
+        }
+        // Stable, so rows with the same price keep their load order
+        matches.sort((a, b) -> Long.compare(snapshot.priceCents(snapshot.product(b)), snapshot.priceCents(snapshot.product(a))));
+
+        List<Map<String, Object>> entries = new ArrayList<>(matches.size());
+        for (int row : matches) {
+            int product = snapshot.product(row);
+            products.set(product);
+            int level = isLowStock ? snapshot.minLevel(row) : snapshot.maxLevel(row);
+            Map<String, Object> map = new HashMap<>();
+            map.put("productUuid", snapshot.productUuid(product));
+            map.put("productCode", snapshot.productCode(product));
+            map.put("productName", snapshot.productName(product));
+            map.put("quantity", snapshot.quantity(row));
+            map.put(isLowStock ? "minStockLevel" : "maxStockLevel", level == InventorySnapshot.NO_LEVEL ? null : level);
+            map.put("warehouseUuid", snapshot.warehouseUuid(warehouse));
+            entries.add(map);
+        }
+        return entries;
     }
 
-    private Map<String, Object> buildInventoryValue(List<Warehouse> warehouses, Map<UUID, List<Stock>> stocksByWarehouse) {
-        // Sort by warehouse value descending
-        Map<String, BigDecimal> valueByWarehouse = warehouses.stream()
-                .map(w -> {
-                    List<Stock> warehouseStocks = stocksByWarehouse.getOrDefault(w.getUuid(), Collections.emptyList());
-                    BigDecimal warehouseValue = warehouseStocks.stream()
-                            .map(s -> s.getProduct().getPrice().multiply(BigDecimal.valueOf(s.getQuantity())))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    return new AbstractMap.SimpleEntry<>(w.getName(), warehouseValue);
-                })
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (a, b) -> a,
-                        LinkedHashMap::new
-                ));
+    private Map<String, Object> buildInventoryValue(InventorySnapshot snapshot, Rollup rollup) {
+        // Sort by warehouse value descending; the first of warehouses sharing a name wins
+        Map<String, BigDecimal> valueByWarehouse = new LinkedHashMap<>();
+        for (int w : warehousesByValue(snapshot, rollup)) {
+            valueByWarehouse.putIfAbsent(snapshot.warehouseName(w), warehouseValue(snapshot, rollup, w));
+        }
 
         BigDecimal totalValue = valueByWarehouse.values().stream()
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -199,33 +204,63 @@ public class InventoryAggregateReportServiceImpl implements InventoryAggregateRe
         return inventoryValue;
     }
 
-    private List<Map<String, Object>> buildProductSummary(Map<UUID, List<Stock>> stocksByProduct, Map<UUID, Product> productMap) {
-        return stocksByProduct.entrySet().stream()
-                .map(entry -> {
-                    Product p = productMap.get(entry.getKey());
-                    int totalQuantity = entry.getValue().stream().mapToInt(Stock::getQuantity).sum();
-                    BigDecimal productTotalValue = entry.getValue().stream()
-                            .map(s -> s.getProduct().getPrice().multiply(BigDecimal.valueOf(s.getQuantity())))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    Set<Map<String, Object>> warehousesPresentIn = entry.getValue().stream()
-                            .map(s -> {
-                                Warehouse w = s.getWarehouse();
-                                Map<String, Object> wh = new HashMap<>();
-                                wh.put("uuid", w.getUuid());
-                                wh.put("name", w.getName());
-                                return wh;
-                            })
-                            .collect(Collectors.toSet());
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("uuid", p.getUuid());
-                    map.put("code", p.getCode());
-                    map.put("name", p.getName());
-                    map.put("totalQuantity", totalQuantity);
-                    map.put("totalValue", productTotalValue);
-                    map.put("warehousesPresentIn", warehousesPresentIn);
-                    return map;
-                })
-                .sorted((a, b) -> ((BigDecimal) b.get("totalValue")).compareTo((BigDecimal) a.get("totalValue")))
-                .collect(Collectors.toList());
+    private List<Map<String, Object>> buildProductSummary(InventorySnapshot snapshot, Rollup rollup) {
+        Integer[] order = new Integer[snapshot.products()];
+        for (int p = 0; p < order.length; p++) {
+            order[p] = p;
+        }
+        long[] productValue = rollup.productValue();
+        Arrays.sort(order, (a, b) -> Long.compare(productValue[b], productValue[a]));
+
+        List<Map<String, Object>> summary = new ArrayList<>(order.length);
+        for (int p : order) {
+            Set<Map<String, Object>> warehousesPresentIn = new HashSet<>();
+            for (int row : snapshot.productRows(p)) {
+                int w = snapshot.warehouse(row);
+                Map<String, Object> wh = new HashMap<>();
+                wh.put("uuid", snapshot.warehouseUuid(w));
+                wh.put("name", snapshot.warehouseName(w));
+                warehousesPresentIn.add(wh);
+            }
+            Map<String, Object> map = new HashMap<>();
+            map.put("uuid", snapshot.productUuid(p));
+            map.put("code", snapshot.productCode(p));
+            map.put("name", snapshot.productName(p));
+            map.put("totalQuantity", rollup.productQuantity()[p]);
+            map.put("totalValue", InventorySnapshot.amount(productValue[p]));
+            map.put("warehousesPresentIn", warehousesPresentIn);
+            summary.add(map);
+        }
+        return summary;
+    }
+
+    /**
+     * Warehouse ids by value descending, ties in load order.
+     */
+    private static Integer[] warehousesByValue(InventorySnapshot snapshot, Rollup rollup) {
+        Integer[] order = new Integer[snapshot.warehouses()];
+        for (int w = 0; w < order.length; w++) {
+            order[w] = w;
+        }
+        long[] value = rollup.warehouseValue();
+        Arrays.sort(order, (a, b) -> Long.compare(value[b], value[a]));
+        return order;
+    }
+
+    private static Set<String> productCodes(InventorySnapshot snapshot, BitSet products) {
+        return products.stream()
+                .mapToObj(snapshot::productCode)
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<String, List<Map<String, Object>>> sortBySize(Map<String, List<Map<String, Object>>> byWarehouse) {
+        return byWarehouse.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        Map.Entry::getValue,
+                        (a, b) -> a,
+                        LinkedHashMap::new
+                ));
     }
 }
@@ -1,29 +1,59 @@
 package com.nexora.service.inventory.impl;
 
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.ProductSuggestionDTO;
 import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Product;
 import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.service.inventory.InventoryReferenceCache;
+import com.nexora.service.inventory.InventorySnapshotStore;
 import com.nexora.service.inventory.ProductService;
+import com.nexora.service.inventory.ProductTypeaheadIndex;
 import com.nexora.util.EntityMapper;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TransactionCallbacks;
+import com.nexora.util.TransactionRetry;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "inventory.product.service", description = "Time spent in product service operations")
 public class ProductServiceImpl implements ProductService {
 
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    private static final int MAX_SUGGESTION_LIMIT = 50;
+
     private final ProductRepository productRepository;
     private final EntityMapper entityMapper;
+    private final ProductTypeaheadIndex typeaheadIndex;
+    private final InventoryReferenceCache referenceCache;
+    private final JpaBatchWriter batchWriter;
+    private final TransactionRetry transactionRetry;
+    private final InventorySnapshotStore snapshotStore;
 
-    public ProductServiceImpl(ProductRepository productRepository, EntityMapper entityMapper) {
+    public ProductServiceImpl(ProductRepository productRepository, EntityMapper entityMapper,
+                              ProductTypeaheadIndex typeaheadIndex, InventoryReferenceCache referenceCache,
+                              JpaBatchWriter batchWriter, TransactionRetry transactionRetry,
+                              InventorySnapshotStore snapshotStore) {
         this.productRepository = productRepository;
         this.entityMapper = entityMapper;
+        this.typeaheadIndex = typeaheadIndex;
+        this.referenceCache = referenceCache;
+        this.batchWriter = batchWriter;
+        this.transactionRetry = transactionRetry;
+        this.snapshotStore = snapshotStore;
     }
 
     @Override
@@ -69,13 +99,60 @@ public class ProductServiceImpl implements ProductService {
         product.setUpdatedAt(LocalDateTime.now());
 
         Product savedProduct = productRepository.save(product);
+        afterCommit(savedProduct);
         return entityMapper.mapToDTO(savedProduct, ProductDTO.class);
     }
 
     @Override
-    public ProductDTO updateProduct(UUID id, ProductDTO productDTO) {
+    public List<ProductDTO> createProducts(List<ProductDTO> productDTOs) {
+        List<String> codes = productDTOs.stream().map(ProductDTO::getCode).toList();
+        Set<String> distinctCodes = new HashSet<>();
+        for (String code : codes) {
+            if (!distinctCodes.add(code)) {
+                throw new ApplicationException("Product code " + code + " appears more than once", "PRODUCT_CODE_EXISTS");
+            }
+        }
+        batchWriter.forEachChunk(codes, chunk -> productRepository.findExistingCodes(chunk).stream().findFirst()
+                .ifPresent(code -> {
+                    throw new ApplicationException("Product with code " + code + " already exists", "PRODUCT_CODE_EXISTS");
+                }));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = productDTOs.stream()
+                .map(productDTO -> {
+                    Product product = entityMapper.mapToEntity(productDTO, Product.class);
+                    product.setUuid(null);
+                    product.setCreatedAt(now);
+                    product.setUpdatedAt(now);
+                    return product;
+                })
+                .toList();
+
+        batchWriter.persistAll(products);
+        TransactionCallbacks.afterCommit(() -> products.forEach(product -> {
+            typeaheadIndex.put(product);
+            referenceCache.evictProduct(product.getUuid());
+        }));
+        TransactionCallbacks.afterCommit(snapshotStore::invalidate);
+        return products.stream()
+                .map(product -> entityMapper.mapToDTO(product, ProductDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductDTO updateProduct(UUID id, ProductDTO productDTO, Long expectedVersion) {
+        // Each attempt re-reads the product; a conflicting update fails the version check on commit
+        return transactionRetry.execute(() -> applyUpdate(id, productDTO, expectedVersion));
+    }
+
+    private ProductDTO applyUpdate(UUID id, ProductDTO productDTO, Long expectedVersion) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ApplicationException("Product not found with id: " + id, "PRODUCT_NOT_FOUND"));
+        if (expectedVersion != null && !expectedVersion.equals(existingProduct.getVersion())) {
+            throw new ApplicationException("Product " + id + " has been modified since version " + expectedVersion,
+                    "VERSION_MISMATCH");
+        }
 
         if (!existingProduct.getCode().equals(productDTO.getCode()) &&
                 productRepository.existsByCode(productDTO.getCode())) {
@@ -86,7 +163,9 @@ public class ProductServiceImpl implements ProductService {
 
         existingProduct.setUpdatedAt(LocalDateTime.now());
 
-        Product updatedProduct = productRepository.save(existingProduct);
+        // Flushed so the returned version is the one written
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+        afterCommit(updatedProduct);
         return entityMapper.mapToDTO(updatedProduct, ProductDTO.class);
     }
 
@@ -96,6 +175,11 @@ public class ProductServiceImpl implements ProductService {
             throw new ApplicationException("Product not found with id: " + id, "PRODUCT_NOT_FOUND");
         }
         productRepository.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> {
+            typeaheadIndex.remove(id);
+            referenceCache.evictProduct(id);
+            snapshotStore.invalidate();
+        });
     }
 
     @Override
@@ -106,6 +190,7 @@ public class ProductServiceImpl implements ProductService {
         product.setUpdatedAt(LocalDateTime.now());
 
         Product updatedProduct = productRepository.save(product);
+        afterCommit(updatedProduct);
         return entityMapper.mapToDTO(updatedProduct, ProductDTO.class);
     }
 
@@ -117,6 +202,7 @@ public class ProductServiceImpl implements ProductService {
         product.setUpdatedAt(LocalDateTime.now());
 
         Product updatedProduct = productRepository.save(product);
+        afterCommit(updatedProduct);
         return entityMapper.mapToDTO(updatedProduct, ProductDTO.class);
     }
 
@@ -143,4 +229,38 @@ public class ProductServiceImpl implements ProductService {
                 .map(product -> entityMapper.mapToDTO(product, ProductDTO.class))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDTO> searchProducts(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return productRepository.searchRanked(query, maxResults).stream()
+                .map(product -> entityMapper.mapToDTO(product, ProductDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductSuggestionDTO> suggestProducts(String query, Integer limit, boolean includeInactive) {
+        // Served from memory; NOT_SUPPORTED keeps the class-level transaction from borrowing a connection
+        int maxResults = limit == null ? DEFAULT_SUGGESTION_LIMIT : Math.max(1, Math.min(limit, MAX_SUGGESTION_LIMIT));
+        return typeaheadIndex.suggest(query, maxResults, includeInactive);
+    }
+
+    /**
+     * Refreshes the typeahead index, evicts the cached reference data and marks the inventory snapshot
+     * stale once the write has committed.
+     *
+     * @param product the created or updated product
+     */
+    private void afterCommit(Product product) {
+        TransactionCallbacks.afterCommit(() -> {
+            typeaheadIndex.put(product);
+            referenceCache.evictProduct(product.getUuid());
+            snapshotStore.invalidate();
+        });
+    }
 }
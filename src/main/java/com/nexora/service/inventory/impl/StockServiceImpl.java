@@ -1,122 +1,207 @@
 package com.nexora.service.inventory.impl;
 
+import com.nexora.dto.inventory.AvailabilityLineDTO;
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockAvailabilityDTO;
 import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockMovementDTO;
+import com.nexora.dto.inventory.StockReservationDTO;
+import com.nexora.dto.inventory.StockTransferDTO;
 import com.nexora.dto.inventory.WarehouseDTO;
 import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Product;
 import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.StockStatus;
 import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.InventoryUpsertRepository;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
 import com.nexora.repository.inventory.ProductRepository;
 import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockRepository.StockLocation;
 import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.AvailabilityIndex;
+import com.nexora.service.inventory.InventorySnapshotStore;
+import com.nexora.service.inventory.InventoryReferenceCache;
+import com.nexora.service.inventory.StockAdjustmentSequencer;
+import com.nexora.service.inventory.StockLedger;
+import com.nexora.service.inventory.StockLedger.StockLevel;
+import com.nexora.service.inventory.StockReservationEngine;
+import com.nexora.service.inventory.StockReservationEngine.Reservation;
 import com.nexora.service.inventory.StockService;
+import com.nexora.service.inventory.StockWriteBehindEngine;
 import com.nexora.util.EntityMapper;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TransactionCallbacks;
+import com.nexora.util.TransactionRetry;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of the StockService interface.
+ * <p>
+ * Quantity changes are appended to the {@link StockLedger}. Restocks and removals go through the
+ * {@link StockAdjustmentSequencer}, which commits concurrent adjustments of a stock record together.
+ * Updates replace the current quantity without locking the row up front: they are checked against the
+ * stock record's version on commit and retried by {@link TransactionRetry}, or rejected when the
+ * caller asked for a specific version. Transfers lock all stock rows they touch in uuid order, so
+ * concurrent transfers in opposite directions wait for each other instead of deadlocking.
+ * Reservations are held by the {@link StockReservationEngine} and only change the stock quantity when
+ * confirmed. Returned stock records include the movements not yet folded into the stored quantity and
+ * the quantity held by reservations. Every committed quantity change is passed on to the
+ * {@link AvailabilityIndex}, which answers availability queries without touching the database, and
+ * patched into the {@link InventorySnapshotStore} used by the aggregate report.
+ * <p>
+ * With the {@link StockWriteBehindEngine} enabled, restocks and removals are applied in memory and
+ * journaled instead, and written to the database behind the request. Other writes to stock records
+ * run exclusively of those adjustments, and reads use the level the engine holds.
  */
 @Service
 @Transactional
+@Timed(value = "inventory.stock.service", description = "Time spent in stock service operations")
 public class StockServiceImpl implements StockService {
 
     private final StockRepository stockRepository;
     private final ProductRepository productRepository;
     private final WarehouseRepository warehouseRepository;
     private final EntityMapper entityMapper;
+    private final InventoryReferenceCache referenceCache;
+    private final JpaBatchWriter batchWriter;
+    private final StockLedger stockLedger;
+    private final StockAdjustmentSequencer adjustmentSequencer;
+    private final TransactionRetry transactionRetry;
+    private final InventoryUpsertRepository upsertRepository;
+    private final StockReservationEngine reservationEngine;
+    private final AvailabilityIndex availabilityIndex;
+    private final InventorySnapshotStore snapshotStore;
+    private final StockWriteBehindEngine writeBehind;
 
     public StockServiceImpl(StockRepository stockRepository,
                             ProductRepository productRepository,
                             WarehouseRepository warehouseRepository,
-                            EntityMapper entityMapper) {
+                            EntityMapper entityMapper,
+                            InventoryReferenceCache referenceCache,
+                            JpaBatchWriter batchWriter,
+                            StockLedger stockLedger,
+                            StockAdjustmentSequencer adjustmentSequencer,
+                            TransactionRetry transactionRetry,
+                            InventoryUpsertRepository upsertRepository,
+                            StockReservationEngine reservationEngine,
+                            AvailabilityIndex availabilityIndex,
+                            InventorySnapshotStore snapshotStore,
+                            StockWriteBehindEngine writeBehind) {
         this.stockRepository = stockRepository;
         this.productRepository = productRepository;
         this.warehouseRepository = warehouseRepository;
         this.entityMapper = entityMapper;
+        this.referenceCache = referenceCache;
+        this.batchWriter = batchWriter;
+        this.stockLedger = stockLedger;
+        this.adjustmentSequencer = adjustmentSequencer;
+        this.transactionRetry = transactionRetry;
+        this.upsertRepository = upsertRepository;
+        this.reservationEngine = reservationEngine;
+        this.availabilityIndex = availabilityIndex;
+        this.snapshotStore = snapshotStore;
+        this.writeBehind = writeBehind;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getAllStocks() {
-        return stockRepository.findAllWithProductAndWarehouse().stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        return mapToDTOs(stockRepository.findAllWithProductAndWarehouse());
     }
 
     @Override
     @Transactional(readOnly = true)
     public StockDTO getStockById(UUID id) {
         return stockRepository.findById(id)
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
+                .map(stock -> mapToDTO(stock, stockLedger.current(stock)))
                 .orElseThrow(() -> new ApplicationException("Stock not found with id: " + id, "STOCK_NOT_FOUND"));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getStocksByProductId(UUID productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ApplicationException("Product not found with id: " + productId, "PRODUCT_NOT_FOUND"));
+        List<Stock> stocks = stockRepository.findByProductUuid(productId);
 
-        return stockRepository.findByProduct(product).stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        // Only an empty result needs to tell "no stock" apart from "no such product"
+        if (stocks.isEmpty() && !productRepository.existsById(productId)) {
+            throw new ApplicationException("Product not found with id: " + productId, "PRODUCT_NOT_FOUND");
+        }
+
+        return mapToDTOs(stocks);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getStocksByProductCode(String productCode) {
-        return stockRepository.findByProductCode(productCode).stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        return mapToDTOs(stockRepository.findByProductCode(productCode));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getStocksByWarehouseId(UUID warehouseId) {
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new ApplicationException("Warehouse not found with id: " + warehouseId, "WAREHOUSE_NOT_FOUND"));
+        List<Stock> stocks = stockRepository.findByWarehouseUuid(warehouseId);
 
-        return stockRepository.findByWarehouse(warehouse).stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        // Only an empty result needs to tell "no stock" apart from "no such warehouse"
+        if (stocks.isEmpty() && !warehouseRepository.existsById(warehouseId)) {
+            throw new ApplicationException("Warehouse not found with id: " + warehouseId, "WAREHOUSE_NOT_FOUND");
+        }
+
+        return mapToDTOs(stocks);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getStocksByWarehouseCode(String warehouseCode) {
-        return stockRepository.findByWarehouseCode(warehouseCode).stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        return mapToDTOs(stockRepository.findByWarehouseCode(warehouseCode));
     }
 
     @Override
     @Transactional(readOnly = true)
     public StockDTO getStockByProductAndWarehouse(UUID productId, UUID warehouseId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ApplicationException("Product not found with id: " + productId, "PRODUCT_NOT_FOUND"));
-
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new ApplicationException("Warehouse not found with id: " + warehouseId, "WAREHOUSE_NOT_FOUND"));
-
-        return stockRepository.findByProductAndWarehouse(product, warehouse)
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .orElseThrow(() -> new ApplicationException(
-                        "Stock not found for product id: " + productId + " and warehouse id: " + warehouseId,
-                        "STOCK_NOT_FOUND"));
+        return stockRepository.findByProductUuidAndWarehouseUuid(productId, warehouseId)
+                .map(stock -> withLevel(entityMapper.mapToDTO(stock, StockDTO.class), stock, stockLedger.current(stock)))
+                .orElseThrow(() -> {
+                    // Report the missing parent, if any, before falling back to STOCK_NOT_FOUND
+                    if (!productRepository.existsById(productId)) {
+                        return new ApplicationException("Product not found with id: " + productId, "PRODUCT_NOT_FOUND");
+                    }
+                    if (!warehouseRepository.existsById(warehouseId)) {
+                        return new ApplicationException("Warehouse not found with id: " + warehouseId, "WAREHOUSE_NOT_FOUND");
+                    }
+                    return new ApplicationException(
+                            "Stock not found for product id: " + productId + " and warehouse id: " + warehouseId,
+                            "STOCK_NOT_FOUND");
+                });
     }
 
     @Override
     public StockDTO createStock(StockDTO stockDTO) {
-        // Get product and warehouse entities
-        Product product = getProductFromDTO(stockDTO.getProduct());
-        Warehouse warehouse = getWarehouseFromDTO(stockDTO.getWarehouse());
+        // Resolve product and warehouse from the reference cache; only the stocks table is touched
+        ProductDTO productDTO = getProductFromDTO(stockDTO.getProduct());
+        WarehouseDTO warehouseDTO = getWarehouseFromDTO(stockDTO.getWarehouse());
+        Product product = productRepository.getReferenceById(productDTO.getUuid());
+        Warehouse warehouse = warehouseRepository.getReferenceById(warehouseDTO.getUuid());
 
         // Check if stock already exists for this product and warehouse
         if (stockRepository.findByProductAndWarehouse(product, warehouse).isPresent()) {
@@ -133,36 +218,123 @@ public class StockServiceImpl implements StockService {
         stock.setUpdatedAt(LocalDateTime.now());
 
         Stock savedStock = stockRepository.save(stock);
-        return entityMapper.mapToDTO(savedStock, StockDTO.class);
+        long position = stockLedger.recordInitial(List.of(savedStock)).get(0);
+        index(savedStock, savedStock.getQuantity(), position);
+        return mapToDTO(savedStock, productDTO, warehouseDTO);
+    }
+
+    @Override
+    public List<StockDTO> createStocks(List<StockDTO> stockDTOs) {
+        List<ProductDTO> products = new ArrayList<>(stockDTOs.size());
+        List<WarehouseDTO> warehouses = new ArrayList<>(stockDTOs.size());
+        Set<StockKey> keys = new HashSet<>();
+        Set<UUID> productIds = new LinkedHashSet<>();
+        for (StockDTO stockDTO : stockDTOs) {
+            ProductDTO productDTO = getProductFromDTO(stockDTO.getProduct());
+            WarehouseDTO warehouseDTO = getWarehouseFromDTO(stockDTO.getWarehouse());
+            if (!keys.add(new StockKey(productDTO.getUuid(), warehouseDTO.getUuid()))) {
+                throw new ApplicationException(
+                        "Stock for product code: " + productDTO.getCode() + " and warehouse code: " +
+                                warehouseDTO.getCode() + " appears more than once",
+                        "STOCK_ALREADY_EXISTS");
+            }
+            products.add(productDTO);
+            warehouses.add(warehouseDTO);
+            productIds.add(productDTO.getUuid());
+        }
+        batchWriter.forEachChunk(new ArrayList<>(productIds), chunk -> stockRepository.findProductWarehouseKeys(chunk).stream()
+                .filter(keys::contains)
+                .findFirst()
+                .ifPresent(key -> {
+                    throw new ApplicationException(
+                            "Stock already exists for this product and warehouse combination",
+                            "STOCK_ALREADY_EXISTS");
+                }));
+
+        // Copy the stock fields explicitly and only reference the parents, so no product
+        // or warehouse rows are loaded or written
+        LocalDateTime now = LocalDateTime.now();
+        List<Stock> stocks = new ArrayList<>(stockDTOs.size());
+        for (int i = 0; i < stockDTOs.size(); i++) {
+            StockDTO stockDTO = stockDTOs.get(i);
+            stocks.add(new Stock(null,
+                    productRepository.getReferenceById(products.get(i).getUuid()),
+                    warehouseRepository.getReferenceById(warehouses.get(i).getUuid()),
+                    stockDTO.getQuantity(),
+                    stockDTO.getMinStockLevel(),
+                    stockDTO.getMaxStockLevel(),
+                    stockDTO.getLastRestockDate(),
+                    now,
+                    now));
+        }
+
+        batchWriter.persistAll(stocks);
+        List<Long> positions = stockLedger.recordInitial(stocks);
+        List<StockDTO> created = new ArrayList<>(stocks.size());
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock stock = stocks.get(i);
+            index(stock, stock.getQuantity(), positions.get(i));
+            created.add(mapToDTO(stock, products.get(i), warehouses.get(i)));
+        }
+        return created;
     }
 
     @Override
-    public StockDTO updateStock(UUID id, StockDTO stockDTO) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StockDTO updateStock(UUID id, StockDTO stockDTO, Long expectedVersion) {
+        // Each attempt re-reads the stock record; a conflicting change fails the version check on commit
+        Supplier<StockDTO> update = () -> transactionRetry.execute(() -> applyUpdate(id, stockDTO, expectedVersion));
+        return writeBehind.isEnabled() ? writeBehind.exclusive(List.of(id), update) : update.get();
+    }
+
+    private StockDTO applyUpdate(UUID id, StockDTO stockDTO, Long expectedVersion) {
         Stock existingStock = stockRepository.findById(id)
                 .orElseThrow(() -> new ApplicationException("Stock not found with id: " + id, "STOCK_NOT_FOUND"));
+        if (expectedVersion != null && !expectedVersion.equals(existingStock.getVersion())) {
+            throw new ApplicationException("Stock " + id + " has been modified since version " + expectedVersion,
+                    "VERSION_MISMATCH");
+        }
 
-        // Get product and warehouse entities
-        Product product = getProductFromDTO(stockDTO.getProduct());
-        Warehouse warehouse = getWarehouseFromDTO(stockDTO.getWarehouse());
+        // Resolve product and warehouse from the reference cache; only the stocks table is touched
+        ProductDTO productDTO = getProductFromDTO(stockDTO.getProduct());
+        WarehouseDTO warehouseDTO = getWarehouseFromDTO(stockDTO.getWarehouse());
+        Product product = productRepository.getReferenceById(productDTO.getUuid());
+        Warehouse warehouse = warehouseRepository.getReferenceById(warehouseDTO.getUuid());
 
         // Check if changing product or warehouse would create a duplicate
-        if ((!existingStock.getProduct().getUuid().equals(product.getUuid()) ||
-                !existingStock.getWarehouse().getUuid().equals(warehouse.getUuid())) &&
+        if ((!existingStock.getProduct().getUuid().equals(productDTO.getUuid()) ||
+                !existingStock.getWarehouse().getUuid().equals(warehouseDTO.getUuid())) &&
                 stockRepository.findByProductAndWarehouse(product, warehouse).isPresent()) {
             throw new ApplicationException(
-                    "Stock already exists for product code: " + product.getCode() +
-                            " and warehouse code: " + warehouse.getCode(),
+                    "Stock already exists for product code: " + productDTO.getCode() +
+                            " and warehouse code: " + warehouseDTO.getCode(),
                     "STOCK_ALREADY_EXISTS");
         }
 
-        // Use the entity mapper to update fields from StockDTO to existing entity
-        entityMapper.mapToExistingEntity(stockDTO, existingStock);
+        // The new quantity replaces the current one, pending movements included; the difference is
+        // recorded as an adjustment and everything up to it is folded into the stock record. Without
+        // a quantity the current level is kept as is. The versioned UPDATE of the row makes this
+        // transaction fail if anything was folded meanwhile.
+        StockLevel level = stockLedger.current(existingStock);
+        long position = level.position();
+        int quantity = stockDTO.getQuantity() != null ? stockDTO.getQuantity() : level.quantity();
+        int delta = quantity - level.quantity();
+        if (delta != 0) {
+            position = stockLedger.record(existingStock, delta, StockMovementReason.ADJUSTMENT).getId();
+        }
+
+        // Copy the stock fields explicitly; mapping the nested DTOs would write through to the
+        // managed product and warehouse entities
+        existingStock.setMinStockLevel(stockDTO.getMinStockLevel());
+        existingStock.setMaxStockLevel(stockDTO.getMaxStockLevel());
         existingStock.setProduct(product);
         existingStock.setWarehouse(warehouse);
-        existingStock.setUpdatedAt(LocalDateTime.now());
+        existingStock.applyLedger(quantity, stockDTO.getLastRestockDate(), position);
 
-        Stock updatedStock = stockRepository.save(existingStock);
-        return entityMapper.mapToDTO(updatedStock, StockDTO.class);
+        // Flushed so the returned version is the one written
+        Stock updatedStock = stockRepository.saveAndFlush(existingStock);
+        index(updatedStock, quantity, position);
+        return mapToDTO(updatedStock, productDTO, warehouseDTO);
     }
 
     @Override
@@ -172,103 +344,501 @@ public class StockServiceImpl implements StockService {
         }
 
         stockRepository.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> {
+            availabilityIndex.remove(id);
+            snapshotStore.invalidate();
+            writeBehind.evict(id);
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public StockDTO addStock(UUID id, int quantity) {
         if (quantity < 0) {
             throw new ApplicationException("Quantity to add must be positive", "INVALID_QUANTITY");
         }
 
-        Stock stock = stockRepository.findById(id)
-                .orElseThrow(() -> new ApplicationException("Stock not found with id: " + id, "STOCK_NOT_FOUND"));
-
-        stock.addStock(quantity);
-        Stock updatedStock = stockRepository.save(stock);
-        return entityMapper.mapToDTO(updatedStock, StockDTO.class);
+        // Committed together with concurrent adjustments of the same stock record
+        StockAdjustmentSequencer.Result result = adjust(id, quantity);
+        return mapToDTO(result.stock(), result.level());
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public StockDTO removeStock(UUID id, int quantity) {
         if (quantity < 0) {
             throw new ApplicationException("Quantity to remove must be positive", "INVALID_QUANTITY");
         }
 
+        // Checked against the quantity left by the adjustments queued before it
+        StockAdjustmentSequencer.Result result = adjust(id, -quantity);
+        return mapToDTO(result.stock(), result.level());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<StockTransferDTO> transferStock(List<StockTransferDTO> transfers) {
+        if (transfers.isEmpty()) {
+            throw new ApplicationException("At least one transfer is required", "INVALID_TRANSFER");
+        }
+
+        // Resolve product and warehouses from the reference cache before any row is locked
+        List<TransferLine> lines = new ArrayList<>(transfers.size());
+        for (StockTransferDTO transfer : transfers) {
+            if (transfer.getQuantity() == null || transfer.getQuantity() <= 0) {
+                throw new ApplicationException("Quantity to transfer must be positive", "INVALID_QUANTITY");
+            }
+            ProductDTO productDTO = getProductFromDTO(transfer.getProduct());
+            WarehouseDTO sourceDTO = getWarehouseFromDTO(transfer.getSourceWarehouse());
+            WarehouseDTO targetDTO = getWarehouseFromDTO(transfer.getTargetWarehouse());
+            if (sourceDTO.getUuid().equals(targetDTO.getUuid())) {
+                throw new ApplicationException("Source and target warehouse must be different", "INVALID_TRANSFER");
+            }
+            lines.add(new TransferLine(productDTO, sourceDTO, targetDTO, transfer.getQuantity()));
+        }
+
+        // Each attempt locks the stock rows again; a lock timeout fails the attempt as a whole
+        Supplier<List<StockTransferDTO>> transfer = () -> transactionRetry.execute(() -> applyTransfer(lines));
+        return writeBehind.isEnabled() ? writeBehind.exclusive(transferredStocks(lines), transfer) : transfer.get();
+    }
+
+    /**
+     * Finds the existing stock records a transfer moves stock between, from the write-behind engine
+     * where it holds them and from the database otherwise.
+     *
+     * @param lines the lines of the transfer
+     * @return the stock UUIDs
+     */
+    private Set<UUID> transferredStocks(List<TransferLine> lines) {
+        Set<StockKey> keys = new HashSet<>();
+        for (TransferLine line : lines) {
+            keys.add(line.sourceKey());
+            keys.add(line.targetKey());
+        }
+        Map<StockKey, UUID> held = writeBehind.stocksAt(keys);
+        Set<UUID> stockIds = new HashSet<>(held.values());
+        if (held.size() < keys.size()) {
+            Set<UUID> productIds = new HashSet<>();
+            Set<UUID> warehouseIds = new HashSet<>();
+            keys.forEach(key -> {
+                productIds.add(key.productUuid());
+                warehouseIds.add(key.warehouseUuid());
+            });
+            for (StockLocation location : stockRepository.findLocations(productIds, warehouseIds)) {
+                if (keys.contains(new StockKey(location.getProductUuid(), location.getWarehouseUuid()))) {
+                    stockIds.add(location.getUuid());
+                }
+            }
+        }
+        return stockIds;
+    }
+
+    /**
+     * One line of a transfer, with its product and warehouses resolved.
+     */
+    private record TransferLine(ProductDTO product, WarehouseDTO source, WarehouseDTO target, int quantity) {
+
+        StockKey sourceKey() {
+            return new StockKey(product.getUuid(), source.getUuid());
+        }
+
+        StockKey targetKey() {
+            return new StockKey(product.getUuid(), target.getUuid());
+        }
+    }
+
+    private List<StockTransferDTO> applyTransfer(List<TransferLine> lines) {
+        // Missing targets are inserted before any row is locked, and in a fixed order, so transfers
+        // creating the same stock record wait for each other instead of deadlocking
+        upsertRepository.insertMissingStocks(lines.stream()
+                .map(TransferLine::targetKey)
+                .distinct()
+                .sorted(Comparator.comparing((StockKey key) -> key.productUuid().toString())
+                        .thenComparing(key -> key.warehouseUuid().toString()))
+                .toList());
+
+        Set<UUID> productIds = new HashSet<>();
+        Set<UUID> warehouseIds = new HashSet<>();
+        for (TransferLine line : lines) {
+            productIds.add(line.product().getUuid());
+            warehouseIds.add(line.source().getUuid());
+            warehouseIds.add(line.target().getUuid());
+        }
+        Map<StockKey, UUID> stockIds = new HashMap<>();
+        for (StockLocation location : stockRepository.findLocations(productIds, warehouseIds)) {
+            stockIds.put(new StockKey(location.getProductUuid(), location.getWarehouseUuid()), location.getUuid());
+        }
+        Set<UUID> involved = new HashSet<>();
+        for (TransferLine line : lines) {
+            involved.add(requireStockId(stockIds, line.sourceKey(), line.product(), line.source()));
+            involved.add(requireStockId(stockIds, line.targetKey(), line.product(), line.target()));
+        }
+
+        // Every row is locked, in uuid order, before the ledger is read
+        List<Stock> stocks = stockRepository.findAllByIdForUpdate(involved);
+        Map<UUID, Stock> lockedStocks = stocks.stream().collect(Collectors.toMap(Stock::getUuid, stock -> stock));
+        Map<UUID, StockLevel> levels = stockLedger.current(stocks);
+        Map<UUID, Integer> quantities = new HashMap<>();
+        levels.forEach((uuid, level) -> quantities.put(uuid, level.quantity()));
+
+        String source = StockLedger.currentSource();
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>(lines.size() * 2);
+        for (TransferLine line : lines) {
+            UUID from = stockIds.get(line.sourceKey());
+            UUID to = stockIds.get(line.targetKey());
+            if (!lockedStocks.containsKey(from) || !lockedStocks.containsKey(to)) {
+                // Deleted after its uuid was read
+                throw new ApplicationException("Stock not found with id: " + (lockedStocks.containsKey(from) ? to : from),
+                        "STOCK_NOT_FOUND");
+            }
+            int available = quantities.get(from);
+            if (available < line.quantity()) {
+                throw new ApplicationException("Not enough stock available for product code: " + line.product().getCode() +
+                        " in warehouse code: " + line.source().getCode(), "INSUFFICIENT_STOCK");
+            }
+            quantities.put(from, available - line.quantity());
+            quantities.merge(to, line.quantity(), Integer::sum);
+            movements.add(new StockMovement(from, -line.quantity(), StockMovementReason.TRANSFER_OUT, source, now));
+            movements.add(new StockMovement(to, line.quantity(), StockMovementReason.TRANSFER_IN, source, now));
+        }
+
+        // Everything up to each stock record's last movement is folded: one UPDATE per stock row
+        stockLedger.recordAll(movements);
+        Map<UUID, Long> positions = new HashMap<>();
+        movements.forEach(movement -> positions.put(movement.getStockUuid(), movement.getId()));
+        for (Stock stock : stocks) {
+            StockLevel level = levels.get(stock.getUuid());
+            stock.applyLedger(quantities.get(stock.getUuid()), level.lastRestockDate(), positions.get(stock.getUuid()));
+            index(stock, quantities.get(stock.getUuid()), positions.get(stock.getUuid()));
+        }
+        // Flushed so the returned versions are the ones written
+        stockRepository.flush();
+
+        List<StockTransferDTO> results = new ArrayList<>(lines.size());
+        for (TransferLine line : lines) {
+            StockTransferDTO result = new StockTransferDTO(line.product(), line.source(), line.target(), line.quantity());
+            result.setSource(mapToDTO(lockedStocks.get(stockIds.get(line.sourceKey())), line.product(), line.source()));
+            result.setTarget(mapToDTO(lockedStocks.get(stockIds.get(line.targetKey())), line.product(), line.target()));
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static UUID requireStockId(Map<StockKey, UUID> stockIds, StockKey key, ProductDTO product, WarehouseDTO warehouse) {
+        UUID stockId = stockIds.get(key);
+        if (stockId == null) {
+            throw new ApplicationException("Stock not found for product code: " + product.getCode() +
+                    " and warehouse code: " + warehouse.getCode(), "STOCK_NOT_FOUND");
+        }
+        return stockId;
+    }
+
+    @Override
+    public StockReservationDTO reserveStock(UUID id, int quantity, String reference, Duration ttl) {
+        if (quantity <= 0) {
+            throw new ApplicationException("Quantity to reserve must be positive", "INVALID_QUANTITY");
+        }
+
+        // Read from the primary, so the check sees the latest quantity; only the engine is changed
         Stock stock = stockRepository.findById(id)
                 .orElseThrow(() -> new ApplicationException("Stock not found with id: " + id, "STOCK_NOT_FOUND"));
+        StockLevel held = writeBehind.level(id);
+        int onHand = held != null ? held.quantity() : stockLedger.current(stock).quantity();
+        return StockReservationDTO.of(reservationEngine.reserve(id, onHand, quantity, reference, ttl));
+    }
 
-        if (stock.getQuantity() < quantity) {
-            throw new ApplicationException("Not enough stock available", "INSUFFICIENT_STOCK");
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void releaseReservation(UUID reservationId) {
+        reservationEngine.release(reservationId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StockDTO confirmReservation(UUID reservationId) {
+        // Ended first, so the same reservation cannot be confirmed twice
+        Reservation reservation = reservationEngine.release(reservationId);
+        StockAdjustmentSequencer.Result result;
+        try {
+            result = adjust(reservation.stockUuid(), -reservation.quantity());
+        } catch (RuntimeException e) {
+            reservationEngine.restore(reservation);
+            throw e;
+        }
+        return mapToDTO(result.stock(), result.level());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StockAvailabilityDTO checkAvailability(List<AvailabilityLineDTO> lines) {
+        // Served from memory; NOT_SUPPORTED keeps the class-level transaction from borrowing a connection
+        if (lines.isEmpty()) {
+            throw new ApplicationException("At least one line is required", "INVALID_AVAILABILITY_QUERY");
+        }
+        int count = lines.size();
+        List<ProductDTO> products = new ArrayList<>(count);
+        Map<UUID, Integer> demand = new HashMap<>();
+        for (AvailabilityLineDTO line : lines) {
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new ApplicationException("Quantity needed must be positive", "INVALID_QUANTITY");
+            }
+            ProductDTO productDTO = getProductFromDTO(line.getProduct());
+            products.add(productDTO);
+            // Lines for the same product draw on the same stock
+            demand.merge(productDTO.getUuid(), line.getQuantity(), Integer::sum);
+        }
+
+        // Quantity available per warehouse, one slot per line; reservations are held against the stock record
+        Map<UUID, int[]> availableByWarehouse = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            for (AvailabilityIndex.Cell cell : availabilityIndex.cells(products.get(i).getUuid())) {
+                int available = Math.max(0, cell.quantity() - reservationEngine.reserved(cell.stockUuid()));
+                availableByWarehouse.computeIfAbsent(cell.warehouseUuid(), uuid -> new int[count])[i] += available;
+            }
         }
 
-        stock.removeStock(quantity);
-        Stock updatedStock = stockRepository.save(stock);
-        return entityMapper.mapToDTO(updatedStock, StockDTO.class);
+        int[] totals = new int[count];
+        List<StockAvailabilityDTO.WarehouseAvailability> warehouses = new ArrayList<>(availableByWarehouse.size());
+        for (Map.Entry<UUID, int[]> entry : availableByWarehouse.entrySet()) {
+            WarehouseDTO warehouse = referenceCache.getWarehouse(entry.getKey());
+            if (!warehouse.isActive()) {
+                continue;
+            }
+            int[] available = entry.getValue();
+            int linesFulfilled = 0;
+            boolean fulfillsOrder = true;
+            List<Integer> quantities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                totals[i] += available[i];
+                quantities.add(available[i]);
+                if (available[i] >= lines.get(i).getQuantity()) {
+                    linesFulfilled++;
+                }
+                if (available[i] < demand.get(products.get(i).getUuid())) {
+                    fulfillsOrder = false;
+                }
+            }
+            warehouses.add(new StockAvailabilityDTO.WarehouseAvailability(warehouse.getUuid(), warehouse.getCode(),
+                    quantities, linesFulfilled, fulfillsOrder));
+        }
+        warehouses.sort(Comparator.comparing(StockAvailabilityDTO.WarehouseAvailability::fulfillsOrder).reversed()
+                .thenComparing(Comparator.comparingInt(StockAvailabilityDTO.WarehouseAvailability::linesFulfilled).reversed())
+                .thenComparing(StockAvailabilityDTO.WarehouseAvailability::warehouseCode));
+
+        List<StockAvailabilityDTO.Line> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new StockAvailabilityDTO.Line(products.get(i).getUuid(), products.get(i).getCode(),
+                    lines.get(i).getQuantity(), totals[i]));
+        }
+        List<UUID> candidates = warehouses.stream()
+                .filter(StockAvailabilityDTO.WarehouseAvailability::fulfillsOrder)
+                .map(StockAvailabilityDTO.WarehouseAvailability::warehouseUuid)
+                .toList();
+        return new StockAvailabilityDTO(results, warehouses, candidates);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getLowStocks() {
-        return stockRepository.findLowStock().stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        return mapToDTOs(stockRepository.findLowStock());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getOverStocks() {
-        return stockRepository.findOverStock().stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
-                .collect(Collectors.toList());
+        return mapToDTOs(stockRepository.findOverStock());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<StockDTO> getZeroStocks() {
-        return stockRepository.findByQuantity(0).stream()
-                .map(stock -> entityMapper.mapToDTO(stock, StockDTO.class))
+        return mapToDTOs(stockRepository.findZeroStock());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StockMovementDTO> getStockMovements(UUID id, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new ApplicationException("Start of the range must not be after its end", "INVALID_DATE_RANGE");
+        }
+        if (!stockRepository.existsById(id)) {
+            throw new ApplicationException("Stock not found with id: " + id, "STOCK_NOT_FOUND");
+        }
+
+        return stockLedger.movements(id, from, to).stream()
+                .map(StockMovementDTO::of)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getQuantityAsOf(UUID id, LocalDateTime asOf) {
+        if (!stockRepository.existsById(id)) {
+            throw new ApplicationException("Stock not found with id: " + id, "STOCK_NOT_FOUND");
+        }
+
+        return stockLedger.quantityAsOf(id, asOf);
+    }
+
+    /**
+     * Passes a quantity change on to the availability index and the inventory snapshot once the current
+     * transaction has committed, or right away outside of one.
+     *
+     * @param stock    the stock record
+     * @param quantity the current quantity
+     * @param position the ledger position the quantity includes
+     */
+    private void index(Stock stock, int quantity, long position) {
+        UUID stockUuid = stock.getUuid();
+        UUID productUuid = stock.getProduct().getUuid();
+        UUID warehouseUuid = stock.getWarehouse().getUuid();
+        TransactionCallbacks.afterCommit(() -> {
+            availabilityIndex.put(stockUuid, productUuid, warehouseUuid, quantity, position);
+            snapshotStore.patch(stock, quantity, position);
+        });
+    }
+
+    /**
+     * Adjusts the quantity of a stock record through the write-behind engine if it is enabled, or
+     * through the sequencer, passing the committed adjustment on to the availability index and the
+     * snapshot; the engine does so itself.
+     *
+     * @param id    the stock UUID
+     * @param delta the change in quantity
+     * @return the stock record after the adjustment
+     */
+    private StockAdjustmentSequencer.Result adjust(UUID id, int delta) {
+        if (writeBehind.isEnabled()) {
+            return writeBehind.adjust(id, delta);
+        }
+        StockAdjustmentSequencer.Result result = adjustmentSequencer.adjust(id, delta);
+        index(result.stock(), result.level().quantity(), result.level().position());
+        return result;
+    }
+
+    /**
+     * Maps Stock entities with their product and warehouse fetched to StockDTOs with their current levels.
+     *
+     * @param stocks the Stock entities
+     * @return the StockDTOs, in the same order
+     */
+    private List<StockDTO> mapToDTOs(List<Stock> stocks) {
+        Map<UUID, StockLevel> levels = stockLedger.current(stocks);
+        return stocks.stream()
+                .map(stock -> withLevel(entityMapper.mapToDTO(stock, StockDTO.class), stock, levels.get(stock.getUuid())))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Gets a Product entity from a ProductDTO.
+     * Maps a Stock entity to a StockDTO with the given level, using cached product and warehouse
+     * data so the lazy associations are never initialized.
+     *
+     * @param stock the Stock entity
+     * @param level the current level of the stock
+     * @return the StockDTO
+     */
+    private StockDTO mapToDTO(Stock stock, StockLevel level) {
+        return withLevel(mapToDTO(stock,
+                referenceCache.getProduct(stock.getProduct().getUuid()),
+                referenceCache.getWarehouse(stock.getWarehouse().getUuid())), stock, level);
+    }
+
+    /**
+     * Replaces the stored quantity, restock date and status of a mapped StockDTO with the current
+     * level, which includes the ledger movements not yet folded into the entity, and derives the
+     * available quantity from it. A level held by the write-behind engine takes precedence, since it
+     * includes adjustments not written yet.
+     *
+     * @param stockDTO the StockDTO mapped from the entity
+     * @param stock    the Stock entity
+     * @param level    the current level of the stock
+     * @return the StockDTO
+     */
+    private StockDTO withLevel(StockDTO stockDTO, Stock stock, StockLevel level) {
+        StockLevel held = writeBehind.level(stock.getUuid());
+        StockLevel current = held != null ? held : level;
+        if (held != null || current.position() != stock.getLedgerPosition()) {
+            stockDTO.setQuantity(current.quantity());
+            stockDTO.setLastRestockDate(current.lastRestockDate());
+            stockDTO.setStockStatus(StockStatus.of(current.quantity(), stock.getMinStockLevel(), stock.getMaxStockLevel()));
+        }
+        return withReservations(stockDTO);
+    }
+
+    /**
+     * Sets the reserved and available quantities of a StockDTO from the active reservations.
+     *
+     * @param stockDTO the StockDTO with its current quantity
+     * @return the StockDTO
+     */
+    private StockDTO withReservations(StockDTO stockDTO) {
+        int reserved = reservationEngine.reserved(stockDTO.getUuid());
+        stockDTO.setReservedQuantity(reserved);
+        stockDTO.setAvailableQuantity(stockDTO.getQuantity() - reserved);
+        return stockDTO;
+    }
+
+    /**
+     * Maps a Stock entity to a StockDTO with the given product and warehouse.
+     *
+     * @param stock     the Stock entity
+     * @param product   the stock's product
+     * @param warehouse the stock's warehouse
+     * @return the StockDTO
+     */
+    private StockDTO mapToDTO(Stock stock, ProductDTO product, WarehouseDTO warehouse) {
+        StockDTO stockDTO = new StockDTO(
+                stock.getUuid(),
+                product,
+                warehouse,
+                stock.getQuantity(),
+                stock.getMinStockLevel(),
+                stock.getMaxStockLevel(),
+                stock.getLastRestockDate(),
+                stock.getCreatedAt(),
+                stock.getUpdatedAt()
+        );
+        stockDTO.setStockStatus(stock.getStockStatus());
+        stockDTO.setVersion(stock.getVersion());
+        return withReservations(stockDTO);
+    }
+
+    /**
+     * Resolves the product referenced by a ProductDTO through the reference cache.
      *
      * @param productDTO the ProductDTO
-     * @return the Product entity
+     * @return the cached product
      * @throws com.nexora.exception.ApplicationException if the product is not found
      */
-    private Product getProductFromDTO(ProductDTO productDTO) {
+    private ProductDTO getProductFromDTO(ProductDTO productDTO) {
         if (productDTO == null) {
             throw new ApplicationException("Product information is required", "INVALID_PRODUCT");
         }
         if (productDTO.getUuid() != null) {
-            return productRepository.findById(productDTO.getUuid())
-                    .orElseThrow(() -> new ApplicationException("Product not found with id: " + productDTO.getUuid(), "PRODUCT_NOT_FOUND"));
+            return referenceCache.getProduct(productDTO.getUuid());
         } else if (productDTO.getCode() != null) {
-            return productRepository.findByCode(productDTO.getCode())
-                    .orElseThrow(() -> new ApplicationException("Product not found with code: " + productDTO.getCode(), "PRODUCT_NOT_FOUND"));
+            return referenceCache.getProductByCode(productDTO.getCode());
         } else {
             throw new ApplicationException("Product ID or code is required", "INVALID_PRODUCT");
         }
     }
 
     /**
-     * Gets a Warehouse entity from a WarehouseDTO.
+     * Resolves the warehouse referenced by a WarehouseDTO through the reference cache.
      *
      * @param warehouseDTO the WarehouseDTO
-     * @return the Warehouse entity
+     * @return the cached warehouse
      * @throws com.nexora.exception.ApplicationException if the warehouse is not found
      */
-    private Warehouse getWarehouseFromDTO(WarehouseDTO warehouseDTO) {
+    private WarehouseDTO getWarehouseFromDTO(WarehouseDTO warehouseDTO) {
         if (warehouseDTO == null) {
             throw new ApplicationException("Warehouse information is required", "INVALID_WAREHOUSE");
         }
         if (warehouseDTO.getUuid() != null) {
-            return warehouseRepository.findById(warehouseDTO.getUuid())
-                    .orElseThrow(() -> new ApplicationException("Warehouse not found with id: " + warehouseDTO.getUuid(), "WAREHOUSE_NOT_FOUND"));
+            return referenceCache.getWarehouse(warehouseDTO.getUuid());
         } else if (warehouseDTO.getCode() != null) {
-            return warehouseRepository.findByCode(warehouseDTO.getCode())
-                    .orElseThrow(() -> new ApplicationException("Warehouse not found with code: " + warehouseDTO.getCode(), "WAREHOUSE_NOT_FOUND"));
+            return referenceCache.getWarehouseByCode(warehouseDTO.getCode());
         } else {
             throw new ApplicationException("Warehouse ID or code is required", "INVALID_WAREHOUSE");
         }
@@ -4,12 +4,21 @@ import com.nexora.dto.inventory.WarehouseDTO;
 import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Warehouse;
 import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.InventoryReferenceCache;
+import com.nexora.service.inventory.InventorySnapshotStore;
 import com.nexora.service.inventory.WarehouseService;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TransactionCallbacks;
+import com.nexora.util.TransactionRetry;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -18,12 +27,26 @@ import java.util.stream.Collectors;
  */
 @Service
 @Transactional
+@Timed(value = "inventory.warehouse.service", description = "Time spent in warehouse service operations")
 public class WarehouseServiceImpl implements WarehouseService {
 
-    private final WarehouseRepository warehouseRepository;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
 
-    public WarehouseServiceImpl(WarehouseRepository warehouseRepository) {
+    private final WarehouseRepository warehouseRepository;
+    private final InventoryReferenceCache referenceCache;
+    private final JpaBatchWriter batchWriter;
+    private final TransactionRetry transactionRetry;
+    private final InventorySnapshotStore snapshotStore;
+
+    public WarehouseServiceImpl(WarehouseRepository warehouseRepository, InventoryReferenceCache referenceCache,
+                                JpaBatchWriter batchWriter, TransactionRetry transactionRetry,
+                                InventorySnapshotStore snapshotStore) {
         this.warehouseRepository = warehouseRepository;
+        this.referenceCache = referenceCache;
+        this.batchWriter = batchWriter;
+        this.transactionRetry = transactionRetry;
+        this.snapshotStore = snapshotStore;
     }
 
     @Override
@@ -70,13 +93,56 @@ public class WarehouseServiceImpl implements WarehouseService {
         warehouse.setUpdatedAt(LocalDateTime.now());
 
         Warehouse savedWarehouse = warehouseRepository.save(warehouse);
+        TransactionCallbacks.afterCommit(snapshotStore::invalidate);
         return mapToDTO(savedWarehouse);
     }
 
     @Override
-    public WarehouseDTO updateWarehouse(UUID id, WarehouseDTO warehouseDTO) {
+    public List<WarehouseDTO> createWarehouses(List<WarehouseDTO> warehouseDTOs) {
+        List<String> codes = warehouseDTOs.stream().map(WarehouseDTO::getCode).toList();
+        Set<String> distinctCodes = new HashSet<>();
+        for (String code : codes) {
+            if (!distinctCodes.add(code)) {
+                throw new ApplicationException("Warehouse code " + code + " appears more than once", "WAREHOUSE_CODE_EXISTS");
+            }
+        }
+        batchWriter.forEachChunk(codes, chunk -> warehouseRepository.findExistingCodes(chunk).stream().findFirst()
+                .ifPresent(code -> {
+                    throw new ApplicationException("Warehouse with code " + code + " already exists", "WAREHOUSE_CODE_EXISTS");
+                }));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Warehouse> warehouses = warehouseDTOs.stream()
+                .map(warehouseDTO -> {
+                    Warehouse warehouse = mapToEntity(warehouseDTO);
+                    warehouse.setUuid(null);
+                    warehouse.setCreatedAt(now);
+                    warehouse.setUpdatedAt(now);
+                    return warehouse;
+                })
+                .toList();
+
+        batchWriter.persistAll(warehouses);
+        TransactionCallbacks.afterCommit(snapshotStore::invalidate);
+        return warehouses.stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public WarehouseDTO updateWarehouse(UUID id, WarehouseDTO warehouseDTO, Long expectedVersion) {
+        // Each attempt re-reads the warehouse; a conflicting update fails the version check on commit
+        return transactionRetry.execute(() -> applyUpdate(id, warehouseDTO, expectedVersion));
+    }
+
+    private WarehouseDTO applyUpdate(UUID id, WarehouseDTO warehouseDTO, Long expectedVersion) {
         Warehouse existingWarehouse = warehouseRepository.findById(id)
                 .orElseThrow(() -> new ApplicationException("Warehouse not found with id: " + id, "WAREHOUSE_NOT_FOUND"));
+        if (expectedVersion != null && !expectedVersion.equals(existingWarehouse.getVersion())) {
+            throw new ApplicationException("Warehouse " + id + " has been modified since version " + expectedVersion,
+                    "VERSION_MISMATCH");
+        }
 
         // Check if the code is being changed and if the new code already exists
         if (!existingWarehouse.getCode().equals(warehouseDTO.getCode()) &&
@@ -96,7 +162,9 @@ public class WarehouseServiceImpl implements WarehouseService {
         existingWarehouse.setActive(warehouseDTO.isActive());
         existingWarehouse.setUpdatedAt(LocalDateTime.now());
 
-        Warehouse updatedWarehouse = warehouseRepository.save(existingWarehouse);
+        // Flushed so the returned version is the one written
+        Warehouse updatedWarehouse = warehouseRepository.saveAndFlush(existingWarehouse);
+        afterCommit(updatedWarehouse.getUuid());
         return mapToDTO(updatedWarehouse);
     }
 
@@ -107,6 +175,7 @@ public class WarehouseServiceImpl implements WarehouseService {
         }
 
         warehouseRepository.deleteById(id);
+        afterCommit(id);
     }
 
     @Override
@@ -118,6 +187,7 @@ public class WarehouseServiceImpl implements WarehouseService {
         warehouse.setUpdatedAt(LocalDateTime.now());
 
         Warehouse updatedWarehouse = warehouseRepository.save(warehouse);
+        afterCommit(updatedWarehouse.getUuid());
         return mapToDTO(updatedWarehouse);
     }
 
@@ -130,6 +200,7 @@ public class WarehouseServiceImpl implements WarehouseService {
         warehouse.setUpdatedAt(LocalDateTime.now());
 
         Warehouse updatedWarehouse = warehouseRepository.save(warehouse);
+        afterCommit(updatedWarehouse.getUuid());
         return mapToDTO(updatedWarehouse);
     }
 
@@ -165,6 +236,18 @@ public class WarehouseServiceImpl implements WarehouseService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<WarehouseDTO> searchWarehouses(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return warehouseRepository.searchRanked(query, maxResults).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Maps a Warehouse entity to a WarehouseDTO.
      *
@@ -172,7 +255,7 @@ public class WarehouseServiceImpl implements WarehouseService {
      * @return the WarehouseDTO
      */
     private WarehouseDTO mapToDTO(Warehouse warehouse) {
-        return new WarehouseDTO(
+        WarehouseDTO warehouseDTO = new WarehouseDTO(
                 warehouse.getUuid(),
                 warehouse.getCode(),
                 warehouse.getName(),
@@ -186,6 +269,8 @@ public class WarehouseServiceImpl implements WarehouseService {
                 warehouse.getUpdatedAt(),
                 warehouse.isActive()
         );
+        warehouseDTO.setVersion(warehouse.getVersion());
+        return warehouseDTO;
     }
 
     /**
@@ -211,4 +296,16 @@ public class WarehouseServiceImpl implements WarehouseService {
 
         return warehouse;
     }
+
+    /**
+     * Evicts the cached warehouse and marks the inventory snapshot stale once the write has committed.
+     *
+     * @param id the warehouse UUID
+     */
+    private void afterCommit(UUID id) {
+        TransactionCallbacks.afterCommit(() -> {
+            referenceCache.evictWarehouse(id);
+            snapshotStore.invalidate();
+        });
+    }
 }
@@ -0,0 +1,77 @@
+package com.nexora.util;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Persists large numbers of new entities as JDBC batches.
+ * <p>
+ * Hibernate groups inserts into batches of {@code hibernate.jdbc.batch_size} (ordered by entity with
+ * {@code order_inserts}), but only sends them on flush, and every persisted entity stays in the
+ * persistence context until the transaction ends. The writer therefore flushes and clears after each
+ * chunk of {@code batch_size} entities, so memory stays flat and each chunk goes out as one batch per
+ * table. Clearing detaches all managed entities of the current transaction, including ones loaded
+ * before the call, so callers must not rely on them staying managed.
+ */
+@Component
+public class JpaBatchWriter {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public JpaBatchWriter(EntityManager entityManager,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of entities persisted per flush
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Persists new entities, flushing and clearing the persistence context after every batch.
+     * Must be called inside a transaction; the entities are detached when this returns.
+     *
+     * @param entities the new entities
+     * @return the same entities, with their generated identifiers
+     */
+    public <T> List<T> persistAll(List<T> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+        return entities;
+    }
+
+    /**
+     * Passes the items to the action in chunks of at most 1000, for lookups with IN lists
+     * that must not grow with the input.
+     *
+     * @param items  the items to split
+     * @param action the action to run for each chunk
+     */
+    public <T> void forEachChunk(List<T> items, Consumer<List<T>> action) {
+        for (int from = 0; from < items.size(); from += LOOKUP_CHUNK_SIZE) {
+            action.accept(new ArrayList<>(items.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, items.size()))));
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
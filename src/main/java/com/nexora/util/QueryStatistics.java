@@ -0,0 +1,71 @@
+package com.nexora.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of JDBC statements and total database time of a unit of work, such as an HTTP request.
+ * <p>
+ * Statistics are bound to the current thread between {@link #start()} and {@link #close()} and are fed
+ * by the data source proxy configured in {@link com.nexora.config.QueryInspectionConfig}. Tests can use
+ * the same scope to assert a maximum number of statements for an operation:
+ * <pre>{@code
+ * try (QueryStatistics statistics = QueryStatistics.start()) {
+ *     stockRepository.findByWarehouseCode("WH001");
+ *     assertThat(statistics.getStatementCount()).isEqualTo(1);
+ * }
+ * }</pre>
+ */
+public final class QueryStatistics implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final QueryStatistics previous;
+    private final AtomicLong statementCount = new AtomicLong();
+    private final AtomicLong elapsedMillis = new AtomicLong();
+
+    private QueryStatistics(QueryStatistics previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Start collecting statistics on the current thread. Scopes may be nested; statements are counted
+     * in every open scope.
+     *
+     * @return the new scope, to be closed when the unit of work ends
+     */
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Record executed statements in every scope open on the current thread.
+     *
+     * @param statements    the number of statements
+     * @param elapsedMillis the time spent executing them
+     */
+    public static void record(int statements, long elapsedMillis) {
+        for (QueryStatistics statistics = CURRENT.get(); statistics != null; statistics = statistics.previous) {
+            statistics.statementCount.addAndGet(statements);
+            statistics.elapsedMillis.addAndGet(elapsedMillis);
+        }
+    }
+
+    public long getStatementCount() {
+        return statementCount.get();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis.get();
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.nexora.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams the rows of CSV and XLSX files without loading the whole file into memory.
+ * <p>
+ * CSV files are parsed as RFC 4180 (comma separated, double-quoted fields that may contain
+ * commas, quotes and line breaks). XLSX files are read from the first sheet with the POI event
+ * API, so only the shared strings table is held in memory, not the cells.
+ */
+public class TabularFileReader {
+
+    /**
+     * Receives the rows of a file in order, the header included.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * @param rowNumber the 1-based row number, as shown by a spreadsheet application
+         * @param cells     the cell values, empty strings for blank cells
+         * @throws Exception to abort reading
+         */
+        void row(long rowNumber, List<String> cells) throws Exception;
+    }
+
+    private TabularFileReader() {
+    }
+
+    /**
+     * Reads a UTF-8 CSV file. Blank lines are skipped.
+     *
+     * @param in      the CSV content, not closed by this method
+     * @param handler receives every row
+     * @throws Exception if reading fails or the handler throws
+     */
+    public static void readCsv(InputStream in, RowHandler handler) throws Exception {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        long rowNumber = 0;
+        boolean quoted = false;
+        boolean rowStarted = false;
+        int c = reader.read();
+        if (c == '\uFEFF') {
+            c = reader.read();
+        }
+        while (c != -1) {
+            int next = reader.read();
+            if (quoted) {
+                if (c == '"' && next == '"') {
+                    cell.append('"');
+                    next = reader.read();
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                rowStarted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                rowStarted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && next == '\n') {
+                    next = reader.read();
+                }
+                rowNumber++;
+                if (rowStarted || !cell.isEmpty()) {
+                    cells.add(cell.toString());
+                    handler.row(rowNumber, List.copyOf(cells));
+                }
+                cells.clear();
+                cell.setLength(0);
+                rowStarted = false;
+            } else {
+                cell.append((char) c);
+                rowStarted = true;
+            }
+            c = next;
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field in row " + (rowNumber + 1));
+        }
+        if (rowStarted || !cell.isEmpty()) {
+            cells.add(cell.toString());
+            handler.row(rowNumber + 1, List.copyOf(cells));
+        }
+    }
+
+    /**
+     * Reads the first sheet of an XLSX file. Cells are formatted the way Excel displays them.
+     *
+     * @param file    the workbook, opened read-only
+     * @param handler receives every non-empty row
+     * @throws Exception if reading fails or the handler throws
+     */
+    public static void readXlsx(File file, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            SheetRows rows = new SheetRows(handler);
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings, rows, new DataFormatter(), false));
+            try (InputStream sheet = sheets.next()) {
+                parser.parse(new InputSource(sheet));
+            } catch (HandlerFailure e) {
+                throw e.failure;
+            }
+        }
+    }
+
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+
+        private SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (cells.isEmpty()) {
+                return;
+            }
+            try {
+                handler.row(rowNum + 1L, List.copyOf(cells));
+            } catch (Exception e) {
+                throw new HandlerFailure(e);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+    }
+
+    /**
+     * Carries an exception thrown by the row handler through the SAX parser.
+     */
+    private static final class HandlerFailure extends RuntimeException {
+
+        private final Exception failure;
+
+        private HandlerFailure(Exception failure) {
+            super(failure);
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.nexora.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel for large numbers of deadlines that are mostly cancelled before they expire.
+ * <p>
+ * Time is cut into ticks and a deadline goes into the bucket of its tick modulo the number of
+ * buckets, so scheduling and cancelling are constant time however many deadlines are pending.
+ * {@link #advance(Instant)} visits only the buckets of the ticks that passed since the previous call
+ * and returns every key whose deadline is due; deadlines more than one rotation ahead stay in their
+ * bucket until their own rotation. Keys expire up to one tick late, never early.
+ *
+ * @param <K> the key type
+ */
+public final class TimerWheel<K> {
+
+    private final long tickMillis;
+    private final List<Set<K>> buckets;
+    // The tick each scheduled key expires on
+    private final Map<K, Long> ticks = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param tick    the resolution of the wheel
+     * @param buckets the number of buckets; one rotation covers {@code tick * buckets}
+     * @param start   the current time
+     */
+    public TimerWheel(Duration tick, int buckets, Instant start) {
+        if (tick.toMillis() <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Tick and number of buckets must be positive");
+        }
+        this.tickMillis = tick.toMillis();
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new HashSet<>());
+        }
+        this.currentTick = elapsedTicks(start);
+    }
+
+    /**
+     * Schedules a key, replacing its previous deadline if it has one.
+     *
+     * @param key      the key
+     * @param deadline when the key expires; a past deadline expires on the next advance
+     */
+    public synchronized void schedule(K key, Instant deadline) {
+        cancel(key);
+        long tick = Math.max(deadlineTick(deadline), currentTick + 1);
+        ticks.put(key, tick);
+        bucket(tick).add(key);
+    }
+
+    /**
+     * Cancels a scheduled key.
+     *
+     * @param key the key
+     * @return true if the key was still scheduled
+     */
+    public synchronized boolean cancel(K key) {
+        Long tick = ticks.remove(key);
+        if (tick == null) {
+            return false;
+        }
+        bucket(tick).remove(key);
+        return true;
+    }
+
+    /**
+     * Moves the wheel to the given time.
+     *
+     * @param now the current time
+     * @return the keys whose deadline has passed, in no particular order
+     */
+    public synchronized List<K> advance(Instant now) {
+        long targetTick = elapsedTicks(now);
+        List<K> expired = new ArrayList<>();
+        // After a pause longer than a rotation every bucket is visited once
+        long from = Math.max(currentTick + 1, targetTick - buckets.size() + 1);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<K> keys = bucket(tick).iterator();
+            while (keys.hasNext()) {
+                K key = keys.next();
+                if (ticks.get(key) <= targetTick) {
+                    expired.add(key);
+                    ticks.remove(key);
+                    keys.remove();
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    /**
+     * @return the number of scheduled keys
+     */
+    public synchronized int size() {
+        return ticks.size();
+    }
+
+    // Deadlines round up and the clock rounds down, so a key never expires before its deadline
+    private long deadlineTick(Instant deadline) {
+        return Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis);
+    }
+
+    private long elapsedTicks(Instant now) {
+        return Math.floorDiv(now.toEpochMilli(), tickMillis);
+    }
+
+    private Set<K> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+}
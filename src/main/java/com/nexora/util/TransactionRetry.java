@@ -0,0 +1,92 @@
+package com.nexora.util;
+
+import com.nexora.exception.ApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs units of work in their own transactions and retries the ones that lose a concurrency race.
+ * <p>
+ * Optimistic lock conflicts, deadlocks and lock timeouts ({@link ConcurrencyFailureException}) are
+ * transient: the same work usually succeeds against the state the winner committed. Every attempt
+ * runs in a new transaction and must re-read what it needs. Between attempts the caller sleeps a
+ * random time below an exponentially growing bound, so callers that collided do not collide again in
+ * lockstep. Once {@code max-attempts} have failed the conflict is reported as CONCURRENT_MODIFICATION.
+ * <p>
+ * Work that checks an expected version fails on its next attempt with its own error, so conditional
+ * updates are not retried past the first conflict. Must not be called inside a transaction, which
+ * the failed attempt would have marked rollback-only.
+ */
+@Component
+public class TransactionRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter retries;
+
+    public TransactionRetry(PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${nexora.transaction-retry.max-attempts:4}") int maxAttempts,
+                            @Value("${nexora.transaction-retry.initial-backoff:10ms}") Duration initialBackoff,
+                            @Value("${nexora.transaction-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retries = Counter.builder("inventory.transaction.retries")
+                .description("Transactions retried after a concurrency conflict")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the work in a transaction, retrying it in a new one after a concurrency conflict.
+     *
+     * @param work the work, repeatable
+     * @return the result of the successful attempt
+     * @throws ApplicationException if every attempt ran into a conflict
+     */
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ApplicationException("The record was modified concurrently, please try again",
+                            "CONCURRENT_MODIFICATION", e);
+                }
+                retries.increment();
+                log.debug("Retrying transaction after concurrency conflict (attempt {} of {}): {}",
+                        attempt, maxAttempts, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long bound = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException("Interrupted while waiting to retry", "CONCURRENT_MODIFICATION", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- Staging table for physical stock counts (see com.nexora.repository.inventory.StockReconciliationRepository).
+-- Counted lines are inserted in batches, joined against stocks in one statement when the count is
+-- applied, read back as the variance report and then deleted.
+
+CREATE TABLE IF NOT EXISTS public.stock_count_lines
+(
+    reconciliation_uuid uuid    NOT NULL,
+    product_uuid        uuid    NOT NULL,
+    warehouse_uuid      uuid    NOT NULL,
+    line_number         BIGINT  NOT NULL,
+    counted_quantity    INTEGER NOT NULL CHECK (counted_quantity >= 0),
+    stock_uuid          uuid,
+    expected_quantity   INTEGER,
+    PRIMARY KEY (reconciliation_uuid, product_uuid, warehouse_uuid)
+);
+
+-- Counts are uploaded as imports and their variance reports published as exports
+ALTER TABLE public.import_jobs
+    DROP CONSTRAINT IF EXISTS import_jobs_category_check;
+
+ALTER TABLE public.import_jobs
+    ADD CONSTRAINT import_jobs_category_check
+        CHECK (category IN ('PRODUCT', 'STOCK', 'WAREHOUSE', 'RECONCILIATION'));
+
+-- export_jobs comes from db/00-schema-init.sql, like the tables V1 indexes
+ALTER TABLE public.export_jobs
+    DROP CONSTRAINT IF EXISTS export_jobs_category_check;
+
+ALTER TABLE public.export_jobs
+    ADD CONSTRAINT export_jobs_category_check
+        CHECK (category IN ('PRODUCT', 'STOCK', 'WAREHOUSE', 'RECONCILIATION'));
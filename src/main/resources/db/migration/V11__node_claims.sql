@@ -0,0 +1,10 @@
+-- Features that keep state in the memory of one application node and may only run on one node at a
+-- time (see com.nexora.service.inventory.NodeClaims). The claiming node renews its row periodically;
+-- another node may take a feature over once the row has not been renewed for the lease duration.
+
+CREATE TABLE IF NOT EXISTS public.node_claims
+(
+    feature    VARCHAR(100) NOT NULL PRIMARY KEY,
+    node       VARCHAR(255) NOT NULL,
+    renewed_at TIMESTAMP(6) NOT NULL
+);
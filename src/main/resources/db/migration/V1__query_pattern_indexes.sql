@@ -0,0 +1,32 @@
+-- Supporting indexes for the stock, product and export job query patterns.
+-- The base tables are created by db/00-schema-init.sql; this migration only adds indexes.
+
+-- StockRepository.findByWarehouse / findByWarehouseCode
+-- (product_uuid lookups are already covered by the (product_uuid, warehouse_uuid) unique constraint)
+CREATE INDEX IF NOT EXISTS idx_stocks_warehouse_uuid
+    ON public.stocks (warehouse_uuid);
+
+-- StockRepository.findByQuantity (zero stock report)
+CREATE INDEX IF NOT EXISTS idx_stocks_quantity
+    ON public.stocks (quantity);
+
+-- StockRepository.findLowStock: WHERE quantity <= min_stock_level
+CREATE INDEX IF NOT EXISTS idx_stocks_low_stock
+    ON public.stocks (warehouse_uuid)
+    WHERE quantity <= min_stock_level;
+
+-- StockRepository.findOverStock: WHERE max_stock_level IS NOT NULL AND quantity >= max_stock_level
+CREATE INDEX IF NOT EXISTS idx_stocks_over_stock
+    ON public.stocks (warehouse_uuid)
+    WHERE max_stock_level IS NOT NULL AND quantity >= max_stock_level;
+
+-- ProductRepository.findByCategory / findByBrand
+CREATE INDEX IF NOT EXISTS idx_products_category
+    ON public.products (category);
+
+CREATE INDEX IF NOT EXISTS idx_products_brand
+    ON public.products (brand);
+
+-- ExportJobRepository.findByUserUuidOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_export_jobs_user_created_at
+    ON public.export_jobs (user_uuid, created_at DESC);
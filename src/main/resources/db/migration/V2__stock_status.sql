@@ -0,0 +1,64 @@
+-- Stored stock alert status (ZERO, LOW, NORMAL, OVER) so that low/over/zero stock lookups
+-- can use partial indexes instead of column-to-column comparisons over the whole table.
+-- The rules mirror com.nexora.model.inventory.StockStatus#of.
+
+CREATE OR REPLACE FUNCTION public.stock_status_of(quantity INTEGER, min_stock_level INTEGER, max_stock_level INTEGER)
+    RETURNS VARCHAR(10)
+    LANGUAGE sql
+    IMMUTABLE
+AS
+$$
+SELECT CASE
+           WHEN COALESCE(quantity, 0) = 0 THEN 'ZERO'
+           WHEN min_stock_level IS NOT NULL AND quantity <= min_stock_level THEN 'LOW'
+           WHEN max_stock_level IS NOT NULL AND quantity >= max_stock_level THEN 'OVER'
+           ELSE 'NORMAL'
+           END
+$$;
+
+ALTER TABLE public.stocks
+    ADD COLUMN IF NOT EXISTS stock_status VARCHAR(10);
+
+UPDATE public.stocks
+SET stock_status = public.stock_status_of(quantity, min_stock_level, max_stock_level);
+
+ALTER TABLE public.stocks
+    ALTER COLUMN stock_status SET NOT NULL;
+
+ALTER TABLE public.stocks
+    ADD CONSTRAINT stocks_stock_status_check
+        CHECK (stock_status IN ('ZERO', 'LOW', 'NORMAL', 'OVER'));
+
+-- The application keeps the column up to date on the entity; the trigger covers
+-- bulk SQL writes and guarantees the stored value never drifts from the rules.
+CREATE OR REPLACE FUNCTION public.stocks_refresh_stock_status()
+    RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    NEW.stock_status := public.stock_status_of(NEW.quantity, NEW.min_stock_level, NEW.max_stock_level);
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_stocks_stock_status ON public.stocks;
+CREATE TRIGGER trg_stocks_stock_status
+    BEFORE INSERT OR UPDATE OF quantity, min_stock_level, max_stock_level, stock_status
+    ON public.stocks
+    FOR EACH ROW
+EXECUTE FUNCTION public.stocks_refresh_stock_status();
+
+-- Replace the predicate indexes from V1 with indexes on the stored status.
+DROP INDEX IF EXISTS public.idx_stocks_low_stock;
+DROP INDEX IF EXISTS public.idx_stocks_over_stock;
+
+-- findLowStock (ZERO, LOW) and findZeroStock (ZERO)
+CREATE INDEX IF NOT EXISTS idx_stocks_status_low
+    ON public.stocks (stock_status)
+    WHERE stock_status IN ('ZERO', 'LOW');
+
+-- findOverStock
+CREATE INDEX IF NOT EXISTS idx_stocks_status_over
+    ON public.stocks (stock_status)
+    WHERE stock_status = 'OVER';
@@ -0,0 +1,43 @@
+-- Trigram indexes for the product and warehouse search endpoints.
+-- Spring Data compiles the existing ...NameContainingIgnoreCase lookups to upper(name) LIKE '%x%',
+-- which a btree cannot serve; GIN indexes with gin_trgm_ops can.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ProductRepository.findByNameContainingIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON public.products USING gin (upper(name) gin_trgm_ops);
+
+-- WarehouseRepository.findByNameContainingIgnoreCaseOrderByName
+CREATE INDEX IF NOT EXISTS idx_warehouses_name_trgm
+    ON public.warehouses USING gin (upper(name) gin_trgm_ops);
+
+-- Searchable text for the ranked searches (ProductSearchRepositoryImpl / WarehouseSearchRepositoryImpl).
+-- Plain || concatenation keeps the functions IMMUTABLE (concat_ws is only STABLE), so they can be indexed.
+CREATE OR REPLACE FUNCTION public.product_search_text(code VARCHAR, name VARCHAR, sku VARCHAR,
+                                                      brand VARCHAR, description VARCHAR)
+    RETURNS TEXT
+    LANGUAGE sql
+    IMMUTABLE
+AS
+$$
+SELECT upper(COALESCE(code, '') || ' ' || COALESCE(name, '') || ' ' || COALESCE(sku, '') || ' ' ||
+             COALESCE(brand, '') || ' ' || COALESCE(description, ''))
+$$;
+
+CREATE OR REPLACE FUNCTION public.warehouse_search_text(code VARCHAR, name VARCHAR, city VARCHAR,
+                                                        description VARCHAR)
+    RETURNS TEXT
+    LANGUAGE sql
+    IMMUTABLE
+AS
+$$
+SELECT upper(COALESCE(code, '') || ' ' || COALESCE(name, '') || ' ' || COALESCE(city, '') || ' ' ||
+             COALESCE(description, ''))
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_trgm
+    ON public.products USING gin (public.product_search_text(code, name, sku, brand, description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_warehouses_search_trgm
+    ON public.warehouses USING gin (public.warehouse_search_text(code, name, city, description) gin_trgm_ops);
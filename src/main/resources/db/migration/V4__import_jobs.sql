@@ -0,0 +1,27 @@
+-- Bulk import jobs (see com.nexora.service.event.ImportMessageConsumer). The uploaded file is
+-- kept in object storage under file_key until the job has been processed.
+
+CREATE TABLE IF NOT EXISTS public.import_jobs
+(
+    uuid           uuid         NOT NULL PRIMARY KEY,
+    category       VARCHAR(255) NOT NULL
+        CONSTRAINT import_jobs_category_check
+            CHECK (category IN ('PRODUCT', 'STOCK', 'WAREHOUSE')),
+    created_at     TIMESTAMP(6),
+    error_message  VARCHAR(500),
+    file_key       VARCHAR(255),
+    file_name      VARCHAR(255),
+    import_type    VARCHAR(255) NOT NULL,
+    imported_rows  BIGINT       NOT NULL DEFAULT 0,
+    processed_rows BIGINT       NOT NULL DEFAULT 0,
+    rejected_rows  BIGINT       NOT NULL DEFAULT 0,
+    status         VARCHAR(255) NOT NULL
+        CONSTRAINT import_jobs_status_check
+            CHECK (status IN ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED')),
+    updated_at     TIMESTAMP(6),
+    user_uuid      uuid         NOT NULL
+);
+
+-- ImportJobRepository.findByUserUuidOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_import_jobs_user_created_at
+    ON public.import_jobs (user_uuid, created_at DESC);
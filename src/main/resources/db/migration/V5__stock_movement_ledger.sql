@@ -0,0 +1,77 @@
+-- Append-only stock movement ledger (see com.nexora.service.inventory.StockLedger). Quantity changes
+-- are inserted into stock_movements; stocks.quantity includes the movements up to ledger_position,
+-- later ones are added on read until the compactor folds them in and writes a stock_snapshots row.
+
+-- Ids must follow insert order per stock, so the application does not pool them (allocationSize = 1)
+CREATE SEQUENCE IF NOT EXISTS public.stock_movements_id_seq INCREMENT BY 1;
+
+-- Partitioned by month on occurred_at; there is no foreign key to stocks, so the history of
+-- deleted stock records is kept
+CREATE TABLE IF NOT EXISTS public.stock_movements
+(
+    id          BIGINT      NOT NULL DEFAULT nextval('public.stock_movements_id_seq'),
+    stock_uuid  uuid        NOT NULL,
+    delta       INTEGER     NOT NULL,
+    reason      VARCHAR(20) NOT NULL
+        CONSTRAINT stock_movements_reason_check
+            CHECK (reason IN ('INITIAL', 'RESTOCK', 'REMOVAL', 'ADJUSTMENT')),
+    source      VARCHAR(255),
+    occurred_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+-- Catches rows outside the created months; partitions are normally created ahead of time
+CREATE TABLE IF NOT EXISTS public.stock_movements_default
+    PARTITION OF public.stock_movements DEFAULT;
+
+-- Creates the partitions for the current month and the given number of following months.
+-- Called by the compactor once a day.
+CREATE OR REPLACE FUNCTION public.stock_movements_ensure_partitions(months_ahead INTEGER)
+    RETURNS VOID
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    month_start    DATE;
+    partition_name TEXT;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            month_start := (date_trunc('month', now()) + make_interval(months => i))::DATE;
+            partition_name := 'stock_movements_' || to_char(month_start, 'YYYY_MM');
+            IF to_regclass('public.' || partition_name) IS NULL THEN
+                EXECUTE format('CREATE TABLE public.%I PARTITION OF public.stock_movements FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, month_start, (month_start + INTERVAL '1 month')::DATE);
+            END IF;
+        END LOOP;
+END;
+$$;
+
+SELECT public.stock_movements_ensure_partitions(2);
+
+-- StockMovementRepository.findPendingTotals and sumDeltasAfter
+CREATE INDEX IF NOT EXISTS idx_stock_movements_stock_id
+    ON public.stock_movements (stock_uuid, id);
+
+-- StockMovementRepository.findByStockUuidAndOccurredAtBetweenOrderByIdAsc
+CREATE INDEX IF NOT EXISTS idx_stock_movements_stock_occurred_at
+    ON public.stock_movements (stock_uuid, occurred_at);
+
+ALTER TABLE public.stocks
+    ADD COLUMN IF NOT EXISTS ledger_position BIGINT NOT NULL DEFAULT 0;
+
+-- StockSnapshotRepository.findFirstByStockUuidAndTakenAtLessThanEqualOrderByTakenAtDesc uses the primary key
+CREATE TABLE IF NOT EXISTS public.stock_snapshots
+(
+    stock_uuid      uuid         NOT NULL,
+    taken_at        TIMESTAMP(6) NOT NULL,
+    quantity        INTEGER      NOT NULL,
+    ledger_position BIGINT       NOT NULL,
+    PRIMARY KEY (stock_uuid, taken_at)
+);
+
+-- History starts here: existing quantities become the first snapshot of every stock record
+INSERT INTO public.stock_snapshots (stock_uuid, taken_at, quantity, ledger_position)
+SELECT uuid, now(), quantity, 0
+FROM public.stocks
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,12 @@
+-- Optimistic locking of stocks, products and warehouses (JPA @Version). The version is exposed as
+-- the ETag of the REST resources and checked against If-Match on updates; bulk SQL writes such as
+-- com.nexora.repository.inventory.InventoryUpsertRepository increment it as well.
+
+ALTER TABLE public.stocks
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE public.products
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE public.warehouses
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
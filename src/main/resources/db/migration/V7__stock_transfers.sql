@@ -0,0 +1,9 @@
+-- Transfers between warehouses (StockService.transferStock) record a TRANSFER_OUT movement on the
+-- source stock record and a TRANSFER_IN movement on the target in the same transaction.
+
+ALTER TABLE public.stock_movements
+    DROP CONSTRAINT IF EXISTS stock_movements_reason_check;
+
+ALTER TABLE public.stock_movements
+    ADD CONSTRAINT stock_movements_reason_check
+        CHECK (reason IN ('INITIAL', 'RESTOCK', 'REMOVAL', 'ADJUSTMENT', 'TRANSFER_OUT', 'TRANSFER_IN'));
@@ -0,0 +1,13 @@
+-- Durable copy of the active stock reservations (see com.nexora.service.inventory.StockReservationEngine).
+-- Rows are inserted and deleted in batches behind the requests; the engine reloads them on startup.
+-- There is no foreign key to stocks, so deleting a stock record does not wait for its reservations.
+
+CREATE TABLE IF NOT EXISTS public.stock_reservations
+(
+    uuid       uuid         NOT NULL PRIMARY KEY,
+    stock_uuid uuid         NOT NULL,
+    quantity   INTEGER      NOT NULL CHECK (quantity > 0),
+    reference  VARCHAR(255),
+    expires_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,10 @@
+-- How far the local stock journal of each application node has been written to the database
+-- (see com.nexora.service.inventory.StockWriteBehindEngine). Updated in the same transaction as the
+-- stock movements it covers; journal entries after the position are replayed on startup.
+
+CREATE TABLE IF NOT EXISTS public.stock_journal_checkpoints
+(
+    node       VARCHAR(255) NOT NULL PRIMARY KEY,
+    position   BIGINT       NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
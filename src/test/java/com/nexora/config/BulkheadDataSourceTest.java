@@ -0,0 +1,65 @@
+package com.nexora.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadDataSourceTest {
+
+    private JdbcDataSource target;
+
+    @BeforeEach
+    void setUp() {
+        target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void getConnection_WhenAllPermitsHeld_TimesOut() throws Exception {
+        // Given
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 2, Duration.ofMillis(50));
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            // When / Then
+            assertThat(dataSource.availablePermits()).isZero();
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("one of 2 database connections");
+        }
+    }
+
+    @Test
+    void close_ReleasesPermitOnlyOnce() throws Exception {
+        // Given
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, Duration.ofMillis(50));
+        Connection connection = dataSource.getConnection();
+
+        // When
+        connection.close();
+        connection.close();
+
+        // Then
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(next.isValid(1)).isTrue();
+            assertThat(dataSource.availablePermits()).isZero();
+        }
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void unwrap_ReachesTargetDataSource() throws Exception {
+        // Given
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, Duration.ofMillis(50));
+
+        // When / Then
+        assertThat(dataSource.unwrap(JdbcDataSource.class)).isSameAs(target);
+    }
+}
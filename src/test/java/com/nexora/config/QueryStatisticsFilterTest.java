@@ -0,0 +1,66 @@
+package com.nexora.config;
+
+import com.nexora.util.QueryStatistics;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatisticsFilterTest {
+
+    @Test
+    void doFilter_WithHeadersEnabled_ReportsStatementsOfRequest() throws Exception {
+        // Given
+        QueryStatisticsFilter filter = new QueryStatisticsFilter(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res)
+                    throws IOException {
+                QueryStatistics.record(2, 7);
+                QueryStatistics.record(1, 3);
+                res.getWriter().write("{}");
+                res.flushBuffer();
+            }
+        });
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/inventory/stocks"), response, chain);
+
+        // Then
+        assertThat(response.getHeader(QueryStatisticsFilter.QUERY_COUNT_HEADER)).isEqualTo("3");
+        assertThat(response.getHeader(QueryStatisticsFilter.QUERY_TIME_HEADER)).isEqualTo("10");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    void doFilter_WithHeadersDisabled_AddsNoHeaders() throws Exception {
+        // Given
+        QueryStatisticsFilter filter = new QueryStatisticsFilter(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/inventory/stocks"), response, new MockFilterChain());
+
+        // Then
+        assertThat(response.getHeader(QueryStatisticsFilter.QUERY_COUNT_HEADER)).isNull();
+    }
+
+    @Test
+    void record_OutsideOfScope_IsIgnored() {
+        // When
+        QueryStatistics.record(1, 1);
+
+        // Then
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            assertThat(statistics.getStatementCount()).isZero();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.nexora.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT lag_seconds FROM node";
+
+    private DataSource primary;
+    private ReplicaRoutingDataSource.Replica replica;
+    private ReplicaRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica = new ReplicaRoutingDataSource.Replica("replica-1", node("replica"));
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(replica), null);
+        dataSource.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransaction_UsesReplica() {
+        // When
+        String name = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(name).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransaction_UsesPrimary() {
+        // When
+        String name = readWrite.execute(status -> currentNode());
+
+        // Then
+        assertThat(name).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_WithLaggingReplica_FallsBackToPrimary() {
+        // Given
+        new JdbcTemplate(replica.getDataSource()).update("UPDATE node SET lag_seconds = 30");
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(List.of(replica), LAG_QUERY, Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+        // When
+        monitor.checkAll();
+        String name = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(replica.isAvailable()).isFalse();
+        assertThat(replica.getLag()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(name).isEqualTo("primary");
+    }
+
+    @Test
+    void lagCheck_WhenReplicaCatchesUp_ReturnsItToRotation() {
+        // Given
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica.getDataSource());
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(List.of(replica), LAG_QUERY, Duration.ofSeconds(5), Duration.ofSeconds(1));
+        replicaTemplate.update("UPDATE node SET lag_seconds = 30");
+        monitor.checkAll();
+
+        // When
+        replicaTemplate.update("UPDATE node SET lag_seconds = 0.5");
+        monitor.checkAll();
+
+        // Then
+        assertThat(replica.isAvailable()).isTrue();
+        assertThat(replica.getLag()).isEqualTo(Duration.ofMillis(500));
+        String name = readOnly.execute(status -> currentNode());
+        assertThat(name).isEqualTo("replica");
+    }
+
+    @Test
+    void lagCheck_WhenQueryFails_TakesReplicaOutOfRotation() {
+        // Given
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(List.of(replica), "SELECT missing FROM node", Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+        // When
+        monitor.checkAll();
+
+        // Then
+        assertThat(replica.isAvailable()).isFalse();
+        assertThat(replica.getLag()).isNull();
+        String name = readOnly.execute(status -> currentNode());
+        assertThat(name).isEqualTo("primary");
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource node(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (name VARCHAR(20), lag_seconds DECIMAL(10, 3))");
+        template.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
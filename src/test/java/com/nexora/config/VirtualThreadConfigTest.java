@@ -0,0 +1,46 @@
+package com.nexora.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigTest {
+
+    private final BeanPostProcessor postProcessor = VirtualThreadConfig.connectionBulkheadPostProcessor(
+            new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "20"));
+
+    @Test
+    void postProcess_HikariPool_SizesBulkheadToThatPool() {
+        // Given
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setMaximumPoolSize(5);
+
+            // When
+            Object processed = postProcessor.postProcessAfterInitialization(pool, "dataSource");
+
+            // Then
+            assertThat(processed).isInstanceOf(BulkheadDataSource.class);
+            assertThat(((BulkheadDataSource) processed).availablePermits()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void postProcess_RoutingDataSource_LeavesPoolsToTheirOwnBulkheads() {
+        // Given
+        JdbcDataSource primary = new JdbcDataSource();
+        primary.setURL("jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(), null);
+
+        // When
+        Object processed = postProcessor.postProcessAfterInitialization(routing, "dataSource");
+
+        // Then
+        assertThat(processed).isSameAs(routing);
+    }
+}
@@ -1,6 +1,7 @@
 package com.nexora.controller.inventory;
 
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.ProductSuggestionDTO;
 import com.nexora.exception.ApplicationException;
 import com.nexora.service.inventory.ProductService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +22,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doThrow;
@@ -188,16 +190,16 @@ class ProductControllerTest {
         updatedProduct.setName("Updated Product");
         updatedProduct.setPrice(new BigDecimal("199.99"));
 
-        when(productService.updateProduct(eq(productUuid), any(ProductDTO.class))).thenReturn(updatedProduct);
+        when(productService.updateProduct(eq(productUuid), any(ProductDTO.class), isNull())).thenReturn(updatedProduct);
 
         // When
-        ResponseEntity<ProductDTO> response = productController.updateProduct(productUuid, updateDTO);
+        ResponseEntity<ProductDTO> response = productController.updateProduct(productUuid, updateDTO, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody().getName()).isEqualTo("Updated Product");
         assertThat(response.getBody().getPrice()).isEqualTo(new BigDecimal("199.99"));
-        verify(productService).updateProduct(productUuid, updateDTO);
+        verify(productService).updateProduct(productUuid, updateDTO, null);
     }
 
     @Test
@@ -301,4 +303,34 @@ class ProductControllerTest {
         assertThat(response.getBody().get(0).getName()).contains("Test");
         verify(productService).searchProductsByName("Test");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchProducts_ShouldReturnRankedProducts() {
+        // Given
+        List<ProductDTO> products = Arrays.asList(testProductDTO);
+        when(productService.searchProducts("Test", 10)).thenReturn(products);
+
+        // When
+        ResponseEntity<List<ProductDTO>> response = productController.searchProducts("Test", 10);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        verify(productService).searchProducts("Test", 10);
+    }
+
+    @Test
+    void testSuggestProducts_ShouldReturnSuggestions() {
+        // Given
+        ProductSuggestionDTO suggestion = new ProductSuggestionDTO(UUID.randomUUID(), "PROD001", "Test Product", "SKU001", true);
+        when(productService.suggestProducts("pro", null, false)).thenReturn(List.of(suggestion));
+
+        // When
+        ResponseEntity<List<ProductSuggestionDTO>> response = productController.suggestProducts("pro", null, false);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(suggestion);
+        verify(productService).suggestProducts("pro", null, false);
+    }
+}
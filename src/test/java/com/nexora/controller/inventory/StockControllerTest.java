@@ -1,20 +1,26 @@
 package com.nexora.controller.inventory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexora.dto.inventory.ProductDTO;
 import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockTransferDTO;
 import com.nexora.dto.inventory.WarehouseDTO;
 import com.nexora.exception.ApplicationException;
+import com.nexora.service.inventory.IdempotencyStore;
 import com.nexora.service.inventory.StockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -23,10 +29,14 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 class StockControllerTest {
@@ -34,6 +44,10 @@ class StockControllerTest {
     @Mock
     private StockService stockService;
 
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(new ObjectMapper(), new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(5));
+
     @InjectMocks
     private StockController stockController;
 
@@ -97,6 +111,7 @@ class StockControllerTest {
     @Test
     void testGetStockById_WhenStockExists_ShouldReturnStock() {
         // Given
+        testStockDTO.setVersion(2L);
         when(stockService.getStockById(stockUuid)).thenReturn(testStockDTO);
 
         // When
@@ -106,6 +121,7 @@ class StockControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody().getUuid()).isEqualTo(stockUuid);
         assertThat(response.getBody().getQuantity()).isEqualTo(50);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"2\"");
         verify(stockService).getStockById(stockUuid);
     }
 
@@ -222,7 +238,7 @@ class StockControllerTest {
         when(stockService.createStock(any(StockDTO.class))).thenReturn(createdStock);
 
         // When
-        ResponseEntity<StockDTO> response = stockController.createStock(createDTO);
+        ResponseEntity<StockDTO> response = stockController.createStock(createDTO, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
@@ -242,7 +258,7 @@ class StockControllerTest {
                 .thenThrow(new ApplicationException("Stock already exists for this product and warehouse combination", "STOCK_ALREADY_EXISTS"));
 
         // When & Then
-        assertThatThrownBy(() -> stockController.createStock(createDTO))
+        assertThatThrownBy(() -> stockController.createStock(createDTO, null))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Stock already exists for this product and warehouse combination");
         verify(stockService).createStock(createDTO);
@@ -265,17 +281,28 @@ class StockControllerTest {
         updatedStock.setQuantity(75);
         updatedStock.setMinStockLevel(15);
         updatedStock.setMaxStockLevel(150);
+        updatedStock.setVersion(4L);
 
-        when(stockService.updateStock(eq(stockUuid), any(StockDTO.class))).thenReturn(updatedStock);
+        when(stockService.updateStock(eq(stockUuid), any(StockDTO.class), eq(3L))).thenReturn(updatedStock);
 
         // When
-        ResponseEntity<StockDTO> response = stockController.updateStock(stockUuid, updateDTO);
+        ResponseEntity<StockDTO> response = stockController.updateStock(stockUuid, updateDTO, "\"3\"");
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody().getQuantity()).isEqualTo(75);
         assertThat(response.getBody().getMinStockLevel()).isEqualTo(15);
-        verify(stockService).updateStock(stockUuid, updateDTO);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+        verify(stockService).updateStock(stockUuid, updateDTO, 3L);
+    }
+
+    @Test
+    void testUpdateStock_WithInvalidIfMatch_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> stockController.updateStock(stockUuid, testStockDTO, "\"abc\""))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Invalid If-Match header: \"abc\"");
+        verifyNoInteractions(stockService);
     }
 
     @Test
@@ -311,7 +338,7 @@ class StockControllerTest {
         when(stockService.addStock(stockUuid, 25)).thenReturn(updatedStock);
 
         // When
-        ResponseEntity<StockDTO> response = stockController.addStock(stockUuid, 25);
+        ResponseEntity<StockDTO> response = stockController.addStock(stockUuid, 25, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -319,6 +346,39 @@ class StockControllerTest {
         verify(stockService).addStock(stockUuid, 25);
     }
 
+    @Test
+    void testAddStock_WhenRetriedWithSameIdempotencyKey_ShouldReplayFirstResult() {
+        // Given
+        StockDTO updatedStock = new StockDTO();
+        updatedStock.setUuid(stockUuid);
+        updatedStock.setQuantity(75);
+        when(stockService.addStock(stockUuid, 25)).thenReturn(updatedStock);
+
+        // When
+        ResponseEntity<StockDTO> first = stockController.addStock(stockUuid, 25, "scan-42");
+        ResponseEntity<StockDTO> retry = stockController.addStock(stockUuid, 25, "scan-42");
+
+        // Then
+        assertThat(first.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getBody()).isSameAs(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        verify(stockService, times(1)).addStock(stockUuid, 25);
+    }
+
+    @Test
+    void testRemoveStock_WhenIdempotencyKeyWasUsedForAnotherRequest_ShouldThrowException() {
+        // Given
+        when(stockService.addStock(stockUuid, 25)).thenReturn(testStockDTO);
+        stockController.addStock(stockUuid, 25, "scan-43");
+
+        // When & Then
+        assertThatThrownBy(() -> stockController.removeStock(stockUuid, 25, "scan-43"))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Idempotency-Key scan-43 has already been used for a different request");
+        verify(stockService, never()).removeStock(any(UUID.class), anyInt());
+    }
+
     @Test
     void testAddStock_WithNegativeQuantity_ShouldThrowException() {
         // Given
@@ -326,7 +386,7 @@ class StockControllerTest {
                 .thenThrow(new ApplicationException("Quantity to add must be positive", "INVALID_QUANTITY"));
 
         // When & Then
-        assertThatThrownBy(() -> stockController.addStock(stockUuid, -10))
+        assertThatThrownBy(() -> stockController.addStock(stockUuid, -10, null))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Quantity to add must be positive");
         verify(stockService).addStock(stockUuid, -10);
@@ -341,7 +401,7 @@ class StockControllerTest {
         when(stockService.removeStock(stockUuid, 10)).thenReturn(updatedStock);
 
         // When
-        ResponseEntity<StockDTO> response = stockController.removeStock(stockUuid, 10);
+        ResponseEntity<StockDTO> response = stockController.removeStock(stockUuid, 10, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -356,12 +416,31 @@ class StockControllerTest {
                 .thenThrow(new ApplicationException("Not enough stock available", "INSUFFICIENT_STOCK"));
 
         // When & Then
-        assertThatThrownBy(() -> stockController.removeStock(stockUuid, 100))
+        assertThatThrownBy(() -> stockController.removeStock(stockUuid, 100, null))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Not enough stock available");
         verify(stockService).removeStock(stockUuid, 100);
     }
 
+    @Test
+    void testTransferStock_WithValidLines_ShouldReturnTransferredStock() {
+        // Given
+        StockTransferDTO transfer = new StockTransferDTO(testStockDTO.getProduct(), testStockDTO.getWarehouse(),
+                new WarehouseDTO(), 10);
+        StockTransferDTO transferred = new StockTransferDTO(testStockDTO.getProduct(), testStockDTO.getWarehouse(),
+                new WarehouseDTO(), 10);
+        transferred.setSource(testStockDTO);
+        when(stockService.transferStock(List.of(transfer))).thenReturn(List.of(transferred));
+
+        // When
+        ResponseEntity<List<StockTransferDTO>> response = stockController.transferStock(List.of(transfer), null);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(transferred);
+        verify(stockService).transferStock(List.of(transfer));
+    }
+
     @Test
     void testGetLowStocks_ShouldReturnLowStockList() {
         // Given
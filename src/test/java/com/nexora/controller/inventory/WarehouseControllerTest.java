@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doThrow;
@@ -188,16 +189,16 @@ class WarehouseControllerTest {
         updatedWarehouse.setName("Updated Warehouse Name");
         updatedWarehouse.setCity("Updated City");
 
-        when(warehouseService.updateWarehouse(eq(warehouseUuid), any(WarehouseDTO.class))).thenReturn(updatedWarehouse);
+        when(warehouseService.updateWarehouse(eq(warehouseUuid), any(WarehouseDTO.class), isNull())).thenReturn(updatedWarehouse);
 
         // When
-        ResponseEntity<WarehouseDTO> response = warehouseController.updateWarehouse(warehouseUuid, updateDTO);
+        ResponseEntity<WarehouseDTO> response = warehouseController.updateWarehouse(warehouseUuid, updateDTO, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody().getName()).isEqualTo("Updated Warehouse Name");
         assertThat(response.getBody().getCity()).isEqualTo("Updated City");
-        verify(warehouseService).updateWarehouse(warehouseUuid, updateDTO);
+        verify(warehouseService).updateWarehouse(warehouseUuid, updateDTO, null);
     }
 
     @Test
@@ -317,4 +318,19 @@ class WarehouseControllerTest {
         assertThat(response.getBody().get(0).getName()).contains("Distribution");
         verify(warehouseService).searchWarehousesByName("Distribution");
     }
+
+    @Test
+    void testSearchWarehouses_ShouldReturnRankedWarehouses() {
+        // Given
+        List<WarehouseDTO> warehouses = Arrays.asList(testWarehouseDTO);
+        when(warehouseService.searchWarehouses("Boston", null)).thenReturn(warehouses);
+
+        // When
+        ResponseEntity<List<WarehouseDTO>> response = warehouseController.searchWarehouses("Boston", null);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        verify(warehouseService).searchWarehouses("Boston", null);
+    }
 }
\ No newline at end of file
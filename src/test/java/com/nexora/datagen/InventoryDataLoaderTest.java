@@ -0,0 +1,57 @@
+package com.nexora.datagen;
+
+import com.nexora.model.inventory.StockStatus;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class InventoryDataLoaderTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Test
+    void load_InsertsGeneratedRowsInBatches() {
+        // Given
+        InventoryDataLoader loader = new InventoryDataLoader(new JdbcTemplate(dataSource), transactionManager);
+        DataGenerationSettings settings = new DataGenerationSettings(300, 12, 1500, 1.0, 1.0, 7, 128);
+
+        // When
+        InventoryDataLoader.LoadResult result = loader.load(settings);
+
+        // Then
+        assertThat(result.warehouses()).isEqualTo(12);
+        assertThat(result.products()).isEqualTo(300);
+        assertThat(warehouseRepository.count()).isEqualTo(12);
+        assertThat(productRepository.count()).isEqualTo(300);
+        assertThat(stockRepository.count()).isEqualTo(result.stocks());
+        assertThat(stockRepository.findByProductCode("GEN-P0000001")).hasSize(12);
+        assertThat(stockRepository.findZeroStock())
+                .isNotEmpty()
+                .allSatisfy(stock -> assertThat(stock.getStockStatus()).isEqualTo(StockStatus.ZERO));
+    }
+}
@@ -0,0 +1,82 @@
+package com.nexora.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyntheticInventoryTest {
+
+    @Test
+    void forEachStock_GeneratesCloseToTargetWithUniquePairs() {
+        // Given
+        SyntheticInventory inventory = new SyntheticInventory(new DataGenerationSettings(2000, 50, 20000, 1.0, 1.0, 7, 100));
+        Set<Long> pairs = new HashSet<>();
+        Set<UUID> uuids = new HashSet<>();
+
+        // When
+        inventory.forEachStock((productIndex, warehouseIndex, uuid, quantity, min, max, lastRestock) -> {
+            pairs.add((long) productIndex * 50 + warehouseIndex);
+            uuids.add(uuid);
+        });
+
+        // Then
+        assertThat(pairs.size()).isBetween(19000, 21000);
+        assertThat(uuids).hasSameSizeAs(pairs);
+    }
+
+    @Test
+    void forEachStock_WithSkew_ConcentratesStockOnHotSkusAndLargeWarehouses() {
+        // Given
+        SyntheticInventory inventory = new SyntheticInventory(new DataGenerationSettings(5000, 100, 50000, 1.2, 1.2, 7, 100));
+        int[] stocksPerProduct = new int[5000];
+        int[] stocksPerWarehouse = new int[100];
+
+        // When
+        inventory.forEachStock((productIndex, warehouseIndex, uuid, quantity, min, max, lastRestock) -> {
+            stocksPerProduct[productIndex]++;
+            stocksPerWarehouse[warehouseIndex]++;
+        });
+
+        // Then
+        assertThat(stocksPerProduct[0]).isEqualTo(100);
+        assertThat(stocksPerProduct[4999]).isLessThan(5);
+        assertThat(stocksPerWarehouse[0]).isGreaterThan(stocksPerWarehouse[99] * 5);
+    }
+
+    @Test
+    void forEachStock_WithoutSkew_SpreadsStockEvenly() {
+        // Given
+        SyntheticInventory inventory = new SyntheticInventory(new DataGenerationSettings(1000, 10, 5000, 0, 0, 7, 100));
+        int[] stocksPerProduct = new int[1000];
+
+        // When
+        inventory.forEachStock((productIndex, warehouseIndex, uuid, quantity, min, max, lastRestock) ->
+                stocksPerProduct[productIndex]++);
+
+        // Then
+        assertThat(stocksPerProduct).containsOnly(5);
+    }
+
+    @Test
+    void product_IsDeterministicForSeed() {
+        // Given
+        DataGenerationSettings settings = new DataGenerationSettings(10, 2, 10, 1.0, 1.0, 7, 100);
+
+        // When / Then
+        assertThat(new SyntheticInventory(settings).product(3).getName())
+                .isEqualTo(new SyntheticInventory(settings).product(3).getName());
+        assertThat(new SyntheticInventory(settings).productUuid(3))
+                .isEqualTo(new SyntheticInventory(settings).product(3).getUuid());
+    }
+
+    @Test
+    void settings_WithMoreStocksThanPairs_ThrowsException() {
+        assertThatThrownBy(() -> new DataGenerationSettings(10, 2, 21, 1.0, 1.0, 7, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
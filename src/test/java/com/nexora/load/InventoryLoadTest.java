@@ -0,0 +1,314 @@
+package com.nexora.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexora.model.Role;
+import com.nexora.model.User;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Status;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.model.inventory.event.ExportRequestEvent;
+import com.nexora.repository.UserRepository;
+import com.nexora.repository.inventory.ExportJobRepository;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.security.JwtService;
+import com.nexora.service.event.ExportMessageConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end load test that boots the whole application on a random port and drives a mix of
+ * REST stock adjustments, GraphQL queries, aggregate report polls and export requests over HTTP.
+ * <p>
+ * External services are replaced by in-JVM stand-ins: H2 for PostgreSQL (test profile), an
+ * {@link AmqpTemplate} that hands export requests to the real {@link ExportMessageConsumer} on a
+ * single consumer thread, and an {@link S3Client} that keeps uploaded files in memory.
+ * <p>
+ * Tagged {@code load} and excluded from the default test run. Run with {@code ./mvnw -Pload test}
+ * and tune with system properties, for example {@code -Dload.rate=200 -Dload.duration=60
+ * -Dload.mix=stock-adjust:60,graphql:30,report:10 -Dload.p99Budget=report:500}. Throughput and
+ * p50/p99/p999 latency per endpoint are printed and written to {@code target/load-report.json}.
+ * Add {@code -Dload.virtualThreads=true} to serve requests and exports on virtual threads and compare
+ * the two reports.
+ */
+@Tag("load")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cos.key=load", "cos.secret=load", "cos.endpoint=http://localhost:9000", "cos.region=us-east-1",
+        "cos.bucket=nexora-load", "cos.public-url=http://localhost:9000/nexora-load",
+        "rabbitmq.queue.export.name=export.queue", "rabbitmq.exchange.name=nexora.exchange",
+        "rabbitmq.routing.key.export=export.routing.key",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        // Keep logging out of the measured path
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.com.nexora=INFO"
+})
+class InventoryLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "50"));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 20));
+    private static final String MIX = System.getProperty("load.mix", "stock-adjust:50,graphql:30,report:15,export:5");
+    private static final int PRODUCTS = Integer.getInteger("load.products", 200);
+    private static final int WAREHOUSES = Integer.getInteger("load.warehouses", 5);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+    private static final String P99_BUDGET = System.getProperty("load.p99Budget", "");
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("load.virtualThreads");
+
+    private static final Path REPORT = Path.of("target", "load-report.json");
+
+    @DynamicPropertySource
+    static void threading(DynamicPropertyRegistry registry) {
+        registry.add("spring.threads.virtual.enabled", () -> VIRTUAL_THREADS);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private ExportJobRepository exportJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ExportMessageConsumer exportMessageConsumer;
+
+    @MockitoBean
+    private AmqpTemplate amqpTemplate;
+
+    @MockitoBean
+    private S3Client s3Client;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Map<String, byte[]> uploadedObjects = new ConcurrentHashMap<>();
+    private final ExecutorService exportQueue = Executors.newSingleThreadExecutor();
+
+    private String authorization;
+    private List<Stock> stocks;
+    private List<Warehouse> warehouses;
+
+    @BeforeEach
+    void setUp() {
+        // AMQP stand-in: deliver each export request to the consumer asynchronously, like the broker
+        doAnswer(invocation -> {
+            ExportRequestEvent event = invocation.getArgument(2);
+            exportQueue.submit(() -> exportMessageConsumer.consumeExportRequest(event));
+            return null;
+        }).when(amqpTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        // S3 stand-in: keep uploaded files in memory
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            PutObjectRequest request = invocation.getArgument(0);
+            RequestBody body = invocation.getArgument(1);
+            try (var content = body.contentStreamProvider().newStream()) {
+                uploadedObjects.put(request.key(), content.readAllBytes());
+            }
+            return PutObjectResponse.builder().build();
+        });
+
+        User user = new User(null, "Load", "Tester", "load.tester@nexora.com", passwordEncoder.encode("password"));
+        user.addRole(Role.ADMIN);
+        authorization = "Bearer " + jwtService.generateToken(userRepository.save(user));
+
+        warehouses = new ArrayList<>();
+        for (int i = 0; i < WAREHOUSES; i++) {
+            Warehouse warehouse = new Warehouse("W" + i, "Warehouse " + i);
+            warehouse.setAddress("Street " + i);
+            warehouse.setCity("City " + i);
+            warehouse.setCountry("Country");
+            warehouses.add(warehouse);
+        }
+        warehouses = warehouseRepository.saveAll(warehouses);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product("P" + i, "Product " + i, BigDecimal.valueOf(1 + i % 100));
+            product.setCategory("Category " + (i % 20));
+            product.setBrand("Brand " + (i % 50));
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+
+        List<Stock> newStocks = new ArrayList<>();
+        for (Warehouse warehouse : warehouses) {
+            for (Product product : products) {
+                Stock stock = new Stock(product, warehouse, 100_000);
+                stock.setMinStockLevel(10);
+                stock.setMaxStockLevel(1_000_000);
+                stock.setLastRestockDate(LocalDateTime.now());
+                newStocks.add(stock);
+            }
+        }
+        stocks = stockRepository.saveAll(newStocks);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportQueue.shutdownNow();
+    }
+
+    @Test
+    void inventoryMix_StaysWithinErrorAndLatencyBudgets() throws Exception {
+        // Given
+        Map<String, LoadRunner.Operation> available = new LinkedHashMap<>();
+        available.put("stock-adjust", this::adjustStock);
+        available.put("graphql", this::queryStocksByWarehouse);
+        available.put("report", this::pollAggregateReport);
+        available.put("export", this::requestExport);
+
+        LoadRunner runner = new LoadRunner();
+        LoadRunner.parseWeights(MIX).forEach((name, weight) -> {
+            LoadRunner.Operation operation = available.get(name);
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown load operation: " + name + ", expected one of " + available.keySet());
+            }
+            runner.add(name, weight, operation);
+        });
+
+        // When
+        LatencyRecorder recorder = runner.run(RATE, WARMUP, DURATION);
+        Map<String, LatencyRecorder.EndpointStats> stats = recorder.snapshot(DURATION.toMillis() / 1000.0);
+        exportQueue.shutdown();
+        assertThat(exportQueue.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        report(stats);
+        Map<String, Integer> p99Budget = P99_BUDGET.isBlank() ? Map.of() : LoadRunner.parseWeights(P99_BUDGET);
+        stats.forEach((endpoint, endpointStats) -> {
+            assertThat(endpointStats.errorRate())
+                    .as("error rate of %s", endpoint)
+                    .isLessThanOrEqualTo(MAX_ERROR_RATE);
+            Integer budget = p99Budget.get(endpoint);
+            if (budget != null) {
+                assertThat(endpointStats.p99())
+                        .as("p99 latency of %s in ms", endpoint)
+                        .isLessThanOrEqualTo(budget);
+            }
+        });
+        assertThat(exportJobRepository.findAll())
+                .allSatisfy(job -> assertThat(job.getStatus()).isEqualTo(Status.COMPLETED));
+    }
+
+    private boolean adjustStock() throws Exception {
+        Stock stock = stocks.get(ThreadLocalRandom.current().nextInt(stocks.size()));
+        String action = ThreadLocalRandom.current().nextBoolean() ? "add" : "remove";
+        int quantity = 1 + ThreadLocalRandom.current().nextInt(5);
+        return send(request("/api/v1/inventory/stocks/" + stock.getUuid() + "/" + action + "?quantity=" + quantity)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build()).statusCode() == 200;
+    }
+
+    private boolean queryStocksByWarehouse() throws Exception {
+        Warehouse warehouse = warehouses.get(ThreadLocalRandom.current().nextInt(warehouses.size()));
+        String query = "{ stocksByWarehouseCode(warehouseCode: \"" + warehouse.getCode() + "\") "
+                + "{ uuid quantity stockStatus product { code name price } } }";
+        HttpResponse<String> response = send(request("/graphql")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("query", query))))
+                .build());
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        return !body.has("errors");
+    }
+
+    private boolean pollAggregateReport() throws Exception {
+        return send(request("/api/v1/inventory/report/aggregate").GET().build()).statusCode() == 200;
+    }
+
+    private boolean requestExport() throws Exception {
+        return send(request("/api/v1/inventory/export/STOCK").GET().build()).statusCode() == 202;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void report(Map<String, LatencyRecorder.EndpointStats> stats) throws IOException {
+        System.out.printf("%nLoad test: %.0f req/s for %ds (warmup %ds), mix %s, %s threads%n",
+                RATE, DURATION.toSeconds(), WARMUP.toSeconds(), MIX, VIRTUAL_THREADS ? "virtual" : "platform");
+        System.out.printf("%-14s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        stats.forEach((endpoint, s) -> System.out.printf("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, s.requests(), s.errors(), s.throughput(), s.p50(), s.p99(), s.p999(), s.max()));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("rate", RATE);
+        json.put("durationSeconds", DURATION.toSeconds());
+        json.put("warmupSeconds", WARMUP.toSeconds());
+        json.put("mix", MIX);
+        json.put("virtualThreads", VIRTUAL_THREADS);
+        json.put("endpoints", stats);
+        Files.createDirectories(REPORT.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), json);
+    }
+}
@@ -0,0 +1,79 @@
+package com.nexora.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects per-endpoint response times and errors during a load run.
+ * <p>
+ * All samples are kept, so percentiles are exact rather than estimated. A run of a few minutes
+ * at a few hundred requests per second fits comfortably in memory.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples()).add(latencyNanos, success);
+    }
+
+    /**
+     * @param elapsedSeconds length of the measured window, used to derive throughput
+     * @return statistics per endpoint, ordered by endpoint name
+     */
+    Map<String, EndpointStats> snapshot(double elapsedSeconds) {
+        Map<String, EndpointStats> stats = new TreeMap<>();
+        samplesByEndpoint.forEach((endpoint, samples) -> stats.put(endpoint, samples.toStats(elapsedSeconds)));
+        return stats;
+    }
+
+    /**
+     * Throughput and latency percentiles of a single endpoint, latencies in milliseconds.
+     */
+    record EndpointStats(long requests, long errors, double throughput,
+                         double p50, double p99, double p999, double max) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void add(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointStats toStats(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new EndpointStats(count, errors, count / elapsedSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count == 0 ? 0 : toMillis(sorted[count - 1]));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return toMillis(sorted[Math.max(0, rank - 1)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.nexora.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate regardless of how long
+ * earlier requests take, and each request is picked from a weighted mix of operations.
+ * <p>
+ * Latency is measured from the scheduled start time rather than the actual one, so a stalled
+ * server shows up as higher latency instead of silently lowering the offered load.
+ */
+class LoadRunner {
+
+    /**
+     * A single request of the mix. Returns true if the response was successful.
+     */
+    @FunctionalInterface
+    interface Operation {
+        boolean execute() throws Exception;
+    }
+
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private int totalWeight;
+
+    LoadRunner add(String name, int weight, Operation operation) {
+        if (weight > 0) {
+            weights.put(name, weight);
+            operations.put(name, operation);
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    /**
+     * Drives the mix at the given rate, first for the warmup period with results discarded and
+     * then for the measured period.
+     *
+     * @return the samples of the measured period
+     */
+    LatencyRecorder run(double requestsPerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        if (totalWeight == 0) {
+            throw new IllegalStateException("Load mix is empty");
+        }
+        drive(requestsPerSecond, warmup, new LatencyRecorder());
+        LatencyRecorder recorder = new LatencyRecorder();
+        drive(requestsPerSecond, duration, recorder);
+        return recorder;
+    }
+
+    private void drive(double requestsPerSecond, Duration duration, LatencyRecorder recorder) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String name = pick();
+                Operation operation = operations.get(name);
+                long intendedStart = scheduled;
+                executor.submit(() -> {
+                    boolean success;
+                    try {
+                        success = operation.execute();
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    recorder.record(name, System.nanoTime() - intendedStart, success);
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Requests still running one minute after the load period ended");
+            }
+        }
+    }
+
+    private String pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /**
+     * Parses a mix such as {@code stock-adjust:50,graphql:30} into operation weights.
+     */
+    static Map<String, Integer> parseWeights(String mix) {
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load mix entry: " + entry);
+            }
+            parsed.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return parsed;
+    }
+}
@@ -166,8 +166,8 @@ class UserRepositoryTest {
             // If we reach here, the test should fail
             assertThat(false).as("Expected constraint violation for duplicate email").isTrue();
         } catch (Exception e) {
-            // Expected behavior - constraint violation
-            assertThat(e.getMessage()).contains("could not execute statement");
+            // Expected behavior - constraint violation (reported per batch with JDBC batching)
+            assertThat(e.getMessage()).contains("could not execute").contains("USERS(EMAIL");
         }
     }
 }
\ No newline at end of file
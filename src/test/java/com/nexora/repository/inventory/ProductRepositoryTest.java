@@ -259,8 +259,8 @@ class ProductRepositoryTest {
             // If we reach here, the test should fail
             assertThat(false).as("Expected constraint violation for duplicate code").isTrue();
         } catch (Exception e) {
-            // Expected behavior - constraint violation
-            assertThat(e.getMessage()).contains("could not execute statement");
+            // Expected behavior - constraint violation (reported per batch with JDBC batching)
+            assertThat(e.getMessage()).contains("could not execute").contains("PRODUCTS(CODE");
         }
     }
 
@@ -303,4 +303,59 @@ class ProductRepositoryTest {
         // Then
         assertThat(products).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchRanked_ShouldMatchAcrossFieldsAndRankExactCodeFirst() {
+        // Given
+        entityManager.persist(testProduct1);
+        entityManager.persist(testProduct2);
+        entityManager.persist(testProduct3);
+        Product accessory = new Product();
+        accessory.setCode("ACC001");
+        accessory.setName("PROD001 Adapter");
+        accessory.setPrice(new BigDecimal("9.99"));
+        accessory.setActive(true);
+        accessory.setCreatedAt(LocalDateTime.now());
+        accessory.setUpdatedAt(LocalDateTime.now());
+        entityManager.persistAndFlush(accessory);
+
+        // When
+        List<Product> products = productRepository.searchRanked("prod001", 10);
+
+        // Then
+        assertThat(products).extracting(Product::getCode)
+                .containsExactly("PROD001", "ACC001");
+    }
+
+    @Test
+    void testSearchRanked_ShouldSearchSkuBrandAndDescriptionAndApplyLimit() {
+        // Given
+        entityManager.persist(testProduct1);
+        entityManager.persist(testProduct2);
+        entityManager.persistAndFlush(testProduct3);
+
+        // When
+        List<Product> bySku = productRepository.searchRanked("sku002", 10);
+        List<Product> byBrand = productRepository.searchRanked("testbrand", 10);
+        List<Product> byDescription = productRepository.searchRanked("electronics item", 10);
+        List<Product> limited = productRepository.searchRanked("prod", 2);
+
+        // Then
+        assertThat(bySku).extracting(Product::getCode).containsExactly("PROD002");
+        assertThat(byBrand).extracting(Product::getCode).containsExactly("PROD003", "PROD001");
+        assertThat(byDescription).extracting(Product::getCode).containsExactly("PROD003");
+        assertThat(limited).extracting(Product::getName).containsExactly("Another Product", "Test Electronics Item");
+    }
+
+    @Test
+    void testSearchRanked_ShouldTreatLikeWildcardsLiterally() {
+        // Given
+        entityManager.persistAndFlush(testProduct1);
+
+        // When
+        List<Product> products = productRepository.searchRanked("%", 10);
+
+        // Then
+        assertThat(products).isEmpty();
+    }
+}
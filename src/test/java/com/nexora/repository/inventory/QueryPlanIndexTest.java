@@ -0,0 +1,172 @@
+package com.nexora.repository.inventory;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression test for the query pattern indexes created by the Flyway migrations.
+ * Runs against a real PostgreSQL instance and is skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanIndexTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("nexora")
+            .withUsername("nexora")
+            .withPassword("nexora")
+            .withInitScript("db/00-schema-init.sql");
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO products (uuid, code, name, price, category, brand, is_active) " +
+                    "SELECT gen_random_uuid(), 'P' || i, 'Product ' || i, 10.00, 'Category ' || (i % 20), 'Brand ' || (i % 50), TRUE " +
+                    "FROM generate_series(1, 2000) i");
+            statement.execute("INSERT INTO warehouses (uuid, code, name, address, city, country, is_active) " +
+                    "SELECT gen_random_uuid(), 'W' || i, 'Warehouse ' || i, 'Street ' || i, 'City', 'Country', TRUE " +
+                    "FROM generate_series(1, 20) i");
+            statement.execute("INSERT INTO stocks (uuid, product_uuid, warehouse_uuid, quantity, min_stock_level, max_stock_level) " +
+                    "SELECT gen_random_uuid(), p.uuid, w.uuid, (random() * 100)::int, 10, 90 FROM products p CROSS JOIN warehouses w");
+            statement.execute("INSERT INTO export_jobs (uuid, user_uuid, export_type, category, status, created_at) " +
+                    "SELECT gen_random_uuid(), gen_random_uuid(), 'XLSX', 'STOCK', 'COMPLETED', now() - (i || ' minutes')::interval " +
+                    "FROM generate_series(1, 5000) i");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @Test
+    void findByWarehouse_UsesWarehouseIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM stocks WHERE warehouse_uuid = (SELECT uuid FROM warehouses WHERE code = 'W1')"))
+                .contains("idx_stocks_warehouse_uuid");
+    }
+
+    @Test
+    void findByQuantity_UsesQuantityIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM stocks WHERE quantity = 0"))
+                .contains("idx_stocks_quantity");
+    }
+
+    @Test
+    void findLowStock_UsesStatusPartialIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM stocks s WHERE s.stock_status IN ('ZERO', 'LOW')"))
+                .contains("idx_stocks_status_low");
+    }
+
+    @Test
+    void findOverStock_UsesStatusPartialIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM stocks s WHERE s.stock_status = 'OVER'"))
+                .contains("idx_stocks_status_over");
+    }
+
+    @Test
+    void findZeroStock_UsesStatusPartialIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM stocks s WHERE s.stock_status = 'ZERO'"))
+                .contains("idx_stocks_status_low");
+    }
+
+    @Test
+    void stockStatusTrigger_KeepsStatusInLineWithQuantity() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE stocks SET quantity = 0 WHERE uuid = (SELECT uuid FROM stocks ORDER BY uuid LIMIT 1)");
+            statement.execute("UPDATE stocks SET quantity = 95, stock_status = 'NORMAL' " +
+                    "WHERE uuid = (SELECT uuid FROM stocks ORDER BY uuid OFFSET 1 LIMIT 1)");
+
+            try (ResultSet rs = statement.executeQuery("SELECT stock_status FROM stocks ORDER BY uuid LIMIT 2")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("ZERO");
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("OVER");
+            }
+        }
+    }
+
+    @Test
+    void findByCategory_UsesCategoryIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM products WHERE category = 'Category 3'"))
+                .contains("idx_products_category");
+    }
+
+    @Test
+    void findByBrand_UsesBrandIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM products WHERE brand = 'Brand 7'"))
+                .contains("idx_products_brand");
+    }
+
+    @Test
+    void searchProductsByName_UsesNameTrigramIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM products WHERE upper(name) LIKE upper('%uct 12%')"))
+                .contains("idx_products_name_trgm");
+    }
+
+    @Test
+    void searchWarehousesByName_UsesNameTrigramIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM warehouses WHERE upper(name) LIKE upper('%house 1%')"))
+                .contains("idx_warehouses_name_trgm");
+    }
+
+    @Test
+    void rankedProductSearch_UsesSearchTextTrigramIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM products p " +
+                "WHERE public.product_search_text(p.code, p.name, p.sku, p.brand, p.description) LIKE '%BRAND 7%' " +
+                "ORDER BY p.name LIMIT 20"))
+                .contains("idx_products_search_trgm");
+    }
+
+    @Test
+    void rankedWarehouseSearch_UsesSearchTextTrigramIndex() throws SQLException {
+        assertThat(explain("SELECT * FROM warehouses w " +
+                "WHERE public.warehouse_search_text(w.code, w.name, w.city, w.description) LIKE '%HOUSE 1%' " +
+                "ORDER BY w.name LIMIT 20"))
+                .contains("idx_warehouses_search_trgm");
+    }
+
+    @Test
+    void findExportJobsByUser_UsesUserCreatedAtIndexWithoutSort() throws SQLException {
+        String plan = explain("SELECT * FROM export_jobs WHERE user_uuid = '2f1c6a0e-8f57-4b5e-9d4a-0c8a3f1e7b21' ORDER BY created_at DESC");
+
+        assertThat(plan).contains("idx_export_jobs_user_created_at");
+        assertThat(plan).doesNotContain("Sort");
+    }
+
+    /**
+     * Returns the textual plan for a query with sequential scans discouraged,
+     * so the assertion fails only when no usable index exists.
+     */
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,109 @@
+package com.nexora.repository.inventory;
+
+import com.nexora.config.QueryInspectionConfig;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.util.QueryStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statement count of stock lookups against N+1 regressions, using the
+ * statement counting data source proxy.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(QueryInspectionConfig.class)
+class StockQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Product product;
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        Warehouse other = null;
+        for (int w = 1; w <= 2; w++) {
+            Warehouse current = new Warehouse("QC-W" + w, "Query Count Warehouse " + w);
+            current.setAddress("Street " + w);
+            current.setCity("City");
+            current.setCountry("Country");
+            entityManager.persist(current);
+            if (w == 1) {
+                warehouse = current;
+            } else {
+                other = current;
+            }
+        }
+        for (int p = 1; p <= 5; p++) {
+            Product current = new Product("QC-P" + p, "Query Count Product " + p, new BigDecimal("10.00"));
+            entityManager.persist(current);
+            entityManager.persist(new Stock(current, warehouse, 10 * p));
+            entityManager.persist(new Stock(current, other, 5 * p));
+            if (p == 1) {
+                product = current;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findByWarehouseCode_LoadsStocksWithParentsInOneStatement() {
+        // Given
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            // When
+            List<Stock> stocks = stockRepository.findByWarehouseCode("QC-W1");
+            stocks.forEach(stock -> {
+                stock.getProduct().getName();
+                stock.getWarehouse().getName();
+            });
+
+            // Then
+            assertThat(stocks).hasSize(5);
+            assertThat(statistics.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void findByProductUuidAndWarehouseUuid_UsesOneStatement() {
+        // Given
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            // When
+            Stock stock = stockRepository.findByProductUuidAndWarehouseUuid(product.getUuid(), warehouse.getUuid())
+                    .orElseThrow();
+            stock.getProduct().getName();
+
+            // Then
+            assertThat(statistics.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void findAll_WithLazyParentAccess_IsDetectedAsNPlusOne() {
+        // Given
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            // When
+            stockRepository.findAll().forEach(stock -> stock.getProduct().getName());
+
+            // Then
+            assertThat(statistics.getStatementCount()).isGreaterThan(1);
+        }
+    }
+}
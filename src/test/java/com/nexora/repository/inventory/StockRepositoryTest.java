@@ -2,23 +2,34 @@ package com.nexora.repository.inventory;
 
 import com.nexora.model.inventory.Product;
 import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.StockStatus;
 import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @ActiveProfiles("test")
+@Import(InventoryUpsertRepository.class)
 class StockRepositoryTest {
 
     @Autowired
@@ -27,6 +38,9 @@ class StockRepositoryTest {
     @Autowired
     private StockRepository stockRepository;
 
+    @Autowired
+    private InventoryUpsertRepository upsertRepository;
+
     private Product testProduct1;
     private Product testProduct2;
     private Warehouse testWarehouse1;
@@ -179,6 +193,22 @@ class StockRepositoryTest {
                 .containsExactlyInAnyOrder("WH001", "WH002");
     }
 
+    @Test
+    void testFindProductWarehouseKeys_ShouldReturnPairsOfRequestedProductsOnly() {
+        // Given
+        entityManager.persistAndFlush(testStock1); // Product1 in Warehouse1
+        entityManager.persistAndFlush(testStock2); // Product1 in Warehouse2
+        entityManager.persistAndFlush(testStock3); // Product2 in Warehouse1
+
+        // When
+        List<StockKey> keys = stockRepository.findProductWarehouseKeys(List.of(testProduct1.getUuid()));
+
+        // Then
+        assertThat(keys).containsExactlyInAnyOrder(
+                new StockKey(testProduct1.getUuid(), testWarehouse1.getUuid()),
+                new StockKey(testProduct1.getUuid(), testWarehouse2.getUuid()));
+    }
+
     @Test
     void testFindByWarehouse_ShouldReturnAllStockRecordsForWarehouse() {
         // Given
@@ -196,6 +226,63 @@ class StockRepositoryTest {
                 .containsExactlyInAnyOrder("PROD001", "PROD002");
     }
 
+    @Test
+    void testFindByProductUuid_ShouldReturnStocksWithFetchedRelations() {
+        // Given
+        entityManager.persist(testStock1);
+        entityManager.persist(testStock2);
+        entityManager.persistAndFlush(testStock3);
+        entityManager.clear();
+
+        // When
+        List<Stock> product1Stocks = stockRepository.findByProductUuid(testProduct1.getUuid());
+
+        // Then
+        assertThat(product1Stocks).hasSize(2);
+        assertThat(product1Stocks).allMatch(stock -> Hibernate.isInitialized(stock.getProduct()));
+        assertThat(product1Stocks).allMatch(stock -> Hibernate.isInitialized(stock.getWarehouse()));
+        assertThat(product1Stocks).extracting(stock -> stock.getWarehouse().getCode())
+                .containsExactlyInAnyOrder("WH001", "WH002");
+    }
+
+    @Test
+    void testFindByWarehouseUuid_ShouldReturnStocksWithFetchedRelations() {
+        // Given
+        entityManager.persist(testStock1);
+        entityManager.persist(testStock2);
+        entityManager.persistAndFlush(testStock3);
+        entityManager.clear();
+
+        // When
+        List<Stock> warehouse1Stocks = stockRepository.findByWarehouseUuid(testWarehouse1.getUuid());
+
+        // Then
+        assertThat(warehouse1Stocks).hasSize(2);
+        assertThat(warehouse1Stocks).allMatch(stock -> Hibernate.isInitialized(stock.getProduct()));
+        assertThat(warehouse1Stocks).extracting(stock -> stock.getProduct().getCode())
+                .containsExactlyInAnyOrder("PROD001", "PROD002");
+    }
+
+    @Test
+    void testFindByProductUuidAndWarehouseUuid_ShouldReturnMatchingStockOnly() {
+        // Given
+        entityManager.persist(testStock1);
+        entityManager.persistAndFlush(testStock2);
+        entityManager.clear();
+
+        // When
+        Optional<Stock> found = stockRepository.findByProductUuidAndWarehouseUuid(
+                testProduct1.getUuid(), testWarehouse2.getUuid());
+        Optional<Stock> missing = stockRepository.findByProductUuidAndWarehouseUuid(
+                testProduct2.getUuid(), testWarehouse2.getUuid());
+
+        // Then
+        assertThat(found).isPresent();
+        assertThat(found.get().getQuantity()).isEqualTo(5);
+        assertThat(Hibernate.isInitialized(found.get().getWarehouse())).isTrue();
+        assertThat(missing).isEmpty();
+    }
+
     @Test
     void testFindLowStock_ShouldReturnStockRecordsWithLowQuantity() {
         // Given
@@ -233,6 +320,42 @@ class StockRepositoryTest {
                 stock.getMaxStockLevel() != null && stock.getQuantity() >= stock.getMaxStockLevel());
     }
 
+    @Test
+    void testFindZeroStock_ShouldReturnStockRecordsWithZeroQuantity() {
+        // Given
+        entityManager.persistAndFlush(testStock1); // quantity=50
+        entityManager.persistAndFlush(testStock2); // quantity=5
+        entityManager.persistAndFlush(testStock4); // quantity=0
+
+        // When
+        List<Stock> zeroStocks = stockRepository.findZeroStock();
+
+        // Then
+        assertThat(zeroStocks).hasSize(1);
+        assertThat(zeroStocks.get(0).getQuantity()).isZero();
+        assertThat(zeroStocks.get(0).getStockStatus()).isEqualTo(StockStatus.ZERO);
+    }
+
+    @Test
+    void testStockStatus_ShouldFollowQuantityChanges() {
+        // Given
+        entityManager.persistAndFlush(testStock1); // quantity=50, minLevel=10, maxLevel=100
+        assertThat(testStock1.getStockStatus()).isEqualTo(StockStatus.NORMAL);
+
+        // When
+        Stock stock = stockRepository.findById(testStock1.getUuid()).orElseThrow();
+        stock.removeStock(45);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        Stock reloaded = stockRepository.findById(testStock1.getUuid()).orElseThrow();
+        assertThat(reloaded.getStockStatus()).isEqualTo(StockStatus.LOW);
+        assertThat(reloaded.isLowStock()).isTrue();
+        assertThat(stockRepository.findLowStock()).extracting(Stock::getUuid).containsExactly(testStock1.getUuid());
+        assertThat(stockRepository.findOverStock()).isEmpty();
+    }
+
     @Test
     void testFindByProductCode_ShouldReturnStockRecordsForProductWithSpecifiedCode() {
         // Given
@@ -353,8 +476,8 @@ class StockRepositoryTest {
             // If we reach here, the test should fail
             assertThat(false).as("Expected constraint violation for duplicate product-warehouse combination").isTrue();
         } catch (Exception e) {
-            // Expected behavior - constraint violation
-            assertThat(e.getMessage()).contains("could not execute statement");
+            // Expected behavior - constraint violation (reported per batch with JDBC batching)
+            assertThat(e.getMessage()).contains("could not execute").contains("STOCKS(PRODUCT_UUID");
         }
     }
 
@@ -434,4 +557,76 @@ class StockRepositoryTest {
         // Then
         assertThat(stock.isOverStock()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testInsertMissingStocks_ShouldOnlyCreateStocksForPairsWithoutOne() {
+        // Given
+        entityManager.persistAndFlush(testStock1);
+
+        // When
+        upsertRepository.insertMissingStocks(List.of(
+                new InventoryUpsertRepository.StockKey(testProduct1.getUuid(), testWarehouse1.getUuid()),
+                new InventoryUpsertRepository.StockKey(testProduct1.getUuid(), testWarehouse2.getUuid())));
+        entityManager.clear();
+
+        // Then
+        List<StockRepository.StockLocation> locations = stockRepository.findLocations(
+                Set.of(testProduct1.getUuid()), Set.of(testWarehouse1.getUuid(), testWarehouse2.getUuid()));
+        assertThat(locations).hasSize(2);
+        assertThat(stockRepository.findById(testStock1.getUuid()).orElseThrow().getQuantity()).isEqualTo(50);
+        Stock created = stockRepository.findByProductUuidAndWarehouseUuid(testProduct1.getUuid(), testWarehouse2.getUuid())
+                .orElseThrow();
+        assertThat(created.getQuantity()).isZero();
+        assertThat(created.getStockStatus()).isEqualTo(StockStatus.ZERO);
+        assertThat(created.getVersion()).isZero();
+    }
+
+    @Test
+    void testFindAllByIdForUpdate_ShouldReturnStocksInUuidOrder() {
+        // Given
+        entityManager.persistAndFlush(testStock1);
+        entityManager.persistAndFlush(testStock2);
+        entityManager.persistAndFlush(testStock3);
+        entityManager.clear();
+
+        // When
+        List<Stock> stocks = stockRepository.findAllByIdForUpdate(Set.of(testStock3.getUuid(), testStock1.getUuid()));
+
+        // Then
+        assertThat(stocks).extracting(Stock::getUuid)
+                .containsExactlyInAnyOrder(testStock1.getUuid(), testStock3.getUuid());
+        assertThat(stocks).extracting(Stock::getUuid).isSortedAccordingTo((a, b) -> compareAsStored(a, b));
+    }
+
+    @Test
+    void testFindAllQuantities_ShouldAddPendingMovementsToStoredQuantity() {
+        // Given
+        entityManager.persistAndFlush(testStock1);
+        entityManager.persistAndFlush(testStock2);
+        StockMovement first = entityManager.persistAndFlush(new StockMovement(testStock1.getUuid(), 20,
+                StockMovementReason.RESTOCK, "test", LocalDateTime.now()));
+        StockMovement second = entityManager.persistAndFlush(new StockMovement(testStock1.getUuid(), -5,
+                StockMovementReason.REMOVAL, "test", LocalDateTime.now()));
+        entityManager.clear();
+
+        // When
+        Map<UUID, StockRepository.StockQuantity> quantities = stockRepository.findAllQuantities().stream()
+                .collect(Collectors.toMap(StockRepository.StockQuantity::getUuid, quantity -> quantity));
+
+        // Then
+        assertThat(quantities).hasSize(2);
+        StockRepository.StockQuantity pending = quantities.get(testStock1.getUuid());
+        assertThat(pending.getQuantity()).isEqualTo(65);
+        assertThat(pending.getPosition()).isEqualTo(Math.max(first.getId(), second.getId()));
+        assertThat(pending.getProductUuid()).isEqualTo(testProduct1.getUuid());
+        assertThat(pending.getWarehouseUuid()).isEqualTo(testWarehouse1.getUuid());
+        assertThat(quantities.get(testStock2.getUuid()).getQuantity()).isEqualTo(5);
+        assertThat(quantities.get(testStock2.getUuid()).getPosition()).isZero();
+    }
+
+    // The database compares uuids as unsigned bytes, unlike UUID.compareTo
+    private static int compareAsStored(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -287,8 +287,8 @@ class WarehouseRepositoryTest {
             // If we reach here, the test should fail
             assertThat(false).as("Expected constraint violation for duplicate code").isTrue();
         } catch (Exception e) {
-            // Expected behavior - constraint violation
-            assertThat(e.getMessage()).contains("could not execute statement");
+            // Expected behavior - constraint violation (reported per batch with JDBC batching)
+            assertThat(e.getMessage()).contains("could not execute").contains("WAREHOUSES(CODE");
         }
     }
 
@@ -343,4 +343,36 @@ class WarehouseRepositoryTest {
         // Then
         assertThat(warehouses).isEmpty();
     }
+
+    @Test
+    void testSearchRanked_ShouldMatchAcrossFieldsAndRankByCodeThenNamePrefix() {
+        // Given
+        entityManager.persist(testWarehouse1);
+        entityManager.persist(testWarehouse2);
+        entityManager.persistAndFlush(testWarehouse3);
+
+        // When
+        List<Warehouse> byCity = warehouseRepository.searchRanked("boston", 10);
+        List<Warehouse> byCode = warehouseRepository.searchRanked("wh002", 10);
+        List<Warehouse> byDescription = warehouseRepository.searchRanked("storage", 10);
+
+        // Then
+        assertThat(byCity).extracting(Warehouse::getCode).containsExactly("WH003", "WH001");
+        assertThat(byCode).extracting(Warehouse::getCode).containsExactly("WH002");
+        assertThat(byDescription).extracting(Warehouse::getCode).containsExactly("WH002");
+    }
+
+    @Test
+    void testSearchRanked_ShouldApplyLimit() {
+        // Given
+        entityManager.persist(testWarehouse1);
+        entityManager.persist(testWarehouse2);
+        entityManager.persistAndFlush(testWarehouse3);
+
+        // When
+        List<Warehouse> warehouses = warehouseRepository.searchRanked("center", 1);
+
+        // Then
+        assertThat(warehouses).extracting(Warehouse::getCode).containsExactly("WH003");
+    }
 }
@@ -0,0 +1,117 @@
+package com.nexora.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String EMAIL = "john.doe@example.com";
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, meterRegistry);
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        userDetails = User.withUsername(EMAIL).password("encodedPassword").authorities("ROLE_USER").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_WhenTokenIsValid_ShouldAuthenticateAndTimeAsValid() throws Exception {
+        // Given
+        when(jwtService.extractUsername(TOKEN)).thenReturn(EMAIL);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(userDetails);
+        when(jwtService.isTokenValid(TOKEN, userDetails)).thenReturn(true);
+        when(jwtService.extractAuthorities(TOKEN)).thenReturn(List.of("ROLE_USER"));
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(EMAIL);
+        assertThat(verificationCount("valid")).isEqualTo(1);
+        assertThat(verificationCount("invalid")).isZero();
+    }
+
+    @Test
+    void testDoFilter_WhenTokenIsRejected_ShouldNotAuthenticateAndTimeAsInvalid() throws Exception {
+        // Given
+        when(jwtService.extractUsername(TOKEN)).thenReturn(EMAIL);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(userDetails);
+        when(jwtService.isTokenValid(TOKEN, userDetails)).thenReturn(false);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(verificationCount("valid")).isZero();
+        assertThat(verificationCount("invalid")).isEqualTo(1);
+    }
+
+    @Test
+    void testDoFilter_WhenTokenHasNoSubject_ShouldSkipUserLookupAndTimeAsInvalid() throws Exception {
+        // Given
+        when(jwtService.extractUsername(TOKEN)).thenReturn(null);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        assertThat(verificationCount("invalid")).isEqualTo(1);
+    }
+
+    @Test
+    void testDoFilter_WithoutBearerToken_ShouldRecordNothing() throws Exception {
+        // When
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        verify(jwtService, never()).extractUsername(any());
+        assertThat(verificationCount("valid")).isZero();
+        assertThat(verificationCount("invalid")).isZero();
+    }
+
+    private long verificationCount(String outcome) {
+        return meterRegistry.get("security.jwt.verification").tag("outcome", outcome).timer().count();
+    }
+}
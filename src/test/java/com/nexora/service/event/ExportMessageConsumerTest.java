@@ -0,0 +1,113 @@
+package com.nexora.service.event;
+
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.model.inventory.Category;
+import com.nexora.model.inventory.ExportJob;
+import com.nexora.model.inventory.Status;
+import com.nexora.model.inventory.event.ExportRequestEvent;
+import com.nexora.repository.inventory.ExportJobRepository;
+import com.nexora.service.inventory.ExportService;
+import com.nexora.service.inventory.ProductService;
+import com.nexora.service.inventory.StockService;
+import com.nexora.service.inventory.WarehouseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportMessageConsumerTest {
+
+    @Mock
+    private ExportJobRepository exportJobRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private WarehouseService warehouseService;
+
+    @Mock
+    private ObjectProvider<ExecutorService> serializationExecutor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExportMessageConsumer consumer;
+    private ExportRequestEvent event;
+    private ExportJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new ExportMessageConsumer(exportJobRepository, messagingTemplate, exportService, productService,
+                stockService, warehouseService, meterRegistry, serializationExecutor);
+        event = new ExportRequestEvent(UUID.randomUUID(), UUID.randomUUID(), Category.PRODUCT, "XLSX");
+        job = new ExportJob();
+        job.setStatus(Status.PENDING);
+        when(exportJobRepository.findById(event.getJobId())).thenReturn(Optional.of(job));
+
+        ProductDTO product = new ProductDTO();
+        product.setCode("PROD001");
+        product.setName("Laptop");
+        product.setPrice(new BigDecimal("999.99"));
+        when(productService.getAllProducts()).thenReturn(List.of(product));
+    }
+
+    @Test
+    void testConsumeExportRequest_ShouldRecordStagesRowsAndSize() {
+        // When
+        consumer.consumeExportRequest(event);
+
+        // Then
+        verify(exportService).uploadToSpaces(eq(event.getJobId()), eq(event.getUserId()), any(byte[].class), anyString());
+        for (String stage : List.of("query", "serialize", "upload")) {
+            assertThat(meterRegistry.get("export.stage").tag("stage", stage).tag("category", "PRODUCT").timer().count())
+                    .isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("export.rows").tag("category", "PRODUCT").summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("export.size").tag("category", "PRODUCT").summary().totalAmount()).isPositive();
+        assertThat(meterRegistry.get("export.duration").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testConsumeExportRequest_WhenUploadFails_ShouldFailJobAndRecordFailure() {
+        // Given
+        doThrow(new RuntimeException("Spaces unavailable"))
+                .when(exportService).uploadToSpaces(any(), any(), any(byte[].class), anyString());
+
+        // When
+        consumer.consumeExportRequest(event);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("Spaces unavailable");
+        assertThat(meterRegistry.get("export.stage").tag("stage", "upload").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("export.duration").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+}
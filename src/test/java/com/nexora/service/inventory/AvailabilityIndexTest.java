@@ -0,0 +1,131 @@
+package com.nexora.service.inventory;
+
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockRepository.StockQuantity;
+import com.nexora.service.inventory.AvailabilityIndex.Cell;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private NodeClaims nodeClaims;
+
+    private AvailabilityIndex index;
+
+    private UUID product;
+    private UUID warehouse1;
+    private UUID warehouse2;
+    private UUID stock1;
+    private UUID stock2;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex(stockRepository, nodeClaims);
+
+        product = UUID.randomUUID();
+        warehouse1 = UUID.randomUUID();
+        warehouse2 = UUID.randomUUID();
+        stock1 = UUID.randomUUID();
+        stock2 = UUID.randomUUID();
+    }
+
+    @Test
+    void testStart_WhenAnotherNodeHoldsIndex_ShouldRefuseToLoad() {
+        // Given
+        doThrow(new IllegalStateException("availability-index is held by node-2"))
+                .when(nodeClaims).claim(AvailabilityIndex.FEATURE);
+
+        // When & Then
+        assertThatThrownBy(index::start).isInstanceOf(IllegalStateException.class);
+        verify(stockRepository, never()).findAllQuantities();
+    }
+
+    @Test
+    void testRebuild_ShouldIndexEveryStockRecordByProduct() {
+        // Given
+        index.put(UUID.randomUUID(), UUID.randomUUID(), warehouse1, 1, 1);
+        List<StockQuantity> rows = List.of(
+                quantity(stock1, product, warehouse1, 40, 7),
+                quantity(stock2, product, warehouse2, 0, 9));
+        when(stockRepository.findAllQuantities()).thenReturn(rows);
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.cells(product)).containsExactlyInAnyOrder(
+                new Cell(stock1, warehouse1, 40, 7),
+                new Cell(stock2, warehouse2, 0, 9));
+    }
+
+    @Test
+    void testPut_WhenIndexHoldsNewerPosition_ShouldKeepNewerQuantity() {
+        // Given
+        index.put(stock1, product, warehouse1, 30, 12);
+
+        // When
+        index.put(stock1, product, warehouse1, 45, 10);
+
+        // Then
+        assertThat(index.cells(product)).containsExactly(new Cell(stock1, warehouse1, 30, 12));
+    }
+
+    @Test
+    void testPut_WhenStockMovesToAnotherProduct_ShouldUnlinkItFromThePreviousOne() {
+        // Given
+        UUID otherProduct = UUID.randomUUID();
+        index.put(stock1, product, warehouse1, 30, 1);
+        index.put(stock2, product, warehouse2, 5, 2);
+
+        // When
+        index.put(stock1, otherProduct, warehouse1, 30, 3);
+
+        // Then
+        assertThat(index.cells(product)).containsExactly(new Cell(stock2, warehouse2, 5, 2));
+        assertThat(index.cells(otherProduct)).containsExactly(new Cell(stock1, warehouse1, 30, 3));
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testRemove_ShouldDropStockRecord() {
+        // Given
+        index.put(stock1, product, warehouse1, 30, 1);
+
+        // When
+        index.remove(stock1);
+
+        // Then
+        assertThat(index.cells(product)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    private static StockQuantity quantity(UUID stock, UUID product, UUID warehouse, long quantity, long position) {
+        StockQuantity row = mock(StockQuantity.class);
+        when(row.getUuid()).thenReturn(stock);
+        when(row.getProductUuid()).thenReturn(product);
+        when(row.getWarehouseUuid()).thenReturn(warehouse);
+        when(row.getQuantity()).thenReturn(quantity);
+        when(row.getPosition()).thenReturn(position);
+        return row;
+    }
+}
@@ -0,0 +1,86 @@
+package com.nexora.service.inventory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexora.exception.ApplicationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyStore = new IdempotencyStore(new ObjectMapper(), meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testExecute_WhenDuplicateArrivesWhileFirstIsRunning_ShouldWaitForFirstResult() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<IdempotencyStore.Outcome<Integer>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyStore.execute("key-1", "stock.add", Map.of("quantity", 5), () -> {
+                    started.countDown();
+                    await(release);
+                    return runs.incrementAndGet();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<IdempotencyStore.Outcome<Integer>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyStore.execute("key-1", "stock.add", Map.of("quantity", 5), runs::incrementAndGet));
+        release.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyStore.Outcome<>(1, false));
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyStore.Outcome<>(1, true));
+        assertThat(runs).hasValue(1);
+        assertThat(meterRegistry.get("inventory.idempotency.replays").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_WhenFirstRequestFails_ShouldRunRetryAgain() {
+        // Given
+        assertThatThrownBy(() -> idempotencyStore.execute("key-2", "stock.remove", 5, () -> {
+            throw new ApplicationException("Not enough stock available", "INSUFFICIENT_STOCK");
+        })).isInstanceOf(ApplicationException.class);
+
+        // When
+        IdempotencyStore.Outcome<String> outcome = idempotencyStore.execute("key-2", "stock.remove", 5, () -> "removed");
+
+        // Then
+        assertThat(outcome.body()).isEqualTo("removed");
+        assertThat(outcome.replayed()).isFalse();
+    }
+
+    @Test
+    void testExecute_WhenKeyIsBlank_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> idempotencyStore.execute(" ", "stock.add", 5, () -> "added"))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("INVALID_IDEMPOTENCY_KEY"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.impl.InventoryAggregateReportService;
+import com.nexora.service.inventory.impl.InventoryAggregateReportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryAggregateReportServiceTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InventorySnapshotStore snapshotStore;
+
+    private Product product1;
+    private Product product2;
+    private Warehouse north;
+    private Warehouse south;
+    private Warehouse empty;
+    private Stock lowStock;
+    private Stock overStock;
+    private Stock normalStock;
+
+    @BeforeEach
+    void setUp() {
+        snapshotStore = new InventorySnapshotStore(stockRepository, warehouseRepository, productRepository,
+                transactionManager);
+
+        product1 = product("P-1", "10.50");
+        product2 = product("P-2", "2.25");
+        north = warehouse("W-1", "North");
+        south = warehouse("W-2", "South");
+        empty = warehouse("W-3", "Empty");
+        lowStock = stock(product1, north, 5, 10, null);
+        overStock = stock(product2, north, 100, null, 50);
+        normalStock = stock(product1, south, 20, 10, 50);
+
+        when(stockRepository.findAllWithProductAndWarehouse()).thenReturn(List.of(lowStock, overStock, normalStock));
+        when(warehouseRepository.findAll()).thenReturn(List.of(empty, south, north));
+        when(productRepository.count()).thenReturn(3L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAggregateReport_ShouldRollUpValuesAndStockLevels() {
+        // Given
+        InventoryAggregateReportService reportService = new InventoryAggregateReportServiceImpl(snapshotStore, 50000);
+
+        // When
+        Map<String, Object> report = reportService.getAggregateReport();
+
+        // Then
+        List<Map<String, Object>> overview = (List<Map<String, Object>>) report.get("warehouseOverview");
+        assertThat(overview).extracting(wh -> wh.get("name")).containsExactly("North", "South", "Empty");
+        assertThat(overview.get(0).get("totalStockValue")).isEqualTo(new BigDecimal("277.50"));
+        assertThat(overview.get(0).get("totalProductQuantity")).isEqualTo(105);
+        assertThat(overview.get(2).get("totalStockValue")).isEqualTo(BigDecimal.ZERO);
+
+        Map<String, Object> inventoryValue = (Map<String, Object>) report.get("inventoryValue");
+        assertThat(inventoryValue.get("totalInventoryValue")).isEqualTo(new BigDecimal("487.50"));
+        assertThat((Map<String, BigDecimal>) inventoryValue.get("byWarehouse")).containsOnlyKeys("North", "South", "Empty");
+
+        Map<String, Object> stockLevels = (Map<String, Object>) report.get("stockLevels");
+        assertThat(stockLevels.get("totalProducts")).isEqualTo(3);
+        assertThat(stockLevels.get("totalStockEntries")).isEqualTo(3);
+        assertThat(stockLevels.get("lowStockProductCodes")).isEqualTo(Set.of("P-1"));
+        assertThat(stockLevels.get("highStockProductCodes")).isEqualTo(Set.of("P-2"));
+        Map<String, List<Map<String, Object>>> lowByWarehouse =
+                (Map<String, List<Map<String, Object>>>) stockLevels.get("lowStockByWarehouse");
+        assertThat(lowByWarehouse.keySet()).containsExactly("North", "Empty", "South");
+        assertThat(lowByWarehouse.get("North").get(0))
+                .containsEntry("productUuid", product1.getUuid())
+                .containsEntry("quantity", 5)
+                .containsEntry("minStockLevel", 10)
+                .containsEntry("warehouseUuid", north.getUuid());
+
+        List<Map<String, Object>> productSummary = (List<Map<String, Object>>) report.get("productSummary");
+        assertThat(productSummary).extracting(product -> product.get("code")).containsExactly("P-1", "P-2");
+        assertThat(productSummary.get(0).get("totalQuantity")).isEqualTo(25);
+        assertThat(productSummary.get(0).get("totalValue")).isEqualTo(new BigDecimal("262.50"));
+        assertThat((Set<?>) productSummary.get(0).get("warehousesPresentIn")).hasSize(2);
+    }
+
+    @Test
+    void testGetAggregateReport_WhenSplitAcrossCores_ShouldMatchSequentialReport() {
+        // Given
+        InventoryAggregateReportService sequential = new InventoryAggregateReportServiceImpl(snapshotStore, 50000);
+        InventoryAggregateReportService parallel = new InventoryAggregateReportServiceImpl(snapshotStore, 1);
+
+        // When
+        Map<String, Object> expected = sequential.getAggregateReport();
+        Map<String, Object> actual = parallel.getAggregateReport();
+
+        // Then
+        assertThat(actual).isEqualTo(expected);
+        verify(stockRepository, times(1)).findAllWithProductAndWarehouse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAggregateReport_WhenQuantityPatched_ShouldReportItWithoutReloading() {
+        // Given
+        InventoryAggregateReportService reportService = new InventoryAggregateReportServiceImpl(snapshotStore, 50000);
+        reportService.getAggregateReport();
+
+        // When
+        snapshotStore.patch(overStock, 10, 1);
+        Map<String, Object> report = reportService.getAggregateReport();
+
+        // Then
+        Map<String, Object> inventoryValue = (Map<String, Object>) report.get("inventoryValue");
+        assertThat(inventoryValue.get("totalInventoryValue")).isEqualTo(new BigDecimal("285.00"));
+        Map<String, Object> stockLevels = (Map<String, Object>) report.get("stockLevels");
+        assertThat(stockLevels.get("highStockEntries")).isEqualTo(0);
+        verify(stockRepository, times(1)).findAllWithProductAndWarehouse();
+    }
+
+    @Test
+    void testGetAggregateReport_WhenInvalidated_ShouldReloadSnapshot() {
+        // Given
+        InventoryAggregateReportService reportService = new InventoryAggregateReportServiceImpl(snapshotStore, 50000);
+        reportService.getAggregateReport();
+
+        // When
+        snapshotStore.invalidate();
+        reportService.getAggregateReport();
+
+        // Then
+        verify(stockRepository, times(2)).findAllWithProductAndWarehouse();
+    }
+
+    @Test
+    void testGetAggregateReport_ShouldLoadSnapshotOutsideReadOnlyTransaction() {
+        // Given
+        InventoryAggregateReportService reportService = new InventoryAggregateReportServiceImpl(snapshotStore, 50000);
+
+        // When
+        reportService.getAggregateReport();
+
+        // Then
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isFalse();
+    }
+
+    private static Product product(String code, String price) {
+        Product product = new Product(code, "Product " + code, new BigDecimal(price));
+        product.setUuid(UUID.randomUUID());
+        return product;
+    }
+
+    private static Warehouse warehouse(String code, String name) {
+        Warehouse warehouse = new Warehouse(code, name);
+        warehouse.setUuid(UUID.randomUUID());
+        return warehouse;
+    }
+
+    private static Stock stock(Product product, Warehouse warehouse, int quantity, Integer min, Integer max) {
+        return new Stock(UUID.randomUUID(), product, warehouse, quantity, min, max, null, null, null);
+    }
+}
@@ -0,0 +1,272 @@
+package com.nexora.service.inventory;
+
+import com.nexora.dto.inventory.StockVarianceDTO;
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Category;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.InventoryUpsertRepository;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockReconciliationRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.InventoryImporter.ImportResult;
+import com.nexora.service.inventory.InventoryImporter.Reconciliation;
+import com.nexora.util.TabularFileReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({InventoryUpsertRepository.class, StockReconciliationRepository.class})
+class InventoryImporterTest {
+
+    @Autowired
+    private InventoryUpsertRepository upsertRepository;
+
+    @Autowired
+    private StockReconciliationRepository reconciliationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private InventoryReferenceCache referenceCache;
+    private ProductTypeaheadIndex typeaheadIndex;
+    private AvailabilityIndex availabilityIndex;
+    private InventorySnapshotStore snapshotStore;
+    private StockWriteBehindEngine writeBehind;
+    private InventoryImporter importer;
+    private final List<ImportResult> progress = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        referenceCache = mock(InventoryReferenceCache.class);
+        typeaheadIndex = mock(ProductTypeaheadIndex.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        snapshotStore = mock(InventorySnapshotStore.class);
+        writeBehind = mock(StockWriteBehindEngine.class);
+        when(writeBehind.exclusiveAll(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        importer = new InventoryImporter(upsertRepository, reconciliationRepository, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), referenceCache, typeaheadIndex, availabilityIndex,
+                snapshotStore, writeBehind, 2);
+    }
+
+    @Test
+    void testImportProducts_WhenCodeExists_ShouldUpdateInPlaceAndInsertOthers() throws Exception {
+        // Given
+        Product existing = productRepository.saveAndFlush(new Product("P-1", "Old Name", new BigDecimal("1.00")));
+        String csv = """
+                Code,Name,Price,Brand,Active
+                P-1,New Name,9.99,Acme,
+                P-2,Second,5,,false
+                P-3,Third,-1,,
+                P-4,Fourth,abc,,
+                P-5,Fifth,7.50,,
+                """;
+
+        // When
+        ImportResult result = importCsv(Category.PRODUCT, csv);
+
+        // Then
+        assertThat(result.processedRows()).isEqualTo(5);
+        assertThat(result.importedRows()).isEqualTo(3);
+        assertThat(result.rejectedRows()).isEqualTo(2);
+        assertThat(result.errors()).containsExactly(
+                "Row 4: Price must be positive",
+                "Row 5: Invalid number in price: abc");
+        assertThat(progress).extracting(ImportResult::importedRows).containsExactly(2L, 3L);
+
+        Map<String, Object> updated = jdbcTemplate.queryForMap("SELECT uuid, name, price, brand, is_active FROM products WHERE code = 'P-1'");
+        assertThat(updated.get("uuid")).isEqualTo(existing.getUuid());
+        assertThat(updated.get("name")).isEqualTo("New Name");
+        assertThat((BigDecimal) updated.get("price")).isEqualByComparingTo("9.99");
+        assertThat(updated.get("brand")).isEqualTo("Acme");
+        assertThat(updated.get("is_active")).isEqualTo(true);
+        assertThat(jdbcTemplate.queryForObject("SELECT is_active FROM products WHERE code = 'P-2'", Boolean.class)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class)).isEqualTo(3);
+        verify(typeaheadIndex).rebuild();
+        verify(referenceCache).evictAll();
+    }
+
+    @Test
+    void testImportStocks_WhenCodesUnknown_ShouldRejectRowsAndUpsertByProductAndWarehouse() throws Exception {
+        // Given
+        Product product = productRepository.save(new Product("P-1", "Product", new BigDecimal("1.00")));
+        Warehouse warehouse = new Warehouse("WH-1", "Warehouse");
+        warehouse.setAddress("Street 1");
+        warehouse.setCity("City");
+        warehouse.setCountry("Country");
+        warehouse = warehouseRepository.save(warehouse);
+        Stock existing = stockRepository.saveAndFlush(new Stock(product, warehouse, 50));
+        entityManager.clear();
+        String csv = """
+                product_code,warehouse_code,quantity,min_stock_level,max_stock_level
+                P-1,WH-1,5,10,100
+                P-9,WH-1,1,,
+                P-1,WH-9,1,,
+                P-1,WH-1,-3,,
+                """;
+
+        // When
+        ImportResult result = importCsv(Category.STOCK, csv);
+
+        // Then
+        assertThat(result.importedRows()).isEqualTo(1);
+        assertThat(result.rejectedRows()).isEqualTo(3);
+        assertThat(result.errors()).containsExactlyInAnyOrder(
+                "Row 5: Quantity cannot be negative",
+                "Row 3: Product not found with code: P-9",
+                "Row 4: Warehouse not found with code: WH-9");
+
+        Map<String, Object> stock = jdbcTemplate.queryForMap("SELECT uuid, quantity, min_stock_level, stock_status FROM stocks");
+        assertThat(stock.get("uuid")).isEqualTo(existing.getUuid());
+        assertThat(stock.get("quantity")).isEqualTo(5);
+        assertThat(stock.get("min_stock_level")).isEqualTo(10);
+        assertThat(stock.get("stock_status")).isEqualTo("LOW");
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stock_snapshots", Integer.class)).isEqualTo(5);
+        verify(referenceCache, never()).evictAll();
+        // Two batches and the rebuild of the availability index
+        verify(writeBehind, times(3)).exclusiveAll(any());
+        verify(availabilityIndex).rebuild();
+        verify(snapshotStore).invalidate();
+    }
+
+    @Test
+    void testImportWarehouses_WhenCodeRepeated_ShouldKeepLastRow() throws Exception {
+        // Given
+        String csv = """
+                code,name,address,city,country,stateProvince
+                WH-1,First,Street 1,Boston,USA,MA
+                WH-1,Renamed,Street 1,Boston,USA,Massachusetts
+                """;
+
+        // When
+        ImportResult result = importCsv(Category.WAREHOUSE, csv);
+
+        // Then
+        assertThat(result.importedRows()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT name, state_province FROM warehouses"))
+                .containsExactly(Map.of("NAME", "Renamed", "STATE_PROVINCE", "Massachusetts"));
+    }
+
+    @Test
+    void testReconcile_ShouldCorrectCountedStocksAndReportVariances() throws Exception {
+        // Given
+        Product counted = productRepository.save(new Product("P-1", "Counted", new BigDecimal("2.50")));
+        Product matching = productRepository.save(new Product("P-2", "Matching", new BigDecimal("1.00")));
+        productRepository.save(new Product("P-3", "Unstocked", new BigDecimal("4.00")));
+        Warehouse warehouse = new Warehouse("WH-1", "Warehouse");
+        warehouse.setAddress("Street 1");
+        warehouse.setCity("City");
+        warehouse.setCountry("Country");
+        warehouse = warehouseRepository.save(warehouse);
+        Stock countedStock = stockRepository.save(new Stock(counted, warehouse, 50));
+        stockRepository.saveAndFlush(new Stock(matching, warehouse, 10));
+        // A removal not folded into the stock record yet
+        jdbcTemplate.update("""
+                INSERT INTO stock_movements (id, stock_uuid, delta, reason, source, occurred_at)
+                VALUES (NEXT VALUE FOR stock_movements_id_seq, ?, -5, 'REMOVAL', 'test', CURRENT_TIMESTAMP)
+                """, countedStock.getUuid());
+        entityManager.clear();
+        String csv = """
+                product_code,warehouse_code,counted_quantity
+                P-1,WH-1,40
+                P-2,WH-1,10
+                P-3,WH-1,7
+                P-9,WH-1,1
+                P-2,WH-1,-1
+                """;
+
+        // When
+        ByteArrayInputStream in = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        Reconciliation reconciliation = importer.reconcile(handler -> TabularFileReader.readCsv(in, handler),
+                "auditor", progress::add);
+
+        // Then
+        assertThat(reconciliation.result().importedRows()).isEqualTo(3);
+        assertThat(reconciliation.result().errors()).containsExactlyInAnyOrder(
+                "Row 5: Product not found with code: P-9",
+                "Row 6: Counted quantity cannot be negative");
+        assertThat(reconciliation.correctedStocks()).isEqualTo(2);
+        assertThat(reconciliation.variances()).containsExactly(
+                new StockVarianceDTO(2, "P-1", "Counted", "WH-1", 45, 40, -5, new BigDecimal("-12.50")),
+                new StockVarianceDTO(3, "P-2", "Matching", "WH-1", 10, 10, 0, new BigDecimal("0.00")),
+                new StockVarianceDTO(4, "P-3", "Unstocked", "WH-1", 0, 7, 7, new BigDecimal("28.00")));
+
+        Map<String, Object> stock = jdbcTemplate.queryForMap(
+                "SELECT quantity, ledger_position, stock_status FROM stocks WHERE uuid = ?", countedStock.getUuid());
+        assertThat(stock.get("quantity")).isEqualTo(40);
+        assertThat(stock.get("stock_status")).isEqualTo("NORMAL");
+        assertThat(stock.get("ledger_position")).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM stock_movements WHERE stock_uuid = ?", Long.class, countedStock.getUuid()));
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT delta FROM stock_movements WHERE reason = 'ADJUSTMENT' AND source = 'auditor'", Integer.class))
+                .containsExactlyInAnyOrder(-5, 7);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT s.quantity FROM stocks s JOIN products p ON p.uuid = s.product_uuid WHERE p.code = 'P-3'",
+                Integer.class)).isEqualTo(7);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_count_lines", Integer.class)).isZero();
+        // The count applied and the rebuild of the availability index
+        verify(writeBehind, times(2)).exclusiveAll(any());
+        verify(availabilityIndex).rebuild();
+        verify(snapshotStore).invalidate();
+    }
+
+    @Test
+    void testImport_WhenRequiredColumnMissing_ShouldThrowException() {
+        // Given
+        String csv = "code,name\nP-1,Product\n";
+
+        // When / Then
+        assertThatThrownBy(() -> importCsv(Category.PRODUCT, csv))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Missing required columns: price");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class)).isZero();
+    }
+
+    private ImportResult importCsv(Category category, String csv) throws Exception {
+        ByteArrayInputStream in = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        return importer.importRows(category, handler -> TabularFileReader.readCsv(in, handler), progress::add);
+    }
+}
@@ -0,0 +1,197 @@
+package com.nexora.service.inventory;
+
+import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.WarehouseDTO;
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.util.EntityMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReferenceCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @Mock
+    private EntityMapper entityMapper;
+
+    private MeterRegistry meterRegistry;
+    private InventoryReferenceCache cache;
+
+    private UUID productUuid;
+    private Product product;
+    private ProductDTO productDTO;
+    private UUID warehouseUuid;
+    private Warehouse warehouse;
+    private WarehouseDTO warehouseDTO;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new InventoryReferenceCache(productRepository, warehouseRepository, entityMapper,
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+                100, Duration.ofMinutes(10));
+
+        productUuid = UUID.randomUUID();
+        product = new Product();
+        product.setUuid(productUuid);
+        product.setCode("PROD001");
+        productDTO = new ProductDTO();
+        productDTO.setUuid(productUuid);
+        productDTO.setCode("PROD001");
+
+        warehouseUuid = UUID.randomUUID();
+        warehouse = new Warehouse();
+        warehouse.setUuid(warehouseUuid);
+        warehouse.setCode("WH001");
+        warehouseDTO = new WarehouseDTO();
+        warehouseDTO.setUuid(warehouseUuid);
+        warehouseDTO.setCode("WH001");
+    }
+
+    @Test
+    void testGetProduct_ShouldLoadOnceAndServeHitsFromCache() {
+        // Given
+        when(productRepository.findById(productUuid)).thenReturn(Optional.of(product));
+        when(entityMapper.mapToDTO(product, ProductDTO.class)).thenReturn(productDTO);
+
+        // When
+        ProductDTO first = cache.getProduct(productUuid);
+        ProductDTO second = cache.getProduct(productUuid);
+
+        // Then
+        assertThat(first).isSameAs(productDTO);
+        assertThat(second).isSameAs(productDTO);
+        verify(productRepository, times(1)).findById(productUuid);
+        assertThat(cache.productStats().hitCount()).isEqualTo(1);
+        assertThat(cache.productStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetProduct_WhenProductDoesNotExist_ShouldThrowAndNotCacheTheMiss() {
+        // Given
+        when(productRepository.findById(productUuid)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> cache.getProduct(productUuid))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Product not found with id: " + productUuid);
+        assertThatThrownBy(() -> cache.getProduct(productUuid))
+                .isInstanceOf(ApplicationException.class);
+        verify(productRepository, times(2)).findById(productUuid);
+    }
+
+    @Test
+    void testGetProductByCode_ShouldShareEntryWithUuidLookup() {
+        // Given
+        when(productRepository.findByCode("PROD001")).thenReturn(Optional.of(product));
+        when(entityMapper.mapToDTO(product, ProductDTO.class)).thenReturn(productDTO);
+
+        // When
+        ProductDTO byCode = cache.getProductByCode("PROD001");
+        ProductDTO byCodeAgain = cache.getProductByCode("PROD001");
+        ProductDTO byUuid = cache.getProduct(productUuid);
+
+        // Then
+        assertThat(byCode).isSameAs(productDTO);
+        assertThat(byCodeAgain).isSameAs(productDTO);
+        assertThat(byUuid).isSameAs(productDTO);
+        verify(productRepository, times(1)).findByCode("PROD001");
+        verify(productRepository, never()).findById(productUuid);
+    }
+
+    @Test
+    void testEvictProduct_ShouldReloadOnNextLookup() {
+        // Given
+        ProductDTO renamed = new ProductDTO();
+        renamed.setUuid(productUuid);
+        renamed.setCode("PROD001-NEW");
+        when(productRepository.findByCode("PROD001")).thenReturn(Optional.of(product));
+        when(productRepository.findById(productUuid)).thenReturn(Optional.of(product));
+        when(entityMapper.mapToDTO(product, ProductDTO.class)).thenReturn(productDTO, renamed);
+        cache.getProductByCode("PROD001");
+
+        // When
+        cache.evictProduct(productUuid);
+        ProductDTO reloaded = cache.getProduct(productUuid);
+
+        // Then
+        assertThat(reloaded).isSameAs(renamed);
+        verify(productRepository).findById(productUuid);
+    }
+
+    @Test
+    void testGetWarehouseByCode_WhenCodeMovedToAnotherWarehouse_ShouldReloadByCode() {
+        // Given
+        WarehouseDTO recoded = new WarehouseDTO();
+        recoded.setUuid(warehouseUuid);
+        recoded.setCode("WH009");
+        Warehouse other = new Warehouse();
+        other.setUuid(UUID.randomUUID());
+        other.setCode("WH001");
+        WarehouseDTO otherDTO = new WarehouseDTO();
+        otherDTO.setUuid(other.getUuid());
+        otherDTO.setCode("WH001");
+
+        when(warehouseRepository.findByCode("WH001")).thenReturn(Optional.of(warehouse), Optional.of(other));
+        when(warehouseRepository.findById(warehouseUuid)).thenReturn(Optional.of(warehouse));
+        when(entityMapper.mapToDTO(warehouse, WarehouseDTO.class)).thenReturn(warehouseDTO, recoded);
+        when(entityMapper.mapToDTO(other, WarehouseDTO.class)).thenReturn(otherDTO);
+        cache.getWarehouseByCode("WH001");
+        cache.evictWarehouse(warehouseUuid);
+        cache.getWarehouse(warehouseUuid);
+
+        // When
+        WarehouseDTO result = cache.getWarehouseByCode("WH001");
+
+        // Then
+        assertThat(result).isSameAs(otherDTO);
+        verify(warehouseRepository, times(2)).findByCode("WH001");
+    }
+
+    @Test
+    void testGetWarehouse_ShouldCacheAndEvictAll() {
+        // Given
+        when(warehouseRepository.findById(warehouseUuid)).thenReturn(Optional.of(warehouse));
+        when(entityMapper.mapToDTO(warehouse, WarehouseDTO.class)).thenReturn(warehouseDTO);
+
+        // When
+        cache.getWarehouse(warehouseUuid);
+        cache.getWarehouse(warehouseUuid);
+        cache.evictAll();
+        cache.getWarehouse(warehouseUuid);
+
+        // Then
+        verify(warehouseRepository, times(2)).findById(warehouseUuid);
+        assertThat(cache.warehouseStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConstructor_ShouldRegisterCacheMetrics() {
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "inventory.products.by-id").meters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "inventory.warehouses.by-code").meters()).isNotEmpty();
+    }
+}
@@ -0,0 +1,150 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockStatus;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.StockRepository.StockQuantity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventorySnapshotTest {
+
+    private Product product1;
+    private Product product2;
+    private Warehouse warehouse1;
+    private Warehouse warehouse2;
+    private Stock stock1;
+    private Stock stock2;
+    private Stock stock3;
+
+    @BeforeEach
+    void setUp() {
+        product1 = product("P-1", "10.50");
+        product2 = product("P-2", "2.25");
+        warehouse1 = warehouse("W-1");
+        warehouse2 = warehouse("W-2");
+        stock1 = stock(product1, warehouse2, 5, 10, null, 4);
+        stock2 = stock(product2, warehouse1, 100, null, 50, 6);
+        stock3 = stock(product1, warehouse1, 20, 10, 50, 8);
+    }
+
+    @Test
+    void testOf_ShouldInternProductsAndGroupRowsByWarehouseAndProduct() {
+        // When
+        InventorySnapshot snapshot = InventorySnapshot.of(List.of(stock1, stock2, stock3), List.of(),
+                List.of(warehouse1, warehouse2), 3);
+
+        // Then
+        assertThat(snapshot.productCount()).isEqualTo(3);
+        assertThat(snapshot.products()).isEqualTo(2);
+        assertThat(snapshot.productCode(0)).isEqualTo("P-1");
+        assertThat(snapshot.priceCents(0)).isEqualTo(1050);
+        assertThat(snapshot.priceCents(1)).isEqualTo(225);
+        assertThat(snapshot.warehouseRows(0)).containsExactly(1, 2);
+        assertThat(snapshot.warehouseRows(1)).containsExactly(0);
+        assertThat(snapshot.productRows(0)).containsExactly(0, 2);
+        assertThat(snapshot.productRows(1)).containsExactly(1);
+        assertThat(snapshot.minLevel(1)).isEqualTo(InventorySnapshot.NO_LEVEL);
+        assertThat(snapshot.status(0)).isEqualTo(StockStatus.LOW);
+        assertThat(snapshot.status(1)).isEqualTo(StockStatus.OVER);
+    }
+
+    @Test
+    void testOf_WhenMovementsArePending_ShouldUseCurrentQuantity() {
+        // Given
+        List<StockQuantity> current = List.of(
+                quantity(stock1.getUuid(), 60, 9),
+                quantity(stock3.getUuid(), 15, 8));
+
+        // When
+        InventorySnapshot snapshot = InventorySnapshot.of(List.of(stock1, stock2, stock3), current,
+                List.of(warehouse1, warehouse2), 2);
+
+        // Then
+        assertThat(snapshot.quantity(0)).isEqualTo(60);
+        assertThat(snapshot.status(0)).isEqualTo(StockStatus.NORMAL);
+        assertThat(snapshot.quantity(2)).isEqualTo(20);
+    }
+
+    @Test
+    void testPatch_WhenPositionIsOlder_ShouldKeepNewerQuantity() {
+        // Given
+        InventorySnapshot snapshot = InventorySnapshot.of(List.of(stock1, stock2, stock3), List.of(),
+                List.of(warehouse1, warehouse2), 2);
+        snapshot.patch(stock1.getUuid(), product1.getUuid(), warehouse2.getUuid(), 0, 10, null, 12);
+
+        // When
+        boolean patched = snapshot.patch(stock1.getUuid(), product1.getUuid(), warehouse2.getUuid(), 30, 10, null, 11);
+
+        // Then
+        assertThat(patched).isTrue();
+        assertThat(snapshot.quantity(0)).isZero();
+        assertThat(snapshot.status(0)).isEqualTo(StockStatus.ZERO);
+    }
+
+    @Test
+    void testPatch_WhenStockIsUnknownOrMoved_ShouldRequireRebuild() {
+        // Given
+        InventorySnapshot snapshot = InventorySnapshot.of(List.of(stock1, stock2, stock3), List.of(),
+                List.of(warehouse1, warehouse2), 2);
+
+        // When & Then
+        assertThat(snapshot.patch(UUID.randomUUID(), product1.getUuid(), warehouse1.getUuid(), 1, null, null, 20))
+                .isFalse();
+        assertThat(snapshot.patch(stock1.getUuid(), product1.getUuid(), warehouse1.getUuid(), 1, null, null, 20))
+                .isFalse();
+        assertThat(snapshot.quantity(0)).isEqualTo(5);
+    }
+
+    @Test
+    void testDetach_ShouldNotSeeLaterPatches() {
+        // Given
+        InventorySnapshot snapshot = InventorySnapshot.of(List.of(stock1, stock2, stock3), List.of(),
+                List.of(warehouse1, warehouse2), 2);
+        InventorySnapshot detached = snapshot.detach();
+
+        // When
+        snapshot.patch(stock2.getUuid(), product2.getUuid(), warehouse1.getUuid(), 40, null, 50, 7);
+
+        // Then
+        assertThat(snapshot.quantity(1)).isEqualTo(40);
+        assertThat(detached.quantity(1)).isEqualTo(100);
+        assertThat(detached.status(1)).isEqualTo(StockStatus.OVER);
+    }
+
+    private static Product product(String code, String price) {
+        Product product = new Product(code, "Product " + code, new BigDecimal(price));
+        product.setUuid(UUID.randomUUID());
+        return product;
+    }
+
+    private static Warehouse warehouse(String code) {
+        Warehouse warehouse = new Warehouse(code, "Warehouse " + code);
+        warehouse.setUuid(UUID.randomUUID());
+        return warehouse;
+    }
+
+    private static Stock stock(Product product, Warehouse warehouse, int quantity, Integer min, Integer max,
+                               long position) {
+        Stock stock = new Stock(UUID.randomUUID(), product, warehouse, quantity, min, max, null, null, null);
+        stock.setLedgerPosition(position);
+        return stock;
+    }
+
+    private static StockQuantity quantity(UUID stock, long quantity, long position) {
+        StockQuantity row = mock(StockQuantity.class);
+        when(row.getUuid()).thenReturn(stock);
+        when(row.getQuantity()).thenReturn(quantity);
+        when(row.getPosition()).thenReturn(position);
+        return row;
+    }
+}
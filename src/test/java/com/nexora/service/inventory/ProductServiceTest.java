@@ -1,17 +1,21 @@
 package com.nexora.service.inventory;
 
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.ProductSuggestionDTO;
 import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Product;
 import com.nexora.repository.inventory.ProductRepository;
 import com.nexora.service.inventory.impl.ProductServiceImpl;
 import com.nexora.util.EntityMapper;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TransactionRetry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,10 +23,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -35,6 +42,21 @@ class ProductServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private ProductTypeaheadIndex typeaheadIndex;
+
+    @Mock
+    private InventoryReferenceCache referenceCache;
+
+    @Mock
+    private JpaBatchWriter batchWriter;
+
+    @Mock
+    private TransactionRetry transactionRetry;
+
+    @Mock
+    private InventorySnapshotStore snapshotStore;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -47,6 +69,9 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Run the work once, as the first attempt would
+        lenient().when(transactionRetry.execute(any())).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
         productUuid1 = UUID.randomUUID();
         productUuid2 = UUID.randomUUID();
 
@@ -218,6 +243,7 @@ class ProductServiceTest {
         verify(entityMapper).mapToEntity(testProductDTO1, Product.class);
         verify(productRepository).save(any(Product.class));
         verify(entityMapper).mapToDTO(any(Product.class), eq(ProductDTO.class));
+        verify(typeaheadIndex).put(testProduct1);
     }
 
     @Test
@@ -231,13 +257,63 @@ class ProductServiceTest {
                 .hasMessage("Product with code PROD001 already exists");
         verify(productRepository).existsByCode("PROD001");
         verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(typeaheadIndex);
+    }
+
+    @Test
+    void testCreateProducts_WhenCodesAreNew_ShouldPersistAllInBatches() {
+        // Given
+        runChunksInline();
+        when(productRepository.findExistingCodes(List.of("PROD001", "PROD002"))).thenReturn(List.of());
+        when(entityMapper.mapToEntity(testProductDTO1, Product.class)).thenReturn(testProduct1);
+        when(entityMapper.mapToEntity(testProductDTO2, Product.class)).thenReturn(testProduct2);
+        when(batchWriter.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(entityMapper.mapToDTO(testProduct1, ProductDTO.class)).thenReturn(testProductDTO1);
+        when(entityMapper.mapToDTO(testProduct2, ProductDTO.class)).thenReturn(testProductDTO2);
+
+        // When
+        List<ProductDTO> result = productService.createProducts(List.of(testProductDTO1, testProductDTO2));
+
+        // Then
+        assertThat(result).containsExactly(testProductDTO1, testProductDTO2);
+        assertThat(testProduct1.getUuid()).as("identifiers are generated on persist").isNull();
+        verify(batchWriter).persistAll(List.of(testProduct1, testProduct2));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(typeaheadIndex).put(testProduct1);
+        verify(typeaheadIndex).put(testProduct2);
+    }
+
+    @Test
+    void testCreateProducts_WhenCodeIsRepeated_ShouldThrowException() {
+        // Given
+        testProductDTO2.setCode("PROD001");
+
+        // When & Then
+        assertThatThrownBy(() -> productService.createProducts(List.of(testProductDTO1, testProductDTO2)))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Product code PROD001 appears more than once");
+        verify(productRepository, never()).findExistingCodes(anyList());
+        verify(batchWriter, never()).persistAll(anyList());
+    }
+
+    @Test
+    void testCreateProducts_WhenCodeAlreadyExists_ShouldThrowException() {
+        // Given
+        runChunksInline();
+        when(productRepository.findExistingCodes(List.of("PROD001", "PROD002"))).thenReturn(List.of("PROD001"));
+
+        // When & Then
+        assertThatThrownBy(() -> productService.createProducts(List.of(testProductDTO1, testProductDTO2)))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Product with code PROD001 already exists");
+        verify(batchWriter, never()).persistAll(anyList());
     }
 
     @Test
     void testUpdateProduct_WhenProductExists_ShouldUpdateProduct() {
         // Given
         when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(entityMapper.mapToDTO(any(Product.class), eq(ProductDTO.class))).thenReturn(testProductDTO1);
 
         ProductDTO updateDTO = new ProductDTO();
@@ -246,14 +322,16 @@ class ProductServiceTest {
         updateDTO.setPrice(new BigDecimal("199.99"));
 
         // When
-        ProductDTO result = productService.updateProduct(productUuid1, updateDTO);
+        ProductDTO result = productService.updateProduct(productUuid1, updateDTO, null);
 
         // Then
         assertThat(result).isNotNull();
         verify(productRepository).findById(productUuid1);
         verify(entityMapper).mapToExistingEntity(updateDTO, testProduct1);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
         verify(entityMapper).mapToDTO(any(Product.class), eq(ProductDTO.class));
+        verify(typeaheadIndex).put(testProduct1);
+        verify(referenceCache).evictProduct(productUuid1);
     }
 
     @Test
@@ -265,11 +343,28 @@ class ProductServiceTest {
         updateDTO.setCode("PROD001");
 
         // When & Then
-        assertThatThrownBy(() -> productService.updateProduct(productUuid1, updateDTO))
+        assertThatThrownBy(() -> productService.updateProduct(productUuid1, updateDTO, null))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Product not found with id: " + productUuid1);
         verify(productRepository).findById(productUuid1);
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    void testUpdateProduct_WhenVersionHasChanged_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(testProduct1, "version", 4L);
+        when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
+
+        ProductDTO updateDTO = new ProductDTO();
+        updateDTO.setCode("PROD001");
+
+        // When & Then
+        assertThatThrownBy(() -> productService.updateProduct(productUuid1, updateDTO, 3L))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("VERSION_MISMATCH"));
+        verify(entityMapper, never()).mapToExistingEntity(any(), any());
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -283,6 +378,9 @@ class ProductServiceTest {
         // Then
         verify(productRepository).existsById(productUuid1);
         verify(productRepository).deleteById(productUuid1);
+        verify(typeaheadIndex).remove(productUuid1);
+        verify(referenceCache).evictProduct(productUuid1);
+        verify(snapshotStore).invalidate();
     }
 
     @Test
@@ -314,6 +412,7 @@ class ProductServiceTest {
         verify(productRepository).findById(productUuid1);
         verify(productRepository).save(any(Product.class));
         verify(entityMapper).mapToDTO(any(Product.class), eq(ProductDTO.class));
+        verify(typeaheadIndex).put(testProduct1);
     }
 
     @Test
@@ -331,6 +430,7 @@ class ProductServiceTest {
         verify(productRepository).findById(productUuid1);
         verify(productRepository).save(any(Product.class));
         verify(entityMapper).mapToDTO(any(Product.class), eq(ProductDTO.class));
+        verify(typeaheadIndex).put(testProduct1);
     }
 
     @Test
@@ -384,6 +484,60 @@ class ProductServiceTest {
         verify(entityMapper).mapToDTO(testProduct2, ProductDTO.class);
     }
 
+    @Test
+    void testSearchProducts_ShouldReturnRankedResultsWithCappedLimit() {
+        // Given
+        when(productRepository.searchRanked("Test", 100)).thenReturn(Arrays.asList(testProduct2, testProduct1));
+        when(entityMapper.mapToDTO(testProduct1, ProductDTO.class)).thenReturn(testProductDTO1);
+        when(entityMapper.mapToDTO(testProduct2, ProductDTO.class)).thenReturn(testProductDTO2);
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("Test", 500);
+
+        // Then
+        assertThat(result).containsExactly(testProductDTO2, testProductDTO1);
+        verify(productRepository).searchRanked("Test", 100);
+    }
+
+    @Test
+    void testSearchProducts_WithoutLimit_ShouldUseDefaultLimit() {
+        // Given
+        when(productRepository.searchRanked("Test", 20)).thenReturn(Arrays.asList(testProduct1));
+        when(entityMapper.mapToDTO(testProduct1, ProductDTO.class)).thenReturn(testProductDTO1);
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("Test", null);
+
+        // Then
+        assertThat(result).containsExactly(testProductDTO1);
+        verify(productRepository).searchRanked("Test", 20);
+    }
+
+    @Test
+    void testSearchProducts_WithBlankQuery_ShouldReturnEmptyListWithoutQuerying() {
+        // When
+        List<ProductDTO> result = productService.searchProducts("  ", 10);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testSuggestProducts_ShouldAnswerFromTypeaheadIndexWithCappedLimit() {
+        // Given
+        ProductSuggestionDTO suggestion = new ProductSuggestionDTO(productUuid1, "PROD001", "Test Product 1", "SKU001", true);
+        when(typeaheadIndex.suggest("pro", 50, false)).thenReturn(List.of(suggestion));
+
+        // When
+        List<ProductSuggestionDTO> result = productService.suggestProducts("pro", 1000, false);
+
+        // Then
+        assertThat(result).containsExactly(suggestion);
+        verify(typeaheadIndex).suggest("pro", 50, false);
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void testGetAllProducts_WhenNoProducts_ShouldReturnEmptyList() {
         // Given
@@ -397,4 +551,12 @@ class ProductServiceTest {
         verify(productRepository).findAll();
         verify(entityMapper, never()).mapToDTO(any(Product.class), eq(ProductDTO.class));
     }
+
+    @SuppressWarnings("unchecked")
+    private void runChunksInline() {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, Consumer.class).accept(invocation.getArgument(0));
+            return null;
+        }).when(batchWriter).forEachChunk(anyList(), any());
+    }
 }
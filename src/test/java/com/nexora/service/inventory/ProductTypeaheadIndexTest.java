@@ -0,0 +1,148 @@
+package com.nexora.service.inventory;
+
+import com.nexora.dto.inventory.ProductSuggestionDTO;
+import com.nexora.model.inventory.Product;
+import com.nexora.repository.inventory.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductTypeaheadIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductTypeaheadIndex index;
+
+    private Product chair;
+    private Product desk;
+    private Product lamp;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductTypeaheadIndex(productRepository);
+
+        chair = product("PROD-001", "Office Chair", "SKU-CH-1", true);
+        desk = product("PROD-002", "Standing Desk", "SKU-DK-1", true);
+        lamp = product("LAMP-001", "Desk Lamp", null, false);
+    }
+
+    @Test
+    void testRebuild_ShouldIndexAllProducts() {
+        // Given
+        when(productRepository.findAll()).thenReturn(List.of(chair, desk, lamp));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(codes(index.suggest("prod", 10, true))).containsExactly("PROD-001", "PROD-002");
+    }
+
+    @Test
+    void testSuggest_ShouldMatchWordPrefixesOfCodeSkuAndName() {
+        // Given
+        index.put(chair);
+        index.put(desk);
+
+        // When & Then
+        assertThat(codes(index.suggest("cha", 10, false))).containsExactly("PROD-001");
+        assertThat(codes(index.suggest("002", 10, false))).containsExactly("PROD-002");
+        assertThat(codes(index.suggest("sku-dk", 10, false))).containsExactly("PROD-002");
+        assertThat(codes(index.suggest("off ch", 10, false))).containsExactly("PROD-001");
+        assertThat(index.suggest("chair desk", 10, false)).isEmpty();
+    }
+
+    @Test
+    void testSuggest_ShouldRankCodeMatchesBeforeNameMatchesAndApplyLimit() {
+        // Given
+        Product deskCode = product("DESK-9", "Monitor Arm", null, true);
+        index.put(desk);
+        index.put(deskCode);
+        index.put(lamp);
+
+        // When
+        List<ProductSuggestionDTO> all = index.suggest("desk", 10, true);
+        List<ProductSuggestionDTO> limited = index.suggest("desk", 1, true);
+
+        // Then
+        assertThat(codes(all)).containsExactly("DESK-9", "LAMP-001", "PROD-002");
+        assertThat(codes(limited)).containsExactly("DESK-9");
+    }
+
+    @Test
+    void testSuggest_ShouldExcludeInactiveProductsUnlessRequested() {
+        // Given
+        index.put(desk);
+        index.put(lamp);
+
+        // When & Then
+        assertThat(codes(index.suggest("desk", 10, false))).containsExactly("PROD-002");
+        assertThat(codes(index.suggest("desk", 10, true))).containsExactly("LAMP-001", "PROD-002");
+    }
+
+    @Test
+    void testPut_ShouldReplacePreviousTokens() {
+        // Given
+        index.put(chair);
+        chair.setName("Gaming Seat");
+
+        // When
+        index.put(chair);
+
+        // Then
+        assertThat(index.suggest("chair", 10, false)).isEmpty();
+        assertThat(codes(index.suggest("gam", 10, false))).containsExactly("PROD-001");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemove_ShouldDropProductFromSuggestions() {
+        // Given
+        index.put(chair);
+        index.put(desk);
+
+        // When
+        index.remove(chair.getUuid());
+
+        // Then
+        assertThat(index.suggest("office", 10, false)).isEmpty();
+        assertThat(codes(index.suggest("prod", 10, false))).containsExactly("PROD-002");
+    }
+
+    @Test
+    void testSuggest_WithBlankQuery_ShouldReturnEmptyList() {
+        // Given
+        index.put(chair);
+
+        // When & Then
+        assertThat(index.suggest("   ", 10, true)).isEmpty();
+        assertThat(index.suggest(null, 10, true)).isEmpty();
+    }
+
+    private static Product product(String code, String name, String sku, boolean active) {
+        Product product = new Product();
+        product.setUuid(UUID.randomUUID());
+        product.setCode(code);
+        product.setName(name);
+        product.setSku(sku);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setActive(active);
+        return product;
+    }
+
+    private static List<String> codes(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::code).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.nexora.service.inventory;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.service.inventory.StockLedger.StockLevel;
+import com.nexora.util.TransactionRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockAdjustmentSequencerTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockAdjustmentSequencer sequencer;
+    private UUID stockUuid;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // A long linger makes sure all adjustments of a test end up in the same batch
+        TransactionRetry transactionRetry = new TransactionRetry(transactionManager, meterRegistry, 3, Duration.ZERO, Duration.ZERO);
+        sequencer = new StockAdjustmentSequencer(stockRepository, stockLedger, transactionRetry, meterRegistry,
+                Duration.ofMillis(200), 200);
+        stockUuid = UUID.randomUUID();
+        stock = new Stock(new Product("P-1", "Product", new BigDecimal("1.00")), new Warehouse("WH-1", "Warehouse"), 10);
+        stock.setUuid(stockUuid);
+        stock.setLedgerPosition(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.close();
+    }
+
+    @Test
+    void testSubmit_WithConcurrentAdjustments_ShouldApplyThemInOneBatch() {
+        // Given
+        when(stockRepository.findByIdForUpdate(stockUuid)).thenReturn(Optional.of(stock));
+        when(stockLedger.current(stock)).thenReturn(new StockLevel(10, null, 4));
+        when(stockLedger.recordAll(anyList())).thenAnswer(invocation -> {
+            List<StockMovement> movements = invocation.getArgument(0);
+            for (int i = 0; i < movements.size(); i++) {
+                ReflectionTestUtils.setField(movements.get(i), "id", 5L + i);
+            }
+            return 4L + movements.size();
+        });
+
+        // When
+        CompletableFuture<StockAdjustmentSequencer.Result> first = sequencer.submit(stockUuid, -6);
+        CompletableFuture<StockAdjustmentSequencer.Result> second = sequencer.submit(stockUuid, -6);
+        CompletableFuture<StockAdjustmentSequencer.Result> third = sequencer.submit(stockUuid, 5);
+
+        // Then
+        assertThat(first.join().level().quantity()).isEqualTo(4);
+        assertThat(first.join().level().position()).isEqualTo(5);
+        assertThatThrownBy(second::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ApplicationException.class)
+                .hasRootCauseMessage("Not enough stock available");
+        assertThat(third.join().level().quantity()).isEqualTo(9);
+        assertThat(third.join().level().lastRestockDate()).isNotNull();
+        assertThat(third.join().level().position()).isEqualTo(6);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockMovement>> movements = ArgumentCaptor.forClass(List.class);
+        verify(stockRepository, times(1)).findByIdForUpdate(stockUuid);
+        verify(stockLedger).recordAll(movements.capture());
+        assertThat(movements.getValue()).extracting(StockMovement::getReason)
+                .containsExactly(StockMovementReason.REMOVAL, StockMovementReason.RESTOCK);
+        assertThat(stock.getQuantity()).isEqualTo(9);
+        assertThat(stock.getLedgerPosition()).isEqualTo(6);
+        assertThat(meterRegistry.get("inventory.stock.sequencer.batch.size").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void testAdjust_WhenStockNotFound_ShouldThrowException() {
+        // Given
+        when(stockRepository.findByIdForUpdate(stockUuid)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> sequencer.adjust(stockUuid, 5))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Stock not found with id: " + stockUuid);
+        verify(stockLedger, never()).recordAll(anyList());
+    }
+}
@@ -0,0 +1,132 @@
+package com.nexora.service.inventory;
+
+import com.nexora.service.inventory.StockJournal.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testOpen_ShouldReadAppendedEntriesAndContinueTheirSequence() {
+        // Given
+        Path path = directory.resolve("stock.journal");
+        UUID stockUuid = UUID.randomUUID();
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            journal.append(stockUuid, 5, "alice", 1000L);
+            journal.append(stockUuid, -3, "bob", 2000L);
+        }
+
+        // When
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            List<Entry> recovered = journal.takeRecovered();
+            Entry next = journal.append(stockUuid, 1, "carol", 3000L);
+
+            // Then
+            assertThat(recovered).containsExactly(
+                    new Entry(1, stockUuid, 5, "alice", 1000L),
+                    new Entry(2, stockUuid, -3, "bob", 2000L));
+            assertThat(journal.takeRecovered()).isEmpty();
+            assertThat(next.sequence()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testOpen_WhenLastRecordIsTorn_ShouldDropIt() throws IOException {
+        // Given
+        Path path = directory.resolve("stock.journal");
+        UUID stockUuid = UUID.randomUUID();
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            journal.append(stockUuid, 5, "alice", 1000L);
+            journal.append(stockUuid, 7, "alice", 2000L);
+        }
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        // When
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            List<Entry> recovered = journal.takeRecovered();
+            Entry next = journal.append(stockUuid, 2, "alice", 3000L);
+
+            // Then
+            assertThat(recovered).extracting(Entry::delta).containsExactly(5);
+            assertThat(next.sequence()).isEqualTo(2);
+        }
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            assertThat(journal.takeRecovered()).extracting(Entry::delta).containsExactly(5, 2);
+        }
+    }
+
+    @Test
+    void testRewrite_ShouldKeepOnlyUnwrittenEntries() {
+        // Given
+        Path path = directory.resolve("stock.journal");
+        UUID stockUuid = UUID.randomUUID();
+        Entry unwritten;
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            journal.append(stockUuid, 5, "alice", 1000L);
+            unwritten = journal.append(stockUuid, 7, "alice", 2000L);
+
+            // When
+            journal.rewrite(List.of(unwritten));
+            journal.append(stockUuid, 1, "alice", 3000L);
+        }
+
+        // Then
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            assertThat(journal.takeRecovered()).extracting(Entry::sequence).containsExactly(2L, 3L);
+        }
+        assertThat(Files.exists(directory.resolve("stock.journal.next"))).isFalse();
+    }
+
+    @Test
+    void testSync_AfterRewrite_ShouldForceEntriesAppendedToTheNewFile() {
+        // Given
+        Path path = directory.resolve("stock.journal");
+        UUID stockUuid = UUID.randomUUID();
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            journal.append(stockUuid, 5, "alice", 1000L);
+            journal.sync(1);
+            journal.rewrite(List.of());
+            Entry first = journal.append(stockUuid, 2, "alice", 2000L);
+            Entry second = journal.append(stockUuid, 3, "bob", 3000L);
+
+            // When
+            journal.sync(first.sequence());
+            journal.sync(second.sequence());
+        }
+
+        // Then
+        try (StockJournal journal = StockJournal.open(path, 1)) {
+            assertThat(journal.takeRecovered()).extracting(Entry::sequence).containsExactly(2L, 3L);
+        }
+    }
+
+    @Test
+    void testOpen_WhenJournalIsEmpty_ShouldStartAfterCheckpoint() {
+        // Given
+        Path path = directory.resolve("nested").resolve("stock.journal");
+
+        // When
+        try (StockJournal journal = StockJournal.open(path, 42)) {
+            Entry entry = journal.append(UUID.randomUUID(), 1, "alice", 1000L);
+
+            // Then
+            assertThat(entry.sequence()).isEqualTo(42);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.nexora.service.inventory;
+
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.StockStatus;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockMovementRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockSnapshotRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.StockLedger.StockLevel;
+import com.nexora.util.JpaBatchWriter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({StockLedger.class, JpaBatchWriter.class})
+class StockLedgerTest {
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        Product product = productRepository.save(new Product("P-1", "Product", new BigDecimal("1.00")));
+        Warehouse warehouse = new Warehouse("WH-1", "Warehouse");
+        warehouse.setAddress("Street 1");
+        warehouse.setCity("City");
+        warehouse.setCountry("Country");
+        warehouse = warehouseRepository.save(warehouse);
+        Stock created = new Stock(product, warehouse, 20);
+        created.setMinStockLevel(5);
+        created.setMaxStockLevel(100);
+        stockRepository.save(created);
+        stockLedger.recordInitial(List.of(created));
+        stock = stockRepository.findById(created.getUuid()).orElseThrow();
+    }
+
+    @Test
+    void testRecordInitial_ShouldMarkInitialQuantityAsFolded() {
+        // Then
+        List<StockMovement> movements = movementRepository.findAll();
+        assertThat(movements).singleElement().satisfies(movement -> {
+            assertThat(movement.getDelta()).isEqualTo(20);
+            assertThat(movement.getReason()).isEqualTo(StockMovementReason.INITIAL);
+            assertThat(movement.getSource()).isEqualTo(StockLedger.SYSTEM_SOURCE);
+        });
+        assertThat(stock.getLedgerPosition()).isEqualTo(movements.get(0).getId());
+        assertThat(stockLedger.current(stock).quantity()).isEqualTo(20);
+    }
+
+    @Test
+    void testCurrent_WithPendingMovements_ShouldAddThemWithoutChangingStock() {
+        // Given
+        StockMovement restock = stockLedger.record(stock, 15, StockMovementReason.RESTOCK);
+        StockMovement removal = stockLedger.record(stock, -4, StockMovementReason.REMOVAL);
+
+        // When
+        StockLevel level = stockLedger.current(stock);
+        Map<UUID, StockLevel> levels = stockLedger.current(List.of(stock));
+
+        // Then
+        assertThat(level.quantity()).isEqualTo(31);
+        assertThat(level.lastRestockDate()).isCloseTo(restock.getOccurredAt(), within(1, ChronoUnit.MILLIS));
+        assertThat(level.position()).isEqualTo(removal.getId());
+        assertThat(levels).containsEntry(stock.getUuid(), level);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stocks", Integer.class)).isEqualTo(20);
+    }
+
+    @Test
+    void testFold_ShouldApplyPendingMovementsAndWriteSnapshot() {
+        // Given
+        stockLedger.record(stock, -18, StockMovementReason.REMOVAL);
+        LocalDateTime takenAt = LocalDateTime.now();
+
+        // When
+        boolean folded = stockLedger.fold(stock, takenAt);
+        boolean foldedAgain = stockLedger.fold(stock, takenAt.plusSeconds(1));
+        entityManager.flush();
+
+        // Then
+        assertThat(folded).isTrue();
+        assertThat(foldedAgain).isFalse();
+        assertThat(stock.getQuantity()).isEqualTo(2);
+        assertThat(stock.getStockStatus()).isEqualTo(StockStatus.LOW);
+        assertThat(snapshotRepository.findAll()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.getQuantity()).isEqualTo(2);
+            assertThat(snapshot.getLedgerPosition()).isEqualTo(stock.getLedgerPosition());
+        });
+        assertThat(stockLedger.current(stock).quantity()).isEqualTo(2);
+    }
+
+    @Test
+    void testQuantityAsOf_ShouldCombineLatestSnapshotWithLaterMovements() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        movementRepository.save(new StockMovement(stock.getUuid(), 10, StockMovementReason.RESTOCK, "user", start));
+        stockLedger.fold(stock, start.plusHours(1));
+        movementRepository.save(new StockMovement(stock.getUuid(), -7, StockMovementReason.REMOVAL, "user", start.plusHours(2)));
+        movementRepository.save(new StockMovement(stock.getUuid(), 5, StockMovementReason.RESTOCK, "user", start.plusHours(4)));
+        entityManager.flush();
+
+        // When / Then
+        assertThat(stockLedger.quantityAsOf(stock.getUuid(), start.minusMinutes(1))).isEqualTo(20);
+        assertThat(stockLedger.quantityAsOf(stock.getUuid(), start)).isEqualTo(30);
+        assertThat(stockLedger.quantityAsOf(stock.getUuid(), start.plusHours(1))).isEqualTo(30);
+        assertThat(stockLedger.quantityAsOf(stock.getUuid(), start.plusHours(3))).isEqualTo(23);
+        assertThat(stockLedger.quantityAsOf(stock.getUuid(), start.plusHours(5))).isEqualTo(28);
+        assertThat(stockLedger.movements(stock.getUuid(), start.plusHours(1), start.plusHours(5)))
+                .extracting(StockMovement::getDelta)
+                .containsExactly(-7, 5);
+    }
+
+    @Test
+    void testCompact_ShouldFoldOnlyStocksWithPendingMovements() {
+        // Given
+        StockLedgerCompactor compactor = new StockLedgerCompactor(stockLedger, stockRepository, movementRepository, snapshotRepository,
+                jdbcTemplate, transactionManager, Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofDays(7), 1,
+                Duration.ofHours(1));
+        stockLedger.record(stock, 30, StockMovementReason.RESTOCK);
+
+        // When
+        int folded = compactor.compact();
+        int foldedAgain = compactor.compact();
+        entityManager.flush();
+
+        // Then
+        assertThat(folded).isEqualTo(1);
+        assertThat(foldedAgain).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stocks", Integer.class)).isEqualTo(50);
+        assertThat(snapshotRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCompact_WhenFoldedWithoutSnapshot_ShouldSnapshotStoredLevel() {
+        // Given: the initial quantity is folded without a snapshot, like a sequencer batch
+        StockLedgerCompactor compactor = new StockLedgerCompactor(stockLedger, stockRepository, movementRepository,
+                snapshotRepository, jdbcTemplate, transactionManager, Duration.ofSeconds(30), Duration.ofMinutes(5),
+                Duration.ofDays(7), 1, Duration.ofHours(1));
+        LocalDateTime now = LocalDateTime.now();
+
+        // When
+        int folded = compactor.compact();
+        compactor.compact();
+
+        // Then
+        assertThat(folded).isZero();
+        assertThat(snapshotRepository.findAll()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.getQuantity()).isEqualTo(20);
+            assertThat(snapshot.getLedgerPosition()).isEqualTo(stock.getLedgerPosition());
+        });
+        assertThat(stockLedger.quantityAsOf(stock.getUuid(), now.plusMinutes(1))).isEqualTo(20);
+    }
+}
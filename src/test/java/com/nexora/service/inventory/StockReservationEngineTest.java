@@ -0,0 +1,173 @@
+package com.nexora.service.inventory;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.StockReservation;
+import com.nexora.repository.inventory.NodeClaimRepository;
+import com.nexora.repository.inventory.StockReservationRepository;
+import com.nexora.service.inventory.StockReservationEngine.Reservation;
+import com.nexora.util.JpaBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(JpaBatchWriter.class)
+class StockReservationEngineTest {
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private NodeClaimRepository claimRepository;
+
+    @Autowired
+    private JpaBatchWriter batchWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NodeClaims nodeClaims;
+    private StockReservationEngine engine;
+    private UUID stockUuid;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        nodeClaims = new NodeClaims(claimRepository, transactionManager, "node-1", Duration.ofSeconds(30));
+        engine = newEngine(nodeClaims);
+        stockUuid = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeClaims.close();
+    }
+
+    @Test
+    void testReserve_WhenQuantityIsAlreadyReserved_ShouldRejectReservationBeyondOnHand() {
+        // Given
+        engine.reserve(stockUuid, 10, 6, "cart-1", null);
+
+        // When & Then
+        assertThatThrownBy(() -> engine.reserve(stockUuid, 10, 5, "cart-2", null))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Not enough stock available to reserve");
+        engine.reserve(stockUuid, 10, 4, "cart-3", null);
+        assertThat(engine.reserved(stockUuid)).isEqualTo(10);
+    }
+
+    @Test
+    void testReserve_WithTimeToLiveAboveMaximum_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> engine.reserve(stockUuid, 10, 1, null, Duration.ofDays(2)))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("INVALID_RESERVATION_TTL"));
+        assertThat(engine.reserved(stockUuid)).isZero();
+    }
+
+    @Test
+    void testFlush_WhenReservationIsReleasedBeforeFlush_ShouldNeverWriteIt() {
+        // Given
+        Reservation kept = engine.reserve(stockUuid, 10, 2, "cart-1", null);
+        Reservation released = engine.reserve(stockUuid, 10, 3, "cart-2", null);
+        engine.release(released.uuid());
+
+        // When
+        int written = engine.flush();
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        assertThat(reservationRepository.findAll()).extracting(StockReservation::getUuid).containsExactly(kept.uuid());
+        assertThat(engine.reserved(stockUuid)).isEqualTo(2);
+    }
+
+    @Test
+    void testFlush_WhenWrittenReservationIsReleased_ShouldDeleteIt() {
+        // Given
+        Reservation reservation = engine.reserve(stockUuid, 10, 2, "cart-1", null);
+        engine.flush();
+
+        // When
+        engine.release(reservation.uuid());
+        int written = engine.flush();
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        assertThat(reservationRepository.findAll()).isEmpty();
+        assertThatThrownBy(() -> engine.release(reservation.uuid()))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Reservation not found with id: " + reservation.uuid());
+    }
+
+    @Test
+    void testExpire_WhenTimeToLiveHasRunOut_ShouldReleaseInBulk() throws Exception {
+        // Given
+        engine.reserve(stockUuid, 10, 2, "cart-1", Duration.ofMillis(20));
+        engine.reserve(stockUuid, 10, 3, "cart-2", Duration.ofMillis(20));
+        engine.reserve(stockUuid, 10, 4, "cart-3", Duration.ofMinutes(5));
+        Thread.sleep(60);
+
+        // When
+        int expired = engine.expire();
+
+        // Then
+        assertThat(expired).isEqualTo(2);
+        assertThat(engine.reserved(stockUuid)).isEqualTo(4);
+        assertThat(meterRegistry.get("inventory.stock.reservations.expired").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testStart_ShouldLoadWrittenReservations() {
+        // Given
+        reservationRepository.saveAndFlush(new StockReservation(UUID.randomUUID(), stockUuid, 7, "order-1",
+                LocalDateTime.now().plusMinutes(5), LocalDateTime.now()));
+        StockReservationEngine restarted = newEngine();
+
+        // When
+        restarted.start();
+        restarted.close();
+
+        // Then
+        assertThat(restarted.reserved(stockUuid)).isEqualTo(7);
+        assertThatThrownBy(() -> restarted.reserve(stockUuid, 10, 4, "cart-1", null))
+                .isInstanceOf(ApplicationException.class);
+    }
+
+    @Test
+    void testStart_WhenAnotherNodeHoldsReservations_ShouldRefuseToStart() {
+        // Given
+        engine.start();
+        engine.close();
+        NodeClaims otherNode = new NodeClaims(claimRepository, transactionManager, "node-2", Duration.ofSeconds(30));
+
+        // When & Then
+        assertThatThrownBy(() -> newEngine(otherNode).start())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("node node-1 holds it");
+        otherNode.close();
+    }
+
+    private StockReservationEngine newEngine() {
+        return newEngine(nodeClaims);
+    }
+
+    private StockReservationEngine newEngine(NodeClaims claims) {
+        return new StockReservationEngine(reservationRepository, claims, batchWriter, transactionManager, meterRegistry,
+                Duration.ofMinutes(15), Duration.ofDays(1), Duration.ofMillis(10), 64, Duration.ofMinutes(1));
+    }
+}
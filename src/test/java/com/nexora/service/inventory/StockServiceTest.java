@@ -1,34 +1,56 @@
 package com.nexora.service.inventory;
 
+import com.nexora.dto.inventory.AvailabilityLineDTO;
 import com.nexora.dto.inventory.ProductDTO;
+import com.nexora.dto.inventory.StockAvailabilityDTO;
 import com.nexora.dto.inventory.StockDTO;
+import com.nexora.dto.inventory.StockReservationDTO;
+import com.nexora.dto.inventory.StockTransferDTO;
 import com.nexora.dto.inventory.WarehouseDTO;
 import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Product;
 import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.StockStatus;
 import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.InventoryUpsertRepository;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
 import com.nexora.repository.inventory.ProductRepository;
 import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.StockRepository.StockLocation;
 import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.service.inventory.StockLedger.StockLevel;
+import com.nexora.service.inventory.StockReservationEngine.Reservation;
 import com.nexora.service.inventory.impl.StockServiceImpl;
 import com.nexora.util.EntityMapper;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TransactionRetry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -47,6 +69,36 @@ class StockServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private InventoryReferenceCache referenceCache;
+
+    @Mock
+    private JpaBatchWriter batchWriter;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private StockAdjustmentSequencer adjustmentSequencer;
+
+    @Mock
+    private TransactionRetry transactionRetry;
+
+    @Mock
+    private InventoryUpsertRepository upsertRepository;
+
+    @Mock
+    private StockReservationEngine reservationEngine;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private InventorySnapshotStore snapshotStore;
+
+    @Mock
+    private StockWriteBehindEngine writeBehind;
+
     @InjectMocks
     private StockServiceImpl stockService;
 
@@ -69,6 +121,9 @@ class StockServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Run the work once, as the first attempt would
+        lenient().when(transactionRetry.execute(any())).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
         stockUuid1 = UUID.randomUUID();
         stockUuid2 = UUID.randomUUID();
         productUuid1 = UUID.randomUUID();
@@ -158,6 +213,11 @@ class StockServiceTest {
         testStockDTO2.setQuantity(5);
         testStockDTO2.setMinStockLevel(10);
         testStockDTO2.setMaxStockLevel(50);
+
+        // No pending ledger movements unless a test says otherwise
+        lenient().when(stockLedger.current(any(Stock.class))).thenAnswer(invocation -> storedLevel(invocation.getArgument(0)));
+        lenient().when(stockLedger.current(anyList())).thenAnswer(invocation -> invocation.<List<Stock>>getArgument(0).stream()
+                .collect(Collectors.toMap(Stock::getUuid, StockServiceTest::storedLevel)));
     }
 
     @Test
@@ -183,7 +243,8 @@ class StockServiceTest {
     void testGetStockById_WhenStockExists_ShouldReturnStock() {
         // Given
         when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
-        when(entityMapper.mapToDTO(testStock1, StockDTO.class)).thenReturn(testStockDTO1);
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
 
         // When
         StockDTO result = stockService.getStockById(stockUuid1);
@@ -192,8 +253,29 @@ class StockServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getUuid()).isEqualTo(stockUuid1);
         assertThat(result.getQuantity()).isEqualTo(50);
+        assertThat(result.getProduct()).isSameAs(testProductDTO1);
+        assertThat(result.getWarehouse()).isSameAs(testWarehouseDTO1);
         verify(stockRepository).findById(stockUuid1);
-        verify(entityMapper).mapToDTO(testStock1, StockDTO.class);
+        verifyNoInteractions(entityMapper);
+    }
+
+    @Test
+    void testGetStockById_WithPendingMovements_ShouldReturnCurrentLevel() {
+        // Given
+        LocalDateTime restockedAt = LocalDateTime.now();
+        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
+        when(stockLedger.current(testStock1)).thenReturn(new StockLevel(120, restockedAt, 7));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+
+        // When
+        StockDTO result = stockService.getStockById(stockUuid1);
+
+        // Then
+        assertThat(result.getQuantity()).isEqualTo(120);
+        assertThat(result.getLastRestockDate()).isEqualTo(restockedAt);
+        assertThat(result.getStockStatus()).isEqualTo(StockStatus.OVER);
+        assertThat(testStock1.getQuantity()).isEqualTo(50);
     }
 
     @Test
@@ -212,8 +294,7 @@ class StockServiceTest {
     @Test
     void testGetStocksByProductId_ShouldReturnStocksForProduct() {
         // Given
-        when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
-        when(stockRepository.findByProduct(testProduct1)).thenReturn(Arrays.asList(testStock1));
+        when(stockRepository.findByProductUuid(productUuid1)).thenReturn(Arrays.asList(testStock1));
         when(entityMapper.mapToDTO(testStock1, StockDTO.class)).thenReturn(testStockDTO1);
 
         // When
@@ -222,22 +303,36 @@ class StockServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getUuid()).isEqualTo(stockUuid1);
-        verify(productRepository).findById(productUuid1);
-        verify(stockRepository).findByProduct(testProduct1);
+        verify(stockRepository).findByProductUuid(productUuid1);
+        verifyNoInteractions(productRepository);
         verify(entityMapper).mapToDTO(testStock1, StockDTO.class);
     }
 
     @Test
     void testGetStocksByProductId_WhenProductDoesNotExist_ShouldThrowException() {
         // Given
-        when(productRepository.findById(productUuid1)).thenReturn(Optional.empty());
+        when(stockRepository.findByProductUuid(productUuid1)).thenReturn(List.of());
+        when(productRepository.existsById(productUuid1)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> stockService.getStocksByProductId(productUuid1))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Product not found with id: " + productUuid1);
-        verify(productRepository).findById(productUuid1);
-        verify(stockRepository, never()).findByProduct(any(Product.class));
+        verify(productRepository).existsById(productUuid1);
+    }
+
+    @Test
+    void testGetStocksByProductId_WhenProductHasNoStock_ShouldReturnEmptyList() {
+        // Given
+        when(stockRepository.findByProductUuid(productUuid1)).thenReturn(List.of());
+        when(productRepository.existsById(productUuid1)).thenReturn(true);
+
+        // When
+        List<StockDTO> result = stockService.getStocksByProductId(productUuid1);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(productRepository).existsById(productUuid1);
     }
 
     @Test
@@ -259,8 +354,7 @@ class StockServiceTest {
     @Test
     void testGetStocksByWarehouseId_ShouldReturnStocksForWarehouse() {
         // Given
-        when(warehouseRepository.findById(warehouseUuid1)).thenReturn(Optional.of(testWarehouse1));
-        when(stockRepository.findByWarehouse(testWarehouse1)).thenReturn(Arrays.asList(testStock1));
+        when(stockRepository.findByWarehouseUuid(warehouseUuid1)).thenReturn(Arrays.asList(testStock1));
         when(entityMapper.mapToDTO(testStock1, StockDTO.class)).thenReturn(testStockDTO1);
 
         // When
@@ -269,8 +363,8 @@ class StockServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getUuid()).isEqualTo(stockUuid1);
-        verify(warehouseRepository).findById(warehouseUuid1);
-        verify(stockRepository).findByWarehouse(testWarehouse1);
+        verify(stockRepository).findByWarehouseUuid(warehouseUuid1);
+        verifyNoInteractions(warehouseRepository);
         verify(entityMapper).mapToDTO(testStock1, StockDTO.class);
     }
 
@@ -293,9 +387,7 @@ class StockServiceTest {
     @Test
     void testGetStockByProductAndWarehouse_WhenStockExists_ShouldReturnStock() {
         // Given
-        when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
-        when(warehouseRepository.findById(warehouseUuid1)).thenReturn(Optional.of(testWarehouse1));
-        when(stockRepository.findByProductAndWarehouse(testProduct1, testWarehouse1)).thenReturn(Optional.of(testStock1));
+        when(stockRepository.findByProductUuidAndWarehouseUuid(productUuid1, warehouseUuid1)).thenReturn(Optional.of(testStock1));
         when(entityMapper.mapToDTO(testStock1, StockDTO.class)).thenReturn(testStockDTO1);
 
         // When
@@ -304,17 +396,44 @@ class StockServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getUuid()).isEqualTo(stockUuid1);
-        verify(productRepository).findById(productUuid1);
-        verify(warehouseRepository).findById(warehouseUuid1);
-        verify(stockRepository).findByProductAndWarehouse(testProduct1, testWarehouse1);
+        verify(stockRepository).findByProductUuidAndWarehouseUuid(productUuid1, warehouseUuid1);
+        verifyNoInteractions(productRepository, warehouseRepository);
         verify(entityMapper).mapToDTO(testStock1, StockDTO.class);
     }
 
+    @Test
+    void testGetStockByProductAndWarehouse_WhenWarehouseDoesNotExist_ShouldThrowWarehouseNotFound() {
+        // Given
+        when(stockRepository.findByProductUuidAndWarehouseUuid(productUuid1, warehouseUuid1)).thenReturn(Optional.empty());
+        when(productRepository.existsById(productUuid1)).thenReturn(true);
+        when(warehouseRepository.existsById(warehouseUuid1)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.getStockByProductAndWarehouse(productUuid1, warehouseUuid1))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Warehouse not found with id: " + warehouseUuid1);
+    }
+
+    @Test
+    void testGetStockByProductAndWarehouse_WhenNoStock_ShouldThrowStockNotFound() {
+        // Given
+        when(stockRepository.findByProductUuidAndWarehouseUuid(productUuid1, warehouseUuid1)).thenReturn(Optional.empty());
+        when(productRepository.existsById(productUuid1)).thenReturn(true);
+        when(warehouseRepository.existsById(warehouseUuid1)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.getStockByProductAndWarehouse(productUuid1, warehouseUuid1))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Stock not found for product id: " + productUuid1 + " and warehouse id: " + warehouseUuid1);
+    }
+
     @Test
     void testCreateStock_WhenStockDoesNotExist_ShouldCreateStock() {
         // Given
-        when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
-        when(warehouseRepository.findById(warehouseUuid1)).thenReturn(Optional.of(testWarehouse1));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(productRepository.getReferenceById(productUuid1)).thenReturn(testProduct1);
+        when(warehouseRepository.getReferenceById(warehouseUuid1)).thenReturn(testWarehouse1);
         when(stockRepository.findByProductAndWarehouse(any(Product.class), any(Warehouse.class))).thenReturn(Optional.empty());
         when(entityMapper.mapToEntity(testStockDTO1, Stock.class)).thenReturn(testStock1);
         when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> {
@@ -322,7 +441,7 @@ class StockServiceTest {
             stock.setUuid(stockUuid1);
             return stock;
         });
-        when(entityMapper.mapToDTO(any(Stock.class), eq(StockDTO.class))).thenReturn(testStockDTO1);
+        when(stockLedger.recordInitial(List.of(testStock1))).thenReturn(List.of(7L));
 
         // When
         StockDTO result = stockService.createStock(testStockDTO1);
@@ -330,17 +449,52 @@ class StockServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getUuid()).isEqualTo(stockUuid1);
+        assertThat(result.getProduct()).isSameAs(testProductDTO1);
+        assertThat(result.getWarehouse()).isSameAs(testWarehouseDTO1);
         verify(stockRepository).findByProductAndWarehouse(any(Product.class), any(Warehouse.class));
         verify(entityMapper).mapToEntity(testStockDTO1, Stock.class);
         verify(stockRepository).save(any(Stock.class));
-        verify(entityMapper).mapToDTO(any(Stock.class), eq(StockDTO.class));
+        verify(stockLedger).recordInitial(List.of(testStock1));
+        verify(availabilityIndex).put(stockUuid1, productUuid1, warehouseUuid1, testStock1.getQuantity(), 7L);
+        verify(productRepository, never()).findById(any(UUID.class));
+        verify(warehouseRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void testCreateStock_WithProductAndWarehouseCodes_ShouldResolveThroughCache() {
+        // Given
+        ProductDTO productByCode = new ProductDTO();
+        productByCode.setCode("PROD001");
+        WarehouseDTO warehouseByCode = new WarehouseDTO();
+        warehouseByCode.setCode("WH001");
+        StockDTO stockDTO = new StockDTO(null, productByCode, warehouseByCode, 20, 5, 50, null, null, null);
+
+        when(referenceCache.getProductByCode("PROD001")).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouseByCode("WH001")).thenReturn(testWarehouseDTO1);
+        when(productRepository.getReferenceById(productUuid1)).thenReturn(testProduct1);
+        when(warehouseRepository.getReferenceById(warehouseUuid1)).thenReturn(testWarehouse1);
+        when(stockRepository.findByProductAndWarehouse(testProduct1, testWarehouse1)).thenReturn(Optional.empty());
+        when(entityMapper.mapToEntity(stockDTO, Stock.class)).thenReturn(new Stock());
+        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(stockLedger.recordInitial(anyList())).thenReturn(List.of(1L));
+
+        // When
+        StockDTO result = stockService.createStock(stockDTO);
+
+        // Then
+        assertThat(result.getProduct()).isSameAs(testProductDTO1);
+        assertThat(result.getWarehouse()).isSameAs(testWarehouseDTO1);
+        verify(productRepository, never()).findByCode(any());
+        verify(warehouseRepository, never()).findByCode(any());
     }
 
     @Test
     void testCreateStock_WhenStockAlreadyExists_ShouldThrowException() {
         // Given
-        when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
-        when(warehouseRepository.findById(warehouseUuid1)).thenReturn(Optional.of(testWarehouse1));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(productRepository.getReferenceById(productUuid1)).thenReturn(testProduct1);
+        when(warehouseRepository.getReferenceById(warehouseUuid1)).thenReturn(testWarehouse1);
         when(stockRepository.findByProductAndWarehouse(any(Product.class), any(Warehouse.class))).thenReturn(Optional.of(testStock1));
 
         // When & Then
@@ -351,14 +505,67 @@ class StockServiceTest {
         verify(stockRepository, never()).save(any(Stock.class));
     }
 
+    @Test
+    void testCreateStocks_WhenPairsAreNew_ShouldPersistAllInBatches() {
+        // Given
+        WarehouseDTO warehouseDTO2 = new WarehouseDTO();
+        warehouseDTO2.setUuid(warehouseUuid2);
+        warehouseDTO2.setCode("WH002");
+        StockDTO second = new StockDTO(null, testProductDTO1, warehouseDTO2, 5, 10, 50, null, null, null);
+
+        runChunksInline();
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid2)).thenReturn(warehouseDTO2);
+        when(productRepository.getReferenceById(productUuid1)).thenReturn(testProduct1);
+        when(warehouseRepository.getReferenceById(warehouseUuid1)).thenReturn(testWarehouse1);
+        when(warehouseRepository.getReferenceById(warehouseUuid2)).thenReturn(testWarehouse2);
+        when(stockRepository.findProductWarehouseKeys(List.of(productUuid1))).thenReturn(List.of());
+        when(batchWriter.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(stockLedger.recordInitial(anyList())).thenReturn(List.of(3L, 4L));
+
+        // When
+        List<StockDTO> result = stockService.createStocks(List.of(testStockDTO1, second));
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getWarehouse()).isSameAs(testWarehouseDTO1);
+        assertThat(result.get(1).getWarehouse()).isSameAs(warehouseDTO2);
+        assertThat(result.get(1).getQuantity()).isEqualTo(5);
+        verify(stockLedger).recordInitial(anyList());
+        verify(availabilityIndex).put(any(), eq(productUuid1), eq(warehouseUuid2), eq(5), eq(4L));
+        verify(stockRepository, never()).save(any(Stock.class));
+        verify(productRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void testCreateStocks_WhenPairAlreadyHasStock_ShouldThrowException() {
+        // Given
+        runChunksInline();
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(stockRepository.findProductWarehouseKeys(List.of(productUuid1)))
+                .thenReturn(List.of(new StockKey(productUuid1, warehouseUuid1)));
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.createStocks(List.of(testStockDTO1)))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Stock already exists for this product and warehouse combination");
+        verify(batchWriter, never()).persistAll(anyList());
+    }
+
     @Test
     void testUpdateStock_WhenStockExists_ShouldUpdateStock() {
         // Given
         when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
-        when(productRepository.findById(productUuid1)).thenReturn(Optional.of(testProduct1));
-        when(warehouseRepository.findById(warehouseUuid1)).thenReturn(Optional.of(testWarehouse1));
-        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(entityMapper.mapToDTO(any(Stock.class), eq(StockDTO.class))).thenReturn(testStockDTO1);
+        when(stockLedger.current(testStock1)).thenReturn(new StockLevel(60, null, 4));
+        StockMovement adjustment = movement(5);
+        when(stockLedger.record(testStock1, 15, StockMovementReason.ADJUSTMENT)).thenReturn(adjustment);
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(productRepository.getReferenceById(productUuid1)).thenReturn(testProduct1);
+        when(warehouseRepository.getReferenceById(warehouseUuid1)).thenReturn(testWarehouse1);
+        when(stockRepository.saveAndFlush(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         StockDTO updateDTO = new StockDTO();
         updateDTO.setProduct(testProductDTO1);
@@ -368,14 +575,60 @@ class StockServiceTest {
         updateDTO.setMaxStockLevel(150);
 
         // When
-        StockDTO result = stockService.updateStock(stockUuid1, updateDTO);
+        StockDTO result = stockService.updateStock(stockUuid1, updateDTO, null);
 
         // Then
         assertThat(result).isNotNull();
+        assertThat(result.getQuantity()).isEqualTo(75);
+        assertThat(result.getMinStockLevel()).isEqualTo(15);
+        assertThat(result.getMaxStockLevel()).isEqualTo(150);
+        assertThat(result.getProduct()).isSameAs(testProductDTO1);
+        assertThat(testStock1.getLedgerPosition()).isEqualTo(5);
         verify(stockRepository).findById(stockUuid1);
-        verify(entityMapper).mapToExistingEntity(updateDTO, testStock1);
-        verify(stockRepository).save(any(Stock.class));
-        verify(entityMapper).mapToDTO(any(Stock.class), eq(StockDTO.class));
+        verify(stockRepository, never()).findByIdForUpdate(any(UUID.class));
+        verify(stockRepository).saveAndFlush(any(Stock.class));
+        verifyNoInteractions(entityMapper);
+    }
+
+    @Test
+    void testUpdateStock_WithoutQuantity_ShouldKeepCurrentLevel() {
+        // Given
+        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
+        when(stockLedger.current(testStock1)).thenReturn(new StockLevel(60, null, 4));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(productRepository.getReferenceById(productUuid1)).thenReturn(testProduct1);
+        when(warehouseRepository.getReferenceById(warehouseUuid1)).thenReturn(testWarehouse1);
+        when(stockRepository.saveAndFlush(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StockDTO updateDTO = new StockDTO();
+        updateDTO.setProduct(testProductDTO1);
+        updateDTO.setWarehouse(testWarehouseDTO1);
+        updateDTO.setMinStockLevel(15);
+        updateDTO.setMaxStockLevel(150);
+
+        // When
+        StockDTO result = stockService.updateStock(stockUuid1, updateDTO, null);
+
+        // Then
+        assertThat(result.getQuantity()).isEqualTo(60);
+        assertThat(result.getMinStockLevel()).isEqualTo(15);
+        assertThat(testStock1.getLedgerPosition()).isEqualTo(4);
+        verify(stockLedger, never()).record(any(Stock.class), anyInt(), any(StockMovementReason.class));
+    }
+
+    @Test
+    void testUpdateStock_WhenVersionHasChanged_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(testStock1, "version", 7L);
+        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.updateStock(stockUuid1, testStockDTO1, 6L))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("VERSION_MISMATCH"));
+        verify(stockLedger, never()).record(any(Stock.class), anyInt(), any(StockMovementReason.class));
+        verify(stockRepository, never()).saveAndFlush(any(Stock.class));
     }
 
     @Test
@@ -405,20 +658,22 @@ class StockServiceTest {
     }
 
     @Test
-    void testAddStock_WhenStockExists_ShouldAddQuantity() {
+    void testAddStock_WhenStockExists_ShouldAdjustThroughSequencer() {
         // Given
-        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
-        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(entityMapper.mapToDTO(any(Stock.class), eq(StockDTO.class))).thenReturn(testStockDTO1);
+        when(adjustmentSequencer.adjust(stockUuid1, 25))
+                .thenReturn(new StockAdjustmentSequencer.Result(testStock1, new StockLevel(75, LocalDateTime.now(), 3)));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
 
         // When
         StockDTO result = stockService.addStock(stockUuid1, 25);
 
         // Then
         assertThat(result).isNotNull();
-        verify(stockRepository).findById(stockUuid1);
-        verify(stockRepository).save(any(Stock.class));
-        verify(entityMapper).mapToDTO(any(Stock.class), eq(StockDTO.class));
+        assertThat(result.getQuantity()).isEqualTo(75);
+        verify(availabilityIndex).put(stockUuid1, productUuid1, warehouseUuid1, 75, 3);
+        verify(snapshotStore).patch(testStock1, 75, 3);
+        verifyNoInteractions(stockRepository, entityMapper);
     }
 
     @Test
@@ -427,24 +682,24 @@ class StockServiceTest {
         assertThatThrownBy(() -> stockService.addStock(stockUuid1, -10))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Quantity to add must be positive");
-        verify(stockRepository, never()).findById(any(UUID.class));
+        verifyNoInteractions(adjustmentSequencer);
     }
 
     @Test
-    void testRemoveStock_WhenStockExists_ShouldRemoveQuantity() {
+    void testRemoveStock_WhenStockExists_ShouldAdjustThroughSequencer() {
         // Given
-        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
-        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(entityMapper.mapToDTO(any(Stock.class), eq(StockDTO.class))).thenReturn(testStockDTO1);
+        when(adjustmentSequencer.adjust(stockUuid1, -10))
+                .thenReturn(new StockAdjustmentSequencer.Result(testStock1, new StockLevel(40, null, 9)));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
 
         // When
         StockDTO result = stockService.removeStock(stockUuid1, 10);
 
         // Then
         assertThat(result).isNotNull();
-        verify(stockRepository).findById(stockUuid1);
-        verify(stockRepository).save(any(Stock.class));
-        verify(entityMapper).mapToDTO(any(Stock.class), eq(StockDTO.class));
+        assertThat(result.getQuantity()).isEqualTo(40);
+        verifyNoInteractions(stockRepository, entityMapper);
     }
 
     @Test
@@ -453,7 +708,232 @@ class StockServiceTest {
         assertThatThrownBy(() -> stockService.removeStock(stockUuid1, -10))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Quantity to remove must be positive");
-        verify(stockRepository, never()).findById(any(UUID.class));
+        verifyNoInteractions(adjustmentSequencer);
+    }
+
+    @Test
+    void testTransferStock_WhenTargetHasNoStock_ShouldCreateItAndMoveQuantity() {
+        // Given
+        WarehouseDTO targetWarehouseDTO = new WarehouseDTO();
+        targetWarehouseDTO.setUuid(warehouseUuid2);
+        targetWarehouseDTO.setCode("WH002");
+        UUID targetUuid = UUID.randomUUID();
+        Stock target = new Stock(testProduct1, testWarehouse2, 0);
+        target.setUuid(targetUuid);
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid2)).thenReturn(targetWarehouseDTO);
+        when(stockRepository.findLocations(any(), any())).thenReturn(List.of(
+                location(stockUuid1, productUuid1, warehouseUuid1), location(targetUuid, productUuid1, warehouseUuid2)));
+        when(stockRepository.findAllByIdForUpdate(Set.of(stockUuid1, targetUuid))).thenReturn(List.of(testStock1, target));
+        when(stockLedger.recordAll(anyList())).thenAnswer(invocation -> {
+            List<StockMovement> movements = invocation.getArgument(0);
+            for (int i = 0; i < movements.size(); i++) {
+                ReflectionTestUtils.setField(movements.get(i), "id", 11L + i);
+            }
+            return 10L + movements.size();
+        });
+
+        // When
+        List<StockTransferDTO> result = stockService.transferStock(List.of(
+                transfer(productUuid1, warehouseUuid1, warehouseUuid2, 30),
+                transfer(productUuid1, warehouseUuid2, warehouseUuid1, 5)));
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockKey>> targets = ArgumentCaptor.forClass(List.class);
+        verify(upsertRepository).insertMissingStocks(targets.capture());
+        assertThat(targets.getValue()).containsExactlyInAnyOrder(
+                new StockKey(productUuid1, warehouseUuid1), new StockKey(productUuid1, warehouseUuid2));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockMovement>> movements = ArgumentCaptor.forClass(List.class);
+        verify(stockLedger).recordAll(movements.capture());
+        assertThat(movements.getValue()).extracting(StockMovement::getReason).containsExactly(
+                StockMovementReason.TRANSFER_OUT, StockMovementReason.TRANSFER_IN,
+                StockMovementReason.TRANSFER_OUT, StockMovementReason.TRANSFER_IN);
+        assertThat(movements.getValue()).extracting(StockMovement::getDelta).containsExactly(-30, 30, -5, 5);
+        assertThat(testStock1.getQuantity()).isEqualTo(25);
+        assertThat(testStock1.getLedgerPosition()).isEqualTo(14);
+        assertThat(target.getQuantity()).isEqualTo(25);
+        assertThat(target.getLedgerPosition()).isEqualTo(13);
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getSource().getQuantity()).isEqualTo(25);
+        assertThat(result.get(0).getTarget().getWarehouse().getCode()).isEqualTo("WH002");
+        verify(stockRepository).flush();
+    }
+
+    @Test
+    void testTransferStock_WhenSourceHasNotEnoughStock_ShouldTransferNothing() {
+        // Given
+        WarehouseDTO targetWarehouseDTO = new WarehouseDTO();
+        targetWarehouseDTO.setUuid(warehouseUuid2);
+        UUID targetUuid = UUID.randomUUID();
+        Stock target = new Stock(testProduct1, testWarehouse2, 0);
+        target.setUuid(targetUuid);
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid2)).thenReturn(targetWarehouseDTO);
+        when(stockRepository.findLocations(any(), any())).thenReturn(List.of(
+                location(stockUuid1, productUuid1, warehouseUuid1), location(targetUuid, productUuid1, warehouseUuid2)));
+        when(stockRepository.findAllByIdForUpdate(Set.of(stockUuid1, targetUuid))).thenReturn(List.of(testStock1, target));
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.transferStock(List.of(transfer(productUuid1, warehouseUuid1, warehouseUuid2, 51))))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Not enough stock available for product code: PROD001 in warehouse code: WH001");
+        verify(stockLedger, never()).recordAll(anyList());
+        assertThat(testStock1.getQuantity()).isEqualTo(50);
+    }
+
+    @Test
+    void testTransferStock_WhenSourceAndTargetAreTheSame_ShouldThrowException() {
+        // Given
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.transferStock(List.of(transfer(productUuid1, warehouseUuid1, warehouseUuid1, 5))))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Source and target warehouse must be different");
+        verifyNoInteractions(upsertRepository, stockRepository, transactionRetry);
+    }
+
+    @Test
+    void testReserveStock_ShouldCheckAgainstCurrentQuantity() {
+        // Given
+        Duration ttl = Duration.ofMinutes(5);
+        Reservation reservation = new Reservation(UUID.randomUUID(), stockUuid1, 20, "cart-1", LocalDateTime.now().plus(ttl));
+        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.of(testStock1));
+        when(stockLedger.current(testStock1)).thenReturn(new StockLevel(45, null, 4));
+        when(reservationEngine.reserve(stockUuid1, 45, 20, "cart-1", ttl)).thenReturn(reservation);
+
+        // When
+        StockReservationDTO result = stockService.reserveStock(stockUuid1, 20, "cart-1", ttl);
+
+        // Then
+        assertThat(result.uuid()).isEqualTo(reservation.uuid());
+        assertThat(result.quantity()).isEqualTo(20);
+        assertThat(result.stockUuid()).isEqualTo(stockUuid1);
+    }
+
+    @Test
+    void testReserveStock_WhenStockDoesNotExist_ShouldThrowException() {
+        // Given
+        when(stockRepository.findById(stockUuid1)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.reserveStock(stockUuid1, 5, null, null))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Stock not found with id: " + stockUuid1);
+        verifyNoInteractions(reservationEngine);
+    }
+
+    @Test
+    void testConfirmReservation_ShouldRemoveReservedQuantityThroughSequencer() {
+        // Given
+        UUID reservationUuid = UUID.randomUUID();
+        when(reservationEngine.release(reservationUuid))
+                .thenReturn(new Reservation(reservationUuid, stockUuid1, 20, null, LocalDateTime.now()));
+        when(adjustmentSequencer.adjust(stockUuid1, -20))
+                .thenReturn(new StockAdjustmentSequencer.Result(testStock1, new StockLevel(30, null, 5)));
+        when(referenceCache.getProduct(productUuid1)).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+
+        // When
+        StockDTO result = stockService.confirmReservation(reservationUuid);
+
+        // Then
+        assertThat(result.getQuantity()).isEqualTo(30);
+        verify(reservationEngine, never()).restore(any());
+    }
+
+    @Test
+    void testConfirmReservation_WhenAdjustmentFails_ShouldRestoreReservation() {
+        // Given
+        UUID reservationUuid = UUID.randomUUID();
+        Reservation reservation = new Reservation(reservationUuid, stockUuid1, 80, null, LocalDateTime.now());
+        when(reservationEngine.release(reservationUuid)).thenReturn(reservation);
+        when(adjustmentSequencer.adjust(stockUuid1, -80))
+                .thenThrow(new ApplicationException("Not enough stock available", "INSUFFICIENT_STOCK"));
+
+        // When & Then
+        assertThatThrownBy(() -> stockService.confirmReservation(reservationUuid))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Not enough stock available");
+        verify(reservationEngine).restore(reservation);
+    }
+
+    @Test
+    void testCheckAvailability_ShouldNetReservationsAndListWarehousesThatFulfillTheOrder() {
+        // Given
+        UUID otherStock = UUID.randomUUID();
+        WarehouseDTO warehouseDTO2 = new WarehouseDTO();
+        warehouseDTO2.setUuid(warehouseUuid2);
+        warehouseDTO2.setCode("WH002");
+        warehouseDTO2.setActive(true);
+        ProductDTO productDTO2 = new ProductDTO();
+        productDTO2.setUuid(productUuid2);
+        productDTO2.setCode("PROD002");
+        when(referenceCache.getProductByCode("PROD001")).thenReturn(testProductDTO1);
+        when(referenceCache.getProductByCode("PROD002")).thenReturn(productDTO2);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid2)).thenReturn(warehouseDTO2);
+        when(availabilityIndex.cells(productUuid1)).thenReturn(new AvailabilityIndex.Cell[]{
+                new AvailabilityIndex.Cell(stockUuid1, warehouseUuid1, 50, 1),
+                new AvailabilityIndex.Cell(otherStock, warehouseUuid2, 12, 2)});
+        when(availabilityIndex.cells(productUuid2)).thenReturn(new AvailabilityIndex.Cell[]{
+                new AvailabilityIndex.Cell(stockUuid2, warehouseUuid2, 5, 3)});
+        when(reservationEngine.reserved(stockUuid1)).thenReturn(45);
+
+        // When
+        StockAvailabilityDTO result = stockService.checkAvailability(List.of(
+                availabilityLine("PROD001", 10), availabilityLine("PROD002", 4)));
+
+        // Then
+        assertThat(result.lines()).extracting(StockAvailabilityDTO.Line::available).containsExactly(17, 5);
+        assertThat(result.fulfillmentCandidates()).containsExactly(warehouseUuid2);
+        assertThat(result.warehouses()).extracting(StockAvailabilityDTO.WarehouseAvailability::warehouseCode)
+                .containsExactly("WH002", "WH001");
+        StockAvailabilityDTO.WarehouseAvailability main = result.warehouses().get(1);
+        assertThat(main.available()).containsExactly(5, 0);
+        assertThat(main.linesFulfilled()).isZero();
+        assertThat(main.fulfillsOrder()).isFalse();
+        verifyNoInteractions(stockRepository, stockLedger);
+    }
+
+    @Test
+    void testCheckAvailability_WhenLinesRepeatProduct_ShouldCheckTheirCombinedQuantity() {
+        // Given
+        when(referenceCache.getProductByCode("PROD001")).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(availabilityIndex.cells(productUuid1)).thenReturn(new AvailabilityIndex.Cell[]{
+                new AvailabilityIndex.Cell(stockUuid1, warehouseUuid1, 50, 1)});
+
+        // When
+        StockAvailabilityDTO result = stockService.checkAvailability(List.of(
+                availabilityLine("PROD001", 30), availabilityLine("PROD001", 30)));
+
+        // Then
+        assertThat(result.warehouses().get(0).linesFulfilled()).isEqualTo(2);
+        assertThat(result.warehouses().get(0).fulfillsOrder()).isFalse();
+        assertThat(result.fulfillmentCandidates()).isEmpty();
+    }
+
+    @Test
+    void testCheckAvailability_WhenWarehouseIsInactive_ShouldLeaveItOut() {
+        // Given
+        testWarehouseDTO1.setActive(false);
+        when(referenceCache.getProductByCode("PROD001")).thenReturn(testProductDTO1);
+        when(referenceCache.getWarehouse(warehouseUuid1)).thenReturn(testWarehouseDTO1);
+        when(availabilityIndex.cells(productUuid1)).thenReturn(new AvailabilityIndex.Cell[]{
+                new AvailabilityIndex.Cell(stockUuid1, warehouseUuid1, 50, 1)});
+
+        // When
+        StockAvailabilityDTO result = stockService.checkAvailability(List.of(availabilityLine("PROD001", 1)));
+
+        // Then
+        assertThat(result.warehouses()).isEmpty();
+        assertThat(result.lines().get(0).available()).isZero();
     }
 
     @Test
@@ -491,7 +971,7 @@ class StockServiceTest {
     @Test
     void testGetZeroStocks_ShouldReturnZeroQuantityStockRecords() {
         // Given
-        when(stockRepository.findByQuantity(0)).thenReturn(Arrays.asList(testStock2));
+        when(stockRepository.findZeroStock()).thenReturn(Arrays.asList(testStock2));
         when(entityMapper.mapToDTO(testStock2, StockDTO.class)).thenReturn(testStockDTO2);
 
         // When
@@ -500,7 +980,7 @@ class StockServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getUuid()).isEqualTo(stockUuid2);
-        verify(stockRepository).findByQuantity(0);
+        verify(stockRepository).findZeroStock();
         verify(entityMapper).mapToDTO(testStock2, StockDTO.class);
     }
 
@@ -531,4 +1011,57 @@ class StockServiceTest {
         verify(stockRepository).findByProductCode("NONEXISTENT");
         verify(entityMapper, never()).mapToDTO(any(Stock.class), eq(StockDTO.class));
     }
+
+    private static AvailabilityLineDTO availabilityLine(String productCode, int quantity) {
+        ProductDTO product = new ProductDTO();
+        product.setCode(productCode);
+        return new AvailabilityLineDTO(product, quantity);
+    }
+
+    private static StockLevel storedLevel(Stock stock) {
+        return new StockLevel(stock.getQuantity(), stock.getLastRestockDate(), stock.getLedgerPosition());
+    }
+
+    private static StockTransferDTO transfer(UUID productUuid, UUID sourceUuid, UUID targetUuid, int quantity) {
+        ProductDTO product = new ProductDTO();
+        product.setUuid(productUuid);
+        WarehouseDTO source = new WarehouseDTO();
+        source.setUuid(sourceUuid);
+        WarehouseDTO target = new WarehouseDTO();
+        target.setUuid(targetUuid);
+        return new StockTransferDTO(product, source, target, quantity);
+    }
+
+    private static StockLocation location(UUID uuid, UUID productUuid, UUID warehouseUuid) {
+        return new StockLocation() {
+            @Override
+            public UUID getUuid() {
+                return uuid;
+            }
+
+            @Override
+            public UUID getProductUuid() {
+                return productUuid;
+            }
+
+            @Override
+            public UUID getWarehouseUuid() {
+                return warehouseUuid;
+            }
+        };
+    }
+
+    private static StockMovement movement(long id) {
+        StockMovement movement = mock(StockMovement.class);
+        when(movement.getId()).thenReturn(id);
+        return movement;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runChunksInline() {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, Consumer.class).accept(invocation.getArgument(0));
+            return null;
+        }).when(batchWriter).forEachChunk(anyList(), any());
+    }
 }
@@ -0,0 +1,254 @@
+package com.nexora.service.inventory;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Product;
+import com.nexora.model.inventory.Stock;
+import com.nexora.model.inventory.StockJournalCheckpoint;
+import com.nexora.model.inventory.StockMovement;
+import com.nexora.model.inventory.StockMovementReason;
+import com.nexora.model.inventory.Warehouse;
+import com.nexora.repository.inventory.InventoryUpsertRepository.StockKey;
+import com.nexora.repository.inventory.ProductRepository;
+import com.nexora.repository.inventory.StockJournalCheckpointRepository;
+import com.nexora.repository.inventory.StockMovementRepository;
+import com.nexora.repository.inventory.StockRepository;
+import com.nexora.repository.inventory.WarehouseRepository;
+import com.nexora.util.JpaBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({StockLedger.class, JpaBatchWriter.class})
+class StockWriteBehindEngineTest {
+
+    private static final String NODE = "node-1";
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockJournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path directory;
+
+    private AvailabilityIndex availabilityIndex;
+    private SimpleMeterRegistry meterRegistry;
+    private StockWriteBehindEngine engine;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        Product product = productRepository.save(new Product("P-1", "Product", new BigDecimal("1.00")));
+        Warehouse warehouse = new Warehouse("WH-1", "Warehouse");
+        warehouse.setAddress("Street 1");
+        warehouse.setCity("City");
+        warehouse.setCountry("Country");
+        warehouse = warehouseRepository.save(warehouse);
+        Stock created = stockRepository.save(new Stock(product, warehouse, 20));
+        stockLedger.recordInitial(List.of(created));
+        stock = stockRepository.findById(created.getUuid()).orElseThrow();
+        availabilityIndex = mock(AvailabilityIndex.class);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = newEngine();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void testAdjust_ShouldApplyInMemoryUntilFlushWritesMovementsAndCheckpoint() {
+        // Given
+        engine.start();
+
+        // When
+        engine.adjust(stock.getUuid(), 15);
+        StockAdjustmentSequencer.Result result = engine.adjust(stock.getUuid(), -5);
+
+        // Then
+        assertThat(result.level().quantity()).isEqualTo(30);
+        assertThat(engine.level(stock.getUuid()).quantity()).isEqualTo(30);
+        verify(availabilityIndex).put(eq(stock.getUuid()), eq(stock.getProduct().getUuid()),
+                eq(stock.getWarehouse().getUuid()), eq(30), anyLong());
+        assertThat(movementRepository.count()).isEqualTo(1);
+
+        // When
+        int written = engine.flush();
+        entityManager.flush();
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(movementRepository.findAll()).extracting(StockMovement::getReason)
+                .containsExactly(StockMovementReason.INITIAL, StockMovementReason.RESTOCK, StockMovementReason.REMOVAL);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stocks", Integer.class)).isEqualTo(30);
+        assertThat(checkpointRepository.findById(NODE)).get()
+                .extracting(StockJournalCheckpoint::getPosition).isEqualTo(2L);
+    }
+
+    @Test
+    void testAdjust_WhenRemovalExceedsHeldQuantity_ShouldRejectItWithoutJournaling() {
+        // Given
+        engine.start();
+        engine.adjust(stock.getUuid(), -15);
+
+        // When & Then
+        assertThatThrownBy(() -> engine.adjust(stock.getUuid(), -6))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("INSUFFICIENT_STOCK"));
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(engine.level(stock.getUuid()).quantity()).isEqualTo(5);
+    }
+
+    @Test
+    void testAdjust_BeforeStart_ShouldBeUnavailable() {
+        // When & Then
+        assertThatThrownBy(() -> engine.adjust(stock.getUuid(), 1))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("STOCK_JOURNAL_UNAVAILABLE"));
+    }
+
+    @Test
+    void testStart_ShouldWriteJournaledEntriesAfterCheckpoint() {
+        // Given: a journal left by a crash, whose first entry was already written
+        try (StockJournal journal = StockJournal.open(directory.resolve("stock.journal"), 1)) {
+            journal.append(stock.getUuid(), 10, "alice", System.currentTimeMillis());
+            journal.append(stock.getUuid(), -4, "bob", System.currentTimeMillis());
+        }
+        checkpointRepository.save(new StockJournalCheckpoint(NODE, 1, LocalDateTime.now()));
+
+        // When
+        engine.start();
+        entityManager.flush();
+
+        // Then
+        assertThat(movementRepository.findAll()).extracting(StockMovement::getDelta).containsExactly(20, -4);
+        assertThat(movementRepository.findAll()).extracting(StockMovement::getSource).contains("bob");
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stocks", Integer.class)).isEqualTo(16);
+        assertThat(checkpointRepository.findById(NODE)).get()
+                .extracting(StockJournalCheckpoint::getPosition).isEqualTo(2L);
+        assertThat(engine.adjust(stock.getUuid(), 1).level().quantity()).isEqualTo(17);
+    }
+
+    @Test
+    void testExclusive_ShouldWriteJournaledEntriesAndDropHeldLevel() {
+        // Given
+        engine.start();
+        engine.adjust(stock.getUuid(), 5);
+        StockKey location = new StockKey(stock.getProduct().getUuid(), stock.getWarehouse().getUuid());
+        assertThat(engine.stocksAt(List.of(location))).containsEntry(location, stock.getUuid());
+
+        // When
+        Long movements = engine.exclusive(List.of(stock.getUuid()), movementRepository::count);
+
+        // Then
+        assertThat(movements).isEqualTo(2);
+        assertThat(engine.level(stock.getUuid())).isNull();
+        assertThat(engine.stocksAt(List.of(location))).isEmpty();
+        assertThat(engine.adjust(stock.getUuid(), 1).level().quantity()).isEqualTo(26);
+    }
+
+    @Test
+    void testFlush_WhenRemovalExceedsLockedRow_ShouldDropItAndReloadHeldLevel() {
+        // Given: a removal journaled against the held level, then the row lowered underneath
+        engine.start();
+        engine.adjust(stock.getUuid(), -15);
+        jdbcTemplate.update("UPDATE stocks SET quantity = 10");
+        entityManager.clear();
+        engine.adjust(stock.getUuid(), -5);
+
+        // When
+        int written = engine.flush();
+        entityManager.flush();
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(movementRepository.findAll()).extracting(StockMovement::getDelta).containsExactly(20, -5);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stocks", Integer.class)).isEqualTo(5);
+        assertThat(checkpointRepository.findById(NODE)).get()
+                .extracting(StockJournalCheckpoint::getPosition).isEqualTo(2L);
+        assertThat(meterRegistry.get("inventory.stock.write-behind.rejected").counter().count()).isEqualTo(1);
+        assertThat(engine.level(stock.getUuid()).quantity()).isEqualTo(5);
+    }
+
+    @Test
+    void testExclusiveAll_ShouldWriteJournaledEntriesBeforeWorkAndDropEveryHeldLevel() {
+        // Given
+        engine.start();
+        engine.adjust(stock.getUuid(), 5);
+
+        // When
+        Long movements = engine.exclusiveAll(movementRepository::count);
+
+        // Then
+        assertThat(movements).isEqualTo(2);
+        assertThat(engine.level(stock.getUuid())).isNull();
+    }
+
+    @Test
+    void testStart_WhenAnotherNodeHasCheckpoint_ShouldRefuseToStart() {
+        // Given
+        checkpointRepository.save(new StockJournalCheckpoint("node-2", 7, LocalDateTime.now()));
+
+        // When & Then
+        assertThatThrownBy(() -> engine.start())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("node-2");
+        assertThatThrownBy(() -> engine.adjust(stock.getUuid(), 1))
+                .isInstanceOf(ApplicationException.class);
+    }
+
+    private StockWriteBehindEngine newEngine() {
+        return new StockWriteBehindEngine(stockRepository, stockLedger, checkpointRepository, transactionManager,
+                availabilityIndex, mock(InventorySnapshotStore.class), meterRegistry, true,
+                directory.resolve("stock.journal"), NODE, 4, Duration.ofHours(1), 1000, DataSize.ofMegabytes(1));
+    }
+}
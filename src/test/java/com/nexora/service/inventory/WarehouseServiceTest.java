@@ -5,22 +5,28 @@ import com.nexora.exception.ApplicationException;
 import com.nexora.model.inventory.Warehouse;
 import com.nexora.repository.inventory.WarehouseRepository;
 import com.nexora.service.inventory.impl.WarehouseServiceImpl;
+import com.nexora.util.JpaBatchWriter;
+import com.nexora.util.TransactionRetry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +36,18 @@ class WarehouseServiceTest {
     @Mock
     private WarehouseRepository warehouseRepository;
 
+    @Mock
+    private InventoryReferenceCache referenceCache;
+
+    @Mock
+    private JpaBatchWriter batchWriter;
+
+    @Mock
+    private TransactionRetry transactionRetry;
+
+    @Mock
+    private InventorySnapshotStore snapshotStore;
+
     @InjectMocks
     private WarehouseServiceImpl warehouseService;
 
@@ -42,6 +60,9 @@ class WarehouseServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Run the work once, as the first attempt would
+        lenient().when(transactionRetry.execute(any())).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
         testUuid1 = UUID.randomUUID();
         testUuid2 = UUID.randomUUID();
 
@@ -214,11 +235,45 @@ class WarehouseServiceTest {
         verify(warehouseRepository, never()).save(any(Warehouse.class));
     }
 
+    @Test
+    void testCreateWarehouses_WhenCodesAreNew_ShouldPersistAllInBatches() {
+        // Given
+        runChunksInline();
+        when(warehouseRepository.findExistingCodes(List.of("WH001", "WH002"))).thenReturn(List.of());
+        when(batchWriter.persistAll(anyList())).thenAnswer(invocation -> {
+            List<Warehouse> warehouses = invocation.getArgument(0);
+            warehouses.forEach(warehouse -> warehouse.setUuid(UUID.randomUUID()));
+            return warehouses;
+        });
+
+        // When
+        List<WarehouseDTO> result = warehouseService.createWarehouses(List.of(testWarehouseDTO1, testWarehouseDTO2));
+
+        // Then
+        assertThat(result).extracting(WarehouseDTO::getCode).containsExactly("WH001", "WH002");
+        assertThat(result).allSatisfy(warehouse -> assertThat(warehouse.getUuid()).isNotNull());
+        verify(batchWriter).persistAll(anyList());
+        verify(warehouseRepository, never()).save(any(Warehouse.class));
+    }
+
+    @Test
+    void testCreateWarehouses_WhenCodeAlreadyExists_ShouldThrowException() {
+        // Given
+        runChunksInline();
+        when(warehouseRepository.findExistingCodes(List.of("WH001", "WH002"))).thenReturn(List.of("WH002"));
+
+        // When & Then
+        assertThatThrownBy(() -> warehouseService.createWarehouses(List.of(testWarehouseDTO1, testWarehouseDTO2)))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage("Warehouse with code WH002 already exists");
+        verify(batchWriter, never()).persistAll(anyList());
+    }
+
     @Test
     void testUpdateWarehouse_WhenWarehouseExists_ShouldUpdateWarehouse() {
         // Given
         when(warehouseRepository.findById(testUuid1)).thenReturn(Optional.of(testWarehouse1));
-        when(warehouseRepository.save(any(Warehouse.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(warehouseRepository.saveAndFlush(any(Warehouse.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         WarehouseDTO updateDTO = new WarehouseDTO();
         updateDTO.setCode("WH001");
@@ -232,14 +287,15 @@ class WarehouseServiceTest {
         updateDTO.setActive(true);
 
         // When
-        WarehouseDTO result = warehouseService.updateWarehouse(testUuid1, updateDTO);
+        WarehouseDTO result = warehouseService.updateWarehouse(testUuid1, updateDTO, null);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Updated Warehouse Name");
         assertThat(result.getCity()).isEqualTo("Updated City");
         verify(warehouseRepository).findById(testUuid1);
-        verify(warehouseRepository).save(any(Warehouse.class));
+        verify(warehouseRepository).saveAndFlush(any(Warehouse.class));
+        verify(referenceCache).evictWarehouse(testUuid1);
     }
 
     @Test
@@ -248,11 +304,25 @@ class WarehouseServiceTest {
         when(warehouseRepository.findById(testUuid1)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThatThrownBy(() -> warehouseService.updateWarehouse(testUuid1, testWarehouseDTO1))
+        assertThatThrownBy(() -> warehouseService.updateWarehouse(testUuid1, testWarehouseDTO1, null))
                 .isInstanceOf(ApplicationException.class)
                 .hasMessage("Warehouse not found with id: " + testUuid1);
         verify(warehouseRepository).findById(testUuid1);
-        verify(warehouseRepository, never()).save(any(Warehouse.class));
+        verify(warehouseRepository, never()).saveAndFlush(any(Warehouse.class));
+    }
+
+    @Test
+    void testUpdateWarehouse_WhenVersionHasChanged_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(testWarehouse1, "version", 2L);
+        when(warehouseRepository.findById(testUuid1)).thenReturn(Optional.of(testWarehouse1));
+
+        // When & Then
+        assertThatThrownBy(() -> warehouseService.updateWarehouse(testUuid1, testWarehouseDTO1, 1L))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("VERSION_MISMATCH"));
+        verify(warehouseRepository, never()).saveAndFlush(any(Warehouse.class));
+        verifyNoInteractions(referenceCache);
     }
 
     @Test
@@ -266,6 +336,8 @@ class WarehouseServiceTest {
         // Then
         verify(warehouseRepository).existsById(testUuid1);
         verify(warehouseRepository).deleteById(testUuid1);
+        verify(referenceCache).evictWarehouse(testUuid1);
+        verify(snapshotStore).invalidate();
     }
 
     @Test
@@ -371,6 +443,43 @@ class WarehouseServiceTest {
         verify(warehouseRepository).findByNameContainingIgnoreCaseOrderByName("Distribution");
     }
 
+    @Test
+    void testSearchWarehouses_ShouldReturnRankedResults() {
+        // Given
+        when(warehouseRepository.searchRanked("Boston", 5)).thenReturn(Arrays.asList(testWarehouse1));
+
+        // When
+        List<WarehouseDTO> result = warehouseService.searchWarehouses("Boston", 5);
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getCode()).isEqualTo(testWarehouse1.getCode());
+        verify(warehouseRepository).searchRanked("Boston", 5);
+    }
+
+    @Test
+    void testSearchWarehouses_WithNonPositiveLimit_ShouldReturnAtLeastOneResult() {
+        // Given
+        when(warehouseRepository.searchRanked("Boston", 1)).thenReturn(Arrays.asList(testWarehouse1));
+
+        // When
+        List<WarehouseDTO> result = warehouseService.searchWarehouses("Boston", 0);
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(warehouseRepository).searchRanked("Boston", 1);
+    }
+
+    @Test
+    void testSearchWarehouses_WithBlankQuery_ShouldReturnEmptyListWithoutQuerying() {
+        // When
+        List<WarehouseDTO> result = warehouseService.searchWarehouses("", null);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(warehouseRepository);
+    }
+
     @Test
     void testGetAllWarehouses_WhenNoWarehouses_ShouldReturnEmptyList() {
         // Given
@@ -422,7 +531,7 @@ class WarehouseServiceTest {
         // Given
         LocalDateTime originalUpdatedAt = testWarehouse1.getUpdatedAt();
         when(warehouseRepository.findById(testUuid1)).thenReturn(Optional.of(testWarehouse1));
-        when(warehouseRepository.save(any(Warehouse.class))).thenAnswer(invocation -> {
+        when(warehouseRepository.saveAndFlush(any(Warehouse.class))).thenAnswer(invocation -> {
             Warehouse warehouse = invocation.getArgument(0);
             // Verify updated timestamp is changed
             assertThat(warehouse.getUpdatedAt()).isAfter(originalUpdatedAt);
@@ -430,9 +539,17 @@ class WarehouseServiceTest {
         });
 
         // When
-        warehouseService.updateWarehouse(testUuid1, testWarehouseDTO1);
+        warehouseService.updateWarehouse(testUuid1, testWarehouseDTO1, null);
 
         // Then
-        verify(warehouseRepository).save(any(Warehouse.class));
+        verify(warehouseRepository).saveAndFlush(any(Warehouse.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runChunksInline() {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, Consumer.class).accept(invocation.getArgument(0));
+            return null;
+        }).when(batchWriter).forEachChunk(anyList(), any());
     }
 }
@@ -0,0 +1,73 @@
+package com.nexora.util;
+
+import com.nexora.config.QueryInspectionConfig;
+import com.nexora.model.inventory.Product;
+import com.nexora.repository.inventory.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that bulk writes go out as JDBC batches, using the statement counting data source proxy,
+ * which counts one statement per batch round trip.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({QueryInspectionConfig.class, JpaBatchWriter.class})
+class JpaBatchWriterTest {
+
+    @Autowired
+    private JpaBatchWriter batchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void persistAll_SendsOneBatchPerChunk() {
+        // Given
+        int count = batchWriter.getBatchSize() * 2 + 20;
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("BATCH-" + i, "Batch Product " + i, new BigDecimal("1.00")));
+        }
+
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            // When
+            batchWriter.persistAll(products);
+
+            // Then
+            assertThat(statistics.getStatementCount()).isEqualTo(3);
+        }
+        assertThat(products).allSatisfy(product -> assertThat(product.getUuid()).isNotNull());
+        assertThat(entityManager.contains(products.get(0))).isFalse();
+        assertThat(productRepository.count()).isEqualTo(count);
+    }
+
+    @Test
+    void forEachChunk_SplitsIntoBoundedChunks() {
+        // Given
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            items.add(i);
+        }
+        List<Integer> sizes = new ArrayList<>();
+
+        // When
+        batchWriter.forEachChunk(items, chunk -> sizes.add(chunk.size()));
+
+        // Then
+        assertThat(sizes).containsExactly(1000, 1000, 500);
+    }
+}
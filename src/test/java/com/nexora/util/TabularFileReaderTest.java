@@ -0,0 +1,107 @@
+package com.nexora.util;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TabularFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readCsv_HandlesQuotesLineBreaksAndBlankLines() throws Exception {
+        // Given
+        String csv = "\uFEFFcode,name,description\r\n" +
+                "P-1,\"Widget, large\",\"Says \"\"hi\"\"\"\r\n" +
+                "\r\n" +
+                "P-2,Gadget,\"two\nlines\"\n" +
+                "P-3,,";
+        List<String> rows = new ArrayList<>();
+
+        // When
+        TabularFileReader.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                (rowNumber, cells) -> rows.add(rowNumber + ":" + cells));
+
+        // Then
+        assertThat(rows).containsExactly(
+                "1:[code, name, description]",
+                "2:[P-1, Widget, large, Says \"hi\"]",
+                "4:[P-2, Gadget, two\nlines]",
+                "5:[P-3, , ]");
+    }
+
+    @Test
+    void readCsv_WithUnterminatedQuote_Throws() {
+        // Given
+        String csv = "code,name\nP-1,\"Widget\n";
+
+        // When / Then
+        assertThatThrownBy(() -> TabularFileReader.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                (rowNumber, cells) -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unterminated");
+    }
+
+    @Test
+    void readXlsx_StreamsFirstSheetAndFillsSkippedCells() throws Exception {
+        // Given
+        Path file = tempDir.resolve("products.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("data_product");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("code");
+            header.createCell(1).setCellValue("name");
+            header.createCell(2).setCellValue("price");
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("P-1");
+            first.createCell(2).setCellValue(12.5);
+            Row second = sheet.createRow(3);
+            second.createCell(0).setCellValue("P-2");
+            second.createCell(1).setCellValue("Gadget");
+            second.createCell(2).setCellValue(3);
+            workbook.write(out);
+        }
+        List<String> rows = new ArrayList<>();
+
+        // When
+        TabularFileReader.readXlsx(file.toFile(), (rowNumber, cells) -> rows.add(rowNumber + ":" + cells));
+
+        // Then
+        assertThat(rows).containsExactly(
+                "1:[code, name, price]",
+                "2:[P-1, , 12.5]",
+                "4:[P-2, Gadget, 3]");
+    }
+
+    @Test
+    void readXlsx_PropagatesHandlerException() throws Exception {
+        // Given
+        Path file = tempDir.resolve("export.xlsx");
+        Files.write(file, ExcelExportUtil.exportToExcel(List.of(new Sample("P-1")), "data"));
+
+        // When / Then
+        assertThatThrownBy(() -> TabularFileReader.readXlsx(file.toFile(), (rowNumber, cells) -> {
+            throw new IllegalStateException("stop at " + rowNumber);
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("stop at 1");
+    }
+
+    private record Sample(String code) {
+    }
+}
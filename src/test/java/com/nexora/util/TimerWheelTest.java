@@ -0,0 +1,76 @@
+package com.nexora.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private Instant start;
+    private TimerWheel<String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        start = Instant.parse("2024-01-01T00:00:00Z");
+        wheel = new TimerWheel<>(Duration.ofSeconds(1), 8, start);
+    }
+
+    @Test
+    void testAdvance_ShouldReturnOnlyKeysWhoseDeadlineHasPassed() {
+        // Given
+        wheel.schedule("a", start.plusMillis(1500));
+        wheel.schedule("b", start.plusSeconds(3));
+
+        // When & Then
+        assertThat(wheel.advance(start.plusMillis(1999))).isEmpty();
+        assertThat(wheel.advance(start.plusSeconds(2))).containsExactly("a");
+        assertThat(wheel.advance(start.plusSeconds(3))).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void testAdvance_WhenKeyWasCancelled_ShouldNotReturnIt() {
+        // Given
+        wheel.schedule("a", start.plusSeconds(1));
+        wheel.schedule("b", start.plusSeconds(1));
+
+        // When
+        boolean cancelled = wheel.cancel("a");
+
+        // Then
+        assertThat(cancelled).isTrue();
+        assertThat(wheel.cancel("a")).isFalse();
+        assertThat(wheel.advance(start.plusSeconds(1))).containsExactly("b");
+    }
+
+    @Test
+    void testAdvance_WhenDeadlineIsMoreThanOneRotationAhead_ShouldKeepItUntilItsRotation() {
+        // Given
+        wheel.schedule("later", start.plusSeconds(10));
+
+        // When & Then
+        assertThat(wheel.advance(start.plusSeconds(2))).isEmpty();
+        assertThat(wheel.advance(start.plusSeconds(9))).isEmpty();
+        assertThat(wheel.advance(start.plusSeconds(10))).containsExactly("later");
+    }
+
+    @Test
+    void testAdvance_AfterPauseLongerThanOneRotation_ShouldReturnEveryDueKey() {
+        // Given
+        wheel.schedule("past", start.minusSeconds(5));
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule("key-" + i, start.plusSeconds(i));
+        }
+
+        // When
+        var expired = wheel.advance(start.plusSeconds(15));
+
+        // Then
+        assertThat(expired).hasSize(16).contains("past", "key-1", "key-15").doesNotContain("key-16");
+        assertThat(wheel.size()).isEqualTo(5);
+    }
+}
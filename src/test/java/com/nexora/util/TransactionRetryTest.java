@@ -0,0 +1,103 @@
+package com.nexora.util;
+
+import com.nexora.exception.ApplicationException;
+import com.nexora.model.inventory.Product;
+import com.nexora.repository.inventory.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against the database without a test transaction, so each attempt commits or fails on its own
+ * and the concurrent change is made in a separate transaction.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionRetryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionRetry transactionRetry;
+    private TransactionTemplate concurrentTransaction;
+    private UUID productUuid;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionRetry = new TransactionRetry(transactionManager, meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+        concurrentTransaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        productUuid = productRepository.save(new Product("P-1", "Product", new BigDecimal("1.00"))).getUuid();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testExecute_WhenFirstAttemptConflicts_ShouldRetryAgainstNewVersion() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        Long version = transactionRetry.execute(() -> {
+            Product product = productRepository.findById(productUuid).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                renameConcurrently("Renamed elsewhere");
+            }
+            product.setName("Renamed here");
+            return productRepository.saveAndFlush(product).getVersion();
+        });
+
+        // Then
+        assertThat(attempts).hasValue(2);
+        assertThat(version).isEqualTo(2);
+        assertThat(productRepository.findById(productUuid).orElseThrow().getName()).isEqualTo("Renamed here");
+        assertThat(meterRegistry.get("inventory.transaction.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_WhenEveryAttemptConflicts_ShouldReportConcurrentModification() {
+        // When & Then
+        assertThatThrownBy(() -> transactionRetry.execute(() -> {
+            Product product = productRepository.findById(productUuid).orElseThrow();
+            renameConcurrently("Renamed elsewhere " + product.getVersion());
+            product.setName("Renamed here");
+            return productRepository.saveAndFlush(product);
+        }))
+                .isInstanceOf(ApplicationException.class)
+                .satisfies(e -> assertThat(((ApplicationException) e).getCode()).isEqualTo("CONCURRENT_MODIFICATION"));
+        assertThat(productRepository.findById(productUuid).orElseThrow().getVersion()).isEqualTo(3);
+    }
+
+    private void renameConcurrently(String name) {
+        concurrentTransaction.executeWithoutResult(status -> {
+            Product product = productRepository.findById(productUuid).orElseThrow();
+            product.setName(name);
+        });
+    }
+}